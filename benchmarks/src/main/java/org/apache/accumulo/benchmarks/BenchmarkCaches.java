@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.benchmarks;
+
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheConfiguration;
+import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheManagerFactory;
+import org.apache.accumulo.core.file.blockfile.cache.lru.LruBlockCacheManager;
+import org.apache.accumulo.core.file.blockfile.cache.offheap.OffHeapBlockCacheManager;
+import org.apache.accumulo.core.file.blockfile.cache.tinylfu.TinyLfuBlockCacheManager;
+import org.apache.accumulo.core.spi.cache.BlockCacheManager;
+
+/**
+ * Creates the block cache implementations that benchmarks can be parameterized over.
+ */
+public class BenchmarkCaches {
+
+  /** Benchmark parameter value meaning no block cache is used. */
+  public static final String NONE = "none";
+
+  private BenchmarkCaches() {}
+
+  private static String managerClass(String name) {
+    switch (name) {
+      case "lru":
+        return LruBlockCacheManager.class.getName();
+      case "tinylfu":
+        return TinyLfuBlockCacheManager.class.getName();
+      case "offheap":
+        return OffHeapBlockCacheManager.class.getName();
+      default:
+        throw new IllegalArgumentException("Unknown cache implementation " + name);
+    }
+  }
+
+  /**
+   * Starts a cache manager of the named implementation where every cache type is sized to
+   * {@code cacheSize} bytes.
+   *
+   * @param name
+   *          one of {@code lru}, {@code tinylfu} or {@code offheap}
+   * @return a started manager, or null when name is {@link #NONE}
+   */
+  public static BlockCacheManager start(String name, long cacheSize, long blockSize)
+      throws Exception {
+    if (NONE.equals(name)) {
+      return null;
+    }
+    ConfigurationCopy cc = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    cc.set(Property.TSERV_CACHE_MANAGER_IMPL, managerClass(name));
+    cc.set(Property.TSERV_DEFAULT_BLOCKSIZE, Long.toString(blockSize));
+    cc.set(Property.TSERV_DATACACHE_SIZE, Long.toString(cacheSize));
+    cc.set(Property.TSERV_INDEXCACHE_SIZE, Long.toString(cacheSize));
+    cc.set(Property.TSERV_SUMMARYCACHE_SIZE, Long.toString(cacheSize));
+    BlockCacheManager manager = BlockCacheManagerFactory.getClientInstance(cc);
+    manager.start(new BlockCacheConfiguration(cc));
+    return manager;
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+
+/**
+ * Generates deterministic, sorted test data shared by the benchmarks. Rows, families, qualifiers
+ * and visibilities are drawn from small vocabularies so the data compresses and prefix encodes the
+ * way typical Accumulo tables do.
+ */
+public class BenchmarkData {
+
+  public static final String[] VISIBILITIES = {"", "A", "A&B", "(A|B)&C", "A&(B|(C&D))", "PUBLIC"};
+
+  private static final long SEED = 42;
+
+  private BenchmarkData() {}
+
+  public static String row(int row) {
+    return String.format("row_%010d", row);
+  }
+
+  public static String family(int col) {
+    return String.format("cf%02d", col % 4);
+  }
+
+  public static String qualifier(int col) {
+    return String.format("cq%04d", col);
+  }
+
+  /**
+   * @return the key at the given row and column, the same key {@link #keys(int, int)} generates
+   */
+  public static Key key(int row, int col) {
+    return new Key(row(row), family(col), qualifier(col), VISIBILITIES[(row + col) % 6], 1_000L);
+  }
+
+  /**
+   * Generates {@code rows * colsPerRow} keys in sorted order.
+   */
+  public static List<Key> keys(int rows, int colsPerRow) {
+    List<Key> keys = new ArrayList<>(rows * colsPerRow);
+    for (int r = 0; r < rows; r++) {
+      // families repeat every 4 columns, so emit columns grouped by family to keep keys sorted
+      for (int f = 0; f < Math.min(4, colsPerRow); f++) {
+        for (int c = f; c < colsPerRow; c += 4) {
+          keys.add(key(r, c));
+        }
+      }
+    }
+    return keys;
+  }
+
+  public static Value value(Random random, int size) {
+    byte[] val = new byte[size];
+    for (int i = 0; i < size; i++) {
+      // restrict to printable ascii so values compress roughly like text
+      val[i] = (byte) (' ' + random.nextInt(95));
+    }
+    return new Value(val);
+  }
+
+  public static Random random() {
+    return new Random(SEED);
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.apache.accumulo.core.client.rfile.RFileWriter;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.crypto.CryptoServiceFactory;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.file.blockfile.impl.BasicCacheProvider;
+import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile.CachableBuilder;
+import org.apache.accumulo.core.file.rfile.RFile;
+import org.apache.accumulo.core.spi.cache.BlockCacheManager;
+import org.apache.accumulo.core.spi.cache.CacheType;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+/**
+ * An RFile generated from {@link BenchmarkData} into a local temporary directory. Benchmarks open
+ * internal {@link RFile.Reader}s against it so they exercise the same code the tablet server uses.
+ */
+public class GeneratedRFile implements AutoCloseable {
+
+  private final java.nio.file.Path tmpDir;
+  private final FileSystem fs;
+  private final Path path;
+  private final Configuration hadoopConf;
+  private final List<Key> keys;
+
+  private GeneratedRFile(java.nio.file.Path tmpDir, FileSystem fs, Path path,
+      Configuration hadoopConf, List<Key> keys) {
+    this.tmpDir = tmpDir;
+    this.fs = fs;
+    this.path = path;
+    this.hadoopConf = hadoopConf;
+    this.keys = keys;
+  }
+
+  /**
+   * Writes an RFile containing {@code rows * colsPerRow} entries.
+   *
+   * @param compression
+   *          value for {@link Property#TABLE_FILE_COMPRESSION_TYPE}
+   * @param blockSize
+   *          value for {@link Property#TABLE_FILE_COMPRESSED_BLOCK_SIZE}
+   */
+  public static GeneratedRFile generate(int rows, int colsPerRow, int valueSize, String compression,
+      String blockSize) throws IOException {
+    return generate(rows, colsPerRow, valueSize,
+        Map.of(Property.TABLE_FILE_COMPRESSION_TYPE.getKey(), compression,
+            Property.TABLE_FILE_COMPRESSED_BLOCK_SIZE.getKey(), blockSize));
+  }
+
+  /**
+   * Writes an RFile containing {@code rows * colsPerRow} entries.
+   *
+   * @param tableProperties
+   *          table properties used to configure the RFile writer
+   */
+  public static GeneratedRFile generate(int rows, int colsPerRow, int valueSize,
+      Map<String,String> tableProperties) throws IOException {
+    java.nio.file.Path tmpDir = Files.createTempDirectory("accumulo-benchmark");
+    Configuration hadoopConf = new Configuration();
+    FileSystem fs = FileSystem.getLocal(hadoopConf);
+    Path path = new Path(tmpDir.toUri().toString(), "bench.rf");
+
+    List<Key> keys = BenchmarkData.keys(rows, colsPerRow);
+    Random random = BenchmarkData.random();
+    try (RFileWriter writer = org.apache.accumulo.core.client.rfile.RFile.newWriter()
+        .to(path.toString()).withFileSystem(fs).withTableProperties(tableProperties).build()) {
+      for (Key key : keys) {
+        writer.append(key, BenchmarkData.value(random, valueSize));
+      }
+    }
+
+    return new GeneratedRFile(tmpDir, fs, path, hadoopConf, keys);
+  }
+
+  /**
+   * @return the keys written to the file, in sorted order
+   */
+  public List<Key> getKeys() {
+    return keys;
+  }
+
+  /**
+   * Opens a reader over the file that uses the caches from the given manager.
+   *
+   * @param cacheManager
+   *          manager supplying index and data caches, may be null to read without caching
+   */
+  public RFile.Reader openReader(BlockCacheManager cacheManager) throws IOException {
+    CachableBuilder cb = new CachableBuilder().fsPath(fs, path).conf(hadoopConf)
+        .cryptoService(CryptoServiceFactory.newDefaultInstance());
+    if (cacheManager != null) {
+      cb.cacheProvider(new BasicCacheProvider(cacheManager.getBlockCache(CacheType.INDEX),
+          cacheManager.getBlockCache(CacheType.DATA)));
+    }
+    return new RFile.Reader(cb);
+  }
+
+  @Override
+  public void close() throws IOException {
+    try (Stream<java.nio.file.Path> files = Files.walk(tmpDir)) {
+      files.sorted(Comparator.reverseOrder()).forEach(p -> {
+        try {
+          Files.delete(p);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.benchmarks.cache;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.benchmarks.BenchmarkCaches;
+import org.apache.accumulo.core.spi.cache.BlockCache;
+import org.apache.accumulo.core.spi.cache.BlockCache.Loader;
+import org.apache.accumulo.core.spi.cache.BlockCacheManager;
+import org.apache.accumulo.core.spi.cache.CacheEntry;
+import org.apache.accumulo.core.spi.cache.CacheType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link BlockCache} lookups. The cache is shared by all benchmark threads, so running
+ * with {@code -t} measures contention as well. The hit benchmark only requests blocks known to be
+ * cached, the load benchmark requests blocks from a working set four times larger than the cache so
+ * most requests miss, load and evict.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BlockCacheBenchmark {
+
+  private static final int BLOCK_SIZE = 64 * 1024;
+  private static final int CACHED_BLOCKS = 1024;
+
+  @Param({"lru", "tinylfu", "offheap"})
+  public String cache;
+
+  private BlockCacheManager manager;
+  private BlockCache blockCache;
+  private String[] names;
+  private int hotBlocks;
+
+  private static class BlockLoader implements Loader {
+    private final byte[] data = new byte[BLOCK_SIZE];
+
+    @Override
+    public Map<String,Loader> getDependencies() {
+      return Map.of();
+    }
+
+    @Override
+    public byte[] load(int maxSize, Map<String,byte[]> dependencies) {
+      return data.clone();
+    }
+  }
+
+  private final BlockLoader loader = new BlockLoader();
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    // leave some slack over the blocks themselves for per entry overhead
+    long cacheSize = (long) (CACHED_BLOCKS * BLOCK_SIZE * 1.5);
+    manager = BenchmarkCaches.start(cache, cacheSize, BLOCK_SIZE);
+    blockCache = manager.getBlockCache(CacheType.DATA);
+
+    names = new String[CACHED_BLOCKS * 4];
+    for (int i = 0; i < names.length; i++) {
+      names[i] = "hdfs://nn/accumulo/tables/1/t-0001/F0000abc.rf" + "R" + (i * (long) BLOCK_SIZE);
+    }
+
+    // only the first half of the cache capacity is treated as hot so that hits stay hits
+    hotBlocks = CACHED_BLOCKS / 2;
+    for (int i = 0; i < hotBlocks; i++) {
+      blockCache.cacheBlock(names[i], new byte[BLOCK_SIZE]);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void teardown() {
+    manager.stop();
+  }
+
+  @Benchmark
+  public CacheEntry hit() {
+    return blockCache.getBlock(names[ThreadLocalRandom.current().nextInt(hotBlocks)]);
+  }
+
+  @Benchmark
+  public CacheEntry load() {
+    return blockCache.getBlock(names[ThreadLocalRandom.current().nextInt(names.length)], loader);
+  }
+}
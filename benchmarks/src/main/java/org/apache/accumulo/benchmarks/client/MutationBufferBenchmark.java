@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.benchmarks.client;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.clientImpl.StripedMutationBuffer;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.TableId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the front end of the batch writer that application threads add mutations to. All
+ * benchmark threads share one buffer, like producer threads sharing one batch writer. Each add
+ * copies the mutation as the batch writer does, and a thread that finds the buffer over the flush
+ * threshold drains it, standing in for queueing mutations for binning. With one stripe every add
+ * contends on one lock, as when adding was synchronized on the writer. Run with {@code -t} set to
+ * 1, 8 and 64 to compare how the stripe counts scale with the number of producers.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(8)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MutationBufferBenchmark {
+
+  private static final long FLUSH_THRESHOLD = 25L * 1024 * 1024;
+
+  @Param({"1", "64"})
+  public int stripes;
+
+  private final TableId tableId = TableId.of("1");
+  private StripedMutationBuffer buffer;
+  private Mutation[] mutations;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    buffer = new StripedMutationBuffer(stripes);
+    mutations = new Mutation[1024];
+    for (int i = 0; i < mutations.length; i++) {
+      mutations[i] = new Mutation(String.format("row%08d", i * 7919));
+      mutations[i].put("family", "qualifier", "value" + i);
+    }
+  }
+
+  @Benchmark
+  public void add(Blackhole blackhole) {
+    Mutation m = new Mutation(mutations[ThreadLocalRandom.current().nextInt(mutations.length)]);
+    if (buffer.add(tableId, m) >= FLUSH_THRESHOLD) {
+      buffer.drain((table, drained) -> consume(blackhole, drained));
+    }
+  }
+
+  private static void consume(Blackhole blackhole, List<Mutation> drained) {
+    blackhole.consume(drained.size());
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.benchmarks.iterators;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.benchmarks.BenchmarkData;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.SortedMapIterator;
+import org.apache.accumulo.core.iteratorsImpl.system.MultiIterator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures merging many sorted sources with {@link MultiIterator}, the iterator that merges a
+ * tablet's files and in memory map. Results are reported per merged key.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HeapIteratorBenchmark {
+
+  private static final int ROWS = 20_000;
+  private static final int COLS_PER_ROW = 5;
+  private static final int TOTAL = ROWS * COLS_PER_ROW;
+
+  @Param({"2", "10", "50"})
+  public int sources;
+
+  /**
+   * How keys are spread across sources. {@code interleaved} assigns consecutive keys to different
+   * sources so the top source changes on every next, {@code runs} assigns runs of consecutive keys
+   * to the same source like files produced by sequential ingest and bulk import.
+   */
+  @Param({"interleaved", "runs"})
+  public String distribution;
+
+  private MultiIterator iterator;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    List<TreeMap<Key,Value>> maps = new ArrayList<>();
+    for (int i = 0; i < sources; i++) {
+      maps.add(new TreeMap<>());
+    }
+
+    Value value = new Value("v");
+    List<Key> keys = BenchmarkData.keys(ROWS, COLS_PER_ROW);
+    for (int i = 0; i < keys.size(); i++) {
+      int source = distribution.equals("runs") ? (i / 1000) % sources : i % sources;
+      maps.get(source).put(keys.get(i), value);
+    }
+
+    List<SortedKeyValueIterator<Key,Value>> iters = new ArrayList<>();
+    for (TreeMap<Key,Value> map : maps) {
+      iters.add(new SortedMapIterator(map));
+    }
+    iterator = new MultiIterator(iters, false);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(TOTAL)
+  public void merge(Blackhole bh) throws IOException {
+    iterator.seek(new Range(), List.of(), false);
+    while (iterator.hasTop()) {
+      bh.consume(iterator.getTopKey());
+      iterator.next();
+    }
+  }
+}
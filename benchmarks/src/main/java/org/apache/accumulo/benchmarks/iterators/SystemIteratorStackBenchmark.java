@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.benchmarks.iterators;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.accumulo.benchmarks.BenchmarkData;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.SortedMapIterator;
+import org.apache.accumulo.core.iteratorsImpl.system.BatchIterator;
+import org.apache.accumulo.core.iteratorsImpl.system.KeyValueBatch;
+import org.apache.accumulo.core.iteratorsImpl.system.SourceSwitchingIterator;
+import org.apache.accumulo.core.iteratorsImpl.system.SourceSwitchingIterator.DataSource;
+import org.apache.accumulo.core.iteratorsImpl.system.SystemIteratorUtil;
+import org.apache.accumulo.core.security.Authorizations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the per key cost of the system iterators a tablet server scan reads through, a
+ * {@link SourceSwitchingIterator} over the deleting, column and visibility filters, with and
+ * without the synchronization needed when the stack is shared between threads, and read an entry at
+ * a time or in batches. Results are reported per key.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SystemIteratorStackBenchmark {
+
+  private static final int ROWS = 20_000;
+  private static final int COLS_PER_ROW = 5;
+  private static final int TOTAL = ROWS * COLS_PER_ROW;
+
+  @Param({"true", "false"})
+  public boolean synchronize;
+
+  private SourceSwitchingIterator iterator;
+  private final KeyValueBatch batch = new KeyValueBatch(64);
+
+  private static class StackDataSource implements DataSource {
+    private final SortedKeyValueIterator<Key,Value> iter;
+
+    StackDataSource(SortedKeyValueIterator<Key,Value> iter) {
+      this.iter = iter;
+    }
+
+    @Override
+    public boolean isCurrent() {
+      return true;
+    }
+
+    @Override
+    public DataSource getNewDataSource() {
+      return this;
+    }
+
+    @Override
+    public DataSource getDeepCopyDataSource(IteratorEnvironment env) {
+      return new StackDataSource(iter.deepCopy(env));
+    }
+
+    @Override
+    public SortedKeyValueIterator<Key,Value> iterator() {
+      return iter;
+    }
+
+    @Override
+    public void setInterruptFlag(AtomicBoolean flag) {}
+  }
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    TreeMap<Key,Value> data = new TreeMap<>();
+    Value value = new Value("v");
+    for (Key key : BenchmarkData.keys(ROWS, COLS_PER_ROW)) {
+      data.put(key, value);
+    }
+
+    SortedKeyValueIterator<Key,
+        Value> stack = SystemIteratorUtil.setupSystemScanIterators(new SortedMapIterator(data),
+            Set.of(), new Authorizations("A", "B", "C", "PUBLIC"), new byte[0],
+            DefaultConfiguration.getInstance(), synchronize);
+    iterator = new SourceSwitchingIterator(new StackDataSource(stack), false, synchronize);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(TOTAL)
+  public void scan(Blackhole bh) throws IOException {
+    iterator.seek(new Range(), List.of(), false);
+    while (iterator.hasTop()) {
+      bh.consume(iterator.getTopKey());
+      iterator.next();
+    }
+  }
+
+  /**
+   * Reads an entry at a time and copies each entry, as tablet server scans did before reading
+   * batches.
+   */
+  @Benchmark
+  @OperationsPerInvocation(TOTAL)
+  public void scanCopies(Blackhole bh) throws IOException {
+    iterator.seek(new Range(), List.of(), false);
+    while (iterator.hasTop()) {
+      bh.consume(new Key(iterator.getTopKey()));
+      bh.consume(new Value(iterator.getTopValue()));
+      iterator.next();
+    }
+  }
+
+  /**
+   * Reads batches of copied entries through the {@link BatchIterator} implementations.
+   */
+  @Benchmark
+  @OperationsPerInvocation(TOTAL)
+  public void scanBatch(Blackhole bh) throws IOException {
+    iterator.seek(new Range(), List.of(), false);
+    while (iterator.hasTop()) {
+      batch.clear();
+      batch.fill(iterator);
+      for (int i = 0; i < batch.size(); i++) {
+        bh.consume(batch.getKey(i));
+        bh.consume(batch.getValue(i));
+      }
+    }
+  }
+}
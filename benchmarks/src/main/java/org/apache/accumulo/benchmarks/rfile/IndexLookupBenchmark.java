@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.benchmarks.rfile;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.benchmarks.BenchmarkCaches;
+import org.apache.accumulo.benchmarks.BenchmarkData;
+import org.apache.accumulo.benchmarks.GeneratedRFile;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.file.rfile.RFile;
+import org.apache.accumulo.core.spi.cache.BlockCacheManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures lookups through the RFile {@code MultiLevelIndex}. The file is written with very small
+ * data blocks so that a seek is dominated by walking the index, and small index blocks produce a
+ * deep index while large index blocks produce a shallow, wide one. All blocks are served from an
+ * LRU cache so no file I/O is measured.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IndexLookupBenchmark {
+
+  @Param({"100000"})
+  public int rows;
+
+  @Param({"1K", "128K"})
+  public String indexBlockSize;
+
+  private GeneratedRFile file;
+  private BlockCacheManager cacheManager;
+  private RFile.Reader reader;
+  private List<Key> keys;
+  private Random random;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    file = GeneratedRFile.generate(rows, 1, 8,
+        Map.of(Property.TABLE_FILE_COMPRESSION_TYPE.getKey(), "none",
+            Property.TABLE_FILE_COMPRESSED_BLOCK_SIZE.getKey(), "256B",
+            Property.TABLE_FILE_COMPRESSED_BLOCK_SIZE_INDEX.getKey(), indexBlockSize));
+    cacheManager = BenchmarkCaches.start("lru", 512 * 1024 * 1024, 1024);
+    reader = file.openReader(cacheManager);
+    keys = file.getKeys();
+    random = BenchmarkData.random();
+  }
+
+  @TearDown(Level.Trial)
+  public void teardown() throws IOException {
+    reader.close();
+    cacheManager.stop();
+    file.close();
+  }
+
+  @Benchmark
+  public Key lookup() throws IOException {
+    Key key = keys.get(random.nextInt(keys.size()));
+    reader.seek(new Range(key, true, key, true), List.of(), false);
+    return reader.getTopKey();
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.benchmarks.rfile;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.benchmarks.BenchmarkCaches;
+import org.apache.accumulo.benchmarks.BenchmarkData;
+import org.apache.accumulo.benchmarks.GeneratedRFile;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.file.rfile.RFile;
+import org.apache.accumulo.core.spi.cache.BlockCacheManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures {@link RFile.Reader} seek and next throughput against a generated file, optionally
+ * backed by each of the block cache implementations.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RFileScanBenchmark {
+
+  private static final Collection<ByteSequence> EMPTY_CFS = List.of();
+
+  @Param({"20000"})
+  public int rows;
+
+  @Param({"10"})
+  public int colsPerRow;
+
+  @Param({"gz", "none"})
+  public String compression;
+
+  @Param({"none", "lru", "tinylfu", "offheap"})
+  public String cache;
+
+  private GeneratedRFile file;
+  private BlockCacheManager cacheManager;
+  private RFile.Reader reader;
+  private List<Key> keys;
+  private Random random;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    file = GeneratedRFile.generate(rows, colsPerRow, 64, compression, "32K");
+    cacheManager = BenchmarkCaches.start(cache, 256 * 1024 * 1024, 32 * 1024);
+    reader = file.openReader(cacheManager);
+    keys = file.getKeys();
+    random = BenchmarkData.random();
+  }
+
+  @TearDown(Level.Trial)
+  public void teardown() throws IOException {
+    reader.close();
+    if (cacheManager != null) {
+      cacheManager.stop();
+    }
+    file.close();
+  }
+
+  /**
+   * Reads every entry in the file.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  public void scanAll(Blackhole bh) throws IOException {
+    reader.seek(new Range(), EMPTY_CFS, false);
+    while (reader.hasTop()) {
+      bh.consume(reader.getTopKey());
+      bh.consume(reader.getTopValue());
+      reader.next();
+    }
+  }
+
+  /**
+   * Seeks to a random key that exists in the file and reads it, exercising the multi-level index
+   * and the within block seek.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public Key pointLookup() throws IOException {
+    Key key = keys.get(random.nextInt(keys.size()));
+    reader.seek(new Range(key, true, key, true), EMPTY_CFS, false);
+    return reader.getTopKey();
+  }
+
+  /**
+   * Seeks to a random row and reads all of its columns.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void rowScan(Blackhole bh) throws IOException {
+    Key key = keys.get(random.nextInt(keys.size()));
+    reader.seek(Range.exact(key.getRow()), EMPTY_CFS, false);
+    while (reader.hasTop()) {
+      bh.consume(reader.getTopKey());
+      bh.consume(reader.getTopValue());
+      reader.next();
+    }
+  }
+
+  /**
+   * Seeks forward to the next row from the current position, the pattern used by iterators that
+   * skip through a file.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public Key forwardSeek() throws IOException {
+    if (!reader.hasTop()) {
+      reader.seek(new Range(), EMPTY_CFS, false);
+    }
+    Key next = reader.getTopKey().followingKey(PartialKey.ROW);
+    reader.seek(new Range(next, true, null, false), EMPTY_CFS, false);
+    return reader.hasTop() ? reader.getTopKey() : null;
+  }
+}
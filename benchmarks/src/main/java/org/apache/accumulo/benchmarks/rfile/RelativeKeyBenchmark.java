@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.benchmarks.rfile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.benchmarks.BenchmarkData;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.rfile.RelativeKey;
+import org.apache.accumulo.core.file.rfile.RelativeKey.SkippR;
+import org.apache.accumulo.core.util.MutableByteSequence;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the relative key encoding used inside RFile data blocks. Each invocation encodes or
+ * decodes one block worth of key/value pairs laid out the way RFile writes them, results are
+ * reported per key.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RelativeKeyBenchmark {
+
+  private static final int KEYS_PER_BLOCK = 1000;
+
+  @Param({"1", "10", "100"})
+  public int colsPerRow;
+
+  private List<Key> keys;
+  private Value value;
+  private byte[] encoded;
+  private ByteArrayOutputStream scratch;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    keys = BenchmarkData.keys(KEYS_PER_BLOCK / colsPerRow, colsPerRow);
+    value = BenchmarkData.value(BenchmarkData.random(), 32);
+    scratch = new ByteArrayOutputStream(128 * KEYS_PER_BLOCK);
+    encoded = encode();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(KEYS_PER_BLOCK)
+  public byte[] encode() throws IOException {
+    scratch.reset();
+    DataOutputStream out = new DataOutputStream(scratch);
+    Key prev = null;
+    for (Key key : keys) {
+      new RelativeKey(prev, key).write(out);
+      value.write(out);
+      prev = key;
+    }
+    out.flush();
+    return scratch.toByteArray();
+  }
+
+  /**
+   * Decodes every key, materializing each one as a {@link Key} like a scan does.
+   */
+  @Benchmark
+  @OperationsPerInvocation(KEYS_PER_BLOCK)
+  public void decode(Blackhole bh) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded));
+    RelativeKey rk = new RelativeKey();
+    rk.setPrevKey(new Key());
+    Value val = new Value();
+    for (int i = 0; i < keys.size(); i++) {
+      rk.readFields(in);
+      val.readFields(in);
+      bh.consume(rk.getKey());
+      bh.consume(val);
+    }
+  }
+
+  /**
+   * Skips to the last key of the block, the path a seek within a block takes.
+   */
+  @Benchmark
+  @OperationsPerInvocation(KEYS_PER_BLOCK)
+  public SkippR fastSkip() throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded));
+    MutableByteSequence valbs = new MutableByteSequence(new byte[64], 0, 0);
+    return RelativeKey.fastSkip(in, keys.get(keys.size() - 1), valbs, new Key(), null, keys.size());
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.benchmarks.security;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.benchmarks.BenchmarkData;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.SortedMapIterator;
+import org.apache.accumulo.core.iteratorsImpl.system.VisibilityFilter;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.accumulo.core.security.VisibilityEvaluator;
+import org.apache.accumulo.core.security.VisibilityParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures column visibility evaluation, both parsing and evaluating expressions directly and
+ * through the {@link VisibilityFilter} system iterator.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class VisibilityBenchmark {
+
+  private static final int ENTRIES = 10_000;
+
+  /**
+   * The number of distinct visibility expressions in the data. A large number exceeded the per
+   * iterator cache {@link VisibilityFilter} used before expressions were compiled and shared.
+   */
+  @Param({"6", "5000"})
+  public int distinctVisibilities;
+
+  private byte[][] expressions;
+  private VisibilityEvaluator evaluator;
+  private SortedKeyValueIterator<Key,Value> filter;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    Authorizations auths = new Authorizations("A", "B", "C", "PUBLIC");
+    evaluator = new VisibilityEvaluator(auths);
+
+    expressions = new byte[distinctVisibilities][];
+    for (int i = 0; i < distinctVisibilities; i++) {
+      String vis = BenchmarkData.VISIBILITIES[i % BenchmarkData.VISIBILITIES.length];
+      if (i >= BenchmarkData.VISIBILITIES.length) {
+        // make the expression unique while keeping its structure
+        vis = vis.isEmpty() ? "L" + i : "(" + vis + ")|L" + i;
+      }
+      expressions[i] = vis.getBytes(UTF_8);
+    }
+
+    TreeMap<Key,Value> data = new TreeMap<>();
+    Value value = new Value("v");
+    for (int i = 0; i < ENTRIES; i++) {
+      data.put(new Key(BenchmarkData.row(i).getBytes(UTF_8), new byte[0], new byte[0],
+          expressions[i % distinctVisibilities], 1L), value);
+    }
+    filter = VisibilityFilter.wrap(new SortedMapIterator(data), auths, new byte[0]);
+  }
+
+  /**
+   * Parses and evaluates each expression, the work done on a visibility cache miss.
+   */
+  @Benchmark
+  @OperationsPerInvocation(ENTRIES)
+  public void parseAndEvaluate(Blackhole bh) throws VisibilityParseException {
+    for (int i = 0; i < ENTRIES; i++) {
+      bh.consume(evaluator.evaluate(new ColumnVisibility(expressions[i % distinctVisibilities])));
+    }
+  }
+
+  /**
+   * Scans data through the visibility filter.
+   */
+  @Benchmark
+  @OperationsPerInvocation(ENTRIES)
+  public void filter(Blackhole bh) throws IOException {
+    filter.seek(new Range(), List.of(), false);
+    while (filter.hasTop()) {
+      bh.consume(filter.getTopKey());
+      filter.next();
+    }
+  }
+}
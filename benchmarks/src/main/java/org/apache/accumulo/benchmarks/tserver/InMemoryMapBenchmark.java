@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.benchmarks.tserver;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.TableId;
+import org.apache.accumulo.tserver.InMemoryMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures writes to a tablet's in-memory map from many threads, like sessions writing to one hot
+ * tablet. All benchmark threads share one Java map, either on the heap or off-heap, which is
+ * recreated for each iteration so it stays about the same size across runs. With concurrent writes
+ * off every write waits for the one before it, the off-heap map always inserts one write at a time.
+ * Run with {@code -t} set to 1, 8 and 32 to compare how the modes scale with writers.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@Threads(8)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InMemoryMapBenchmark {
+
+  private static final int COLUMNS = 4;
+
+  @Param({"false", "true"})
+  public boolean concurrent;
+
+  @Param({"false", "true"})
+  public boolean localityGroups;
+
+  @Param({"false", "true"})
+  public boolean offHeap;
+
+  private final AtomicLong nextRow = new AtomicLong();
+  private InMemoryMap map;
+
+  @Setup(Level.Iteration)
+  public void setup() {
+    ConfigurationCopy config = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    config.set(Property.TSERV_NATIVEMAP_ENABLED, "false");
+    config.set(Property.TSERV_MEMORY_MAP_CONCURRENT_WRITES, Boolean.toString(concurrent));
+    config.set(Property.TSERV_OFFHEAP_MAP_ENABLED, Boolean.toString(offHeap));
+    if (localityGroups) {
+      config.set(Property.TABLE_LOCALITY_GROUP_PREFIX + "lg1", "family0,family1");
+      config.set(Property.TABLE_LOCALITY_GROUPS.getKey(), "lg1");
+    }
+    map = new InMemoryMap(config, null, TableId.of("1"));
+  }
+
+  @TearDown(Level.Iteration)
+  public void tearDown() {
+    map.delete(0);
+    map = null;
+  }
+
+  @Benchmark
+  public void mutate() {
+    // spread rows across the map so writers do not insert next to each other
+    Mutation m = new Mutation(String.format("row%016x", Long.reverse(nextRow.getAndIncrement())));
+    for (int c = 0; c < COLUMNS; c++) {
+      m.put("family" + c, "qualifier", "value");
+    }
+    map.mutate(Collections.singletonList(m), COLUMNS);
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.bloomfilter;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A Bloom filter split into blocks of 256 bits. A key hash selects one block and sets one bit in
+ * each of its eight 32 bit words, so adding or testing a key touches a single cache line. Blocking
+ * makes the false positive rate somewhat higher than that of a standard Bloom filter with the same
+ * number of bits, so the filter is sized with extra bits to make up for it.
+ */
+public class BlockedBloomFilter extends KeyHashFilter {
+
+  private static final int WORDS_PER_BLOCK = 8;
+  private static final int BITS_PER_BLOCK = WORDS_PER_BLOCK * Integer.SIZE;
+  // the extra bits needed to reach a desired error rate compared to a standard bloom filter
+  private static final double BLOCKING_OVERHEAD = 1.25;
+  // odd constants that each pick an independent bit within a word
+  private static final int[] SALT = {0x47b6137b, 0x44974d91, 0x8824ad5b, 0xa2b7289d, 0x705495c7,
+      0x2df1424b, 0x9efc4947, 0x5c6bfb31};
+
+  private final int numBlocks;
+  private final int[] words;
+
+  BlockedBloomFilter(long[] hashes, int numHashes, double errorRate) {
+    double bitsPerKey = -Math.log(errorRate) / (Math.log(2) * Math.log(2)) * BLOCKING_OVERHEAD;
+    numBlocks = (int) Math.max(1, Math.ceil(numHashes * bitsPerKey / BITS_PER_BLOCK));
+    words = new int[numBlocks * WORDS_PER_BLOCK];
+    for (int i = 0; i < numHashes; i++) {
+      add(hashes[i]);
+    }
+  }
+
+  BlockedBloomFilter(DataInput in) throws IOException {
+    numBlocks = in.readInt();
+    words = new int[numBlocks * WORDS_PER_BLOCK];
+    for (int i = 0; i < words.length; i++) {
+      words[i] = in.readInt();
+    }
+  }
+
+  private int blockStart(long hash) {
+    return reduce((int) (hash >>> 32), numBlocks) * WORDS_PER_BLOCK;
+  }
+
+  private static int bit(int key, int word) {
+    return 1 << ((key * SALT[word]) >>> 27);
+  }
+
+  private void add(long hash) {
+    int start = blockStart(hash);
+    int key = (int) hash;
+    for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+      words[start + i] |= bit(key, i);
+    }
+  }
+
+  @Override
+  public boolean membershipTest(long hash) {
+    int start = blockStart(hash);
+    int key = (int) hash;
+    for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+      int bit = bit(key, i);
+      if ((words[start + i] & bit) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public Type getType() {
+    return Type.BLOCKED;
+  }
+
+  @Override
+  protected void writeFilter(DataOutput out) throws IOException {
+    out.writeInt(numBlocks);
+    for (int word : words) {
+      out.writeInt(word);
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.bloomfilter;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * A filter that answers membership tests using a 64 bit hash of each key, built once from the
+ * hashes of all keys. Unlike {@link DynamicBloomFilter}, a lookup reads one or a few nearby memory
+ * locations instead of one per hash function.
+ */
+public abstract class KeyHashFilter {
+
+  public enum Type {
+    /**
+     * A Bloom filter that sets all bits for a key within one 32 byte block, see
+     * {@link BlockedBloomFilter}.
+     */
+    BLOCKED,
+    /**
+     * A static filter storing an 8 bit fingerprint for each key, see {@link XorFilter}.
+     */
+    XOR
+  }
+
+  /**
+   * @return the hash of a key that this filter is built from and tested with
+   */
+  public static long hash(byte[] key) {
+    return Hashing.murmur3_128().hashBytes(key).asLong();
+  }
+
+  /**
+   * Maps a 32 bit hash to the range [0, n) without a division.
+   */
+  static int reduce(int hash, int n) {
+    return (int) (((hash & 0xffffffffL) * n) >>> 32);
+  }
+
+  /**
+   * Builds a filter containing the given key hashes.
+   *
+   * @param hashes
+   *          the key hashes, which may contain duplicates. The array may be reordered.
+   * @param numHashes
+   *          the number of hashes in the array
+   * @param errorRate
+   *          the desired false positive rate, ignored by filters with a fixed rate
+   */
+  public static KeyHashFilter build(Type type, long[] hashes, int numHashes, double errorRate) {
+    Arrays.sort(hashes, 0, numHashes);
+    int unique = 0;
+    for (int i = 0; i < numHashes; i++) {
+      if (unique == 0 || hashes[unique - 1] != hashes[i]) {
+        hashes[unique++] = hashes[i];
+      }
+    }
+
+    switch (type) {
+      case BLOCKED:
+        return new BlockedBloomFilter(hashes, unique, errorRate);
+      case XOR:
+        return new XorFilter(hashes, unique);
+      default:
+        throw new IllegalArgumentException("Unknown filter type " + type);
+    }
+  }
+
+  /**
+   * Reads a filter written by {@link #write(DataOutput)}.
+   */
+  public static KeyHashFilter read(DataInput in) throws IOException {
+    String typeName = in.readUTF();
+    Type type;
+    try {
+      type = Type.valueOf(typeName);
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Unknown filter type " + typeName, e);
+    }
+
+    switch (type) {
+      case BLOCKED:
+        return new BlockedBloomFilter(in);
+      case XOR:
+        return new XorFilter(in);
+      default:
+        throw new IOException("Unknown filter type " + type);
+    }
+  }
+
+  public abstract Type getType();
+
+  /**
+   * @param hash
+   *          the hash of a key, as computed by {@link #hash(byte[])}
+   * @return false if the key is definitely not in the filter, true if it probably is
+   */
+  public abstract boolean membershipTest(long hash);
+
+  public boolean membershipTest(byte[] key) {
+    return membershipTest(hash(key));
+  }
+
+  protected abstract void writeFilter(DataOutput out) throws IOException;
+
+  public void write(DataOutput out) throws IOException {
+    out.writeUTF(getType().name());
+    writeFilter(out);
+  }
+}
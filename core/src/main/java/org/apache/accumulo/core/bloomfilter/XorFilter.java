@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.bloomfilter;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * An XOR filter, as described by Graf and Lemire in "Xor Filters: Faster and Smaller Than Bloom and
+ * Cuckoo Filters". Each key maps to three positions in an array of 8 bit fingerprints, one in each
+ * third of the array, and the filter is constructed so that the three fingerprints XOR to the
+ * fingerprint of every key added. It uses about 9.8 bits per key, has a false positive rate of
+ * about 0.4% regardless of configuration, and can not have keys added after it is built.
+ */
+public class XorFilter extends KeyHashFilter {
+
+  private final long seed;
+  private final int blockLength;
+  private final byte[] fingerprints;
+
+  XorFilter(long[] hashes, int numHashes) {
+    int arrayLength = 32 + (int) Math.ceil(1.23 * numHashes);
+    blockLength = arrayLength / 3;
+    arrayLength = blockLength * 3;
+
+    long[] stackHash = new long[numHashes];
+    int[] stackIndex = new int[numHashes];
+    int stackSize;
+    long attempt = 0;
+    long trySeed;
+
+    // construction fails with a small probability, in which case it is retried with a new seed
+    while (true) {
+      trySeed = mix(++attempt, 0);
+      long[] xorHash = new long[arrayLength];
+      int[] count = new int[arrayLength];
+      for (int i = 0; i < numHashes; i++) {
+        long hash = mix(hashes[i], trySeed);
+        for (int j = 0; j < 3; j++) {
+          int index = index(hash, j);
+          count[index]++;
+          xorHash[index] ^= hash;
+        }
+      }
+
+      // peel off positions that only one key maps to, along with their key
+      int[] queue = new int[arrayLength];
+      int queueSize = 0;
+      for (int i = 0; i < arrayLength; i++) {
+        if (count[i] == 1) {
+          queue[queueSize++] = i;
+        }
+      }
+
+      stackSize = 0;
+      while (queueSize > 0) {
+        int index = queue[--queueSize];
+        if (count[index] != 1) {
+          continue;
+        }
+        long hash = xorHash[index];
+        stackHash[stackSize] = hash;
+        stackIndex[stackSize] = index;
+        stackSize++;
+        for (int j = 0; j < 3; j++) {
+          int other = index(hash, j);
+          count[other]--;
+          xorHash[other] ^= hash;
+          if (count[other] == 1) {
+            queue[queueSize++] = other;
+          }
+        }
+      }
+
+      if (stackSize == numHashes) {
+        break;
+      }
+    }
+
+    seed = trySeed;
+    fingerprints = new byte[arrayLength];
+    // assign fingerprints in the reverse of the peeling order, so that the position assigned for
+    // each key is the only one of its three not yet fixed by keys assigned later
+    for (int i = stackSize - 1; i >= 0; i--) {
+      long hash = stackHash[i];
+      fingerprints[stackIndex[i]] = (byte) (fingerprint(hash) ^ fingerprints[index(hash, 0)]
+          ^ fingerprints[index(hash, 1)] ^ fingerprints[index(hash, 2)]);
+    }
+  }
+
+  XorFilter(DataInput in) throws IOException {
+    seed = in.readLong();
+    blockLength = in.readInt();
+    fingerprints = new byte[blockLength * 3];
+    in.readFully(fingerprints);
+  }
+
+  private static long mix(long hash, long seed) {
+    // the murmur3 finalizer
+    long h = hash + seed;
+    h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+    h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+    return h ^ (h >>> 33);
+  }
+
+  private static byte fingerprint(long hash) {
+    return (byte) (hash ^ (hash >>> 32));
+  }
+
+  private int index(long hash, int i) {
+    return reduce((int) Long.rotateLeft(hash, 21 * i), blockLength) + i * blockLength;
+  }
+
+  @Override
+  public boolean membershipTest(long keyHash) {
+    long hash = mix(keyHash, seed);
+    return fingerprint(hash) == (fingerprints[index(hash, 0)] ^ fingerprints[index(hash, 1)]
+        ^ fingerprints[index(hash, 2)]);
+  }
+
+  @Override
+  public Type getType() {
+    return Type.XOR;
+  }
+
+  @Override
+  protected void writeFilter(DataOutput out) throws IOException {
+    out.writeLong(seed);
+    out.writeInt(blockLength);
+    out.write(fingerprints);
+  }
+}
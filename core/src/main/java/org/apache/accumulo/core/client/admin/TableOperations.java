@@ -1158,4 +1158,54 @@ public interface TableOperations {
       throws AccumuloException, TableNotFoundException {
     throw new UnsupportedOperationException();
   }
+
+  /**
+   * Estimates the number of key/values in a range of a table. Tablet servers answer from the block
+   * indexes of the table's files, reading only the blocks at the edges of each tablet's part of the
+   * range, so this is much cheaper than scanning the range.
+   *
+   * <p>
+   * The count is approximate. In the data that is read, deleted entries are not counted and no more
+   * versions of a key are counted than the table's versioning iterator keeps at scan time. Each
+   * file and the in memory data are counted on their own though, so deletes do not hide entries
+   * stored elsewhere, and file blocks that lie entirely within the range are counted from the index
+   * as stored, with every version and delete. Neither visibilities nor other table iterators are
+   * applied. A scan of the range can therefore return fewer entries. Tablets are counted one at a
+   * time, so the count does not reflect a single point in time when the table is written to
+   * concurrently. In order to count entries, the Accumulo user making the request will need the
+   * {@link TablePermission#GET_SUMMARIES} table permission.
+   *
+   * @param tableName
+   *          the name of the table
+   * @param range
+   *          the range to count
+   * @return the approximate number of entries stored in the range
+   * @since 2.1.0
+   */
+  default long countEntries(String tableName, Range range)
+      throws AccumuloException, AccumuloSecurityException, TableNotFoundException {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Checks if a range of a table holds any key/value that is not deleted. Tablet servers merge the
+   * table's files and in memory data with deletes applied, reading each file only up to the first
+   * entry found, so this is much cheaper than counting the range.
+   *
+   * <p>
+   * Neither visibilities nor table iterators are applied, so a scan of the range may return nothing
+   * even when this returns true. In order to check for entries, the Accumulo user making the
+   * request will need the {@link TablePermission#GET_SUMMARIES} table permission.
+   *
+   * @param tableName
+   *          the name of the table
+   * @param range
+   *          the range to check
+   * @return true if the range holds at least one key/value that is not deleted
+   * @since 2.1.0
+   */
+  default boolean hasEntries(String tableName, Range range)
+      throws AccumuloException, AccumuloSecurityException, TableNotFoundException {
+    throw new UnsupportedOperationException();
+  }
 }
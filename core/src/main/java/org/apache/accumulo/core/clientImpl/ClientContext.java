@@ -562,11 +562,24 @@ public class ClientContext implements AccumuloClient {
     checkArgument(tableName != null, "tableName is null");
     checkArgument(authorizations != null, "authorizations is null");
     ensureOpen();
-    Scanner scanner = new ScannerImpl(this, getTableId(tableName), authorizations);
-    Integer batchSize = ClientProperty.SCANNER_BATCH_SIZE.getInteger(getProperties());
+    ScannerImpl scanner = new ScannerImpl(this, getTableId(tableName), authorizations);
+    Properties props = getProperties();
+    Integer batchSize = ClientProperty.SCANNER_BATCH_SIZE.getInteger(props);
     if (batchSize != null) {
       scanner.setBatchSize(batchSize);
     }
+    Integer readaheadBatches = ClientProperty.SCANNER_READAHEAD_BATCHES.getInteger(props);
+    if (readaheadBatches != null) {
+      scanner.setReadaheadBatches(readaheadBatches);
+    }
+    Integer parallelTablets = ClientProperty.SCANNER_PARALLEL_TABLETS.getInteger(props);
+    if (parallelTablets != null) {
+      scanner.setParallelTablets(parallelTablets);
+    }
+    Long parallelMaxMemory = ClientProperty.SCANNER_PARALLEL_MEMORY_MAX.getBytes(props);
+    if (parallelMaxMemory != null) {
+      scanner.setParallelMaxMemory(parallelMaxMemory);
+    }
     return scanner;
   }
 
@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.clientImpl;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import org.apache.accumulo.core.data.KeyValue;
+import org.apache.accumulo.core.data.Range;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Scans consecutive parts of a range concurrently while returning their batches in key order. A
+ * scanner splits its range into one part per tablet, and this class keeps reading ahead in a window
+ * of parts following the one the application is consuming. The batches buffered by all parts are
+ * bounded by a memory limit. The limit is approximate, each part may complete one batch past it.
+ */
+class OrderedParallelScan {
+
+  /**
+   * Reads the batches of one part in order.
+   */
+  interface BatchReader {
+    /**
+     * @return the next batch of the part, or an empty list when the part is finished
+     */
+    List<KeyValue> read() throws Exception;
+  }
+
+  private final Iterator<Range> parts;
+  private final Function<Range,BatchReader> readers;
+  private final int window;
+  private final long maxMemory;
+  private final Executor executor;
+
+  // the parts being read, in key order, the first is the one being consumed
+  private final ArrayDeque<Part> active = new ArrayDeque<>();
+  private long bufferedBytes = 0;
+  private boolean closed = false;
+
+  /**
+   * @param parts
+   *          the consecutive parts of the range to scan, produced as the window moves along
+   * @param readers
+   *          creates a reader for a part
+   * @param window
+   *          the maximum number of parts read concurrently
+   * @param maxMemory
+   *          the number of bytes of batches the parts may buffer
+   * @param executor
+   *          runs the reads of each part
+   */
+  OrderedParallelScan(Iterator<Range> parts, Function<Range,BatchReader> readers, int window,
+      long maxMemory, Executor executor) {
+    Preconditions.checkArgument(window > 0, "window must be positive");
+    Preconditions.checkArgument(maxMemory > 0, "maxMemory must be positive");
+    this.parts = parts;
+    this.readers = readers;
+    this.window = window;
+    this.maxMemory = maxMemory;
+    this.executor = executor;
+  }
+
+  private class Part implements Runnable {
+    private final BatchReader reader;
+    // fetched batches, or the exception that ended the part
+    private final ArrayDeque<Object> fetched = new ArrayDeque<>();
+
+    Part(BatchReader reader) {
+      this.reader = reader;
+    }
+
+    @Override
+    public void run() {
+      while (true) {
+        synchronized (OrderedParallelScan.this) {
+          try {
+            // the part being consumed reads while it has nothing buffered, otherwise the scan
+            // could stall with memory held by parts the application is not reading yet
+            while (!closed && bufferedBytes >= maxMemory
+                && (active.peek() != this || !fetched.isEmpty())) {
+              OrderedParallelScan.this.wait();
+            }
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+          }
+          if (closed) {
+            return;
+          }
+        }
+
+        Object result;
+        boolean done;
+        try {
+          List<KeyValue> batch = reader.read();
+          result = batch;
+          done = batch.isEmpty();
+        } catch (Exception e) {
+          result = e;
+          done = true;
+        }
+
+        synchronized (OrderedParallelScan.this) {
+          fetched.add(result);
+          if (result instanceof List) {
+            @SuppressWarnings("unchecked")
+            List<KeyValue> batch = (List<KeyValue>) result;
+            bufferedBytes += estimateSize(batch);
+          }
+          OrderedParallelScan.this.notifyAll();
+          if (done) {
+            return;
+          }
+        }
+      }
+    }
+  }
+
+  static long estimateSize(List<KeyValue> batch) {
+    long size = 0;
+    for (KeyValue kv : batch) {
+      size += kv.getKey().getSize() + kv.getValue().getSize();
+    }
+    return size;
+  }
+
+  private void fill() {
+    while (true) {
+      synchronized (this) {
+        if (closed || active.size() >= window) {
+          return;
+        }
+      }
+
+      // find the next part outside of the lock, it may need to look up tablet locations
+      if (!parts.hasNext()) {
+        return;
+      }
+      Part part = new Part(readers.apply(parts.next()));
+
+      synchronized (this) {
+        active.add(part);
+      }
+      executor.execute(part);
+    }
+  }
+
+  /**
+   * Waits for the next batch in key order.
+   *
+   * @return the next batch, or an empty list when every part is finished
+   * @throws ExecutionException
+   *           if reading a part failed, every later call throws it again
+   */
+  List<KeyValue> take() throws ExecutionException, InterruptedException {
+    while (true) {
+      fill();
+
+      synchronized (this) {
+        Preconditions.checkState(!closed, "Scan was closed");
+
+        Part head = active.peek();
+        if (head == null) {
+          return Collections.emptyList();
+        }
+
+        while (head.fetched.isEmpty()) {
+          wait();
+        }
+
+        Object result = head.fetched.peek();
+        if (result instanceof Exception) {
+          // leave the exception in place so every later call sees it
+          throw new ExecutionException((Exception) result);
+        }
+
+        head.fetched.remove();
+        @SuppressWarnings("unchecked")
+        List<KeyValue> batch = (List<KeyValue>) result;
+        bufferedBytes -= estimateSize(batch);
+        if (batch.isEmpty()) {
+          // the next part is now the one being consumed, so it may read past the memory limit
+          // while it has nothing buffered
+          active.remove();
+        }
+        notifyAll();
+
+        if (!batch.isEmpty()) {
+          return batch;
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the estimated size of the batches fetched but not yet taken
+   */
+  synchronized long getBufferedBytes() {
+    return bufferedBytes;
+  }
+
+  /**
+   * Stops reading parts. Reads in progress complete, but their results are dropped.
+   */
+  synchronized void close() {
+    closed = true;
+    active.clear();
+    notifyAll();
+  }
+}
@@ -28,6 +28,8 @@ import java.util.concurrent.TimeUnit;
 
 import org.apache.accumulo.core.Constants;
 import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.conf.ClientProperty;
+import org.apache.accumulo.core.conf.ConfigurationTypeHelper;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.TableId;
@@ -59,6 +61,10 @@ public class ScannerImpl extends ScannerOptions implements Scanner {
   private Range range;
   private boolean isolated = false;
   private long readaheadThreshold = Constants.SCANNER_DEFAULT_READAHEAD_THRESHOLD;
+  private int readaheadBatches = 0;
+  private int parallelTablets = 0;
+  private long parallelMaxMemory = ConfigurationTypeHelper
+      .getMemoryAsBytes(ClientProperty.SCANNER_PARALLEL_MEMORY_MAX.getDefaultValue());
 
   boolean closed = false;
 
@@ -151,7 +157,8 @@ public class ScannerImpl extends ScannerOptions implements Scanner {
   public synchronized Iterator<Entry<Key,Value>> iterator() {
     ensureOpen();
     ScannerIterator iter = new ScannerIterator(context, tableId, authorizations, range, size,
-        getTimeout(TimeUnit.SECONDS), this, isolated, readaheadThreshold, new Reporter());
+        getTimeout(TimeUnit.SECONDS), this, isolated, readaheadThreshold, readaheadBatches,
+        parallelTablets, parallelMaxMemory, new Reporter());
 
     iters.put(iter, iterCount++);
 
@@ -187,6 +194,43 @@ public class ScannerImpl extends ScannerOptions implements Scanner {
     readaheadThreshold = batches;
   }
 
+  /**
+   * Sets the number of unconsumed batches iterators may read ahead of the application once read
+   * ahead starts. Zero means a single batch is read ahead at a time.
+   */
+  synchronized void setReadaheadBatches(int batches) {
+    ensureOpen();
+    if (batches < 0) {
+      throw new IllegalArgumentException("Number of read ahead batches must be non-negative");
+    }
+    readaheadBatches = batches;
+  }
+
+  /**
+   * Sets the number of tablets iterators read concurrently. Results are still returned in key
+   * order, tablets following the one being consumed are read ahead. Zero means tablets are read one
+   * at a time.
+   */
+  synchronized void setParallelTablets(int tablets) {
+    ensureOpen();
+    if (tablets < 0) {
+      throw new IllegalArgumentException("Number of parallel tablets must be non-negative");
+    }
+    parallelTablets = tablets;
+  }
+
+  /**
+   * Sets the number of bytes of results iterators may buffer from tablets read ahead of the one
+   * being consumed.
+   */
+  synchronized void setParallelMaxMemory(long bytes) {
+    ensureOpen();
+    if (bytes <= 0) {
+      throw new IllegalArgumentException("Parallel scan memory must be positive");
+    }
+    parallelMaxMemory = bytes;
+  }
+
   @Override
   public synchronized long getReadaheadThreshold() {
     ensureOpen();
@@ -18,29 +18,36 @@
  */
 package org.apache.accumulo.core.clientImpl;
 
+import java.util.ArrayDeque;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import org.apache.accumulo.core.client.SampleNotPresentException;
 import org.apache.accumulo.core.client.TableDeletedException;
 import org.apache.accumulo.core.client.TableOfflineException;
+import org.apache.accumulo.core.clientImpl.TabletLocator.TabletLocation;
 import org.apache.accumulo.core.clientImpl.ThriftScanner.ScanState;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.KeyValue;
+import org.apache.accumulo.core.data.PartialKey;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.TableId;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.security.Authorizations;
 import org.apache.accumulo.core.util.threads.ThreadPools;
+import org.apache.hadoop.io.Text;
 import org.slf4j.LoggerFactory;
 
 import com.google.common.base.Preconditions;
@@ -63,19 +70,32 @@ public class ScannerIterator implements Iterator<Entry<Key,Value>> {
   private long batchCount = 0;
   private long readaheadThreshold;
 
+  // when positive, up to this many batches are read ahead by a ReadaheadBuffer instead of one and
+  // the tablet server is granted as many credits to read batches ahead of the client
+  private final int readaheadBatches;
+  private ReadaheadBuffer readaheadBuffer;
+
+  // when not null, the tablets of the range are read concurrently, each with its own scan state
+  private OrderedParallelScan parallelScan;
+  private Function<Range,ScanState> partScanStates;
+  private final Set<ScanState> activePartStates = ConcurrentHashMap.newKeySet();
+
   private ScannerImpl.Reporter reporter;
 
   private static ThreadPoolExecutor readaheadPool = ThreadPools.createThreadPool(0,
       Integer.MAX_VALUE, 3L, TimeUnit.SECONDS, "Accumulo scanner read ahead thread",
       new SynchronousQueue<>(), OptionalInt.empty(), false);
 
-  private boolean closed = false;
+  // read by the threads of parallel scans
+  private volatile boolean closed = false;
 
   ScannerIterator(ClientContext context, TableId tableId, Authorizations authorizations,
       Range range, int size, long timeOut, ScannerOptions options, boolean isolated,
-      long readaheadThreshold, ScannerImpl.Reporter reporter) {
+      long readaheadThreshold, int readaheadBatches, int parallelTablets, long parallelMaxMemory,
+      ScannerImpl.Reporter reporter) {
     this.timeOut = timeOut;
     this.readaheadThreshold = readaheadThreshold;
+    this.readaheadBatches = readaheadBatches;
 
     this.options = new ScannerOptions(options);
 
@@ -90,9 +110,22 @@ public class ScannerIterator implements Iterator<Entry<Key,Value>> {
             size, options.serverSideIteratorList, options.serverSideIteratorOptions, isolated,
             readaheadThreshold, options.getSamplerConfiguration(), options.batchTimeOut,
             options.classLoaderContext, options.executionHints);
-
-    // If we want to start readahead immediately, don't wait for hasNext to be called
-    if (readaheadThreshold == 0L) {
+    scanState.credits = readaheadBatches;
+
+    if (parallelTablets > 0) {
+      partScanStates = partRange -> {
+        ScanState partState =
+            new ScanState(context, tableId, authorizations, partRange, options.fetchedColumns, size,
+                options.serverSideIteratorList, options.serverSideIteratorOptions, isolated,
+                readaheadThreshold, options.getSamplerConfiguration(), options.batchTimeOut,
+                options.classLoaderContext, options.executionHints);
+        partState.credits = readaheadBatches;
+        return partState;
+      };
+      parallelScan = new OrderedParallelScan(new TabletParts(context, tableId, range),
+          this::newPartReader, parallelTablets, parallelMaxMemory, readaheadPool);
+    } else if (readaheadThreshold == 0L) {
+      // If we want to start readahead immediately, don't wait for hasNext to be called
       initiateReadAhead();
     }
     iter = null;
@@ -125,35 +158,186 @@ public class ScannerIterator implements Iterator<Entry<Key,Value>> {
   }
 
   void close() {
+    if (parallelScan != null) {
+      parallelScan.close();
+    }
     // run actual close operation in the background so this does not block.
     readaheadPool.execute(() -> {
-      synchronized (scanState) {
-        // this is synchronized so its mutually exclusive with readBatch()
+      closed = true;
+      closeScanState(scanState);
+      activePartStates.forEach(ScannerIterator::closeScanState);
+    });
+  }
+
+  private static void closeScanState(ScanState state) {
+    synchronized (state) {
+      // this is synchronized so its mutually exclusive with readBatch()
+      try {
+        ThriftScanner.close(state);
+      } catch (Exception e) {
+        LoggerFactory.getLogger(ScannerIterator.class).debug("Exception when closing scan session",
+            e);
+      }
+    }
+  }
+
+  /**
+   * Splits the range of a scan into one part per tablet, looking up tablets as the parallel scan
+   * needs more parts. If a tablet can not be located, the rest of the range becomes a single part
+   * and the scan of that part handles the problem.
+   */
+  private static class TabletParts implements Iterator<Range> {
+    private final ClientContext context;
+    private final TableId tableId;
+    private Range remaining;
+
+    TabletParts(ClientContext context, TableId tableId, Range range) {
+      this.context = context;
+      this.tableId = tableId;
+      this.remaining = range;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return remaining != null;
+    }
+
+    @Override
+    public Range next() {
+      if (remaining == null) {
+        throw new NoSuchElementException();
+      }
+
+      Range range = remaining;
+      remaining = null;
+
+      Text row = range.getStartKey() == null ? new Text() : range.getStartKey().getRow();
+      TabletLocation location;
+      try {
+        location =
+            TabletLocator.getLocator(context, tableId).locateTablet(context, row, false, false);
+      } catch (Exception e) {
+        LoggerFactory.getLogger(ScannerIterator.class)
+            .debug("Failed to locate tablet for parallel scan of {}", range, e);
+        return range;
+      }
+
+      if (location == null || location.tablet_extent.endRow() == null) {
+        return range;
+      }
+
+      Key afterTablet = new Key(location.tablet_extent.endRow()).followingKey(PartialKey.ROW);
+      if (range.afterEndKey(afterTablet)) {
+        return range;
+      }
+
+      remaining = new Range(afterTablet, true, range.getEndKey(), range.isEndKeyInclusive());
+      return new Range(range.getStartKey(), range.isStartKeyInclusive(), afterTablet, false);
+    }
+  }
+
+  private OrderedParallelScan.BatchReader newPartReader(Range range) {
+    ScanState partState = partScanStates.apply(range);
+    activePartStates.add(partState);
+    return () -> {
+      List<KeyValue> batch = readBatch(partState);
+      if (batch.isEmpty()) {
+        activePartStates.remove(partState);
+      }
+      return batch;
+    };
+  }
+
+  private void initiateReadAhead() {
+    Preconditions.checkState(readAheadOperation == null && readaheadBuffer == null);
+    if (readaheadBatches > 0) {
+      readaheadBuffer = new ReadaheadBuffer(readaheadBatches);
+      readaheadBuffer.fetchMore();
+    } else {
+      readAheadOperation = readaheadPool.submit(() -> readBatch());
+    }
+  }
+
+  /**
+   * Reads up to a fixed number of batches ahead of the application, where read ahead otherwise
+   * holds a single batch. Batches are read one after another by a single background thread. The
+   * scan state grants the tablet server the same number of credits, so the server reads batches
+   * ahead as well and each round trip returns every batch it has ready. Reading stops when the
+   * buffer is full and resumes when the application takes a batch, so no thread is tied up while
+   * the application is not reading.
+   */
+  private class ReadaheadBuffer {
+    private final int maxBatches;
+    // fetched batches, or the exception that ended the scan
+    private final ArrayDeque<Object> fetched = new ArrayDeque<>();
+    private boolean fetching = false;
+    private boolean done = false;
+
+    ReadaheadBuffer(int maxBatches) {
+      this.maxBatches = maxBatches;
+    }
+
+    synchronized void fetchMore() {
+      if (!fetching && !done && fetched.size() < maxBatches) {
+        fetching = true;
+        readaheadPool.execute(this::fetch);
+      }
+    }
+
+    private void fetch() {
+      while (true) {
+        Object result;
         try {
-          closed = true;
-          ThriftScanner.close(scanState);
+          result = readBatch();
         } catch (Exception e) {
-          LoggerFactory.getLogger(ScannerIterator.class)
-              .debug("Exception when closing scan session", e);
+          result = e;
+        }
+
+        synchronized (this) {
+          fetched.add(result);
+          done = !(result instanceof List) || ((List<?>) result).isEmpty();
+          notifyAll();
+          if (done || fetched.size() >= maxBatches) {
+            fetching = false;
+            return;
+          }
         }
       }
-    });
-  }
+    }
 
-  private void initiateReadAhead() {
-    Preconditions.checkState(readAheadOperation == null);
-    readAheadOperation = readaheadPool.submit(this::readBatch);
+    synchronized List<KeyValue> take() throws Exception {
+      while (fetched.isEmpty()) {
+        wait();
+      }
+
+      Object result = fetched.peek();
+      if (result instanceof Exception) {
+        // leave the exception in place so every later call sees it
+        throw new ExecutionException((Exception) result);
+      }
+
+      fetched.remove();
+      fetchMore();
+
+      @SuppressWarnings("unchecked")
+      List<KeyValue> batch = (List<KeyValue>) result;
+      return batch;
+    }
   }
 
   private List<KeyValue> readBatch() throws Exception {
+    return readBatch(scanState);
+  }
+
+  private List<KeyValue> readBatch(ScanState state) throws Exception {
 
     List<KeyValue> batch;
 
     do {
-      synchronized (scanState) {
+      synchronized (state) {
         // this is synchronized so its mutually exclusive with closing
         Preconditions.checkState(!closed, "Scanner was closed");
-        batch = ThriftScanner.scan(scanState.context, scanState, timeOut);
+        batch = ThriftScanner.scan(state.context, state, timeOut);
       }
     } while (batch != null && batch.isEmpty());
 
@@ -169,7 +353,11 @@ public class ScannerIterator implements Iterator<Entry<Key,Value>> {
     List<KeyValue> nextBatch;
 
     try {
-      if (readAheadOperation == null) {
+      if (parallelScan != null) {
+        nextBatch = parallelScan.take();
+      } else if (readaheadBuffer != null) {
+        nextBatch = readaheadBuffer.take();
+      } else if (readAheadOperation == null) {
         // no read ahead run, fetch the next batch right now
         nextBatch = readBatch();
       } else {
@@ -188,7 +376,7 @@ public class ScannerIterator implements Iterator<Entry<Key,Value>> {
     if (!nextBatch.isEmpty()) {
       batchCount++;
 
-      if (batchCount > readaheadThreshold) {
+      if (batchCount > readaheadThreshold && readaheadBuffer == null && parallelScan == null) {
         // start a thread to read the next batch
         initiateReadAhead();
       }
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.clientImpl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.TableId;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Buffers mutations added concurrently by many threads. Each thread adds to one of several stripes,
+ * chosen by its thread id, so threads sharing a batch writer do not all contend on one lock. The
+ * stripes are merged when the buffer is drained. The memory used by buffered mutations is tracked
+ * with an atomic counter, so it can be read without locking.
+ */
+public class StripedMutationBuffer {
+
+  private static final int MAX_STRIPES = 64;
+
+  private static class Stripe {
+    private HashMap<TableId,List<Mutation>> mutations = new HashMap<>();
+    private boolean closed = false;
+
+    synchronized void add(TableId table, Mutation m) {
+      if (closed) {
+        throw new IllegalStateException("Closed");
+      }
+      mutations.computeIfAbsent(table, k -> new ArrayList<>()).add(m);
+    }
+
+    synchronized Map<TableId,List<Mutation>> drain(boolean close) {
+      closed |= close;
+      if (mutations.isEmpty()) {
+        return null;
+      }
+      Map<TableId,List<Mutation>> drained = mutations;
+      mutations = new HashMap<>();
+      return drained;
+    }
+  }
+
+  private final Stripe[] stripes;
+  private final int mask;
+  private final AtomicLong memoryUsed = new AtomicLong(0);
+
+  /**
+   * Creates a buffer with a stripe per available processor, up to 64.
+   */
+  public StripedMutationBuffer() {
+    this(Math.min(Runtime.getRuntime().availableProcessors(), MAX_STRIPES));
+  }
+
+  /**
+   * @param numStripes
+   *          the minimum number of stripes, rounded up to a power of two
+   */
+  public StripedMutationBuffer(int numStripes) {
+    Preconditions.checkArgument(numStripes > 0, "numStripes must be positive");
+    int size = Integer.highestOneBit(numStripes);
+    if (size < numStripes) {
+      size <<= 1;
+    }
+    stripes = new Stripe[size];
+    for (int i = 0; i < size; i++) {
+      stripes[i] = new Stripe();
+    }
+    mask = size - 1;
+  }
+
+  /**
+   * Adds a mutation. The caller must not modify the mutation afterwards.
+   *
+   * @return the memory used by the buffer after adding the mutation
+   * @throws IllegalStateException
+   *           if the buffer was closed, the mutation is not added
+   */
+  public long add(TableId table, Mutation m) {
+    long size = m.estimatedMemoryUsed();
+    stripes[(int) Thread.currentThread().getId() & mask].add(table, m);
+    return memoryUsed.addAndGet(size);
+  }
+
+  /**
+   * Removes the buffered mutations, passing the mutations of each table of each stripe to the
+   * consumer. Mutations added concurrently may or may not be removed.
+   *
+   * @return the memory used by the removed mutations
+   */
+  public long drain(BiConsumer<TableId,List<Mutation>> consumer) {
+    return drain(consumer, false);
+  }
+
+  /**
+   * Removes the buffered mutations like {@link #drain(BiConsumer)} and rejects any mutation added
+   * afterwards. Each stripe is closed as it is drained, so a concurrently added mutation is either
+   * removed or rejected.
+   *
+   * @return the memory used by the removed mutations
+   */
+  public long close(BiConsumer<TableId,List<Mutation>> consumer) {
+    return drain(consumer, true);
+  }
+
+  private long drain(BiConsumer<TableId,List<Mutation>> consumer, boolean close) {
+    long drainedMemory = 0;
+    for (Stripe stripe : stripes) {
+      Map<TableId,List<Mutation>> drained = stripe.drain(close);
+      if (drained != null) {
+        for (Map.Entry<TableId,List<Mutation>> entry : drained.entrySet()) {
+          for (Mutation m : entry.getValue()) {
+            drainedMemory += m.estimatedMemoryUsed();
+          }
+          consumer.accept(entry.getKey(), entry.getValue());
+        }
+      }
+    }
+    memoryUsed.addAndGet(-drainedMemory);
+    return drainedMemory;
+  }
+
+  /**
+   * @return the memory used by buffered mutations
+   */
+  public long getMemoryUsed() {
+    return memoryUsed.get();
+  }
+
+  int getNumStripes() {
+    return stripes.length;
+  }
+}
@@ -2001,6 +2001,116 @@ public class TableOperationsImpl extends TableOperationsHelper {
     return new ArrayList<>(SummarizerConfiguration.fromTableProperties(getProperties(tableName)));
   }
 
+  @Override
+  public long countEntries(String tableName, Range range)
+      throws AccumuloException, AccumuloSecurityException, TableNotFoundException {
+    long[] count = {0};
+    forEachTabletRange(tableName, range, (client, extent, tabletRange) -> {
+      count[0] += client.countEntries(TraceUtil.traceInfo(), context.rpcCreds(), extent.toThrift(),
+          tabletRange.toThrift());
+      return true;
+    });
+    return count[0];
+  }
+
+  @Override
+  public boolean hasEntries(String tableName, Range range)
+      throws AccumuloException, AccumuloSecurityException, TableNotFoundException {
+    boolean[] found = {false};
+    forEachTabletRange(tableName, range, (client, extent, tabletRange) -> {
+      found[0] = client.hasEntries(TraceUtil.traceInfo(), context.rpcCreds(), extent.toThrift(),
+          tabletRange.toThrift());
+      return !found[0];
+    });
+    return found[0];
+  }
+
+  /**
+   * Calls a tablet server for the part of a range that falls in a tablet.
+   */
+  private interface TabletRangeCall {
+    /**
+     * @return false to stop calling tablet servers
+     */
+    boolean call(TabletClientService.Client client, KeyExtent extent, Range range)
+        throws TException;
+  }
+
+  /**
+   * Makes a call for each tablet's part of the range, until the call asks to stop. A part is only
+   * called again when its call failed, so each part is accounted for once.
+   */
+  private void forEachTabletRange(String tableName, Range range, TabletRangeCall call)
+      throws AccumuloException, AccumuloSecurityException, TableNotFoundException {
+    checkArgument(tableName != null, "tableName is null");
+    checkArgument(range != null, "range is null");
+
+    TableId tableId = Tables.getTableId(context, tableName);
+    TabletLocator locator = TabletLocator.getLocator(context, tableId);
+
+    Retry retry = Retry.builder().infiniteRetries().retryAfter(100, MILLISECONDS)
+        .incrementBy(100, MILLISECONDS).maxWait(2, SECONDS).backOffFactor(1.5)
+        .logInterval(3, TimeUnit.MINUTES).createRetry();
+
+    List<Range> remaining = List.of(range);
+    while (true) {
+      Map<String,Map<KeyExtent,List<Range>>> binnedRanges = new HashMap<>();
+      // the parts of the range that still need a call
+      List<Range> failures = new ArrayList<>(locator.binRanges(context, remaining, binnedRanges));
+
+      for (Entry<String,Map<KeyExtent,List<Range>>> serverRanges : binnedRanges.entrySet()) {
+        String location = serverRanges.getKey();
+        for (Entry<KeyExtent,List<Range>> tabletRanges : serverRanges.getValue().entrySet()) {
+          KeyExtent extent = tabletRanges.getKey();
+          for (Range tabletRange : tabletRanges.getValue()) {
+            Range clipped = extent.toDataRange().clip(tabletRange, true);
+            if (clipped == null) {
+              continue;
+            }
+            TabletClientService.Client client = null;
+            try {
+              client = ThriftUtil.getTServerClient(HostAndPort.fromString(location), context);
+              if (!call.call(client, extent, clipped)) {
+                return;
+              }
+            } catch (TApplicationException tae) {
+              throw new AccumuloServerException(location, tae);
+            } catch (ThriftSecurityException e) {
+              Tables.clearCache(context);
+              if (!Tables.exists(context, tableId))
+                throw new TableNotFoundException(tableId.canonical(), tableName, null);
+              throw new AccumuloSecurityException(e.user, e.code, e);
+            } catch (NotServingTabletException e) {
+              locator.invalidateCache(extent);
+              failures.add(clipped);
+            } catch (TException e) {
+              locator.invalidateCache(context, location);
+              failures.add(clipped);
+            } finally {
+              ThriftUtil.returnClient(client);
+            }
+          }
+        }
+      }
+
+      if (failures.isEmpty()) {
+        return;
+      }
+
+      if (!Tables.exists(context, tableId))
+        throw new TableNotFoundException(tableId.canonical(), tableName, null);
+      if (Tables.getTableState(context, tableId) == TableState.OFFLINE)
+        throw new TableOfflineException(Tables.getTableOfflineMsg(context, tableId));
+
+      try {
+        retry.waitForNextAttempt();
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      remaining = failures;
+    }
+  }
+
   @Override
   public ImportDestinationArguments importDirectory(String directory) {
     return new BulkImport(directory, context);
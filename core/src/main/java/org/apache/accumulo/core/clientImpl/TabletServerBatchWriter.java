@@ -38,6 +38,7 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 import org.apache.accumulo.core.client.AccumuloException;
@@ -90,6 +91,8 @@ import com.google.common.base.Joiner;
  *     mutations are merged with mutations currently processing in the background
  *   + Failed mutations are held for 1000ms and then re-added to the unprocessed queue
  *   + Flush holds adding of new mutations so it does not wait indefinitely
+ *   + Application threads add mutations to a striped buffer without taking the
+ *     writer's lock, the stripes are merged when mutations are queued for binning
  *
  * Considerations
  *   + All background threads must catch and note Exception
@@ -101,6 +104,10 @@ import com.google.common.base.Joiner;
  * Memory accounting
  *   + when a mutation enters the system memory is incremented
  *   + when a mutation successfully leaves the system memory is decremented
+ *   + memory is an atomic counter, so adding a mutation does not need a lock
+ *   + memory is reserved with a compare and set once it is at or below the
+ *     max, so like a single adder, concurrent adders go over the max by at
+ *     most one mutation
  */
 public class TabletServerBatchWriter implements AutoCloseable {
 
@@ -113,10 +120,11 @@ public class TabletServerBatchWriter implements AutoCloseable {
   private final long timeout;
   private final Durability durability;
 
-  // state
-  private boolean flushing;
-  private boolean closed;
+  // state, flushing and closed are read by threads adding mutations without holding the lock
+  private volatile boolean flushing;
+  private volatile boolean closed;
   private MutationSet mutations;
+  private final StripedMutationBuffer addedMutations = new StripedMutationBuffer();
 
   // background writer
   private final MutationWriter writer;
@@ -127,15 +135,15 @@ public class TabletServerBatchWriter implements AutoCloseable {
       Collections.synchronizedMap(new HashMap<>());
 
   // stats
-  private long totalMemUsed = 0;
+  private final AtomicLong totalMemUsed = new AtomicLong(0);
   private long lastProcessingStartTime;
 
-  private long totalAdded = 0;
+  private final LongAdder totalAdded = new LongAdder();
   private final AtomicLong totalSent = new AtomicLong(0);
   private final AtomicLong totalBinned = new AtomicLong(0);
   private final AtomicLong totalBinTime = new AtomicLong(0);
   private final AtomicLong totalSendTime = new AtomicLong(0);
-  private long startTime = 0;
+  private volatile long startTime = 0;
   private long initialGCTimes;
   private long initialCompileTimes;
   private double initialSystemLoad;
@@ -154,7 +162,7 @@ public class TabletServerBatchWriter implements AutoCloseable {
   private final HashSet<String> serverSideErrors = new HashSet<>();
   private final FailedMutations failedMutations;
   private int unknownErrors = 0;
-  private boolean somethingFailed = false;
+  private volatile boolean somethingFailed = false;
   private Exception lastUnknownError = null;
 
   private static class TimeoutTracker {
@@ -226,6 +234,7 @@ public class TabletServerBatchWriter implements AutoCloseable {
   }
 
   private synchronized void startProcessing() {
+    addedMutations.drain(mutations::addAll);
     if (mutations.getMemoryUsed() == 0)
       return;
     lastProcessingStartTime = System.currentTimeMillis();
@@ -233,13 +242,14 @@ public class TabletServerBatchWriter implements AutoCloseable {
     mutations = new MutationSet();
   }
 
-  private synchronized void decrementMemUsed(long amount) {
-    totalMemUsed -= amount;
-    this.notifyAll();
+  private void decrementMemUsed(long amount) {
+    totalMemUsed.addAndGet(-amount);
+    synchronized (this) {
+      this.notifyAll();
+    }
   }
 
-  public synchronized void addMutation(TableId table, Mutation m)
-      throws MutationsRejectedException {
+  public void addMutation(TableId table, Mutation m) throws MutationsRejectedException {
 
     if (closed)
       throw new IllegalStateException("Closed");
@@ -248,16 +258,63 @@ public class TabletServerBatchWriter implements AutoCloseable {
 
     checkForFailures();
 
-    waitRTE(() -> (totalMemUsed > maxMem || flushing) && !somethingFailed);
+    // create a copy of mutation so that after this method returns the user
+    // is free to reuse the mutation object, like calling readFields... this
+    // is important for the case where a mutation is passed from map to reduce
+    // to batch writer... the map reduce code will keep passing the same mutation
+    // object into the reduce method
+    m = new Mutation(m);
+    long memUsed = m.estimatedMemoryUsed();
 
-    // do checks again since things could have changed while waiting and not holding lock
-    if (closed)
-      throw new IllegalStateException("Closed");
-    checkForFailures();
+    reserveMemory(memUsed);
 
     if (startTime == 0) {
-      startTime = System.currentTimeMillis();
+      initStats();
+    }
 
+    long unqueuedMemUsed;
+    try {
+      unqueuedMemUsed = addedMutations.add(table, m);
+    } catch (IllegalStateException e) {
+      // close() drained the buffer for the last time before this mutation could be added
+      decrementMemUsed(memUsed);
+      throw e;
+    }
+    totalAdded.increment();
+
+    // A flush that started after the checks above may have already merged the buffer, so check
+    // again after adding. Either the flush merges this mutation, or this thread sees that the flush
+    // started. A close always merges the mutation, since the buffer rejects adds once it is closed.
+    if (unqueuedMemUsed >= maxMem / 2 || flushing) {
+      startProcessing();
+      checkForFailures();
+    }
+  }
+
+  /**
+   * Adds to the memory used, waiting while it is over the max or a flush is running. The memory is
+   * only added while it is at or below the max, so concurrent adders can not each go over it.
+   */
+  private void reserveMemory(long memUsed) throws MutationsRejectedException {
+    while (true) {
+      long used = totalMemUsed.get();
+      if (used > maxMem || flushing) {
+        synchronized (this) {
+          waitRTE(() -> (totalMemUsed.get() > maxMem || flushing) && !somethingFailed);
+        }
+
+        // do checks again since things could have changed while waiting and not holding lock
+        if (closed)
+          throw new IllegalStateException("Closed");
+        checkForFailures();
+      } else if (totalMemUsed.compareAndSet(used, used + memUsed)) {
+        return;
+      }
+    }
+  }
+
+  private synchronized void initStats() {
+    if (startTime == 0) {
       List<GarbageCollectorMXBean> gcmBeans = ManagementFactory.getGarbageCollectorMXBeans();
       for (GarbageCollectorMXBean garbageCollectorMXBean : gcmBeans) {
         initialGCTimes += garbageCollectorMXBean.getCollectionTime();
@@ -269,22 +326,8 @@ public class TabletServerBatchWriter implements AutoCloseable {
       }
 
       initialSystemLoad = ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage();
-    }
 
-    // create a copy of mutation so that after this method returns the user
-    // is free to reuse the mutation object, like calling readFields... this
-    // is important for the case where a mutation is passed from map to reduce
-    // to batch writer... the map reduce code will keep passing the same mutation
-    // object into the reduce method
-    m = new Mutation(m);
-
-    totalMemUsed += m.estimatedMemoryUsed();
-    mutations.addMutation(table, m);
-    totalAdded++;
-
-    if (mutations.getMemoryUsed() >= maxMem / 2) {
-      startProcessing();
-      checkForFailures();
+      startTime = System.currentTimeMillis();
     }
   }
 
@@ -317,7 +360,7 @@ public class TabletServerBatchWriter implements AutoCloseable {
       startProcessing();
       checkForFailures();
 
-      waitRTE(() -> totalMemUsed > 0 && !somethingFailed);
+      waitRTE(() -> totalMemUsed.get() > 0 && !somethingFailed);
 
       flushing = false;
       this.notifyAll();
@@ -335,9 +378,11 @@ public class TabletServerBatchWriter implements AutoCloseable {
     try (TraceScope span = Trace.startSpan("close")) {
       closed = true;
 
+      // mutations added from now on are rejected, so every accepted mutation is queued here
+      addedMutations.close(mutations::addAll);
       startProcessing();
 
-      waitRTE(() -> totalMemUsed > 0 && !somethingFailed);
+      waitRTE(() -> totalMemUsed.get() > 0 && !somethingFailed);
 
       logStats();
 
@@ -367,6 +412,7 @@ public class TabletServerBatchWriter implements AutoCloseable {
       }
 
       double averageRate = totalSent.get() / (totalSendTime.get() / 1000.0);
+      long totalAdded = this.totalAdded.sum();
       double overallRate = totalAdded / ((finishTime - startTime) / 1000.0);
 
       double finalSystemLoad = ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage();
@@ -537,22 +583,27 @@ public class TabletServerBatchWriter implements AutoCloseable {
   }
 
   private void checkForFailures() throws MutationsRejectedException {
+    // somethingFailed is volatile, so the common case of no failures does not need the lock
     if (somethingFailed) {
-      List<ConstraintViolationSummary> cvsList = violations.asList();
-      HashMap<TabletId,Set<org.apache.accumulo.core.client.security.SecurityErrorCode>> af =
-          new HashMap<>();
-      for (Entry<KeyExtent,Set<SecurityErrorCode>> entry : authorizationFailures.entrySet()) {
-        HashSet<org.apache.accumulo.core.client.security.SecurityErrorCode> codes = new HashSet<>();
-
-        for (SecurityErrorCode sce : entry.getValue()) {
-          codes.add(org.apache.accumulo.core.client.security.SecurityErrorCode.valueOf(sce.name()));
+      synchronized (this) {
+        List<ConstraintViolationSummary> cvsList = violations.asList();
+        HashMap<TabletId,Set<org.apache.accumulo.core.client.security.SecurityErrorCode>> af =
+            new HashMap<>();
+        for (Entry<KeyExtent,Set<SecurityErrorCode>> entry : authorizationFailures.entrySet()) {
+          HashSet<org.apache.accumulo.core.client.security.SecurityErrorCode> codes =
+              new HashSet<>();
+
+          for (SecurityErrorCode sce : entry.getValue()) {
+            codes.add(
+                org.apache.accumulo.core.client.security.SecurityErrorCode.valueOf(sce.name()));
+          }
+
+          af.put(new TabletIdImpl(entry.getKey()), codes);
         }
 
-        af.put(new TabletIdImpl(entry.getKey()), codes);
+        throw new MutationsRejectedException(context, cvsList, af, serverSideErrors, unknownErrors,
+            lastUnknownError);
       }
-
-      throw new MutationsRejectedException(context, cvsList, af, serverSideErrors, unknownErrors,
-          lastUnknownError);
     }
   }
 
@@ -565,7 +616,8 @@ public class TabletServerBatchWriter implements AutoCloseable {
    */
   private synchronized void addFailedMutations(MutationSet failedMutations) {
     mutations.addAll(failedMutations);
-    if (mutations.getMemoryUsed() >= maxMem / 2 || closed || flushing) {
+    if (mutations.getMemoryUsed() + addedMutations.getMemoryUsed() >= maxMem / 2 || closed
+        || flushing) {
       startProcessing();
     }
   }
@@ -20,8 +20,10 @@ package org.apache.accumulo.core.clientImpl;
 
 import java.io.IOException;
 import java.security.SecureRandom;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.List;
@@ -168,6 +170,11 @@ public class ThriftScanner {
     TabletLocation prevLoc;
     Long scanID;
 
+    // when positive, the tablet server reads up to this many batches ahead of the client
+    int credits = 0;
+    // batches the tablet server returned that the scan has not used yet
+    final Deque<ScanResult> pendingBatches = new ArrayDeque<>();
+
     String classLoaderContext;
 
     boolean finished = false;
@@ -442,6 +449,9 @@ public class ThriftScanner {
       scanState.prevLoc = loc;
 
       if (scanState.scanID == null) {
+        // batches read ahead by an earlier scan session are for a range the new session rereads
+        scanState.pendingBatches.clear();
+
         Thread.currentThread().setName("Starting scan tserver=" + loc.tablet_location + " tableId="
             + loc.tablet_extent.tableId());
 
@@ -486,7 +496,19 @@ public class ThriftScanner {
           timer = new OpTimer().start();
         }
 
-        sr = client.continueScan(tinfo, scanState.scanID);
+        if (scanState.credits > 0) {
+          if (scanState.pendingBatches.isEmpty()) {
+            scanState.pendingBatches
+                .addAll(client.continueScanBatches(tinfo, scanState.scanID, scanState.credits));
+          }
+          sr = scanState.pendingBatches.poll();
+          if (sr == null) {
+            // nothing was read before the tablet server stopped waiting, ask again later
+            sr = new ScanResult(new ArrayList<>(), true);
+          }
+        } else {
+          sr = client.continueScan(tinfo, scanState.scanID);
+        }
         if (!sr.more) {
           client.closeScan(tinfo, scanState.scanID);
           scanState.scanID = null;
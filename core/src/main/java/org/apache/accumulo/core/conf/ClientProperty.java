@@ -77,6 +77,21 @@ public enum ClientProperty {
   // Scanner
   SCANNER_BATCH_SIZE("scanner.batch.size", "1000", PropertyType.COUNT,
       "Number of key/value pairs that will be fetched at time from tablet server", "2.0.0", false),
+  SCANNER_READAHEAD_BATCHES("scanner.readahead.batches", "0", PropertyType.COUNT,
+      "When greater than zero, scanners read up to this many batches ahead of the application"
+          + " once read ahead starts, instead of one. The tablet server is granted as many"
+          + " credits to read batches ahead of the scanner, and each request returns every batch"
+          + " it has ready. When zero, at most one batch is read ahead.",
+      "2.1.0", false),
+  SCANNER_PARALLEL_TABLETS("scanner.parallel.tablets", "0", PropertyType.COUNT,
+      "When greater than zero, scanners read up to this many tablets concurrently while still"
+          + " returning results in key order. Tablets following the one being consumed are read"
+          + " ahead, each in its own scan session. When zero, tablets are read one at a time.",
+      "2.1.0", false),
+  SCANNER_PARALLEL_MEMORY_MAX("scanner.parallel.memory.max", "64M", PropertyType.BYTES,
+      "Max memory (in bytes) a scanner reading tablets concurrently may buffer. Each tablet being"
+          + " read may complete one batch past this limit.",
+      "2.1.0", false),
 
   // BatchScanner
   BATCH_SCANNER_NUM_QUERY_THREADS("batch.scanner.num.query.threads", "3", PropertyType.COUNT,
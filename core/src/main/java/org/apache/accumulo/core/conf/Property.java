@@ -341,14 +341,36 @@ public enum Property {
   TSERV_CACHE_MANAGER_IMPL("tserver.cache.manager.class",
       "org.apache.accumulo.core.file.blockfile.cache.lru.LruBlockCacheManager", PropertyType.STRING,
       "Specifies the class name of the block cache factory implementation."
-          + " Alternative implementation is"
-          + " org.apache.accumulo.core.file.blockfile.cache.tinylfu.TinyLfuBlockCacheManager"),
+          + " Alternative implementations are"
+          + " org.apache.accumulo.core.file.blockfile.cache.tinylfu.TinyLfuBlockCacheManager and"
+          + " org.apache.accumulo.core.file.blockfile.cache.offheap.OffHeapBlockCacheManager,"
+          + " which stores block data in direct memory outside of the Java heap"),
   TSERV_DATACACHE_SIZE("tserver.cache.data.size", "10%", PropertyType.MEMORY,
       "Specifies the size of the cache for RFile data blocks."),
   TSERV_INDEXCACHE_SIZE("tserver.cache.index.size", "25%", PropertyType.MEMORY,
       "Specifies the size of the cache for RFile index blocks."),
   TSERV_SUMMARYCACHE_SIZE("tserver.cache.summary.size", "10%", PropertyType.MEMORY,
       "Specifies the size of the cache for summary data on each tablet server."),
+  TSERV_SCAN_RESULT_CACHE_SIZE("tserver.cache.scan.result.size", "10M", PropertyType.BYTES,
+      "Specifies the size of the cache for the results of small scans on tables that enable"
+          + " table.cache.scan.result.enable."),
+  TSERV_CACHE_WARM_DIR("tserver.cache.warm.dir", "", PropertyType.PATH,
+      "A directory, visible to all tablet servers, where tablet servers record the data blocks"
+          + " each tablet reads most often, in one file per table for each tablet server. When a"
+          + " tablet is loaded, the tablet server hosting it reads those blocks into its caches in"
+          + " the background. Files not rewritten for three intervals, and those of deleted tables,"
+          + " are removed. Cache warming is disabled when this is empty."),
+  TSERV_CACHE_WARM_INTERVAL("tserver.cache.warm.interval", "10m", PropertyType.TIMEDURATION,
+      "How often each tablet server records the data blocks its tablets read most often, when"
+          + " tserver.cache.warm.dir is set."),
+  TSERV_CACHE_WARM_BLOCKS_MAX("tserver.cache.warm.blocks.max", "512", PropertyType.COUNT,
+      "The maximum number of data blocks recorded for each tablet for cache warming."),
+  TSERV_CACHE_WARM_TRACKED_MAX("tserver.cache.warm.tracked.max", "100000", PropertyType.COUNT,
+      "The maximum number of distinct data blocks a tablet server counts reads of between"
+          + " recording blocks for cache warming."),
+  TSERV_CACHE_WARM_RATE("tserver.cache.warm.rate", "16M", PropertyType.BYTES,
+      "The maximum number of bytes per second a tablet server reads while warming its caches."
+          + " A value of 0 means no limit."),
   TSERV_PORTSEARCH("tserver.port.search", "false", PropertyType.BOOLEAN,
       "if the ports above are in use, search higher ports until one is available"),
   TSERV_CLIENTPORT("tserver.port.client", "9997", PropertyType.PORT,
@@ -393,6 +415,18 @@ public enum Property {
   TSERV_NATIVEMAP_ENABLED("tserver.memory.maps.native.enabled", "true", PropertyType.BOOLEAN,
       "An in-memory data store for accumulo implemented in c++ that increases"
           + " the amount of data accumulo can hold in memory and avoids Java GC" + " pauses."),
+  TSERV_OFFHEAP_MAP_ENABLED("tserver.memory.maps.offheap.enabled", "false", PropertyType.BOOLEAN,
+      "An in-memory data store implemented in Java that keeps keys and values in"
+          + " direct buffers outside of the Java heap, avoiding Java GC pauses without"
+          + " a native library. It is used when native maps are disabled or can not be"
+          + " loaded. Its memory is limited by the JVM option -XX:MaxDirectMemorySize."),
+  TSERV_MEMORY_MAP_CONCURRENT_WRITES("tserver.memory.maps.concurrent.writes", "false",
+      PropertyType.BOOLEAN,
+      "When true, writes to a tablet's in-memory map insert in parallel. Each write reserves"
+          + " its sequence numbers up front and becomes visible to scans only after every"
+          + " write that reserved earlier numbers is visible, so scans never see part of a"
+          + " mutation. When false, writes to a tablet insert one at a time. Native maps"
+          + " serialize inserts themselves, so this mostly helps Java maps."),
   TSERV_MAXMEM("tserver.memory.maps.max", "33%", PropertyType.MEMORY,
       "Maximum amount of memory that can be used to buffer data written to a"
           + " tablet server. There are two other properties that can effectively limit"
@@ -597,6 +631,9 @@ public enum Property {
   TSERV_SUMMARY_RETRIEVAL_THREADS("tserver.summary.retrieval.threads", "10", PropertyType.COUNT,
       "The number of threads on each tablet server available to retrieve"
           + " summary data, that is not currently in cache, from RFiles."),
+  TSERV_COALESCE_THREADS("tserver.file.coalesce.threads", "16", PropertyType.COUNT,
+      "The number of threads on each tablet server available to read the data blocks a batch"
+          + " lookup needs before it starts, see table.file.coalesce.ranges."),
 
   // accumulo garbage collector properties
   GC_PREFIX("gc.", null, PropertyType.PREFIX,
@@ -764,6 +801,13 @@ public enum Property {
   TABLE_SCAN_MAXMEM("table.scan.max.memory", "512k", PropertyType.BYTES,
       "The maximum amount of memory that will be used to cache results of a client query/scan. "
           + "Once this limit is reached, the buffered data is sent to the client."),
+  TABLE_SCAN_MINMEM("table.scan.min.memory", "0", PropertyType.BYTES,
+      "When greater than zero, the size of scan batches adapts to how fast the client consumes"
+          + " them. The first batch of a scan is limited to this size, so interactive scans see"
+          + " results sooner. Batches grow up to table.scan.max.memory while the client asks for"
+          + " the next batch faster than it was read, and the next batch is then read ahead while"
+          + " the current one is sent. Batches shrink back toward this size for clients that are"
+          + " slow to ask. When zero, every batch is limited to table.scan.max.memory."),
   TABLE_FILE_TYPE("table.file.type", RFile.EXTENSION, PropertyType.STRING,
       "Change the type of file a table writes"),
   TABLE_LOAD_BALANCER("table.balancer", "org.apache.accumulo.core.spi.balancer.SimpleLoadBalancer",
@@ -778,6 +822,28 @@ public enum Property {
   TABLE_FILE_COMPRESSED_BLOCK_SIZE_INDEX("table.file.compress.blocksize.index", "128k",
       PropertyType.BYTES,
       "The maximum size of index blocks in RFiles before they are compressed and written."),
+  TABLE_FILE_RESTART_INTERVAL("table.file.restart.interval", "16", PropertyType.COUNT,
+      "The number of entries between restart points in RFile data blocks. A restart point is an"
+          + " entry written without relative encoding, and the offsets of the restart points in a"
+          + " block are stored at its end so that a seek within a block held in memory can binary"
+          + " search them instead of decoding every entry from the start of the block. Smaller"
+          + " values make seeks faster at the cost of less compression. A value of 0 disables"
+          + " restart points."),
+  TABLE_FILE_VALUE_SEPARATION_THRESHOLD("table.file.value.separation.threshold", "0B",
+      PropertyType.BYTES,
+      "Values of at least this size are stored after the keys of their RFile data block and only"
+          + " read when a scan asks for them, so scans that only look at keys, such as counting"
+          + " rows, do not copy or decompress them. When a data block is not in the data cache,"
+          + " a scan that asks for such a value reads the whole block again, so this works best"
+          + " with the data cache enabled. A value of 0B stores all values with their keys."),
+  TABLE_FILE_COMPRESS_DICTIONARY_SIZE("table.file.compress.dictionary.size", "0B",
+      PropertyType.BYTES,
+      "The size of a compression dictionary trained from the first data written to each RFile"
+          + " and used to compress all of its data blocks. Small data blocks compress poorly on"
+          + " their own, and a dictionary lets them refer to data common across the file. The"
+          + " dictionary is stored in the RFile, which can then not be read by versions that do"
+          + " not support dictionaries. Only used with gz compression, and at most 32K is used."
+          + " A value of 0B disables dictionaries."),
   TABLE_FILE_BLOCK_SIZE("table.file.blocksize", "0B", PropertyType.BYTES,
       "The HDFS block size used when writing RFiles. When set to 0B, the"
           + " value/defaults of HDFS property 'dfs.block.size' will be used."),
@@ -803,6 +869,15 @@ public enum Property {
       "This number of seeks that would actually use a bloom filter must occur"
           + " before a RFile's bloom filter is loaded. Set this to zero to initiate"
           + " loading of bloom filters when a RFile is opened."),
+  TABLE_BLOOM_TYPE("table.bloom.type", "dynamic", PropertyType.STRING,
+      "The kind of bloom filter written to RFiles. dynamic is a set of standard bloom filters"
+          + " that grows as keys are added and tests each key in several places in memory."
+          + " blocked is a bloom filter that tests each key within a single cache line. xor is a"
+          + " static filter that tests each key in three places, uses less space than a bloom"
+          + " filter and has a false positive rate of about 0.4% regardless of the error rate"
+          + " property. blocked and xor are built when a file is closed, holding 8 bytes per"
+          + " distinct key in memory while the file is written, and are ignored by versions"
+          + " that do not support them. Possible values: dynamic, blocked, xor"),
   TABLE_BLOOM_SIZE("table.bloom.size", "1048576", PropertyType.COUNT,
       "Bloom filter size, as number of keys."),
   TABLE_BLOOM_ERRORRATE("table.bloom.error.rate", "0.5%", PropertyType.FRACTION,
@@ -856,6 +931,31 @@ public enum Property {
       "Determines whether index block cache is enabled for a table."),
   TABLE_BLOCKCACHE_ENABLED("table.cache.block.enable", "false", PropertyType.BOOLEAN,
       "Determines whether data block cache is enabled for a table."),
+  TABLE_SCAN_RESULT_CACHE_ENABLED("table.cache.scan.result.enable", "false", PropertyType.BOOLEAN,
+      "Determines whether the results of scans on a table are cached by tablet servers. Only"
+          + " scans whose results fit in a single batch are cached. A cached result is reused by"
+          + " later scans of the same tablet with the same range, columns, authorizations and"
+          + " iterators until the tablet is written to, its files change, the table"
+          + " configuration changes or the tablet is unloaded. Results of iterators that depend"
+          + " on the time, such as the AgeOffFilter, are also reused until then, so this should"
+          + " not be enabled for tables using such iterators."),
+  TABLE_READAHEAD_BLOCKS("table.file.readahead.blocks", "0", PropertyType.COUNT,
+      "The number of data blocks to read in the background ahead of a scan once it has read"
+          + " past its first block in a file. Blocks are read into the data cache when the scan"
+          + " uses it, otherwise they are held by the scan. A value of 0 disables read ahead."
+          + " This can be overridden per scan by a scan dispatcher."),
+  TABLE_COALESCE_RANGES("table.file.coalesce.ranges", "0", PropertyType.COUNT,
+      "When a batch lookup against a tablet has at least this many ranges, the data blocks the"
+          + " ranges need are found in the index of each file and read before the lookup starts,"
+          + " in parallel across files. Blocks that are close together in a file are read with a"
+          + " single read. A value of 0 disables this."),
+  TABLE_COALESCE_GAP("table.file.coalesce.gap", "64K", PropertyType.BYTES,
+      "The most unneeded data to read between two data blocks so that a batch lookup reads"
+          + " them with a single read, see table.file.coalesce.ranges."),
+  TABLE_COALESCE_MAX("table.file.coalesce.max", "32M", PropertyType.BYTES,
+      "The most uncompressed data a batch lookup reads from each file before it starts, see"
+          + " table.file.coalesce.ranges. Blocks are put in the data cache when the lookup uses"
+          + " it, otherwise they are held by the lookup."),
   TABLE_ITERATOR_PREFIX("table.iterator.", null, PropertyType.PREFIX,
       "Properties in this category specify iterators that are applied at"
           + " various stages (scopes) of interaction with a table. These properties"
@@ -1317,9 +1417,9 @@ public enum Property {
             || key.startsWith(TABLE_COMPACTION_SELECTOR_OPTS.getKey())));
   }
 
-  private static final EnumSet<Property> fixedProperties =
-      EnumSet.of(Property.TSERV_CLIENTPORT, Property.TSERV_NATIVEMAP_ENABLED,
-          Property.TSERV_SCAN_MAX_OPENFILES, Property.MANAGER_CLIENTPORT, Property.GC_PORT);
+  private static final EnumSet<Property> fixedProperties = EnumSet.of(Property.TSERV_CLIENTPORT,
+      Property.TSERV_NATIVEMAP_ENABLED, Property.TSERV_OFFHEAP_MAP_ENABLED,
+      Property.TSERV_SCAN_MAX_OPENFILES, Property.MANAGER_CLIENTPORT, Property.GC_PORT);
 
   /**
    * Checks if the given property may be changed via Zookeeper, but not recognized until the restart
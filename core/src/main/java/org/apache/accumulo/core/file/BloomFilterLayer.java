@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.io.PrintStream;
 import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -32,8 +33,10 @@ import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
 
 import org.apache.accumulo.core.bloomfilter.DynamicBloomFilter;
+import org.apache.accumulo.core.bloomfilter.KeyHashFilter;
 import org.apache.accumulo.core.classloader.ClassLoaderUtil;
 import org.apache.accumulo.core.conf.AccumuloConfiguration;
 import org.apache.accumulo.core.conf.ConfigurationCopy;
@@ -66,6 +69,8 @@ import org.slf4j.LoggerFactory;
 public class BloomFilterLayer {
   private static final Logger LOG = LoggerFactory.getLogger(BloomFilterLayer.class);
   public static final String BLOOM_FILE_NAME = "acu_bloom";
+  public static final String HASH_FILTER_FILE_NAME = "acu_hash_filter";
+  public static final String DYNAMIC_FILTER_TYPE = "dynamic";
   public static final int HASH_COUNT = 5;
 
   private static ExecutorService loadThreadPool = null;
@@ -88,6 +93,12 @@ public class BloomFilterLayer {
     private int numKeys;
     private int vectorSize;
 
+    // the filter types other than dynamic are built when closing from the hashes of all keys
+    private KeyHashFilter.Type hashFilterType;
+    private double errorRate;
+    private long[] keyHashes;
+    private int numKeyHashes;
+
     private FileSKVWriter writer;
     private KeyFunctor transformer = null;
     private boolean closed = false;
@@ -107,11 +118,21 @@ public class BloomFilterLayer {
       // <code>n</code> is the number of keys and <code>c</code> is the desired
       // max. error rate.
       // Our desired error rate is by default 0.005, i.e. 0.5%
-      double errorRate = acuconf.getFraction(Property.TABLE_BLOOM_ERRORRATE);
-      vectorSize = (int) Math
-          .ceil(-HASH_COUNT * numKeys / Math.log(1.0 - Math.pow(errorRate, 1.0 / HASH_COUNT)));
-      bloomFilter = new DynamicBloomFilter(vectorSize, HASH_COUNT,
-          Hash.parseHashType(acuconf.get(Property.TABLE_BLOOM_HASHTYPE)), numKeys);
+      errorRate = acuconf.getFraction(Property.TABLE_BLOOM_ERRORRATE);
+      String type = acuconf.get(Property.TABLE_BLOOM_TYPE);
+      if (type.equalsIgnoreCase(DYNAMIC_FILTER_TYPE)) {
+        vectorSize = (int) Math
+            .ceil(-HASH_COUNT * numKeys / Math.log(1.0 - Math.pow(errorRate, 1.0 / HASH_COUNT)));
+        bloomFilter = new DynamicBloomFilter(vectorSize, HASH_COUNT,
+            Hash.parseHashType(acuconf.get(Property.TABLE_BLOOM_HASHTYPE)), numKeys);
+      } else {
+        try {
+          hashFilterType = KeyHashFilter.Type.valueOf(type.toUpperCase());
+        } catch (IllegalArgumentException e) {
+          throw new IllegalArgumentException("Unknown bloom filter type: " + type, e);
+        }
+        keyHashes = new long[1024];
+      }
 
       /**
        * load KeyFunctor
@@ -141,8 +162,24 @@ public class BloomFilterLayer {
         throws IOException {
       writer.append(key, val);
       Key bloomKey = transformer.transform(key);
-      if (bloomKey.getBytes().length > 0)
-        bloomFilter.add(bloomKey);
+      if (bloomKey.getBytes().length > 0) {
+        if (bloomFilter != null) {
+          bloomFilter.add(bloomKey);
+        } else {
+          addKeyHash(KeyHashFilter.hash(bloomKey.getBytes()));
+        }
+      }
+    }
+
+    private void addKeyHash(long hash) {
+      // keys are appended in sorted order, so most duplicates are consecutive
+      if (numKeyHashes > 0 && keyHashes[numKeyHashes - 1] == hash) {
+        return;
+      }
+      if (numKeyHashes == keyHashes.length) {
+        keyHashes = Arrays.copyOf(keyHashes, keyHashes.length * 2);
+      }
+      keyHashes[numKeyHashes++] = hash;
     }
 
     @Override
@@ -151,9 +188,17 @@ public class BloomFilterLayer {
       if (closed)
         return;
 
-      DataOutputStream out = writer.createMetaStore(BLOOM_FILE_NAME);
-      out.writeUTF(transformer.getClass().getName());
-      bloomFilter.write(out);
+      DataOutputStream out;
+      if (bloomFilter != null) {
+        out = writer.createMetaStore(BLOOM_FILE_NAME);
+        out.writeUTF(transformer.getClass().getName());
+        bloomFilter.write(out);
+      } else {
+        out = writer.createMetaStore(HASH_FILTER_FILE_NAME);
+        out.writeUTF(transformer.getClass().getName());
+        KeyHashFilter.build(hashFilterType, keyHashes, numKeyHashes, errorRate).write(out);
+        keyHashes = null;
+      }
       out.flush();
       out.close();
       writer.close();
@@ -194,7 +239,7 @@ public class BloomFilterLayer {
 
   static class BloomFilterLoader {
 
-    private volatile DynamicBloomFilter bloomFilter;
+    private volatile Predicate<Key> bloomFilter;
     private int loadRequest = 0;
     private int loadThreshold = 1;
     private int maxLoadThreads;
@@ -218,8 +263,14 @@ public class BloomFilterLayer {
         DataInputStream in = null;
 
         try {
-          in = reader.getMetaStore(BLOOM_FILE_NAME);
-          DynamicBloomFilter tmpBloomFilter = new DynamicBloomFilter();
+          boolean hashFilter;
+          try {
+            in = reader.getMetaStore(HASH_FILTER_FILE_NAME);
+            hashFilter = true;
+          } catch (NoSuchMetaStoreException nsme) {
+            in = reader.getMetaStore(BLOOM_FILE_NAME);
+            hashFilter = false;
+          }
 
           // check for closed again after open but before reading the bloom filter in
           if (closed)
@@ -238,9 +289,15 @@ public class BloomFilterLayer {
            * read in bloom filter
            */
 
-          tmpBloomFilter.readFields(in);
           // only set the bloom filter after it is fully constructed
-          bloomFilter = tmpBloomFilter;
+          if (hashFilter) {
+            KeyHashFilter tmpHashFilter = KeyHashFilter.read(in);
+            bloomFilter = key -> tmpHashFilter.membershipTest(key.getBytes());
+          } else {
+            DynamicBloomFilter tmpBloomFilter = new DynamicBloomFilter();
+            tmpBloomFilter.readFields(in);
+            bloomFilter = tmpBloomFilter::membershipTest;
+          }
         } catch (NoSuchMetaStoreException nsme) {
           // file does not have a bloom filter, ignore it
         } catch (IOException ioe) {
@@ -326,7 +383,7 @@ public class BloomFilterLayer {
       if (bloomKey == null || bloomKey.getBytes().length == 0)
         return true;
 
-      return bloomFilter.membershipTest(bloomKey);
+      return bloomFilter.test(bloomKey);
     }
 
     public void close() {
@@ -422,6 +479,17 @@ public class BloomFilterLayer {
       reader.closeDeepCopies();
     }
 
+    @Override
+    public void prefetchBlocks(Collection<Range> ranges, long maxGap, long maxBytes)
+        throws IOException {
+      reader.prefetchBlocks(ranges, maxGap, maxBytes);
+    }
+
+    @Override
+    public long countEntries(Range range, int maxVersions) throws IOException {
+      return reader.countEntries(range, maxVersions);
+    }
+
     @Override
     public void setInterruptFlag(AtomicBoolean flag) {
       reader.setInterruptFlag(flag);
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
+
+/**
+ * Counts sorted keys the way a scan would return them: a delete is not counted and hides the older
+ * versions of its key, and at most a given number of versions of a key are counted. Keys must be
+ * added in sorted order.
+ */
+public class EntryCounter {
+
+  private final int maxVersions;
+
+  private Key current = null;
+  private boolean deleted;
+  private int versions;
+  private long count = 0;
+
+  /**
+   * @param maxVersions
+   *          most versions of a key to count, {@link Integer#MAX_VALUE} to count all of them
+   */
+  public EntryCounter(int maxVersions) {
+    if (maxVersions < 1) {
+      throw new IllegalArgumentException("maxVersions must be >= 1");
+    }
+    this.maxVersions = maxVersions;
+  }
+
+  public void add(Key key) {
+    if (current == null || !current.equals(key, PartialKey.ROW_COLFAM_COLQUAL_COLVIS)) {
+      current = new Key(key);
+      deleted = false;
+      versions = 0;
+    }
+
+    if (deleted) {
+      return;
+    }
+
+    if (key.isDeleted()) {
+      deleted = true;
+    } else if (versions < maxVersions) {
+      versions++;
+      count++;
+    }
+  }
+
+  /**
+   * Adds entries that were not seen, for example because they were counted from an index. The next
+   * key added is not compared with the keys added before these.
+   */
+  public void addUnseen(long entries) {
+    count += entries;
+    current = null;
+  }
+
+  public long getCount() {
+    return count;
+  }
+}
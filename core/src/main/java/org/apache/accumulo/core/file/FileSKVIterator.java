@@ -20,8 +20,11 @@ package org.apache.accumulo.core.file;
 
 import java.io.DataInputStream;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
 
 import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.file.blockfile.impl.CacheProvider;
 import org.apache.accumulo.core.iteratorsImpl.system.InterruptibleIterator;
 import org.apache.accumulo.core.sample.impl.SamplerConfigurationImpl;
@@ -39,6 +42,38 @@ public interface FileSKVIterator extends InterruptibleIterator, AutoCloseable {
 
   void setCacheProvider(CacheProvider cacheProvider);
 
+  /**
+   * Reads the data blocks that a lookup of the given ranges needs before the lookup seeks to them,
+   * combining reads of blocks that are close together in the file. Blocks that are read are used by
+   * this reader until {@link #closeDeepCopies()} is called.
+   *
+   * @param maxGap
+   *          the most bytes of unneeded data to read between two blocks to read them together
+   * @param maxBytes
+   *          the most uncompressed bytes to read
+   */
+  default void prefetchBlocks(Collection<Range> ranges, long maxGap, long maxBytes)
+      throws IOException {}
+
+  /**
+   * Counts the key/values in the range that a scan of this file alone would return before
+   * visibilities and table iterators are applied, as done by {@link EntryCounter}. Implementations
+   * may count data that lies entirely within the range from an index instead, as it is stored. This
+   * may reposition this reader.
+   *
+   * @param maxVersions
+   *          most versions of a key to count, {@link Integer#MAX_VALUE} to count all of them
+   */
+  default long countEntries(Range range, int maxVersions) throws IOException {
+    seek(range, Collections.emptySet(), false);
+    EntryCounter counter = new EntryCounter(maxVersions);
+    while (hasTop()) {
+      counter.add(getTopKey());
+      next();
+    }
+    return counter.getCount();
+  }
+
   @Override
   void close() throws IOException;
 }
@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache.disk;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.accumulo.core.conf.ConfigurationTypeHelper;
+import org.apache.accumulo.core.spi.cache.BlockCacheManager;
+import org.apache.accumulo.core.spi.cache.BlockCacheManager.Configuration;
+import org.apache.accumulo.core.spi.cache.CacheType;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Configuration for the optional local disk tier that sits behind a block cache. The tier is
+ * enabled for a cache type when both a directory and a size are configured for it, for example
+ *
+ * <pre>
+ * tserver.cache.config.disk.default.directory=/ssd/accumulo/block-cache
+ * tserver.cache.config.disk.data.size=100G
+ * tserver.cache.config.disk.index.size=10G
+ * </pre>
+ *
+ * Each cache type stores its blocks in a sub directory of the configured directory.
+ *
+ * <p>
+ * Cached blocks are already decrypted and decompressed, so the disk tier is disabled when
+ * {@code instance.crypto.service} configures RFile encryption, even if these properties are set.
+ * Writing the blocks to local disk would leave plaintext copies of encrypted data there.
+ */
+public final class DiskBlockCacheConfiguration {
+
+  public static final String PROPERTY_PREFIX = "disk";
+
+  /** Default Configuration Parameters */
+  public static final long DEFAULT_WRITE_QUEUE_SIZE = 64 * 1024 * 1024;
+
+  // property names
+  public static final String DIRECTORY_PROPERTY = "directory";
+  public static final String SIZE_PROPERTY = "size";
+  public static final String WRITE_QUEUE_SIZE_PROPERTY = "write.queue.size";
+
+  /** Directory holding the blocks for all cache types */
+  private final String directory;
+
+  /** Maximum bytes of block files kept on disk, zero disables the disk tier */
+  private final long maxSize;
+
+  /** Maximum bytes of blocks waiting to be written to disk, blocks beyond this are not written */
+  private final long writeQueueSize;
+
+  private final CacheType type;
+
+  private final Map<String,String> props;
+
+  private Optional<String> get(String k) {
+    return Optional.ofNullable(props.get(k));
+  }
+
+  public DiskBlockCacheConfiguration(Configuration conf, CacheType type) {
+
+    this.type = type;
+    this.props = conf.getProperties(PROPERTY_PREFIX, type);
+
+    this.directory =
+        get(DIRECTORY_PROPERTY).map(String::trim).filter(d -> !d.isEmpty()).orElse(null);
+    this.maxSize = get(SIZE_PROPERTY).map(ConfigurationTypeHelper::getFixedMemoryAsBytes)
+        .filter(s -> s > 0).orElse(0L);
+    this.writeQueueSize =
+        get(WRITE_QUEUE_SIZE_PROPERTY).map(ConfigurationTypeHelper::getFixedMemoryAsBytes)
+            .filter(s -> s > 0).orElse(DEFAULT_WRITE_QUEUE_SIZE);
+  }
+
+  public boolean isEnabled() {
+    return directory != null && maxSize > 0;
+  }
+
+  public String getDirectory() {
+    return directory;
+  }
+
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  public long getWriteQueueSize() {
+    return writeQueueSize;
+  }
+
+  public CacheType getType() {
+    return type;
+  }
+
+  public static class Builder {
+    private Map<String,String> props = new HashMap<>();
+    private String prefix;
+
+    private Builder(String prefix) {
+      this.prefix = prefix;
+    }
+
+    public Builder directory(String dir) {
+      Preconditions.checkArgument(dir != null && !dir.isEmpty());
+      props.put(prefix + DIRECTORY_PROPERTY, dir);
+      return this;
+    }
+
+    public Builder size(long size) {
+      Preconditions.checkArgument(size > 0);
+      props.put(prefix + SIZE_PROPERTY, size + "");
+      return this;
+    }
+
+    public Builder writeQueueSize(long size) {
+      Preconditions.checkArgument(size > 0);
+      props.put(prefix + WRITE_QUEUE_SIZE_PROPERTY, size + "");
+      return this;
+    }
+
+    public Map<String,String> buildMap() {
+      return Map.copyOf(props);
+    }
+  }
+
+  public static Builder builder(CacheType ct) {
+    return new Builder(BlockCacheManager.getFullyQualifiedPropertyPrefix(PROPERTY_PREFIX, ct));
+  }
+
+  @Override
+  public String toString() {
+    return super.toString() + ", type: " + type + ", directory: " + directory + ", maxSize: "
+        + maxSize + ", writeQueueSize: " + writeQueueSize;
+  }
+}
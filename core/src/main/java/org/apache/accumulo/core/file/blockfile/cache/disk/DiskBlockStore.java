@@ -0,0 +1,331 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache.disk;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+import org.apache.accumulo.core.spi.cache.BlockCache;
+import org.apache.accumulo.core.util.threads.ThreadPools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.hash.Hashing;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Stores blocks as individual files in a local directory. An in memory map from block name to file
+ * is rebuilt from the directory on startup, so blocks written before a restart are found again.
+ * Blocks are written asynchronously and each file records the block name and a checksum, so a
+ * partially written or corrupt file is detected and discarded rather than returned. When the files
+ * exceed the configured size the least recently read blocks are deleted.
+ */
+@SuppressFBWarnings(value = "PATH_TRAVERSAL_IN",
+    justification = "directory is set by the administrator in the server configuration")
+final class DiskBlockStore {
+
+  private static final Logger log = LoggerFactory.getLogger(DiskBlockStore.class);
+
+  private static final int MAGIC = 0xACCB10C1;
+  private static final String SUFFIX = ".blk";
+  private static final String TMP_SUFFIX = ".tmp";
+
+  /** Evicting stops once the files use less than this fraction of the max size */
+  private static final double EVICT_TO_FACTOR = 0.9;
+
+  private static class Entry {
+    final Path file;
+    final long size;
+    volatile long lastAccess;
+
+    Entry(Path file, long size, long lastAccess) {
+      this.file = file;
+      this.size = size;
+      this.lastAccess = lastAccess;
+    }
+  }
+
+  private static class Candidate {
+    final String blockName;
+    final Entry entry;
+    final long lastAccess;
+
+    Candidate(String blockName, Entry entry) {
+      this.blockName = blockName;
+      this.entry = entry;
+      this.lastAccess = entry.lastAccess;
+    }
+  }
+
+  private final Path dir;
+  private final long maxSize;
+  private final long writeQueueSize;
+  private final ConcurrentHashMap<String,Entry> entries = new ConcurrentHashMap<>();
+  private final AtomicLong size = new AtomicLong();
+  private final AtomicLong queuedBytes = new AtomicLong();
+  private final ThreadPoolExecutor writer;
+
+  private final LongAdder requestCount = new LongAdder();
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder writeCount = new LongAdder();
+  private final LongAdder evictedCount = new LongAdder();
+
+  DiskBlockStore(DiskBlockCacheConfiguration conf) {
+    this.dir = Paths.get(conf.getDirectory(), conf.getType().name().toLowerCase(Locale.ROOT));
+    this.maxSize = conf.getMaxSize();
+    this.writeQueueSize = conf.getWriteQueueSize();
+    try {
+      Files.createDirectories(dir);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to create block cache directory " + dir, e);
+    }
+    load();
+    this.writer = ThreadPools.createFixedThreadPool(1,
+        "DiskBlockCacheWriter-" + conf.getType().name().toLowerCase(Locale.ROOT), false);
+  }
+
+  private Path fileFor(String blockName) {
+    return dir.resolve(Hashing.murmur3_128().hashString(blockName, UTF_8) + SUFFIX);
+  }
+
+  /**
+   * Rebuilds the block map from the files left by a previous process.
+   */
+  private void load() {
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+      for (Path file : files) {
+        String fileName = file.getFileName().toString();
+        if (fileName.endsWith(SUFFIX)) {
+          try (DataInputStream in =
+              new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1024))) {
+            if (in.readInt() == MAGIC) {
+              String blockName = in.readUTF();
+              entries.put(blockName,
+                  new Entry(file, Files.size(file), Files.getLastModifiedTime(file).toMillis()));
+              size.addAndGet(Files.size(file));
+              continue;
+            }
+          } catch (IOException e) {
+            log.debug("Unable to read block cache file {}", file, e);
+          }
+        }
+        if (fileName.endsWith(SUFFIX) || fileName.endsWith(TMP_SUFFIX)) {
+          Files.deleteIfExists(file);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to read block cache directory " + dir, e);
+    }
+    log.info("Found {} cached blocks using {} bytes in {}", entries.size(), size.get(), dir);
+    evictIfNeeded();
+  }
+
+  /**
+   * @return the block data or null if the block is not stored or could not be read
+   */
+  byte[] read(String blockName) {
+    requestCount.increment();
+    Entry entry = entries.get(blockName);
+    if (entry == null) {
+      return null;
+    }
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(entry.file)))) {
+      if (in.readInt() != MAGIC || !blockName.equals(in.readUTF())) {
+        throw new IOException("Unexpected header");
+      }
+      byte[] data = new byte[in.readInt()];
+      in.readFully(data);
+      CRC32 crc = new CRC32();
+      crc.update(data);
+      if (crc.getValue() != in.readLong()) {
+        throw new IOException("Checksum mismatch");
+      }
+      entry.lastAccess = System.currentTimeMillis();
+      hitCount.increment();
+      return data;
+    } catch (IOException e) {
+      log.debug("Discarding unreadable block cache file {} for {}", entry.file, blockName, e);
+      remove(blockName, entry);
+      return null;
+    }
+  }
+
+  /**
+   * Queues the block to be written to disk. The block is dropped if it is already stored, too
+   * large, or too much data is already waiting to be written.
+   */
+  void write(String blockName, byte[] data) {
+    if (entries.containsKey(blockName) || data.length > maxSize) {
+      return;
+    }
+    if (queuedBytes.addAndGet(data.length) > writeQueueSize) {
+      queuedBytes.addAndGet(-data.length);
+      return;
+    }
+    try {
+      writer.execute(() -> {
+        try {
+          writeFile(blockName, data);
+        } finally {
+          queuedBytes.addAndGet(-data.length);
+        }
+      });
+    } catch (RuntimeException e) {
+      // executor was shutdown
+      queuedBytes.addAndGet(-data.length);
+    }
+  }
+
+  private void writeFile(String blockName, byte[] data) {
+    if (entries.containsKey(blockName)) {
+      return;
+    }
+    Path file = fileFor(blockName);
+    Path tmp = file.resolveSibling(file.getFileName() + TMP_SUFFIX);
+    try {
+      CRC32 crc = new CRC32();
+      crc.update(data);
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+        out.writeInt(MAGIC);
+        out.writeUTF(blockName);
+        out.writeInt(data.length);
+        out.write(data);
+        out.writeLong(crc.getValue());
+      }
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      long fileSize = Files.size(file);
+      Entry previous =
+          entries.put(blockName, new Entry(file, fileSize, System.currentTimeMillis()));
+      if (previous != null) {
+        size.addAndGet(-previous.size);
+      }
+      size.addAndGet(fileSize);
+      writeCount.increment();
+    } catch (IOException e) {
+      log.debug("Failed to write block cache file {} for {}", file, blockName, e);
+      try {
+        Files.deleteIfExists(tmp);
+      } catch (IOException e2) {
+        log.trace("Failed to delete {}", tmp, e2);
+      }
+      return;
+    }
+    evictIfNeeded();
+  }
+
+  private void remove(String blockName, Entry entry) {
+    if (entries.remove(blockName, entry)) {
+      size.addAndGet(-entry.size);
+      try {
+        Files.deleteIfExists(entry.file);
+      } catch (IOException e) {
+        log.debug("Failed to delete block cache file {}", entry.file, e);
+      }
+    }
+  }
+
+  private synchronized void evictIfNeeded() {
+    if (size.get() <= maxSize) {
+      return;
+    }
+
+    // snapshot access times, they may change while sorting
+    List<Candidate> candidates = new ArrayList<>(entries.size());
+    entries.forEach((blockName, entry) -> candidates.add(new Candidate(blockName, entry)));
+    candidates.sort(Comparator.comparingLong(c -> c.lastAccess));
+
+    long target = (long) (maxSize * EVICT_TO_FACTOR);
+    for (Candidate candidate : candidates) {
+      if (size.get() <= target) {
+        break;
+      }
+      remove(candidate.blockName, candidate.entry);
+      evictedCount.increment();
+    }
+  }
+
+  BlockCache.Stats getStats() {
+    return new BlockCache.Stats() {
+      @Override
+      public long hitCount() {
+        return hitCount.sum();
+      }
+
+      @Override
+      public long requestCount() {
+        return requestCount.sum();
+      }
+    };
+  }
+
+  long getSize() {
+    return size.get();
+  }
+
+  long getBlockCount() {
+    return entries.size();
+  }
+
+  long getWriteCount() {
+    return writeCount.sum();
+  }
+
+  long getEvictedCount() {
+    return evictedCount.sum();
+  }
+
+  Path getDirectory() {
+    return dir;
+  }
+
+  /**
+   * Waits for queued writes to complete.
+   */
+  void flush() throws InterruptedException, ExecutionException {
+    writer.submit(() -> {}).get();
+  }
+
+  void close() {
+    writer.shutdownNow();
+  }
+}
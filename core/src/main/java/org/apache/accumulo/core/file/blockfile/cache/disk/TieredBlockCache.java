@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache.disk;
+
+import java.util.Map;
+
+import org.apache.accumulo.core.cryptoImpl.NoCryptoService;
+import org.apache.accumulo.core.spi.cache.BlockCache;
+import org.apache.accumulo.core.spi.cache.BlockCacheManager.Configuration;
+import org.apache.accumulo.core.spi.cache.CacheEntry;
+import org.apache.accumulo.core.spi.cache.CacheType;
+import org.apache.accumulo.core.spi.crypto.CryptoService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A block cache that adds a local disk tier behind another block cache. When a block is not in the
+ * memory cache it is read from local disk if present, and only otherwise loaded from the file
+ * system. Blocks loaded from the file system are written to local disk in the background. Because
+ * blocks are keyed by file path and block position, and RFiles are never modified, blocks written
+ * before a restart remain valid and warm the memory cache after the restart.
+ *
+ * <p>
+ * The stats returned by {@link #getStats()} are those of the memory cache, the disk tier keeps its
+ * own stats which are available from {@link #getDiskStats()}.
+ */
+public class TieredBlockCache implements BlockCache {
+
+  private static final Logger log = LoggerFactory.getLogger(TieredBlockCache.class);
+
+  private final BlockCache cache;
+  final DiskBlockStore store;
+
+  private TieredBlockCache(BlockCache cache, DiskBlockStore store) {
+    this.cache = cache;
+    this.store = store;
+  }
+
+  /**
+   * Blocks are cached after they are decrypted and decompressed, so the disk tier is never created
+   * when RFiles are encrypted. Otherwise local disk would hold plaintext copies of encrypted data.
+   *
+   * @param crypto
+   *          the crypto service used to write RFiles
+   * @return the cache wrapped with a disk tier if one is configured for the cache type and RFiles
+   *         are not encrypted, otherwise the cache itself
+   */
+  public static BlockCache wrap(Configuration conf, CacheType type, BlockCache cache,
+      CryptoService crypto) {
+    if (cache == null) {
+      return null;
+    }
+    DiskBlockCacheConfiguration dconf = new DiskBlockCacheConfiguration(conf, type);
+    if (!dconf.isEnabled()) {
+      return cache;
+    }
+    if (!(crypto instanceof NoCryptoService)) {
+      log.warn("Not creating {} disk cache tier because RFile encryption is enabled with {}", type,
+          crypto.getClass().getName());
+      return cache;
+    }
+    log.info("Creating {} disk cache tier with configuration {}", type, dconf);
+    return new TieredBlockCache(cache, new DiskBlockStore(dconf));
+  }
+
+  private class DiskLoader implements Loader {
+
+    private final String blockName;
+    private final Loader loader;
+
+    DiskLoader(String blockName, Loader loader) {
+      this.blockName = blockName;
+      this.loader = loader;
+    }
+
+    @Override
+    public Map<String,Loader> getDependencies() {
+      return loader.getDependencies();
+    }
+
+    @Override
+    public byte[] load(int maxSize, Map<String,byte[]> dependencies) {
+      byte[] data = store.read(blockName);
+      if (data != null && data.length <= maxSize) {
+        return data;
+      }
+
+      data = loader.load(maxSize, dependencies);
+      if (data != null) {
+        store.write(blockName, data);
+      }
+      return data;
+    }
+  }
+
+  @Override
+  public CacheEntry cacheBlock(String blockName, byte[] buf) {
+    store.write(blockName, buf);
+    return cache.cacheBlock(blockName, buf);
+  }
+
+  @Override
+  public CacheEntry getBlock(String blockName) {
+    CacheEntry ce = cache.getBlock(blockName);
+    if (ce == null) {
+      byte[] data = store.read(blockName);
+      if (data != null) {
+        ce = cache.cacheBlock(blockName, data);
+      }
+    }
+    return ce;
+  }
+
+  @Override
+  public CacheEntry getBlock(String blockName, Loader loader) {
+    return cache.getBlock(blockName, new DiskLoader(blockName, loader));
+  }
+
+  @Override
+  public long getMaxHeapSize() {
+    return cache.getMaxHeapSize();
+  }
+
+  @Override
+  public long getMaxSize() {
+    return cache.getMaxSize();
+  }
+
+  @Override
+  public Stats getStats() {
+    return cache.getStats();
+  }
+
+  /**
+   * @return hits and requests for blocks that were not in the memory cache
+   */
+  public Stats getDiskStats() {
+    return store.getStats();
+  }
+
+  /**
+   * @return bytes used by block files on local disk
+   */
+  public long getDiskSize() {
+    return store.getSize();
+  }
+
+  /**
+   * @return the memory cache this disk tier is behind
+   */
+  public BlockCache getMemoryCache() {
+    return cache;
+  }
+
+  /**
+   * Stops writing blocks to disk. Blocks already on disk are kept for the next process.
+   */
+  public void close() {
+    store.close();
+  }
+}
@@ -66,6 +66,7 @@ public abstract class SynchronousLoadingBlockCache implements BlockCache {
           depData = null;
         } else {
           depData = Collections.singletonMap(entry.getKey(), dce.getBuffer());
+          dce.release();
         }
         break;
       }
@@ -80,6 +81,7 @@ public abstract class SynchronousLoadingBlockCache implements BlockCache {
           }
 
           depData.put(entry.getKey(), dce.getBuffer());
+          dce.release();
         }
         break;
     }
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache.offheap;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An approximation of LRU that gives every block a second chance. Blocks are kept in insertion
+ * order, and a hit only sets a flag on the block without locking. When a victim is needed blocks
+ * are taken from the head of the queue, blocks that were accessed since they were last examined
+ * have their flag cleared and are moved to the tail, the first block found without the flag is
+ * evicted.
+ */
+public class ClockEvictionPolicy implements EvictionPolicy {
+
+  private static class Node {
+    final String blockName;
+    volatile boolean referenced;
+
+    Node(String blockName) {
+      this.blockName = blockName;
+    }
+  }
+
+  private final ConcurrentHashMap<String,Node> nodes = new ConcurrentHashMap<>();
+  private final ArrayDeque<Node> clock = new ArrayDeque<>();
+
+  @Override
+  public void inserted(String blockName) {
+    Node node = new Node(blockName);
+    synchronized (clock) {
+      nodes.put(blockName, node);
+      clock.addLast(node);
+    }
+  }
+
+  @Override
+  public void accessed(String blockName) {
+    Node node = nodes.get(blockName);
+    if (node != null && !node.referenced) {
+      node.referenced = true;
+    }
+  }
+
+  @Override
+  public void removed(String blockName) {
+    // the node is left in the queue and discarded when the clock hand reaches it
+    nodes.remove(blockName);
+  }
+
+  @Override
+  public String selectVictim() {
+    synchronized (clock) {
+      Node node;
+      while ((node = clock.pollFirst()) != null) {
+        if (nodes.get(node.blockName) != node) {
+          // block was removed, or removed and inserted again with a new node
+          continue;
+        }
+        if (node.referenced) {
+          node.referenced = false;
+          clock.addLast(node);
+        } else {
+          nodes.remove(node.blockName);
+          return node.blockName;
+        }
+      }
+      return null;
+    }
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache.offheap;
+
+/**
+ * Decides which block to evict from an {@link OffHeapBlockCache} when memory for a new block is
+ * needed. The cache keeps one policy instance per slot size class, so a policy only ever sees the
+ * blocks that share a size class and any victim it selects frees memory usable by the new block.
+ *
+ * <p>
+ * Implementations must be thread safe and must have a public no argument constructor. They are
+ * selected with the {@value OffHeapBlockCacheConfiguration#EVICTION_POLICY_PROPERTY} cache
+ * property.
+ */
+public interface EvictionPolicy {
+
+  /**
+   * Called after a block was added to the cache.
+   */
+  void inserted(String blockName);
+
+  /**
+   * Called when a cached block is read. This is called on every cache hit, so it should be cheap.
+   */
+  void accessed(String blockName);
+
+  /**
+   * Called after a block was removed from the cache for any reason other than being returned by
+   * {@link #selectVictim()}.
+   */
+  void removed(String blockName);
+
+  /**
+   * Selects a block to evict and stops tracking it.
+   *
+   * @return the name of the block to evict or null if this policy is not tracking any blocks
+   */
+  String selectVictim();
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache.offheap;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Evicts the least recently accessed block. Every access takes a lock to reorder blocks, which
+ * makes this policy precise but more expensive on hits than {@link ClockEvictionPolicy}.
+ */
+public class LruEvictionPolicy implements EvictionPolicy {
+
+  // access ordered, so iteration starts at the least recently used block
+  private final LinkedHashMap<String,Boolean> blocks = new LinkedHashMap<>(16, 0.75f, true);
+
+  @Override
+  public synchronized void inserted(String blockName) {
+    blocks.put(blockName, Boolean.TRUE);
+  }
+
+  @Override
+  public synchronized void accessed(String blockName) {
+    blocks.get(blockName);
+  }
+
+  @Override
+  public synchronized void removed(String blockName) {
+    blocks.remove(blockName);
+  }
+
+  @Override
+  public synchronized String selectVictim() {
+    Iterator<String> iter = blocks.keySet().iterator();
+    if (!iter.hasNext()) {
+      return null;
+    }
+    String victim = iter.next();
+    iter.remove();
+    return victim;
+  }
+}
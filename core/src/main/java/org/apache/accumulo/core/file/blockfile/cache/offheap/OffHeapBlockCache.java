@@ -0,0 +1,418 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache.offheap;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.apache.accumulo.core.file.blockfile.cache.impl.ClassSize;
+import org.apache.accumulo.core.file.blockfile.cache.lru.SynchronousLoadingBlockCache;
+import org.apache.accumulo.core.file.blockfile.cache.offheap.SlabAllocator.Slot;
+import org.apache.accumulo.core.spi.cache.BlockCache;
+import org.apache.accumulo.core.spi.cache.CacheEntry;
+import org.apache.accumulo.core.spi.cache.CacheEntry.Weighable;
+import org.apache.accumulo.core.util.threads.ThreadPools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A block cache that stores block data outside of the Java heap, in direct memory slabs managed by
+ * a {@link SlabAllocator}. Only the block map, per block bookkeeping, and any index built over a
+ * block live on the heap, so a large cache does not add to garbage collection pressure.
+ *
+ * <p>
+ * Each cached block is reference counted. The map holds one reference and every entry returned for
+ * a cache hit holds another until {@link CacheEntry#release()} is called, so a block evicted while
+ * it is being read keeps its memory until the read completes. Readers decode from a read only view
+ * of the cached memory returned by {@link CacheEntry#getByteBuffer()} without copying it to the
+ * heap, only {@link CacheEntry#getBuffer()} copies. An entry that is dropped without being released
+ * releases its reference when it is garbage collected. Eviction happens within the size class of
+ * the block being added, using the configured {@link EvictionPolicy}. Blocks larger than a slab, or
+ * that arrive when nothing in their size class can be evicted, are returned to the caller without
+ * being cached. So are blocks for which a few evictions free no memory because the evicted blocks
+ * are still being read.
+ */
+public final class OffHeapBlockCache extends SynchronousLoadingBlockCache {
+
+  private static final Logger log = LoggerFactory.getLogger(OffHeapBlockCache.class);
+  private static final int STATS_PERIOD_SEC = 60;
+
+  /**
+   * Most blocks evicted to make room for one block. Blocks being read keep their memory when
+   * evicted, so without a limit an allocation could empty its size class without freeing a slot.
+   */
+  private static final int MAX_EVICTIONS_PER_ALLOCATION = 4;
+
+  // releases blocks held by entries that were garbage collected without being released
+  private static final Cleaner cleaner = Cleaner.create();
+
+  /** Estimated heap used by the map entry, key, and bookkeeping for one block */
+  private static final long BLOCK_OVERHEAD =
+      ClassSize.CONCURRENT_HASHMAP_ENTRY + ClassSize.STRING + 64 + 3 * ClassSize.OBJECT
+          + ClassSize.ATOMIC_INTEGER + ClassSize.BYTE_BUFFER + 6 * ClassSize.REFERENCE;
+
+  private final OffHeapBlockCacheConfiguration conf;
+  private final SlabAllocator allocator;
+  private final EvictionPolicy[] policies;
+  private final ConcurrentHashMap<String,Block> blocks;
+
+  private final LongAdder requestCount = new LongAdder();
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder evictedCount = new LongAdder();
+  private final LongAdder uncachedCount = new LongAdder();
+
+  private final ScheduledExecutorService statsExecutor =
+      ThreadPools.createScheduledExecutorService(1, "OffHeapBlockCacheStatsExecutor", false);
+
+  public OffHeapBlockCache(OffHeapBlockCacheConfiguration conf) {
+    this.conf = conf;
+    this.allocator =
+        new SlabAllocator(conf.getMaxSize(), conf.getSlabSize(), conf.getMinSlotSize());
+    this.policies = new EvictionPolicy[allocator.numSizeClasses()];
+    for (int i = 0; i < policies.length; i++) {
+      policies[i] = conf.newEvictionPolicy();
+    }
+    this.blocks = new ConcurrentHashMap<>(
+        (int) Math.min(Integer.MAX_VALUE, Math.ceil(1.2 * conf.getMaxSize() / conf.getBlockSize())),
+        0.75f);
+    statsExecutor.scheduleAtFixedRate(this::logStats, STATS_PERIOD_SEC, STATS_PERIOD_SEC,
+        TimeUnit.SECONDS);
+  }
+
+  private final class Block {
+
+    private final Slot slot;
+    private final int length;
+
+    /** One reference for the cache map plus one for each read in progress */
+    private final AtomicInteger refCount = new AtomicInteger(1);
+
+    private Weighable index;
+
+    Block(Slot slot, int length) {
+      this.slot = slot;
+      this.length = length;
+    }
+
+    /**
+     * @return false if the block was evicted and its memory is no longer valid
+     */
+    boolean retain() {
+      int count;
+      do {
+        count = refCount.get();
+        if (count == 0) {
+          return false;
+        }
+      } while (!refCount.compareAndSet(count, count + 1));
+      return true;
+    }
+
+    void release() {
+      if (refCount.decrementAndGet() == 0) {
+        allocator.free(slot);
+      }
+    }
+
+    byte[] copy() {
+      byte[] data = new byte[length];
+      slot.buffer().get(data);
+      return data;
+    }
+
+    ByteBuffer view() {
+      ByteBuffer view = slot.buffer().asReadOnlyBuffer();
+      view.limit(length);
+      return view.slice();
+    }
+
+    @SuppressWarnings("unchecked")
+    synchronized <T extends Weighable> T getIndex(Supplier<T> supplier) {
+      if (index == null) {
+        index = supplier.get();
+      }
+      return (T) index;
+    }
+  }
+
+  /**
+   * Releases the reference an entry holds on its block exactly once, either when the entry is
+   * released or when it is garbage collected. This must not refer to the entry.
+   */
+  private static final class Pin implements Runnable {
+
+    private final Block block;
+    private final AtomicBoolean released = new AtomicBoolean(false);
+
+    Pin(Block block) {
+      this.block = block;
+    }
+
+    @Override
+    public void run() {
+      if (released.compareAndSet(false, true)) {
+        block.release();
+      }
+    }
+  }
+
+  private static final class OffHeapCacheEntry implements CacheEntry {
+
+    private byte[] buffer;
+    private final Block block;
+    // set when this entry holds a reference that keeps the block's memory valid
+    private final Pin pin;
+    private final Cleaner.Cleanable cleanable;
+    private Weighable index;
+
+    OffHeapCacheEntry(byte[] buffer, Block block) {
+      this.buffer = buffer;
+      this.block = block;
+      this.pin = null;
+      this.cleanable = null;
+    }
+
+    /**
+     * Creates an entry that reads from the cached memory of a block the caller has retained.
+     */
+    OffHeapCacheEntry(Block block) {
+      this.buffer = null;
+      this.block = block;
+      this.pin = new Pin(block);
+      this.cleanable = cleaner.register(this, pin);
+    }
+
+    private void checkPinned() {
+      if (pin.released.get()) {
+        throw new IllegalStateException("Cache entry was released");
+      }
+    }
+
+    @Override
+    public synchronized byte[] getBuffer() {
+      if (buffer == null) {
+        checkPinned();
+        buffer = block.copy();
+      }
+      return buffer;
+    }
+
+    @Override
+    public ByteBuffer getByteBuffer() {
+      if (pin == null) {
+        return ByteBuffer.wrap(buffer);
+      }
+      checkPinned();
+      return block.view();
+    }
+
+    @Override
+    public void release() {
+      if (cleanable != null) {
+        cleanable.clean();
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T extends Weighable> T getIndex(Supplier<T> supplier) {
+      if (block != null) {
+        return block.getIndex(supplier);
+      }
+      synchronized (this) {
+        if (index == null) {
+          index = supplier.get();
+        }
+        return (T) index;
+      }
+    }
+
+    @Override
+    public void indexWeightChanged() {
+      // indexes are on the heap and do not count against the off heap capacity
+    }
+  }
+
+  /**
+   * Returns an entry that holds the named block until it is released, or null if it is not cached.
+   */
+  private CacheEntry read(String blockName) {
+    Block block = blocks.get(blockName);
+    if (block == null || !block.retain()) {
+      return null;
+    }
+    return new OffHeapCacheEntry(block);
+  }
+
+  @Override
+  public CacheEntry getBlock(String blockName) {
+    requestCount.increment();
+    CacheEntry ce = read(blockName);
+    if (ce != null) {
+      hitCount.increment();
+      policies[((OffHeapCacheEntry) ce).block.slot.getSizeClass()].accessed(blockName);
+    }
+    return ce;
+  }
+
+  @Override
+  protected CacheEntry getBlockNoStats(String blockName) {
+    return read(blockName);
+  }
+
+  @Override
+  public CacheEntry cacheBlock(String blockName, byte[] buf) {
+    int sizeClass = allocator.sizeClass(buf.length);
+    if (sizeClass < 0) {
+      uncachedCount.increment();
+      return new OffHeapCacheEntry(buf, null);
+    }
+
+    Block existing = blocks.get(blockName);
+    if (existing != null) {
+      return new OffHeapCacheEntry(buf, existing);
+    }
+
+    Slot slot = allocate(sizeClass);
+    if (slot == null) {
+      uncachedCount.increment();
+      return new OffHeapCacheEntry(buf, null);
+    }
+    slot.buffer().put(buf);
+
+    Block block = new Block(slot, buf.length);
+    existing = blocks.putIfAbsent(blockName, block);
+    if (existing != null) {
+      // another thread cached the same block
+      block.release();
+      return new OffHeapCacheEntry(buf, existing);
+    }
+    policies[sizeClass].inserted(blockName);
+    return new OffHeapCacheEntry(buf, block);
+  }
+
+  private Slot allocate(int sizeClass) {
+    Slot slot;
+    int evictions = 0;
+    while ((slot = allocator.allocate(sizeClass)) == null) {
+      if (evictions++ == MAX_EVICTIONS_PER_ALLOCATION) {
+        return null;
+      }
+      String victim = policies[sizeClass].selectVictim();
+      if (victim == null) {
+        return null;
+      }
+      Block evicted = blocks.remove(victim);
+      if (evicted != null) {
+        evictedCount.increment();
+        // memory is reused once any reads in progress finish
+        evicted.release();
+      }
+    }
+    return slot;
+  }
+
+  @Override
+  protected int getMaxEntrySize() {
+    return allocator.getSlabSize();
+  }
+
+  @Override
+  public long getMaxSize() {
+    return conf.getMaxSize();
+  }
+
+  /**
+   * Block data is not on the heap, this is an estimate of the heap needed to track a full cache of
+   * typically sized blocks and the indexes built over them.
+   */
+  @Override
+  public long getMaxHeapSize() {
+    long maxBlocks = conf.getMaxSize() / Math.max(conf.getMinSlotSize(), conf.getBlockSize());
+    return maxBlocks * BLOCK_OVERHEAD + conf.getMaxSize() / 100;
+  }
+
+  @Override
+  public BlockCache.Stats getStats() {
+    return new BlockCache.Stats() {
+      @Override
+      public long hitCount() {
+        return hitCount.sum();
+      }
+
+      @Override
+      public long requestCount() {
+        return requestCount.sum();
+      }
+    };
+  }
+
+  /**
+   * @return the number of blocks currently cached
+   */
+  public long size() {
+    return blocks.size();
+  }
+
+  public long getEvictedCount() {
+    return evictedCount.sum();
+  }
+
+  /**
+   * @return direct memory held by cached blocks, including space lost rounding blocks up to slot
+   *         sizes
+   */
+  public long getCurrentSize() {
+    return allocator.getBytesInUse();
+  }
+
+  private void logStats() {
+    double maxMB = ((double) allocator.getCapacity()) / ((double) (1024 * 1024));
+    double usedMB = ((double) allocator.getBytesInUse()) / ((double) (1024 * 1024));
+    double reservedMB = ((double) allocator.getBytesReserved()) / ((double) (1024 * 1024));
+    long requests = requestCount.sum();
+    long hits = hitCount.sum();
+    log.debug(
+        "Cache Used={}MB, Reserved={}MB, Max={}MB, Blocks={}, Accesses={}, Hits={}, Hit Ratio={},"
+            + " Evicted={}, Uncached={}",
+        usedMB, reservedMB, maxMB, blocks.size(), requests, hits,
+        requests == 0 ? 0 : hits * 100.0 / requests, evictedCount.sum(), uncachedCount.sum());
+  }
+
+  /**
+   * Stops background logging and releases all cached blocks.
+   */
+  public void shutdown() {
+    statsExecutor.shutdownNow();
+    for (Map.Entry<String,Block> entry : blocks.entrySet()) {
+      if (blocks.remove(entry.getKey(), entry.getValue())) {
+        policies[entry.getValue().slot.getSizeClass()].removed(entry.getKey());
+        entry.getValue().release();
+      }
+    }
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache.offheap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.accumulo.core.classloader.ClassLoaderUtil;
+import org.apache.accumulo.core.conf.ConfigurationTypeHelper;
+import org.apache.accumulo.core.spi.cache.BlockCacheManager;
+import org.apache.accumulo.core.spi.cache.BlockCacheManager.Configuration;
+import org.apache.accumulo.core.spi.cache.CacheType;
+
+import com.google.common.base.Preconditions;
+
+public final class OffHeapBlockCacheConfiguration {
+
+  public static final String PROPERTY_PREFIX = "offheap";
+
+  /** Default Configuration Parameters */
+  public static final long DEFAULT_SLAB_SIZE = 4 * 1024 * 1024;
+  public static final int DEFAULT_MIN_SLOT_SIZE = 1024;
+  public static final String DEFAULT_EVICTION_POLICY = ClockEvictionPolicy.class.getName();
+
+  // property names
+  public static final String SLAB_SIZE_PROPERTY = "slab.size";
+  public static final String MIN_SLOT_SIZE_PROPERTY = "slot.size.min";
+  public static final String EVICTION_POLICY_PROPERTY = "eviction.policy";
+
+  /** Size of each direct memory allocation, also the largest block that can be cached */
+  private final int slabSize;
+
+  /** Size of the smallest slot, blocks smaller than this still use a slot this size */
+  private final int minSlotSize;
+
+  private final String evictionPolicy;
+
+  private final Configuration conf;
+
+  private final Map<String,String> props;
+
+  private final CacheType type;
+
+  private Optional<String> get(String k) {
+    return Optional.ofNullable(props.get(k));
+  }
+
+  public OffHeapBlockCacheConfiguration(Configuration conf, CacheType type) {
+
+    this.type = type;
+    this.conf = conf;
+    this.props = conf.getProperties(PROPERTY_PREFIX, type);
+
+    long slab = get(SLAB_SIZE_PROPERTY).map(ConfigurationTypeHelper::getFixedMemoryAsBytes)
+        .filter(s -> s > 0).orElse(DEFAULT_SLAB_SIZE);
+    if (slab > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("slab size must be smaller than 2GB");
+    }
+    // a small cache is a single slab
+    this.slabSize = (int) Math.min(slab, conf.getMaxSize(type));
+    int minSlot =
+        get(MIN_SLOT_SIZE_PROPERTY).map(s -> (int) ConfigurationTypeHelper.getFixedMemoryAsBytes(s))
+            .filter(s -> s > 0).orElse(DEFAULT_MIN_SLOT_SIZE);
+    if (minSlot > slab) {
+      throw new IllegalArgumentException("minimum slot size must not be larger than slab size");
+    }
+    this.minSlotSize = Math.min(minSlot, slabSize);
+    this.evictionPolicy = get(EVICTION_POLICY_PROPERTY).orElse(DEFAULT_EVICTION_POLICY);
+  }
+
+  public int getSlabSize() {
+    return slabSize;
+  }
+
+  public int getMinSlotSize() {
+    return minSlotSize;
+  }
+
+  public String getEvictionPolicy() {
+    return evictionPolicy;
+  }
+
+  /**
+   * @return a new instance of the configured eviction policy
+   */
+  public EvictionPolicy newEvictionPolicy() {
+    try {
+      return ClassLoaderUtil.loadClass(evictionPolicy, EvictionPolicy.class)
+          .getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalArgumentException("Unable to create eviction policy " + evictionPolicy, e);
+    }
+  }
+
+  public static class Builder {
+    private Map<String,String> props = new HashMap<>();
+    private String prefix;
+
+    private Builder(String prefix) {
+      this.prefix = prefix;
+    }
+
+    public Builder slabSize(long ss) {
+      Preconditions.checkArgument(ss > 0 && ss <= Integer.MAX_VALUE);
+      props.put(prefix + SLAB_SIZE_PROPERTY, ss + "");
+      return this;
+    }
+
+    public Builder minSlotSize(int mss) {
+      Preconditions.checkArgument(mss > 0);
+      props.put(prefix + MIN_SLOT_SIZE_PROPERTY, mss + "");
+      return this;
+    }
+
+    public Builder evictionPolicy(Class<? extends EvictionPolicy> ep) {
+      props.put(prefix + EVICTION_POLICY_PROPERTY, ep.getName());
+      return this;
+    }
+
+    public Map<String,String> buildMap() {
+      return Map.copyOf(props);
+    }
+  }
+
+  public static Builder builder(CacheType ct) {
+    return new Builder(BlockCacheManager.getFullyQualifiedPropertyPrefix(PROPERTY_PREFIX, ct));
+  }
+
+  @Override
+  public String toString() {
+    return super.toString() + ", slabSize: " + this.getSlabSize() + ", minSlotSize: "
+        + this.getMinSlotSize() + ", evictionPolicy: " + this.getEvictionPolicy();
+  }
+
+  public long getMaxSize() {
+    return conf.getMaxSize(type);
+  }
+
+  public long getBlockSize() {
+    return conf.getBlockSize();
+  }
+
+}
@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache.offheap;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Hands out fixed size slots carved from large direct memory slabs. Slots are grouped into size
+ * classes that grow geometrically, each step being about a quarter larger than the last, so the
+ * memory wasted rounding a block up to its slot size is bounded. Slabs are allocated lazily and
+ * assigned to the first size class that needs one. Once every slab is assigned, a size class can
+ * only reuse slots that were freed, which is why the cache evicts within a size class.
+ */
+final class SlabAllocator {
+
+  static final class Slot {
+    private final ByteBuffer buffer;
+    private final int sizeClass;
+
+    private Slot(ByteBuffer buffer, int sizeClass) {
+      this.buffer = buffer;
+      this.sizeClass = sizeClass;
+    }
+
+    int getSizeClass() {
+      return sizeClass;
+    }
+
+    /**
+     * @return a buffer positioned at the start of this slot, safe for the caller to modify
+     */
+    ByteBuffer buffer() {
+      return buffer.duplicate();
+    }
+  }
+
+  private final int slabSize;
+  private final int maxSlabs;
+  private final int[] slotSizes;
+  private final List<ArrayDeque<Slot>> freeSlots;
+  private final AtomicInteger slabsAllocated = new AtomicInteger();
+  private final AtomicLong bytesInUse = new AtomicLong();
+
+  SlabAllocator(long capacity, int slabSize, int minSlotSize) {
+    Preconditions.checkArgument(minSlotSize > 0 && minSlotSize <= slabSize,
+        "min slot size %s must be positive and no larger than slab size %s", minSlotSize, slabSize);
+    this.slabSize = slabSize;
+    this.maxSlabs = (int) Math.min(Integer.MAX_VALUE, capacity / slabSize);
+
+    List<Integer> sizes = new ArrayList<>();
+    long size = minSlotSize;
+    while (size < slabSize) {
+      sizes.add((int) size);
+      // round to a multiple of 8 so slots stay aligned
+      size = ((size + (size >> 2)) + 7) & ~7L;
+    }
+    sizes.add(slabSize);
+    slotSizes = sizes.stream().mapToInt(Integer::intValue).toArray();
+
+    freeSlots = new ArrayList<>(slotSizes.length);
+    for (int i = 0; i < slotSizes.length; i++) {
+      freeSlots.add(new ArrayDeque<>());
+    }
+  }
+
+  /**
+   * @return the size class that fits a block of the given length or -1 if the block is larger than
+   *         a slab
+   */
+  int sizeClass(int length) {
+    if (length > slabSize) {
+      return -1;
+    }
+    int low = 0;
+    int high = slotSizes.length - 1;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (slotSizes[mid] < length) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  int numSizeClasses() {
+    return slotSizes.length;
+  }
+
+  /**
+   * @return a slot from the size class or null if the class has no free slots and all slabs are
+   *         assigned
+   */
+  Slot allocate(int sizeClass) {
+    ArrayDeque<Slot> free = freeSlots.get(sizeClass);
+    synchronized (free) {
+      Slot slot = free.pollFirst();
+      if (slot == null && reserveSlab()) {
+        int slotSize = slotSizes[sizeClass];
+        ByteBuffer slab = ByteBuffer.allocateDirect(slabSize);
+        for (int offset = 0; offset + slotSize <= slabSize; offset += slotSize) {
+          slab.limit(offset + slotSize).position(offset);
+          free.addLast(new Slot(slab.slice(), sizeClass));
+        }
+        slot = free.pollFirst();
+      }
+      if (slot != null) {
+        bytesInUse.addAndGet(slotSizes[sizeClass]);
+      }
+      return slot;
+    }
+  }
+
+  private boolean reserveSlab() {
+    int allocated;
+    do {
+      allocated = slabsAllocated.get();
+      if (allocated >= maxSlabs) {
+        return false;
+      }
+    } while (!slabsAllocated.compareAndSet(allocated, allocated + 1));
+    return true;
+  }
+
+  void free(Slot slot) {
+    ArrayDeque<Slot> free = freeSlots.get(slot.sizeClass);
+    synchronized (free) {
+      free.addFirst(slot);
+    }
+    bytesInUse.addAndGet(-slotSizes[slot.sizeClass]);
+  }
+
+  /**
+   * @return bytes held by allocated slots, which includes the space lost rounding blocks up to slot
+   *         sizes
+   */
+  long getBytesInUse() {
+    return bytesInUse.get();
+  }
+
+  long getBytesReserved() {
+    return (long) slabsAllocated.get() * slabSize;
+  }
+
+  long getCapacity() {
+    return (long) maxSlabs * slabSize;
+  }
+
+  int getSlabSize() {
+    return slabSize;
+  }
+}
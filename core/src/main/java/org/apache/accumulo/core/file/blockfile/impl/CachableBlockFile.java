@@ -19,18 +19,24 @@
 package org.apache.accumulo.core.file.blockfile.impl;
 
 import java.io.Closeable;
+import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
 import org.apache.accumulo.core.file.rfile.bcfile.BCFile;
+import org.apache.accumulo.core.file.rfile.bcfile.BCFile.BlockRegion;
 import org.apache.accumulo.core.file.rfile.bcfile.BCFile.Reader.BlockReader;
 import org.apache.accumulo.core.file.rfile.bcfile.MetaBlockDoesNotExist;
 import org.apache.accumulo.core.file.streams.RateLimitedInputStream;
@@ -142,6 +148,7 @@ public class CachableBlockFile {
     private final IoeSupplier<InputStream> inputSupplier;
     private final IoeSupplier<Long> lengthSupplier;
     private final AtomicReference<BCFile.Reader> bcfr = new AtomicReference<>();
+    private final Map<Long,byte[]> prefetchedBlocks = new ConcurrentHashMap<>();
 
     private static final String ROOT_BLOCK_NAME = "!RootData";
 
@@ -205,7 +212,11 @@ public class CachableBlockFile {
       if (_iCache != null) {
         CacheEntry mce = _iCache.getBlock(cacheId + ROOT_BLOCK_NAME, new BCFileLoader());
         if (mce != null) {
-          return getBCFile(mce.getBuffer());
+          try {
+            return getBCFile(mce.getBuffer());
+          } finally {
+            mce.release();
+          }
         }
       }
 
@@ -380,7 +391,7 @@ public class CachableBlockFile {
         try {
           CacheEntry ce = _iCache.getBlock(_lookup, new MetaBlockLoader(blockName));
           if (ce != null) {
-            return new CachedBlockRead(ce, ce.getBuffer());
+            return new CachedBlockRead(ce);
           }
         } catch (UncheckedIOException uioe) {
           if (uioe.getCause() instanceof MetaBlockDoesNotExist) {
@@ -405,7 +416,7 @@ public class CachableBlockFile {
         CacheEntry ce =
             _iCache.getBlock(_lookup, new RawBlockLoader(offset, compressedSize, rawSize, true));
         if (ce != null) {
-          return new CachedBlockRead(ce, ce.getBuffer());
+          return new CachedBlockRead(ce);
         }
       }
 
@@ -427,7 +438,7 @@ public class CachableBlockFile {
         String _lookup = this.cacheId + "O" + blockIndex;
         CacheEntry ce = _dCache.getBlock(_lookup, new OffsetBlockLoader(blockIndex, false));
         if (ce != null) {
-          return new CachedBlockRead(ce, ce.getBuffer());
+          return new CachedBlockRead(ce);
         }
       }
 
@@ -437,13 +448,18 @@ public class CachableBlockFile {
 
     public CachedBlockRead getDataBlock(long offset, long compressedSize, long rawSize)
         throws IOException {
+      byte[] prefetched = prefetchedBlocks.get(offset);
+      if (prefetched != null) {
+        return new CachedBlockRead(prefetched);
+      }
+
       BlockCache _dCache = cacheProvider.getDataCache();
       if (_dCache != null) {
         String _lookup = this.cacheId + "R" + offset;
         CacheEntry ce =
             _dCache.getBlock(_lookup, new RawBlockLoader(offset, compressedSize, rawSize, false));
         if (ce != null) {
-          return new CachedBlockRead(ce, ce.getBuffer());
+          return new CachedBlockRead(ce);
         }
       }
 
@@ -451,12 +467,130 @@ public class CachableBlockFile {
       return new CachedBlockRead(_currBlock);
     }
 
+    /**
+     * Reads a data block ahead of its use. When a data cache is in use the block is loaded into it
+     * and null is returned, otherwise the block's content is returned for the caller to hold.
+     */
+    public byte[] readAheadDataBlock(long offset, long compressedSize, long rawSize)
+        throws IOException {
+      BlockCache _dCache = cacheProvider.getDataCache();
+      if (_dCache != null) {
+        String _lookup = this.cacheId + "R" + offset;
+        CacheEntry ce =
+            _dCache.getBlock(_lookup, new RawBlockLoader(offset, compressedSize, rawSize, false));
+        if (ce != null) {
+          // only the cached copy is wanted, do not keep the block from being freed
+          ce.release();
+          return null;
+        }
+      }
+
+      try (BlockReader _currBlock = getBCFile().getDataBlock(offset, compressedSize, rawSize)) {
+        byte[] b = new byte[(int) rawSize];
+        _currBlock.readFully(b);
+        return b;
+      }
+    }
+
+    /**
+     * Gets a data block whose whole content is in memory, so that it can be read in any order. The
+     * block comes from the cache or from the blocks held by this reader when present, otherwise it
+     * is read in full from the file.
+     */
+    public CachedBlockRead getSeekableDataBlock(long offset, long compressedSize, long rawSize)
+        throws IOException {
+      CachedBlockRead block = getDataBlock(offset, compressedSize, rawSize);
+      if (block.isSeekable()) {
+        return block;
+      }
+
+      try {
+        byte[] b = new byte[(int) rawSize];
+        block.readFully(b);
+        return new CachedBlockRead(b);
+      } finally {
+        block.close();
+      }
+    }
+
+    public int getReadAheadBlocks() {
+      return cacheProvider.getReadAheadBlocks();
+    }
+
+    private boolean isCached(BlockCache cache, String blockName) {
+      CacheEntry ce = cache.getBlock(blockName);
+      if (ce == null) {
+        return false;
+      }
+      ce.release();
+      return true;
+    }
+
+    /**
+     * Reads data blocks before they are used, combining the reads of blocks that are close together
+     * in the file. Blocks are put in the data cache, or held by this reader until
+     * {@link #clearPrefetchedBlocks()} when they can not be cached. Blocks already cached or held
+     * are not read again.
+     *
+     * @param regions
+     *          data blocks sorted by offset
+     * @param maxGap
+     *          the most bytes of unneeded data to read between two blocks to read them together
+     * @param maxBytes
+     *          the most uncompressed bytes to read, blocks past this are not read
+     * @return the number of blocks read
+     */
+    public int prefetchDataBlocks(List<BlockRegion> regions, long maxGap, long maxBytes)
+        throws IOException {
+      BlockCache _dCache = cacheProvider.getDataCache();
+
+      List<BlockRegion> toRead = new ArrayList<>();
+      long bytes = 0;
+      for (BlockRegion region : regions) {
+        if (prefetchedBlocks.containsKey(region.getOffset())
+            || (_dCache != null && isCached(_dCache, this.cacheId + "R" + region.getOffset()))) {
+          continue;
+        }
+        bytes += region.getRawSize();
+        if (bytes > maxBytes) {
+          break;
+        }
+        toRead.add(region);
+      }
+
+      int start = 0;
+      for (int i = 1; i <= toRead.size(); i++) {
+        if (i == toRead.size() || toRead.get(i).getOffset()
+            - (toRead.get(i - 1).getOffset() + toRead.get(i - 1).getCompressedSize()) > maxGap) {
+          List<BlockRegion> run = toRead.subList(start, i);
+          List<byte[]> blocks = getBCFile().readDataBlocks(run);
+          for (int j = 0; j < run.size(); j++) {
+            long offset = run.get(j).getOffset();
+            if (_dCache == null
+                || _dCache.cacheBlock(this.cacheId + "R" + offset, blocks.get(j)) == null) {
+              prefetchedBlocks.put(offset, blocks.get(j));
+            }
+          }
+          start = i;
+        }
+      }
+      return toRead.size();
+    }
+
+    /**
+     * Releases the blocks held by {@link #prefetchDataBlocks(List, long, long)}.
+     */
+    public void clearPrefetchedBlocks() {
+      prefetchedBlocks.clear();
+    }
+
     @Override
     public synchronized void close() throws IOException {
       if (closed)
         return;
 
       closed = true;
+      prefetchedBlocks.clear();
 
       BCFile.Reader reader = bcfr.get();
       if (reader != null)
@@ -478,7 +612,7 @@ public class CachableBlockFile {
   }
 
   public static class CachedBlockRead extends DataInputStream {
-    private SeekableByteArrayInputStream seekableInput;
+    private final SeekableByteBufferInputStream seekableInput;
     private final CacheEntry cb;
     boolean indexable;
 
@@ -489,17 +623,40 @@ public class CachableBlockFile {
       indexable = false;
     }
 
+    public CachedBlockRead(CacheEntry cb) {
+      this(new SeekableByteBufferInputStream(cb.getByteBuffer()), cb);
+    }
+
     public CachedBlockRead(CacheEntry cb, byte[] buf) {
-      this(new SeekableByteArrayInputStream(buf), cb);
+      this(new SeekableByteBufferInputStream(ByteBuffer.wrap(buf)), cb);
+    }
+
+    /**
+     * Reads a block that was read ahead of its use and is not in a cache.
+     */
+    public CachedBlockRead(byte[] buf) {
+      super(new SeekableByteBufferInputStream(ByteBuffer.wrap(buf)));
+      this.seekableInput = (SeekableByteBufferInputStream) in;
+      this.cb = null;
+      indexable = false;
     }
 
-    private CachedBlockRead(SeekableByteArrayInputStream seekableInput, CacheEntry cb) {
+    private CachedBlockRead(SeekableByteBufferInputStream seekableInput, CacheEntry cb) {
       super(seekableInput);
       this.seekableInput = seekableInput;
       this.cb = cb;
       indexable = true;
     }
 
+    /**
+     * For a cached block this returns a {@link DataInput} that decodes directly from the cached
+     * buffer without going through this stream, otherwise it returns this stream. Both share the
+     * same position.
+     */
+    public DataInput getDataInput() {
+      return seekableInput == null ? this : seekableInput;
+    }
+
     public void seek(int position) {
       seekableInput.seek(position);
     }
@@ -508,18 +665,45 @@ public class CachableBlockFile {
       return seekableInput.getPosition();
     }
 
+    /**
+     * @return true if {@link #seek(int)} can position this block, which is the case when the whole
+     *         block is in memory
+     */
+    public boolean isSeekable() {
+      return seekableInput != null;
+    }
+
+    public int getLength() {
+      return seekableInput.getLength();
+    }
+
     public boolean isIndexable() {
       return indexable;
     }
 
     public byte[] getBuffer() {
-      return seekableInput.getBuffer();
+      byte[] array = seekableInput.getArray();
+      return array == null ? cb.getBuffer() : array;
     }
 
     public <T extends Weighable> T getIndex(Supplier<T> indexSupplier) {
       return cb.getIndex(indexSupplier);
     }
 
+    /**
+     * Also releases the cache entry this reads from, the block must not be read after this.
+     */
+    @Override
+    public void close() throws IOException {
+      try {
+        super.close();
+      } finally {
+        if (cb != null) {
+          cb.release();
+        }
+      }
+    }
+
     public void indexWeightChanged() {
       cb.indexWeightChanged();
     }
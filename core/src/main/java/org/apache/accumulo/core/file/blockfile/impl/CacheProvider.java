@@ -26,4 +26,11 @@ public interface CacheProvider {
   BlockCache getDataCache();
 
   BlockCache getIndexCache();
+
+  /**
+   * @return the number of data blocks to read in the background ahead of a sequential scan
+   */
+  default int getReadAheadBlocks() {
+    return 0;
+  }
 }
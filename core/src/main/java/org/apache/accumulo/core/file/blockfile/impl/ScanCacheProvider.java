@@ -27,6 +27,7 @@ public class ScanCacheProvider implements CacheProvider {
 
   private final BlockCache indexCache;
   private final BlockCache dataCache;
+  private final int readAheadBlocks;
 
   public ScanCacheProvider(AccumuloConfiguration tableConfig, ScanDirectives directives,
       BlockCache indexCache, BlockCache dataCache) {
@@ -66,6 +67,8 @@ public class ScanCacheProvider implements CacheProvider {
         throw new IllegalStateException();
     }
 
+    this.readAheadBlocks = directives.getReadAheadBlocks()
+        .orElseGet(() -> tableConfig.getCount(Property.TABLE_READAHEAD_BLOCKS));
   }
 
   @Override
@@ -77,4 +80,9 @@ public class ScanCacheProvider implements CacheProvider {
   public BlockCache getIndexCache() {
     return indexCache;
   }
+
+  @Override
+  public int getReadAheadBlocks() {
+    return readAheadBlocks;
+  }
 }
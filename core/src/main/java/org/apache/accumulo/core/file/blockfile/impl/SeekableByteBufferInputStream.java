@@ -0,0 +1,251 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.impl;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads a cached block directly from a heap or direct {@link ByteBuffer}. This is both an
+ * {@link InputStream}, so it can back a {@link DataInputStream}, and a {@link DataInput} whose
+ * methods decode primitives straight from the buffer. The stream and data input views share one
+ * position, so callers may mix them. Like {@link SeekableByteArrayInputStream} this supports
+ * seeking and avoids synchronization.
+ */
+public class SeekableByteBufferInputStream extends InputStream implements DataInput {
+
+  private final ByteBuffer buffer;
+
+  /**
+   * @param buf
+   *          the block data from its position to its limit, the buffer itself is not modified
+   */
+  public SeekableByteBufferInputStream(ByteBuffer buf) {
+    requireNonNull(buf, "buf argument was null");
+    this.buffer = buf.slice();
+  }
+
+  private void require(int len) throws EOFException {
+    if (buffer.remaining() < len) {
+      throw new EOFException();
+    }
+  }
+
+  @Override
+  public int read() {
+    if (buffer.hasRemaining()) {
+      return buffer.get() & 0xff;
+    } else {
+      return -1;
+    }
+  }
+
+  @Override
+  public int read(byte[] b, int offset, int length) {
+    if (b == null) {
+      throw new NullPointerException();
+    }
+
+    if (length < 0 || offset < 0 || length > b.length - offset) {
+      throw new IndexOutOfBoundsException();
+    }
+
+    if (length == 0) {
+      return 0;
+    }
+
+    int avail = buffer.remaining();
+
+    if (avail <= 0) {
+      return -1;
+    }
+
+    if (length > avail) {
+      length = avail;
+    }
+
+    buffer.get(b, offset, length);
+    return length;
+  }
+
+  @Override
+  public long skip(long requestedSkip) {
+    int actualSkip = (int) Math.max(0, Math.min(requestedSkip, buffer.remaining()));
+    buffer.position(buffer.position() + actualSkip);
+    return actualSkip;
+  }
+
+  @Override
+  public int available() {
+    return buffer.remaining();
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  @Override
+  public synchronized void mark(int readAheadLimit) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public synchronized void reset() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void close() throws IOException {}
+
+  @Override
+  public void readFully(byte[] b) throws IOException {
+    readFully(b, 0, b.length);
+  }
+
+  @Override
+  public void readFully(byte[] b, int off, int len) throws IOException {
+    require(len);
+    buffer.get(b, off, len);
+  }
+
+  @Override
+  public int skipBytes(int n) {
+    return (int) skip(n);
+  }
+
+  @Override
+  public boolean readBoolean() throws IOException {
+    return readByte() != 0;
+  }
+
+  @Override
+  public byte readByte() throws IOException {
+    require(1);
+    return buffer.get();
+  }
+
+  @Override
+  public int readUnsignedByte() throws IOException {
+    return readByte() & 0xff;
+  }
+
+  @Override
+  public short readShort() throws IOException {
+    require(2);
+    return buffer.getShort();
+  }
+
+  @Override
+  public int readUnsignedShort() throws IOException {
+    return readShort() & 0xffff;
+  }
+
+  @Override
+  public char readChar() throws IOException {
+    require(2);
+    return buffer.getChar();
+  }
+
+  @Override
+  public int readInt() throws IOException {
+    require(4);
+    return buffer.getInt();
+  }
+
+  @Override
+  public long readLong() throws IOException {
+    require(8);
+    return buffer.getLong();
+  }
+
+  @Override
+  public float readFloat() throws IOException {
+    return Float.intBitsToFloat(readInt());
+  }
+
+  @Override
+  public double readDouble() throws IOException {
+    return Double.longBitsToDouble(readLong());
+  }
+
+  /**
+   * @deprecated This method does not properly convert bytes to characters, see
+   *             {@link DataInputStream#readLine()}
+   */
+  @Override
+  @Deprecated
+  public String readLine() throws IOException {
+    if (!buffer.hasRemaining()) {
+      return null;
+    }
+    StringBuilder sb = new StringBuilder();
+    while (buffer.hasRemaining()) {
+      int c = buffer.get() & 0xff;
+      if (c == '\n') {
+        break;
+      }
+      if (c == '\r') {
+        if (buffer.hasRemaining() && buffer.get(buffer.position()) == '\n') {
+          buffer.get();
+        }
+        break;
+      }
+      sb.append((char) c);
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public String readUTF() throws IOException {
+    return DataInputStream.readUTF(this);
+  }
+
+  public void seek(int position) {
+    if (position < 0 || position >= buffer.limit())
+      throw new IllegalArgumentException(
+          "position = " + position + " maxOffset = " + buffer.limit());
+    buffer.position(position);
+  }
+
+  public int getPosition() {
+    return buffer.position();
+  }
+
+  public int getLength() {
+    return buffer.limit();
+  }
+
+  /**
+   * @return the backing array when the block is on the heap and starts at the beginning of the
+   *         array, otherwise null
+   */
+  byte[] getArray() {
+    if (buffer.hasArray() && buffer.arrayOffset() == 0 && !buffer.isReadOnly()) {
+      return buffer.array();
+    }
+    return null;
+  }
+}
@@ -18,18 +18,19 @@
  */
 package org.apache.accumulo.core.file.rfile;
 
+import java.io.DataInput;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.accumulo.core.data.Key;
-import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.file.blockfile.cache.impl.ClassSize;
 import org.apache.accumulo.core.file.blockfile.cache.impl.SizeConstants;
 import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile.CachedBlockRead;
 import org.apache.accumulo.core.file.rfile.MultiLevelIndex.IndexEntry;
 import org.apache.accumulo.core.spi.cache.CacheEntry.Weighable;
+import org.apache.accumulo.core.util.MutableByteSequence;
 
 public class BlockIndex implements Weighable {
 
@@ -162,8 +163,9 @@ public class BlockIndex implements Weighable {
       IndexEntry indexEntry) throws IOException {
     cacheBlock.seek(0);
 
+    DataInput in = cacheBlock.getDataInput();
     RelativeKey rk = new RelativeKey();
-    Value val = new Value();
+    MutableByteSequence valbs = new MutableByteSequence(new byte[64], 0, 0);
 
     int interval = indexEntry.getNumEntries() / indexEntries;
 
@@ -183,8 +185,8 @@ public class BlockIndex implements Weighable {
 
       Key myPrevKey = rk.getKey();
       int pos = cacheBlock.getPosition();
-      rk.readFields(cacheBlock);
-      val.readFields(cacheBlock);
+      rk.readFields(in);
+      RelativeKey.readValue(in, valbs);
 
       if (count > 0 && count % interval == 0) {
         index.add(new BlockIndexEntry(pos, indexEntry.getNumEntries() - count, myPrevKey));
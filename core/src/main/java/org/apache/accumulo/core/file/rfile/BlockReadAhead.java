@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.rfile;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile;
+import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile.CachedBlockRead;
+import org.apache.accumulo.core.file.rfile.MultiLevelIndex.IndexEntry;
+import org.apache.accumulo.core.util.threads.ThreadPools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the data blocks that follow a scan's current block in the background, so a sequential scan
+ * does not wait on I/O each time it moves to the next block. Blocks are read in index order into
+ * the data cache when the scan uses one, otherwise they are held until the scan takes them.
+ */
+class BlockReadAhead {
+
+  private static final Logger log = LoggerFactory.getLogger(BlockReadAhead.class);
+
+  private static final int READ_AHEAD_THREADS = 16;
+
+  // shared by all readers in the process, threads time out when read ahead is not used
+  private static final ExecutorService readAheadPool =
+      ThreadPools.createFixedThreadPool(READ_AHEAD_THREADS, "rfile read ahead", false);
+
+  private static class PendingBlock {
+    final long offset;
+    final Future<byte[]> future;
+
+    PendingBlock(long offset, Future<byte[]> future) {
+      this.offset = offset;
+      this.future = future;
+    }
+  }
+
+  private final CachableBlockFile.Reader reader;
+  private final ArrayDeque<PendingBlock> pending = new ArrayDeque<>();
+
+  BlockReadAhead(CachableBlockFile.Reader reader) {
+    this.reader = reader;
+  }
+
+  /**
+   * @return the number of blocks currently being read ahead or held
+   */
+  int size() {
+    return pending.size();
+  }
+
+  /**
+   * Starts reading blocks in order, continuing after the blocks already being read ahead.
+   *
+   * @param entries
+   *          index entries of the blocks following those already being read ahead
+   */
+  void readAhead(List<IndexEntry> entries) {
+    for (IndexEntry entry : entries) {
+      long offset = entry.getOffset();
+      long compressedSize = entry.getCompressedSize();
+      long rawSize = entry.getRawSize();
+      pending.add(new PendingBlock(offset,
+          readAheadPool.submit(() -> reader.readAheadDataBlock(offset, compressedSize, rawSize))));
+    }
+  }
+
+  /**
+   * Waits for a block that was read ahead.
+   *
+   * @return the block when it was read ahead and is not cached, otherwise null in which case the
+   *         caller should read the block normally, which finds it in cache if it was read ahead
+   */
+  CachedBlockRead take(IndexEntry entry) throws IOException {
+    PendingBlock block = pending.peek();
+    if (block == null) {
+      return null;
+    }
+    if (block.offset != entry.getOffset()) {
+      // the scan did not continue in order
+      clear();
+      return null;
+    }
+    pending.remove();
+
+    try {
+      byte[] data = block.future.get();
+      return data == null ? null : new CachedBlockRead(data);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting for read ahead block");
+    } catch (ExecutionException e) {
+      log.debug("Failed to read ahead block at offset {}", block.offset, e.getCause());
+      return null;
+    }
+  }
+
+  /**
+   * Discards all blocks being read ahead or held.
+   */
+  void clear() {
+    // do not interrupt threads reading from the file, other readers may share its input stream
+    pending.forEach(block -> block.future.cancel(false));
+    pending.clear();
+  }
+}
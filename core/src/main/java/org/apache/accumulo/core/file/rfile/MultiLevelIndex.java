@@ -316,7 +316,8 @@ public class MultiLevelIndex {
     public void readFields(DataInput in, int version) throws IOException {
 
       if (version == RFile.RINDEX_VER_6 || version == RFile.RINDEX_VER_7
-          || version == RFile.RINDEX_VER_8) {
+          || version == RFile.RINDEX_VER_8 || version == RFile.RINDEX_VER_9
+          || version == RFile.RINDEX_VER_10) {
         level = in.readInt();
         offset = in.readInt();
         hasNext = in.readBoolean();
@@ -824,7 +825,8 @@ public class MultiLevelIndex {
       size = 0;
 
       if (version == RFile.RINDEX_VER_6 || version == RFile.RINDEX_VER_7
-          || version == RFile.RINDEX_VER_8) {
+          || version == RFile.RINDEX_VER_8 || version == RFile.RINDEX_VER_9
+          || version == RFile.RINDEX_VER_10) {
         size = in.readInt();
       }
 
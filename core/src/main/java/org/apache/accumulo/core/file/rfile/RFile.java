@@ -20,13 +20,16 @@ package org.apache.accumulo.core.file.rfile;
 
 import static java.util.Objects.requireNonNull;
 
+import java.io.ByteArrayOutputStream;
 import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.DataOutput;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -43,6 +46,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.accumulo.core.client.SampleNotPresentException;
 import org.apache.accumulo.core.client.sample.Sampler;
 import org.apache.accumulo.core.client.sample.SamplerConfiguration;
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
 import org.apache.accumulo.core.conf.DefaultConfiguration;
 import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.data.ArrayByteSequence;
@@ -50,6 +54,7 @@ import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.EntryCounter;
 import org.apache.accumulo.core.file.FileSKVIterator;
 import org.apache.accumulo.core.file.FileSKVWriter;
 import org.apache.accumulo.core.file.NoSuchMetaStoreException;
@@ -60,6 +65,7 @@ import org.apache.accumulo.core.file.rfile.MultiLevelIndex.IndexEntry;
 import org.apache.accumulo.core.file.rfile.MultiLevelIndex.Reader.IndexIterator;
 import org.apache.accumulo.core.file.rfile.RelativeKey.SkippR;
 import org.apache.accumulo.core.file.rfile.bcfile.BCFile;
+import org.apache.accumulo.core.file.rfile.bcfile.BCFile.BlockRegion;
 import org.apache.accumulo.core.file.rfile.bcfile.BCFile.Writer.BlockAppender;
 import org.apache.accumulo.core.file.rfile.bcfile.MetaBlockDoesNotExist;
 import org.apache.accumulo.core.iterators.IterationInterruptedException;
@@ -92,6 +98,17 @@ public class RFile {
 
   private static final int RINDEX_MAGIC = 0x20637474;
 
+  static final int RINDEX_VER_10 = 10; // Added value separation. Values at or above a size
+                                       // threshold are stored in a value region after the entries
+                                       // of a data block and the entries hold their offset. Readers
+                                       // only read such a value when it is requested, so scans that
+                                       // only look at keys do not copy or even decompress it.
+  static final int RINDEX_VER_9 = 9; // Added restart points to data blocks. Every Nth entry in a
+                                     // data block is written without relative encoding and the
+                                     // offsets of these entries are stored at the end of the
+                                     // block. This allows a seek within a block that is in memory
+                                     // to binary search the restart points instead of decoding
+                                     // every entry from the start of the block.
   static final int RINDEX_VER_8 = 8; // Added sample storage. There is a sample locality group for
                                      // each locality group. Sample are built using a Sampler and
                                      // sampler configuration. The Sampler and its configuration are
@@ -440,19 +457,37 @@ public class RFile {
 
     private SampleLocalityGroupWriter sample;
 
+    private final int restartInterval;
+    private int[] restarts = new int[16];
+    private int numRestarts = 0;
+
+    private final long valueThreshold;
+    private final ByteArrayOutputStream valuesBuffer = new ByteArrayOutputStream();
+    private final DataOutputStream valuesOut = new DataOutputStream(valuesBuffer);
+
     // Use windowed stats to fix ACCUMULO-4669
     private RollingStats keyLenStats = new RollingStats(2017);
     private double averageKeySize = 0;
 
     LocalityGroupWriter(BCFile.Writer fileWriter, long blockSize, long maxBlockSize,
-        LocalityGroupMetadata currentLocalityGroup, SampleLocalityGroupWriter sample) {
+        int restartInterval, long valueThreshold, LocalityGroupMetadata currentLocalityGroup,
+        SampleLocalityGroupWriter sample) {
       this.fileWriter = fileWriter;
       this.blockSize = blockSize;
       this.maxBlockSize = maxBlockSize;
+      this.restartInterval = restartInterval;
+      this.valueThreshold = valueThreshold;
       this.currentLocalityGroup = currentLocalityGroup;
       this.sample = sample;
     }
 
+    /**
+     * @return the size of the block in progress including the values held for its value region
+     */
+    private long getBlockRawSize() {
+      return blockWriter.getRawSize() + valuesBuffer.size();
+    }
+
     private boolean isGiantKey(Key k) {
       double mean = keyLenStats.getMean();
       double stddev = keyLenStats.getStandardDeviation();
@@ -478,7 +513,7 @@ public class RFile {
 
       if (blockWriter == null) {
         blockWriter = fileWriter.prepareDataBlock();
-      } else if (blockWriter.getRawSize() > blockSize) {
+      } else if (getBlockRawSize() > blockSize) {
 
         // Look for a key that's short to put in the index, defining short as average or below.
         if (averageKeySize == 0) {
@@ -490,7 +525,7 @@ public class RFile {
         // shortened, it may not be below average.
         Key closeKey = KeyShortener.shorten(prevKey, key);
 
-        if ((closeKey.getSize() <= averageKeySize || blockWriter.getRawSize() > maxBlockSize)
+        if ((closeKey.getSize() <= averageKeySize || getBlockRawSize() > maxBlockSize)
             && !isGiantKey(closeKey)) {
           closeBlock(closeKey, false);
           blockWriter = fileWriter.prepareDataBlock();
@@ -499,7 +534,7 @@ public class RFile {
           // To constrain the growth of data blocks, we limit our worst case scenarios to closing
           // blocks if they reach the maximum configurable block size of Integer.MAX_VALUE.
           // 128 bytes added for metadata overhead
-        } else if (((long) key.getSize() + (long) value.getSize() + blockWriter.getRawSize() + 128L)
+        } else if (((long) key.getSize() + (long) value.getSize() + getBlockRawSize() + 128L)
             >= Integer.MAX_VALUE) {
           closeBlock(closeKey, false);
           blockWriter = fileWriter.prepareDataBlock();
@@ -508,10 +543,26 @@ public class RFile {
         }
       }
 
+      if (restartInterval > 0 && entries % restartInterval == 0) {
+        // a restart point is encoded without reference to the previous key, so that decoding can
+        // start from it
+        if (numRestarts == restarts.length) {
+          restarts = Arrays.copyOf(restarts, numRestarts * 2);
+        }
+        restarts[numRestarts++] = (int) blockWriter.getRawSize();
+        lastKeyInBlock = null;
+      }
+
       RelativeKey rk = new RelativeKey(lastKeyInBlock, key);
 
       rk.write(blockWriter);
-      value.write(blockWriter);
+      if (valueThreshold > 0 && value.getSize() >= valueThreshold) {
+        // in place of the length, write where the value is in the value region
+        blockWriter.writeInt(-1 - valuesBuffer.size());
+        value.write(valuesOut);
+      } else {
+        value.write(blockWriter);
+      }
       entries++;
 
       keyLenStats.addValue(key.getSize());
@@ -522,6 +573,17 @@ public class RFile {
     }
 
     private void closeBlock(Key key, boolean lastBlock) throws IOException {
+      // Readers stop decoding entries after the count in the index, so the value region and the
+      // restart points can follow the last entry.
+      int valuesOffset = (int) blockWriter.getRawSize();
+      valuesBuffer.writeTo(blockWriter);
+      valuesBuffer.reset();
+      for (int i = 0; i < numRestarts; i++) {
+        blockWriter.writeInt(restarts[i]);
+      }
+      blockWriter.writeInt(valuesOffset);
+      blockWriter.writeInt(restartInterval);
+      blockWriter.writeInt(numRestarts);
       blockWriter.close();
 
       if (lastBlock)
@@ -537,6 +599,7 @@ public class RFile {
       blockWriter = null;
       lastKeyInBlock = null;
       entries = 0;
+      numRestarts = 0;
     }
 
     public void close() throws IOException {
@@ -554,12 +617,21 @@ public class RFile {
 
     public static final int MAX_CF_IN_DLG = 1000;
     private static final double MAX_BLOCK_MULTIPLIER = 1.1;
+    // the data sampled to train a compression dictionary is this many times the dictionary size
+    private static final int DICTIONARY_SAMPLE_MULTIPLIER = 16;
 
     private BCFile.Writer fileWriter;
 
     private final long blockSize;
     private final long maxBlockSize;
     private final int indexBlockSize;
+    private final int restartInterval;
+    private final long valueThreshold;
+    private final int dictionarySize;
+
+    // entries held back from the first data block until enough are seen to train a dictionary
+    private List<SampleEntry> dictionaryEntries;
+    private ByteArrayOutputStream dictionarySample;
 
     private ArrayList<LocalityGroupMetadata> localityGroups = new ArrayList<>();
     private ArrayList<LocalityGroupMetadata> sampleGroups = new ArrayList<>();
@@ -585,9 +657,30 @@ public class RFile {
 
     public Writer(BCFile.Writer bfw, int blockSize, int indexBlockSize,
         SamplerConfigurationImpl samplerConfig, Sampler sampler) {
+      this(bfw, blockSize, indexBlockSize, DefaultConfiguration.getInstance(), samplerConfig,
+          sampler);
+    }
+
+    /**
+     * @param tableConf
+     *          the source of the data block format settings, such as the restart interval
+     */
+    public Writer(BCFile.Writer bfw, int blockSize, int indexBlockSize,
+        AccumuloConfiguration tableConf, SamplerConfigurationImpl samplerConfig, Sampler sampler) {
       this.blockSize = blockSize;
       this.maxBlockSize = (long) (blockSize * MAX_BLOCK_MULTIPLIER);
       this.indexBlockSize = indexBlockSize;
+      this.restartInterval = tableConf.getCount(Property.TABLE_FILE_RESTART_INTERVAL);
+      this.valueThreshold = tableConf.getAsBytes(Property.TABLE_FILE_VALUE_SEPARATION_THRESHOLD);
+      // entries are only held back to train a dictionary the compression algorithm can use
+      this.dictionarySize = bfw.supportsDictionary()
+          ? (int) Math.min(tableConf.getAsBytes(Property.TABLE_FILE_COMPRESS_DICTIONARY_SIZE),
+              BCFile.MAX_DICTIONARY_SIZE)
+          : 0;
+      if (dictionarySize > 0) {
+        dictionaryEntries = new ArrayList<>();
+        dictionarySample = new ByteArrayOutputStream();
+      }
       this.fileWriter = bfw;
       previousColumnFamilies = new HashSet<>();
       this.samplerConfig = samplerConfig;
@@ -606,7 +699,7 @@ public class RFile {
       BlockAppender mba = fileWriter.prepareMetaBlock("RFile.index");
 
       mba.writeInt(RINDEX_MAGIC);
-      mba.writeInt(RINDEX_VER_8);
+      mba.writeInt(RINDEX_VER_10);
 
       if (currentLocalityGroup != null) {
         localityGroups.add(currentLocalityGroup);
@@ -647,10 +740,33 @@ public class RFile {
       dataClosed = true;
 
       if (lgWriter != null) {
+        flushDictionaryEntries();
         lgWriter.close();
       }
     }
 
+    /**
+     * Trains a compression dictionary from the entries held back so far, then writes them.
+     */
+    private void flushDictionaryEntries() throws IOException {
+      if (dictionaryEntries == null) {
+        return;
+      }
+
+      List<SampleEntry> entries = dictionaryEntries;
+      dictionaryEntries = null;
+      fileWriter.trainDictionary(dictionarySample.toByteArray(), dictionarySize);
+      dictionarySample = null;
+
+      for (SampleEntry entry : entries) {
+        lgWriter.append(entry.key, entry.val);
+      }
+    }
+
+    private void addDictionarySample(ByteSequence data) {
+      dictionarySample.write(data.getBackingArray(), data.offset(), data.length());
+    }
+
     @Override
     public void append(Key key, Value value) throws IOException {
 
@@ -658,6 +774,19 @@ public class RFile {
         throw new IllegalStateException("Cannont append, data closed");
       }
 
+      if (dictionaryEntries != null) {
+        dictionaryEntries.add(new SampleEntry(key, value));
+        addDictionarySample(key.getRowData());
+        addDictionarySample(key.getColumnFamilyData());
+        addDictionarySample(key.getColumnQualifierData());
+        addDictionarySample(key.getColumnVisibilityData());
+        dictionarySample.write(value.get(), 0, value.getSize());
+        if (dictionarySample.size() >= (long) dictionarySize * DICTIONARY_SAMPLE_MULTIPLIER) {
+          flushDictionaryEntries();
+        }
+        return;
+      }
+
       lgWriter.append(key, value);
     }
 
@@ -680,6 +809,7 @@ public class RFile {
       }
 
       if (lgWriter != null) {
+        flushDictionaryEntries();
         lgWriter.close();
       }
 
@@ -710,12 +840,11 @@ public class RFile {
 
       SampleLocalityGroupWriter sampleWriter = null;
       if (sampler != null) {
-        sampleWriter = new SampleLocalityGroupWriter(
-            new LocalityGroupWriter(fileWriter, blockSize, maxBlockSize, sampleLocalityGroup, null),
-            sampler);
+        sampleWriter = new SampleLocalityGroupWriter(new LocalityGroupWriter(fileWriter, blockSize,
+            maxBlockSize, restartInterval, valueThreshold, sampleLocalityGroup, null), sampler);
       }
-      lgWriter = new LocalityGroupWriter(fileWriter, blockSize, maxBlockSize, currentLocalityGroup,
-          sampleWriter);
+      lgWriter = new LocalityGroupWriter(fileWriter, blockSize, maxBlockSize, restartInterval,
+          valueThreshold, currentLocalityGroup, sampleWriter);
     }
 
     @Override
@@ -767,7 +896,7 @@ public class RFile {
       this.version = version;
 
       this.reader = reader;
-
+      this.readAhead = new BlockReadAhead(reader);
     }
 
     public LocalityGroupReader(LocalityGroupReader lgr) {
@@ -778,26 +907,87 @@ public class RFile {
       this.blockCount = lgr.blockCount;
       this.reader = lgr.reader;
       this.version = lgr.version;
+      this.readAhead = new BlockReadAhead(reader);
     }
 
     Iterator<IndexEntry> getIndex() throws IOException {
       return index.lookup(new Key());
     }
 
+    /**
+     * Adds the data blocks that seeking to each range and reading to its end would read.
+     */
+    void addBlockRegions(Collection<Range> ranges, Map<Long,BlockRegion> regions)
+        throws IOException {
+      if (blockCount == 0 || version == RINDEX_VER_3 || version == RINDEX_VER_4) {
+        return;
+      }
+
+      for (Range range : ranges) {
+        if (range.afterEndKey(firstKey)) {
+          continue;
+        }
+
+        Key startKey = range.getStartKey();
+        IndexIterator iter = index.lookup(startKey == null ? new Key() : startKey);
+        // same as seeking, start at the earliest index entry containing the key
+        while (iter.hasPrevious() && iter.hasNext()
+            && iter.peekPrevious().getKey().equals(iter.peek().getKey())) {
+          iter.previous();
+        }
+        while (iter.hasNext()) {
+          IndexEntry indexEntry = iter.next();
+          regions.computeIfAbsent(indexEntry.getOffset(), offset -> new BlockRegion(offset,
+              indexEntry.getCompressedSize(), indexEntry.getRawSize()));
+          if (range.afterEndKey(indexEntry.getKey())) {
+            break;
+          }
+        }
+      }
+    }
+
+    int cacheDataBlocks(Set<Long> offsets) throws IOException {
+      if (version == RINDEX_VER_3 || version == RINDEX_VER_4) {
+        // blocks in these versions are located by block number and not by offset
+        return 0;
+      }
+
+      int loaded = 0;
+      Iterator<IndexEntry> iter = getIndex();
+      while (iter.hasNext() && loaded < offsets.size()) {
+        IndexEntry indexEntry = iter.next();
+        if (offsets.contains(indexEntry.getOffset())) {
+          reader.getDataBlock(indexEntry.getOffset(), indexEntry.getCompressedSize(),
+              indexEntry.getRawSize()).close();
+          loaded++;
+        }
+      }
+      return loaded;
+    }
+
     @Override
     public void close() throws IOException {
       closed = true;
       hasTop = false;
+      readAhead.clear();
       if (currBlock != null)
         currBlock.close();
-
+      closeValueBlock();
     }
 
     private IndexIterator iiter;
     private int entriesLeft;
     private CachableBlockFile.CachedBlockRead currBlock;
+    private final BlockReadAhead readAhead;
+    // reads the current block directly from the cached buffer when the block is cached
+    private DataInput currInput;
     private RelativeKey rk;
     private Value val;
+    // offset of the top value in the value region of the current block when it has not been read
+    // yet, otherwise -1
+    private int valueRef = -1;
+    // the current block when it is in memory, or a copy of it, to read separated values from
+    private CachableBlockFile.CachedBlockRead valueBlock;
     private Key prevKey = null;
     private Range range = null;
     private boolean hasTop = false;
@@ -810,9 +1000,63 @@ public class RFile {
 
     @Override
     public Value getTopValue() {
+      if (valueRef >= 0) {
+        try {
+          val = readSeparatedValue(valueRef);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        valueRef = -1;
+      }
       return val;
     }
 
+    /**
+     * Reads a value from the value region of the current block. A block streamed from the file can
+     * not be repositioned, so the first such read from it gets a copy of the block that is in
+     * memory.
+     */
+    private Value readSeparatedValue(int offset) throws IOException {
+      if (valueBlock == null) {
+        if (currBlock.isSeekable()) {
+          valueBlock = currBlock;
+        } else {
+          IndexEntry indexEntry = iiter.peekPrevious();
+          valueBlock = reader.getSeekableDataBlock(indexEntry.getOffset(),
+              indexEntry.getCompressedSize(), indexEntry.getRawSize());
+        }
+      }
+
+      int position = valueBlock.getPosition();
+      DataInput in = valueBlock.getDataInput();
+      valueBlock.seek(valueBlock.getLength() - 12);
+      int valuesOffset = in.readInt();
+      valueBlock.seek(valuesOffset + offset);
+      Value value = new Value();
+      value.readFields(in);
+      valueBlock.seek(position);
+      return value;
+    }
+
+    private void readValue() throws IOException {
+      int len = currInput.readInt();
+      if (len < 0) {
+        valueRef = -1 - len;
+      } else {
+        valueRef = -1;
+        byte[] data = new byte[len];
+        currInput.readFully(data);
+        val.set(data);
+      }
+    }
+
+    private void closeValueBlock() throws IOException {
+      if (valueBlock != null && valueBlock != currBlock) {
+        valueBlock.close();
+      }
+      valueBlock = null;
+    }
+
     @Override
     public boolean hasTop() {
       return hasTop;
@@ -835,32 +1079,39 @@ public class RFile {
 
       if (entriesLeft == 0) {
         currBlock.close();
+        closeValueBlock();
         if (metricsGatherer != null)
           metricsGatherer.startBlock();
 
-        if (iiter.hasNext()) {
+        // keys in following blocks sort after the current block's index key, so there is no need
+        // to read the next block when that key is past the end of the range
+        if (iiter.hasNext() && !range.afterEndKey(iiter.peekPrevious().getKey())) {
           IndexEntry indexEntry = iiter.next();
           entriesLeft = indexEntry.getNumEntries();
           currBlock = getDataBlock(indexEntry);
+          currInput = currBlock.getDataInput();
 
           checkRange = range.afterEndKey(indexEntry.getKey());
           if (!checkRange)
             hasTop = true;
 
+          // the scan moved past the block it seeked to, so it is likely reading sequentially
+          scheduleReadAhead();
         } else {
           rk = null;
           val = null;
+          valueRef = -1;
           hasTop = false;
           return;
         }
       }
 
       prevKey = rk.getKey();
-      rk.readFields(currBlock);
-      val.readFields(currBlock);
+      rk.readFields(currInput);
+      readValue();
 
       if (metricsGatherer != null)
-        metricsGatherer.addMetric(rk.getKey(), val);
+        metricsGatherer.addMetric(rk.getKey(), getTopValue());
 
       entriesLeft--;
       if (checkRange)
@@ -874,10 +1125,42 @@ public class RFile {
 
       if (version == RINDEX_VER_3 || version == RINDEX_VER_4)
         return reader.getDataBlock(startBlock + iiter.previousIndex());
-      else
-        return reader.getDataBlock(indexEntry.getOffset(), indexEntry.getCompressedSize(),
-            indexEntry.getRawSize());
 
+      CachableBlockFile.CachedBlockRead readAheadBlock = readAhead.take(indexEntry);
+      if (readAheadBlock != null)
+        return readAheadBlock;
+
+      return reader.getDataBlock(indexEntry.getOffset(), indexEntry.getCompressedSize(),
+          indexEntry.getRawSize());
+    }
+
+    /**
+     * Starts reading the blocks after the current block in the background, up to the configured
+     * number of blocks and stopping at the end of the range.
+     */
+    private void scheduleReadAhead() {
+      int blocks = reader.getReadAheadBlocks();
+      if (blocks <= 0 || version == RINDEX_VER_3 || version == RINDEX_VER_4
+          || readAhead.size() >= blocks) {
+        return;
+      }
+
+      // walk forward past the blocks already being read ahead to find those that follow, then
+      // move the index iterator back to the current block
+      ArrayList<IndexEntry> entries = new ArrayList<>();
+      Key lastKey = iiter.peekPrevious().getKey();
+      int moved = 0;
+      while (moved < blocks && iiter.hasNext() && !range.afterEndKey(lastKey)) {
+        IndexEntry indexEntry = iiter.next();
+        moved++;
+        if (moved > readAhead.size())
+          entries.add(indexEntry);
+        lastKey = indexEntry.getKey();
+      }
+      for (; moved > 0; moved--)
+        iiter.previous();
+
+      readAhead.readAhead(entries);
     }
 
     @Override
@@ -902,20 +1185,113 @@ public class RFile {
       }
     }
 
+    /**
+     * Counts the entries in the range. Only the blocks at the edges of the range are read, and
+     * deletes and versions are handled in them. Blocks in between are counted from the number of
+     * entries their index entry records, as stored.
+     */
+    @Override
+    public long countEntries(Range range, int maxVersions) throws IOException {
+      seek(range, Collections.emptySet(), false);
+
+      EntryCounter counter = new EntryCounter(maxVersions);
+      while (hasTop) {
+        counter.add(rk.getKey());
+        if (entriesLeft == 0) {
+          // at the last entry of a block, so every following block whose index key is in the range
+          // is entirely in the range
+          while (iiter.hasNext() && !range.afterEndKey(iiter.peek().getKey())) {
+            if (interruptFlag != null && interruptFlag.get()) {
+              throw new IterationInterruptedException();
+            }
+            counter.addUnseen(iiter.next().getNumEntries());
+          }
+        }
+        next();
+      }
+      return counter.getCount();
+    }
+
     private void reset() {
       rk = null;
       hasTop = false;
+      readAhead.clear();
       if (currBlock != null) {
         try {
           try {
             currBlock.close();
+            closeValueBlock();
           } catch (IOException e) {
             log.warn("Failed to close block reader", e);
           }
         } finally {
           currBlock = null;
+          currInput = null;
+          valueBlock = null;
+        }
+      }
+    }
+
+    /**
+     * Positions the current block at the last restart point whose key is less than the start key,
+     * considering only restart points at or after the entry with index minEntry. The restart points
+     * are binary searched using the offsets stored at the end of the block, which requires the
+     * whole block to be in memory.
+     *
+     * @return the number of entries in the block from the restart point on, or -1 if no usable
+     *         restart point was found, in which case the position in the block is unchanged
+     */
+    private int seekRestart(Key startKey, int numEntries, int minEntry) throws IOException {
+      if (version < RINDEX_VER_9 || !currBlock.isSeekable()) {
+        return -1;
+      }
+
+      int position = currBlock.getPosition();
+      DataInput in = currBlock.getDataInput();
+
+      // version 10 added the offset of the value region before the restart interval
+      int trailerSize = version >= RINDEX_VER_10 ? 12 : 8;
+      currBlock.seek(currBlock.getLength() - 8);
+      int interval = in.readInt();
+      int numRestarts = in.readInt();
+      int restartsOffset = currBlock.getLength() - trailerSize - numRestarts * 4;
+
+      if (interval == 0) {
+        currBlock.seek(position);
+        return -1;
+      }
+
+      // Restart zero is the start of the block, which a normal seek reads from anyway. A restart
+      // at the last entry is never used because fastSkip needs at least two entries to determine
+      // the key before the one it stops at.
+      int low = Math.max(1, (minEntry + interval - 1) / interval);
+      int high = Math.min(numRestarts - 1, (numEntries - 2) / interval);
+      int found = -1;
+      int foundOffset = -1;
+
+      RelativeKey rk = new RelativeKey();
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        currBlock.seek(restartsOffset + mid * 4);
+        int offset = in.readInt();
+        currBlock.seek(offset);
+        rk.readFields(in);
+        if (rk.getKey().compareTo(startKey) < 0) {
+          found = mid;
+          foundOffset = offset;
+          low = mid + 1;
+        } else {
+          high = mid - 1;
         }
       }
+
+      if (found == -1) {
+        currBlock.seek(position);
+        return -1;
+      }
+
+      currBlock.seek(foundOffset);
+      return numEntries - found * interval;
     }
 
     private void _seek(Range range) throws IOException {
@@ -965,11 +1341,21 @@ public class RFile {
           // and speed up others.
 
           MutableByteSequence valbs = new MutableByteSequence(new byte[64], 0, 0);
-          SkippR skippr =
-              RelativeKey.fastSkip(currBlock, startKey, valbs, prevKey, getTopKey(), entriesLeft);
+          int numEntries = iiter.peekPrevious().getNumEntries();
+          int restartEntriesLeft = seekRestart(startKey, numEntries, numEntries - entriesLeft);
+          SkippR skippr;
+          if (restartEntriesLeft > 0) {
+            skippr =
+                RelativeKey.fastSkip(currInput, startKey, valbs, prevKey, null, restartEntriesLeft);
+            entriesLeft = restartEntriesLeft;
+          } else {
+            skippr =
+                RelativeKey.fastSkip(currInput, startKey, valbs, prevKey, getTopKey(), entriesLeft);
+          }
           if (skippr.skipped > 0) {
             entriesLeft -= skippr.skipped;
             val = new Value(valbs.toArray());
+            valueRef = skippr.valueRef;
             prevKey = skippr.prevKey;
             rk = skippr.rk;
           }
@@ -1019,6 +1405,7 @@ public class RFile {
           IndexEntry indexEntry = iiter.next();
           entriesLeft = indexEntry.getNumEntries();
           currBlock = getDataBlock(indexEntry);
+          currInput = currBlock.getDataInput();
 
           checkRange = range.afterEndKey(indexEntry.getKey());
           if (!checkRange)
@@ -1027,8 +1414,12 @@ public class RFile {
           MutableByteSequence valbs = new MutableByteSequence(new byte[64], 0, 0);
 
           Key currKey = null;
+          int currValueRef = -1;
 
-          if (currBlock.isIndexable()) {
+          int restartEntriesLeft = seekRestart(startKey, entriesLeft, 0);
+          if (restartEntriesLeft > 0) {
+            entriesLeft = restartEntriesLeft;
+          } else if (currBlock.isIndexable()) {
             BlockIndex blockIndex = BlockIndex.getIndex(currBlock, indexEntry);
             if (blockIndex != null) {
               BlockIndexEntry bie = blockIndex.seekBlock(startKey, currBlock);
@@ -1037,11 +1428,8 @@ public class RFile {
                 // need to prime the read process and read this key from the block
                 RelativeKey tmpRk = new RelativeKey();
                 tmpRk.setPrevKey(bie.getPrevKey());
-                tmpRk.readFields(currBlock);
-                val = new Value();
-
-                val.readFields(currBlock);
-                valbs = new MutableByteSequence(val.get(), 0, val.getSize());
+                tmpRk.readFields(currInput);
+                currValueRef = RelativeKey.readValue(currInput, valbs);
 
                 // just consumed one key from the input stream, so subtract one from entries left
                 entriesLeft = bie.getEntriesLeft() - 1;
@@ -1052,10 +1440,11 @@ public class RFile {
           }
 
           SkippR skippr =
-              RelativeKey.fastSkip(currBlock, startKey, valbs, prevKey, currKey, entriesLeft);
+              RelativeKey.fastSkip(currInput, startKey, valbs, prevKey, currKey, entriesLeft);
           prevKey = skippr.prevKey;
           entriesLeft -= skippr.skipped;
           val = new Value(valbs.toArray());
+          valueRef = skippr.skipped > 0 ? skippr.valueRef : currValueRef;
           // set rk when everything above is successful, if exception
           // occurs rk will not be set
           rk = skippr.rk;
@@ -1072,7 +1461,7 @@ public class RFile {
 
       if (metricsGatherer != null) {
         metricsGatherer.startLocalityGroup(rk.getKey().getColumnFamily());
-        metricsGatherer.addMetric(rk.getKey(), val);
+        metricsGatherer.addMetric(rk.getKey(), getTopValue());
       }
     }
 
@@ -1168,7 +1557,8 @@ public class RFile {
 
         if (magic != RINDEX_MAGIC)
           throw new IOException("Did not see expected magic number, saw " + magic);
-        if (ver != RINDEX_VER_8 && ver != RINDEX_VER_7 && ver != RINDEX_VER_6 && ver != RINDEX_VER_4
+        if (ver != RINDEX_VER_10 && ver != RINDEX_VER_9 && ver != RINDEX_VER_8
+            && ver != RINDEX_VER_7 && ver != RINDEX_VER_6 && ver != RINDEX_VER_4
             && ver != RINDEX_VER_3)
           throw new IOException("Did not see expected version, saw " + ver);
 
@@ -1187,7 +1577,8 @@ public class RFile {
 
         readers = currentReaders;
 
-        if (ver == RINDEX_VER_8 && mb.readBoolean()) {
+        if ((ver == RINDEX_VER_10 || ver == RINDEX_VER_9 || ver == RINDEX_VER_8)
+            && mb.readBoolean()) {
           sampleReaders = new LocalityGroupReader[size];
 
           for (int i = 0; i < size; i++) {
@@ -1275,6 +1666,42 @@ public class RFile {
         deepCopy.closeLocalityGroupReaders();
 
       deepCopies.clear();
+      reader.clearPrefetchedBlocks();
+    }
+
+    /**
+     * Resolves the ranges against the index of each locality group and reads the data blocks they
+     * need, reading blocks that are close together in the file with one read.
+     */
+    @Override
+    public void prefetchBlocks(Collection<Range> ranges, long maxGap, long maxBytes)
+        throws IOException {
+      TreeMap<Long,BlockRegion> regions = new TreeMap<>();
+      for (LocalityGroupReader lgr : readers) {
+        lgr.addBlockRegions(ranges, regions);
+      }
+      if (!regions.isEmpty()) {
+        reader.prefetchDataBlocks(new ArrayList<>(regions.values()), maxGap, maxBytes);
+      }
+    }
+
+    /**
+     * Counts the entries in the range across all locality groups using the index of each group, so
+     * that only the data blocks at the edges of the range are read.
+     */
+    @Override
+    public long countEntries(Range range, int maxVersions) throws IOException {
+      long count = 0;
+      for (LocalityGroupReader lgr : readers) {
+        LocalityGroupReader counter = new LocalityGroupReader(lgr);
+        counter.setInterruptFlag(interruptFlag);
+        try {
+          count += counter.countEntries(range, maxVersions);
+        } finally {
+          counter.close();
+        }
+      }
+      return count;
     }
 
     @Override
@@ -1446,6 +1873,26 @@ public class RFile {
       return (lgCache == null ? 0 : lgCache.getNumLGSeeked());
     }
 
+    /**
+     * Reads the data blocks that start at the given file offsets, which loads them into the data
+     * cache when this reader has one. Offsets that do not start a data block are ignored. Reading
+     * the index to locate the blocks also loads the index into the index cache.
+     *
+     * @return the number of blocks read
+     */
+    public int cacheDataBlocks(Set<Long> offsets) throws IOException {
+      int loaded = 0;
+      for (LocalityGroupReader lgr : readers) {
+        loaded += lgr.cacheDataBlocks(offsets);
+      }
+      if (sampleReaders != null) {
+        for (LocalityGroupReader lgr : sampleReaders) {
+          loaded += lgr.cacheDataBlocks(offsets);
+        }
+      }
+      return loaded;
+    }
+
     public FileSKVIterator getIndex() throws IOException {
 
       ArrayList<Iterator<IndexEntry>> indexes = new ArrayList<>();
@@ -134,6 +134,7 @@ public class RFileOperations extends FileOperations {
     BCFile.Writer _cbw = new BCFile.Writer(outputStream, options.getRateLimiter(), compression,
         conf, options.cryptoService);
 
-    return new RFile.Writer(_cbw, (int) blockSize, (int) indexBlockSize, samplerConfig, sampler);
+    return new RFile.Writer(_cbw, (int) blockSize, (int) indexBlockSize, acuconf, samplerConfig,
+        sampler);
   }
 }
@@ -225,6 +225,8 @@ public class RelativeKey implements Writable {
     RelativeKey rk;
     int skipped;
     Key prevKey;
+    // offset of the last value read in its block's value region, or -1 when it was read inline
+    int valueRef = -1;
 
     SkippR(RelativeKey rk, int skipped, Key prevKey) {
       this.rk = rk;
@@ -305,6 +307,7 @@ public class RelativeKey implements Writable {
     byte fieldsSame = -1;
     byte fieldsPrefixed = 0;
     int count = 0;
+    int valueRef = -1;
     Key newPrevKey = null;
 
     while (count < entriesLeft) {
@@ -386,7 +389,7 @@ public class RelativeKey implements Writable {
           ts = WritableUtils.readVLong(in);
       }
 
-      readValue(in, value);
+      valueRef = readValue(in, value);
 
       count++;
 
@@ -437,7 +440,9 @@ public class RelativeKey implements Writable {
     result.key.setDeleted((fieldsSame & DELETED) != 0);
     result.prevKey = result.key;
 
-    return new SkippR(result, count, newPrevKey);
+    SkippR skippr = new SkippR(result, count, newPrevKey);
+    skippr.valueRef = valueRef;
+    return skippr;
   }
 
   private static void read(DataInput in, MutableByteSequence mbseq) throws IOException {
@@ -445,9 +450,20 @@ public class RelativeKey implements Writable {
     read(in, mbseq, len);
   }
 
-  private static void readValue(DataInput in, MutableByteSequence mbseq) throws IOException {
+  /**
+   * Reads a value written inline, or the reference to a value stored in the block's value region. A
+   * reference is written in place of the value length as {@code -1 - offset}.
+   *
+   * @return the offset of the value in the value region, or -1 if the value was read into mbseq
+   */
+  static int readValue(DataInput in, MutableByteSequence mbseq) throws IOException {
     int len = in.readInt();
+    if (len < 0) {
+      mbseq.setLength(0);
+      return -1 - len;
+    }
     read(in, mbseq, len);
+    return -1;
   }
 
   private static void read(DataInput in, MutableByteSequence mbseqDestination, int len)
@@ -31,6 +31,7 @@ import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
@@ -83,6 +84,11 @@ public final class BCFile {
   static final Version API_VERSION_1 = new Version((short) 1, (short) 0);
   static final Log LOG = LogFactory.getLog(BCFile.class);
 
+  /**
+   * The largest compression dictionary used, larger dictionaries are cut to this size.
+   */
+  public static final int MAX_DICTIONARY_SIZE = DictionaryCompression.MAX_DICTIONARY_SIZE;
+
   private static final String FS_OUTPUT_BUF_SIZE_ATTR = "tfile.fs.output.buffer.size";
   private static final String FS_INPUT_BUF_SIZE_ATTR = "tfile.fs.input.buffer.size";
 
@@ -114,7 +120,9 @@ public final class BCFile {
     // index for meta blocks
     final MetaIndex metaIndex;
     boolean blkInProgress = false;
+    private boolean dataBlkSeen = false;
     private boolean metaBlkSeen = false;
+    private DictionaryCompression dictionary;
     private boolean closed = false;
     long errorCount = 0;
     // reusable buffers.
@@ -139,8 +147,8 @@ public final class BCFile {
       private OutputStream out;
 
       public WBlockState(Algorithm compressionAlgo, RateLimitedOutputStream fsOut,
-          BytesWritable fsOutputBuffer, Configuration conf, FileEncrypter encrypter)
-          throws IOException {
+          BytesWritable fsOutputBuffer, Configuration conf, FileEncrypter encrypter,
+          DictionaryCompression dictionary) throws IOException {
         this.compressAlgo = compressionAlgo;
         this.fsOut = fsOut;
         this.posStart = fsOut.position();
@@ -149,11 +157,15 @@ public final class BCFile {
 
         this.fsBufferedOutput =
             new SimpleBufferedOutputStream(this.fsOut, fsOutputBuffer.getBytes());
-        this.compressor = compressAlgo.getCompressor();
+        this.compressor = dictionary == null ? compressAlgo.getCompressor() : null;
 
         try {
           this.cipherOut = encrypter.encryptStream(fsBufferedOutput);
-          this.out = compressionAlgo.createCompressionStream(cipherOut, compressor, 0);
+          if (dictionary == null) {
+            this.out = compressionAlgo.createCompressionStream(cipherOut, compressor, 0);
+          } else {
+            this.out = dictionary.createCompressionStream(cipherOut);
+          }
         } catch (IOException e) {
           compressAlgo.returnCompressor(compressor);
           throw e;
@@ -346,6 +358,13 @@ public final class BCFile {
             throw new IllegalStateException("Close() called with active block appender.");
           }
 
+          if (dictionary != null) {
+            try (BlockAppender appender = prepareMetaBlock(DictionaryCompression.META_BLOCK_NAME,
+                getDefaultCompressionAlgorithm())) {
+              appender.write(dictionary.getDictionary());
+            }
+          }
+
           // add metaBCFileIndex to metaIndex as the last meta block
           try (BlockAppender appender =
               prepareMetaBlock(DataIndex.BLOCK_NAME, getDefaultCompressionAlgorithm())) {
@@ -370,6 +389,9 @@ public final class BCFile {
         }
       } finally {
         closed = true;
+        if (dictionary != null) {
+          dictionary.end();
+        }
       }
     }
 
@@ -388,7 +410,7 @@ public final class BCFile {
       }
 
       MetaBlockRegister mbr = new MetaBlockRegister(name, compressAlgo);
-      WBlockState wbs = new WBlockState(compressAlgo, out, fsOutputBuffer, conf, encrypter);
+      WBlockState wbs = new WBlockState(compressAlgo, out, fsOutputBuffer, conf, encrypter, null);
       BlockAppender ba = new BlockAppender(mbr, wbs);
       blkInProgress = true;
       metaBlkSeen = true;
@@ -427,13 +449,54 @@ public final class BCFile {
         throw new IllegalStateException("Cannot create Data Block after Meta Blocks.");
       }
 
-      WBlockState wbs =
-          new WBlockState(getDefaultCompressionAlgorithm(), out, fsOutputBuffer, conf, encrypter);
+      WBlockState wbs = new WBlockState(getDefaultCompressionAlgorithm(), out, fsOutputBuffer, conf,
+          encrypter, dictionary);
       BlockAppender ba = new BlockAppender(wbs);
       blkInProgress = true;
+      dataBlkSeen = true;
       return ba;
     }
 
+    /**
+     * @return true if the compression algorithm of the data blocks can use a dictionary
+     */
+    public boolean supportsDictionary() {
+      return getDefaultCompressionAlgorithm().getName().equals(Compression.COMPRESSION_GZ);
+    }
+
+    /**
+     * Trains a dictionary from a sample of the data to be written and compresses all data blocks
+     * with it. A dictionary helps small blocks compress well, because data in a block can refer
+     * back to the dictionary. The dictionary is stored in the file as a meta block. Only gz
+     * compression supports a dictionary, for other algorithms this does nothing.
+     *
+     * @param sample
+     *          data representative of what will be written to data blocks
+     * @param dictionarySize
+     *          the maximum size of the dictionary, at most 32KiB is used
+     * @return true if data blocks will be compressed with a dictionary
+     * @throws IllegalStateException
+     *           If a data block has already been created.
+     */
+    public boolean trainDictionary(byte[] sample, int dictionarySize) {
+      if (dataBlkSeen) {
+        throw new IllegalStateException("Cannot set dictionary after Data Blocks.");
+      }
+
+      if (!supportsDictionary()) {
+        return false;
+      }
+
+      byte[] dict = DictionaryCompression.train(sample, dictionarySize);
+      if (dict.length == 0) {
+        return false;
+      }
+
+      this.dictionary = new DictionaryCompression(dict);
+      dataIndex.setDictionary(true);
+      return true;
+    }
+
     /**
      * Callback to make sure a meta block is added to the internal list when its stream is closed.
      */
@@ -465,6 +528,7 @@ public final class BCFile {
     final Version version;
     private byte[] decryptionParams;
     private FileDecrypter decrypter;
+    private volatile DictionaryCompression dictionary;
 
     /**
      * Intermediate class that maintain the state of a Readable Compression Block.
@@ -477,11 +541,11 @@ public final class BCFile {
       private volatile boolean closed;
 
       public <InputStreamType extends InputStream & Seekable> RBlockState(Algorithm compressionAlgo,
-          InputStreamType fsin, BlockRegion region, Configuration conf, FileDecrypter decrypter)
-          throws IOException {
+          InputStreamType fsin, BlockRegion region, Configuration conf, FileDecrypter decrypter,
+          DictionaryCompression dictionary) throws IOException {
         this.compressAlgo = compressionAlgo;
         this.region = region;
-        this.decompressor = compressionAlgo.getDecompressor();
+        this.decompressor = dictionary == null ? compressionAlgo.getDecompressor() : null;
 
         BoundedRangeFileInputStream boundedRangeFileInputStream = new BoundedRangeFileInputStream(
             fsin, this.region.getOffset(), this.region.getCompressedSize());
@@ -489,8 +553,13 @@ public final class BCFile {
         try {
           InputStream inputStreamToBeCompressed =
               decrypter.decryptStream(boundedRangeFileInputStream);
-          this.in = compressAlgo.createDecompressionStream(inputStreamToBeCompressed, decompressor,
-              getFSInputBufferSize(conf));
+          if (dictionary == null) {
+            this.in = compressAlgo.createDecompressionStream(inputStreamToBeCompressed,
+                decompressor, getFSInputBufferSize(conf));
+          } else {
+            this.in = dictionary.createDecompressionStream(inputStreamToBeCompressed,
+                getFSInputBufferSize(conf));
+          }
         } catch (IOException e) {
           compressAlgo.returnDecompressor(decompressor);
           throw e;
@@ -703,7 +772,7 @@ public final class BCFile {
       }
 
       BlockRegion region = imeBCIndex.getRegion();
-      return createReader(imeBCIndex.getCompressionAlgorithm(), region);
+      return createReader(imeBCIndex.getCompressionAlgorithm(), region, null);
     }
 
     public long getMetaBlockRawSize(String name) throws IOException, MetaBlockDoesNotExist {
@@ -729,13 +798,53 @@ public final class BCFile {
       }
 
       BlockRegion region = dataIndex.getBlockRegionList().get(blockIndex);
-      return createReader(dataIndex.getDefaultCompressionAlgorithm(), region);
+      return createReader(dataIndex.getDefaultCompressionAlgorithm(), region, getDictionary());
     }
 
     public BlockReader getDataBlock(long offset, long compressedSize, long rawSize)
         throws IOException {
       BlockRegion region = new BlockRegion(offset, compressedSize, rawSize);
-      return createReader(dataIndex.getDefaultCompressionAlgorithm(), region);
+      return createReader(dataIndex.getDefaultCompressionAlgorithm(), region, getDictionary());
+    }
+
+    /**
+     * Reads data blocks that are close together in the file with a single read of the region
+     * spanning them, instead of one read per block.
+     *
+     * @param regions
+     *          data blocks sorted by offset
+     * @return the uncompressed content of each block, in the same order as the regions
+     */
+    public List<byte[]> readDataBlocks(List<BlockRegion> regions) throws IOException {
+      BlockRegion first = regions.get(0);
+      BlockRegion last = regions.get(regions.size() - 1);
+      long start = first.getOffset();
+      byte[] span = new byte[Math.toIntExact(last.getOffset() + last.getCompressedSize() - start)];
+      synchronized (in) {
+        in.seek(start);
+        in.readFully(span);
+      }
+
+      Algorithm compressAlgo = dataIndex.getDefaultCompressionAlgorithm();
+      DictionaryCompression dictionary = getDictionary();
+      List<byte[]> blocks = new ArrayList<>(regions.size());
+      for (BlockRegion region : regions) {
+        InputStream compressed = new ByteArrayInputStream(span, (int) (region.getOffset() - start),
+            (int) region.getCompressedSize());
+        Decompressor decompressor = dictionary == null ? compressAlgo.getDecompressor() : null;
+        InputStream decrypted = decrypter.decryptStream(compressed);
+        try (DataInputStream din = new DataInputStream(dictionary == null
+            ? compressAlgo.createDecompressionStream(decrypted, decompressor,
+                getFSInputBufferSize(conf))
+            : dictionary.createDecompressionStream(decrypted, getFSInputBufferSize(conf)))) {
+          byte[] block = new byte[(int) region.getRawSize()];
+          din.readFully(block);
+          blocks.add(block);
+        } finally {
+          compressAlgo.returnDecompressor(decompressor);
+        }
+      }
+      return blocks;
     }
 
     public long getDataBlockRawSize(int blockIndex) {
@@ -747,9 +856,26 @@ public final class BCFile {
       return dataIndex.getBlockRegionList().get(blockIndex).getRawSize();
     }
 
-    private BlockReader createReader(Algorithm compressAlgo, BlockRegion region)
-        throws IOException {
-      RBlockState rbs = new RBlockState(compressAlgo, in, region, conf, decrypter);
+    /**
+     * Gets the dictionary that data blocks are compressed with, reading it from its meta block the
+     * first time.
+     *
+     * @return the dictionary, or null if data blocks are compressed without one
+     */
+    private DictionaryCompression getDictionary() throws IOException {
+      if (dictionary == null && dataIndex.usesDictionary()) {
+        try (BlockReader blockR = getMetaBlock(DictionaryCompression.META_BLOCK_NAME)) {
+          byte[] dict = new byte[(int) blockR.getRawSize()];
+          blockR.readFully(dict);
+          dictionary = new DictionaryCompression(dict);
+        }
+      }
+      return dictionary;
+    }
+
+    private BlockReader createReader(Algorithm compressAlgo, BlockRegion region,
+        DictionaryCompression dictionary) throws IOException {
+      RBlockState rbs = new RBlockState(compressAlgo, in, region, conf, decrypter, dictionary);
       return new BlockReader(rbs);
     }
   }
@@ -849,6 +975,8 @@ public final class BCFile {
     static final String BLOCK_NAME = "BCFile.index";
 
     private final Algorithm defaultCompressionAlgorithm;
+    // true when data blocks are compressed with the dictionary stored in a meta block
+    private boolean dictionary;
 
     // for data blocks, each entry specifies a block's offset, compressed size
     // and raw size
@@ -856,7 +984,12 @@ public final class BCFile {
 
     // for read, deserialized from a file
     public DataIndex(DataInput in) throws IOException {
-      defaultCompressionAlgorithm = Compression.getCompressionAlgorithmByName(Utils.readString(in));
+      String compressionName = Utils.readString(in);
+      if (compressionName.equals(DictionaryCompression.ALGORITHM_NAME)) {
+        dictionary = true;
+        compressionName = Compression.COMPRESSION_GZ;
+      }
+      defaultCompressionAlgorithm = Compression.getCompressionAlgorithmByName(compressionName);
 
       int n = Utils.readVInt(in);
       listRegions = new ArrayList<>(n);
@@ -878,12 +1011,21 @@ public final class BCFile {
       return defaultCompressionAlgorithm;
     }
 
+    public boolean usesDictionary() {
+      return dictionary;
+    }
+
+    public void setDictionary(boolean dictionary) {
+      this.dictionary = dictionary;
+    }
+
     public ArrayList<BlockRegion> getBlockRegionList() {
       return listRegions;
     }
 
     public void write(DataOutput out) throws IOException {
-      Utils.writeString(out, defaultCompressionAlgorithm.getName());
+      Utils.writeString(out, dictionary ? DictionaryCompression.ALGORITHM_NAME
+          : defaultCompressionAlgorithm.getName());
 
       Utils.writeVInt(out, listRegions.size());
 
@@ -926,7 +1068,7 @@ public final class BCFile {
   /**
    * Block region.
    */
-  static final class BlockRegion {
+  public static final class BlockRegion {
     private final long offset;
     private final long compressedSize;
     private final long rawSize;
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.rfile.bcfile;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A pool of the byte arrays that buffer the streams of compressed blocks, so that reading a block
+ * does not allocate new buffers each time. Arrays are pooled by size, and a bounded number of
+ * arrays are kept for each size. Arrays returned when the pool for their size is full are left for
+ * garbage collection.
+ */
+final class BufferPool {
+
+  // enough for many concurrent scans, while keeping the memory held small
+  static final int MAX_BUFFERS_PER_SIZE = 64;
+
+  private static final Map<Integer,Queue<byte[]>> buffers = new ConcurrentHashMap<>();
+
+  private BufferPool() {}
+
+  private static Queue<byte[]> getQueue(int size) {
+    return buffers.computeIfAbsent(size, s -> new ArrayBlockingQueue<>(MAX_BUFFERS_PER_SIZE));
+  }
+
+  /**
+   * @return a pooled array of the given size, or a new one when none is pooled
+   */
+  static byte[] take(int size) {
+    byte[] buffer = getQueue(size).poll();
+    return buffer == null ? new byte[size] : buffer;
+  }
+
+  /**
+   * Returns an array to the pool. The caller must not use the array afterwards.
+   */
+  static void give(byte[] buffer) {
+    getQueue(buffer.length).offer(buffer);
+  }
+
+  /**
+   * @return the number of arrays of the given size in the pool
+   */
+  static int pooled(int size) {
+    Queue<byte[]> queue = buffers.get(size);
+    return queue == null ? 0 : queue.size();
+  }
+}
@@ -18,7 +18,6 @@
  */
 package org.apache.accumulo.core.file.rfile.bcfile;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.FilterOutputStream;
 import java.io.IOException;
@@ -30,6 +29,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.CommonConfigurationKeysPublic;
 import org.apache.hadoop.io.compress.CodecPool;
 import org.apache.hadoop.io.compress.CompressionCodec;
 import org.apache.hadoop.io.compress.CompressionInputStream;
@@ -200,7 +200,7 @@ public final class Compression {
         }
         InputStream bis = bufferStream(downStream, downStreamBufferSize);
         CompressionInputStream cis = codec.createInputStream(bis, decompressor);
-        return new BufferedInputStream(cis, DATA_IBUF_SIZE);
+        return new PooledBufferedInputStream(cis, DATA_IBUF_SIZE);
       }
 
       @Override
@@ -634,8 +634,25 @@ public final class Compression {
           throw new IOException(e);
         }
       }
-      CompressionInputStream cis = codec.createInputStream(stream, decompressor);
-      return new BufferedInputStream(cis, DATA_IBUF_SIZE);
+      CompressionInputStream cis = createInputStream(codec, stream, decompressor);
+      return new PooledBufferedInputStream(cis, DATA_IBUF_SIZE);
+    }
+
+    /**
+     * Creates the stream that decompresses data using the codec. For the default codec, which backs
+     * {@link #GZ}, the stream is created here the way the codec would create it but with a pooled
+     * buffer, because a stream is created for every block read. Other codecs create their own
+     * stream.
+     */
+    static CompressionInputStream createInputStream(CompressionCodec codec, InputStream stream,
+        Decompressor decompressor) throws IOException {
+      if (codec.getClass() == DefaultCodec.class && decompressor != null) {
+        int bufferSize = ((DefaultCodec) codec).getConf().getInt(
+            CommonConfigurationKeysPublic.IO_FILE_BUFFER_SIZE_KEY,
+            CommonConfigurationKeysPublic.IO_FILE_BUFFER_SIZE_DEFAULT);
+        return new PooledDecompressorStream(stream, decompressor, bufferSize);
+      }
+      return codec.createInputStream(stream, decompressor);
     }
 
     /**
@@ -661,12 +678,13 @@ public final class Compression {
     }
 
     /**
-     * Return the given stream wrapped as a {@link BufferedInputStream} with the given buffer size
-     * if the buffer size is greater than 0, or return the original stream otherwise.
+     * Return the given stream wrapped as a {@link PooledBufferedInputStream} with the given buffer
+     * size if the buffer size is greater than 0, or return the original stream otherwise. Blocks
+     * are read often and each read opens a new stream, so the buffers are pooled.
      */
     InputStream bufferStream(final InputStream stream, final int bufferSize) {
       if (bufferSize > 0) {
-        return new BufferedInputStream(stream, bufferSize);
+        return new PooledBufferedInputStream(stream, bufferSize);
       }
       return stream;
     }
@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.rfile.bcfile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compresses data blocks with deflate and a preset dictionary. Small blocks give a compressor
+ * little data to find repetition in, so a dictionary trained from a sample of the file's keys and
+ * values lets matches be found from the first byte of each block. The dictionary is stored once in
+ * the file as a meta block.
+ */
+final class DictionaryCompression {
+
+  static final String META_BLOCK_NAME = "BCFile.dictionary";
+
+  /**
+   * The name recorded in the data index for gz data blocks compressed with a dictionary. Readers
+   * that do not know about dictionaries fail to find this algorithm instead of misreading blocks.
+   */
+  static final String ALGORITHM_NAME = Compression.COMPRESSION_GZ + "+dictionary";
+
+  // deflate can not refer back further than its window
+  static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+
+  private static final int SEGMENT_SIZE = 64;
+  private static final int GRAM_SIZE = 8;
+  private static final int HASH_BITS = 18;
+  private static final int BUFFER_SIZE = 4 * 1024;
+
+  private final byte[] dictionary;
+  private Deflater deflater;
+
+  DictionaryCompression(byte[] dictionary) {
+    this.dictionary = dictionary;
+  }
+
+  byte[] getDictionary() {
+    return dictionary;
+  }
+
+  /**
+   * Creates a stream that compresses a block. Like the other block compression streams, flushing
+   * the stream finishes the block. The writer reuses one deflater for all of its blocks, so only
+   * one block may be written at a time.
+   */
+  OutputStream createCompressionStream(OutputStream out) {
+    if (deflater == null) {
+      deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    }
+    deflater.reset();
+    deflater.setDictionary(dictionary);
+    return new DeflaterOutputStream(out, deflater, BUFFER_SIZE) {
+      @Override
+      public void flush() throws IOException {
+        finish();
+        out.flush();
+      }
+    };
+  }
+
+  InputStream createDecompressionStream(InputStream in, int bufferSize) {
+    Inflater inflater = new Inflater(true);
+    inflater.setDictionary(dictionary);
+    return new InflaterInputStream(in, inflater, bufferSize) {
+      @Override
+      public void close() throws IOException {
+        try {
+          super.close();
+        } finally {
+          inf.end();
+        }
+      }
+    };
+  }
+
+  /**
+   * Releases the deflater used for writing.
+   */
+  void end() {
+    if (deflater != null) {
+      deflater.end();
+      deflater = null;
+    }
+  }
+
+  private static int hash(byte[] data, int offset) {
+    long gram = 0;
+    for (int i = 0; i < GRAM_SIZE; i++) {
+      gram = (gram << 8) | (data[offset + i] & 0xff);
+    }
+    return (int) ((gram * 0x9E3779B97F4A7C15L) >>> (64 - HASH_BITS));
+  }
+
+  private static int score(byte[] sample, int segment, int[] counts) {
+    int score = 0;
+    int start = segment * SEGMENT_SIZE;
+    for (int i = start; i <= start + SEGMENT_SIZE - GRAM_SIZE; i++) {
+      int count = counts[hash(sample, i)];
+      // a sequence seen only once in the sample is unlikely to repeat in the blocks
+      if (count > 1) {
+        score += count;
+      }
+    }
+    return score;
+  }
+
+  /**
+   * Builds a dictionary from a sample of the data that will be compressed. The sample is cut into
+   * fixed size segments, and segments are chosen greedily by how often the byte sequences they
+   * contain occur across the sample, not counting sequences already covered by chosen segments.
+   *
+   * @param sample
+   *          data representative of the blocks to compress
+   * @param dictionarySize
+   *          the maximum size of the dictionary, capped at the deflate window size
+   * @return the dictionary, which may be empty when nothing in the sample repeats
+   */
+  static byte[] train(byte[] sample, int dictionarySize) {
+    dictionarySize = Math.min(dictionarySize, MAX_DICTIONARY_SIZE);
+    if (sample.length <= dictionarySize) {
+      return sample.clone();
+    }
+
+    int[] counts = new int[1 << HASH_BITS];
+    for (int i = 0; i + GRAM_SIZE <= sample.length; i++) {
+      counts[hash(sample, i)]++;
+    }
+
+    int numSegments = sample.length / SEGMENT_SIZE;
+    PriorityQueue<int[]> segments =
+        new PriorityQueue<>(numSegments, (s1, s2) -> Integer.compare(s2[0], s1[0]));
+    for (int segment = 0; segment < numSegments; segment++) {
+      segments.add(new int[] {score(sample, segment, counts), segment});
+    }
+
+    int maxSegments = dictionarySize / SEGMENT_SIZE;
+    List<Integer> chosen = new ArrayList<>(maxSegments);
+    while (chosen.size() < maxSegments && !segments.isEmpty()) {
+      int[] best = segments.poll();
+      // scores only go down as segments are chosen, so a segment whose current score is still at
+      // least the next highest possibly stale score is the best
+      int score = score(sample, best[1], counts);
+      if (score == 0) {
+        break;
+      }
+      if (!segments.isEmpty() && score < segments.peek()[0]) {
+        best[0] = score;
+        segments.add(best);
+        continue;
+      }
+
+      chosen.add(best[1]);
+      int start = best[1] * SEGMENT_SIZE;
+      for (int i = start; i <= start + SEGMENT_SIZE - GRAM_SIZE; i++) {
+        counts[hash(sample, i)] = 0;
+      }
+    }
+
+    // deflate encodes nearer matches in fewer bits, so the best segments go at the end
+    byte[] dictionary = new byte[chosen.size() * SEGMENT_SIZE];
+    for (int i = 0; i < chosen.size(); i++) {
+      System.arraycopy(sample, chosen.get(i) * SEGMENT_SIZE, dictionary,
+          dictionary.length - (i + 1) * SEGMENT_SIZE, SEGMENT_SIZE);
+    }
+    return dictionary;
+  }
+}
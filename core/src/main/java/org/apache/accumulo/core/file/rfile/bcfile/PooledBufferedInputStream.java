@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.rfile.bcfile;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A simplified BufferedInputStream whose buffer is taken from the {@link BufferPool} and given back
+ * when the stream is closed. Mark and reset are not supported.
+ */
+class PooledBufferedInputStream extends FilterInputStream {
+  private byte[] buf;
+  private int pos = 0; // position of the next byte to read in the buffer
+  private int count = 0; // bytes of data in the buffer
+
+  public PooledBufferedInputStream(InputStream in, int size) {
+    super(in);
+    this.buf = BufferPool.take(size);
+  }
+
+  private byte[] getBuffer() throws IOException {
+    if (buf == null) {
+      throw new IOException("Stream closed");
+    }
+    return buf;
+  }
+
+  private int fill() throws IOException {
+    byte[] b = getBuffer();
+    pos = 0;
+    count = 0;
+    int n = in.read(b, 0, b.length);
+    if (n > 0) {
+      count = n;
+    }
+    return n;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (pos >= count && fill() <= 0) {
+      return -1;
+    }
+    return getBuffer()[pos++] & 0xff;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    byte[] buffer = getBuffer();
+    if (len == 0) {
+      return 0;
+    }
+
+    int avail = count - pos;
+    if (avail <= 0) {
+      // large reads bypass the buffer
+      if (len >= buffer.length) {
+        return in.read(b, off, len);
+      }
+      if (fill() <= 0) {
+        return -1;
+      }
+      avail = count;
+    }
+
+    int n = Math.min(avail, len);
+    System.arraycopy(buffer, pos, b, off, n);
+    pos += n;
+    return n;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    getBuffer();
+    if (n <= 0) {
+      return 0;
+    }
+    int avail = count - pos;
+    if (avail <= 0) {
+      return in.skip(n);
+    }
+    long skipped = Math.min(avail, n);
+    pos += (int) skipped;
+    return skipped;
+  }
+
+  @Override
+  public int available() throws IOException {
+    getBuffer();
+    return (count - pos) + in.available();
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  @Override
+  public synchronized void mark(int readlimit) {}
+
+  @Override
+  public synchronized void reset() throws IOException {
+    throw new IOException("mark/reset not supported");
+  }
+
+  @Override
+  public void close() throws IOException {
+    byte[] b = buf;
+    if (b == null) {
+      return;
+    }
+    buf = null;
+    try {
+      in.close();
+    } finally {
+      BufferPool.give(b);
+    }
+  }
+}
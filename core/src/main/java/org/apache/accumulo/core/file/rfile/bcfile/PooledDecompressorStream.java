@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.rfile.bcfile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.hadoop.io.compress.Decompressor;
+import org.apache.hadoop.io.compress.DecompressorStream;
+
+/**
+ * The stream that codecs such as {@link org.apache.hadoop.io.compress.DefaultCodec} create to
+ * decompress their data, except that its buffer is taken from the {@link BufferPool} and given back
+ * when the stream is closed.
+ */
+class PooledDecompressorStream extends DecompressorStream {
+
+  PooledDecompressorStream(InputStream in, Decompressor decompressor, int bufferSize)
+      throws IOException {
+    super(in);
+    this.decompressor = decompressor;
+    this.buffer = BufferPool.take(bufferSize);
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    try {
+      super.close();
+    } finally {
+      BufferPool.give(buffer);
+      buffer = null;
+    }
+  }
+}
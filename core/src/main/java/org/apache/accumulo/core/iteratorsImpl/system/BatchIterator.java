@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.iteratorsImpl.system;
+
+import java.io.IOException;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+
+/**
+ * An iterator that can move many entries into a {@link KeyValueBatch} with one call, instead of one
+ * hasTop(), getTopKey(), getTopValue() and next() call per entry. Iterators that wrap a source can
+ * fill the batch from their source with {@link KeyValueBatch#fill(SortedKeyValueIterator)} and then
+ * process it in place, so a stack of batch iterators moves entries through a tight loop at each
+ * level. Iterators that do not implement this interface are read an entry at a time by
+ * {@link KeyValueBatch#fill(SortedKeyValueIterator)}.
+ */
+public interface BatchIterator extends SortedKeyValueIterator<Key,Value> {
+
+  /**
+   * Adds the top entry and the entries following it to the batch, until the batch is full or this
+   * iterator has no top. Afterwards this iterator is positioned on the first entry not added, as if
+   * next() had been called once for each entry added.
+   */
+  void nextBatch(KeyValueBatch batch) throws IOException;
+}
@@ -35,7 +35,7 @@ import org.apache.accumulo.core.iterators.ServerSkippingIterator;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 
 public class ColumnFamilySkippingIterator extends ServerSkippingIterator
-    implements InterruptibleIterator {
+    implements InterruptibleIterator, BatchIterator {
 
   protected Set<ByteSequence> colFamSet = null;
   protected TreeSet<ByteSequence> sortedColFams = null;
@@ -43,6 +43,8 @@ public class ColumnFamilySkippingIterator extends ServerSkippingIterator
   protected boolean inclusive = false;
   protected Range range;
 
+  private final SkipBudget skipBudget = new SkipBudget();
+
   public ColumnFamilySkippingIterator(SortedKeyValueIterator<Key,Value> source) {
     super(source);
   }
@@ -60,7 +62,7 @@ public class ColumnFamilySkippingIterator extends ServerSkippingIterator
 
     if (inclusive)
       while (source.hasTop() && !colFamSet.contains(source.getTopKey().getColumnFamilyData())) {
-        if (count < 10) {
+        if (count < skipBudget.nexts()) {
           // it is quicker to call next if we are close, but we never know if we are close
           // so give next a try a few times
           source.next();
@@ -76,20 +78,39 @@ public class ColumnFamilySkippingIterator extends ServerSkippingIterator
                 new byte[0], new byte[0], Long.MAX_VALUE));
           }
 
+          skipBudget.seekNeeded();
           count = 0;
         }
       }
     else if (colFamSet != null && !colFamSet.isEmpty())
       while (source.hasTop() && colFamSet.contains(source.getTopKey().getColumnFamilyData())) {
-        if (count < 10) {
+        if (count < skipBudget.nexts()) {
           source.next();
           count++;
         } else {
           // seek to the next column family in the data
           reseek(source.getTopKey().followingKey(PartialKey.ROW_COLFAM));
+          skipBudget.seekNeeded();
           count = 0;
         }
       }
+
+    if (count > 0 && source.hasTop()) {
+      skipBudget.nextReached();
+    }
+  }
+
+  @Override
+  public void nextBatch(KeyValueBatch batch) throws IOException {
+    if (!inclusive && (colFamSet == null || colFamSet.isEmpty())) {
+      // no column families are skipped, so entries pass through from the source
+      batch.fill(source);
+    } else {
+      while (!batch.isFull() && hasTop()) {
+        batch.addCopy(getTopKey(), getTopValue());
+        next();
+      }
+    }
   }
 
   private void reseek(Key key) throws IOException {
@@ -18,27 +18,48 @@
  */
 package org.apache.accumulo.core.iteratorsImpl.system;
 
+import java.io.IOException;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 import org.apache.accumulo.core.data.ArrayByteSequence;
 import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Column;
 import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
+import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
 import org.apache.accumulo.core.iterators.ServerFilter;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 
-public class ColumnQualifierFilter extends ServerFilter {
+/**
+ * Passes the keys of fetched columns. When a key is rejected, this calls next() on its source a few
+ * times and then seeks directly to the next fetched column in the row, or to the next row once the
+ * row has no more fetched columns. A {@link SkipBudget} decides how many calls to next() to make
+ * first.
+ */
+public class ColumnQualifierFilter extends ServerFilter implements BatchIterator {
   private HashSet<ByteSequence> columnFamilies;
   private HashMap<ByteSequence,HashSet<ByteSequence>> columnsQualifiers;
+  // fetched columns in sorted order, an empty qualifier set means the whole family is fetched
+  private TreeMap<ByteSequence,TreeSet<ByteSequence>> sortedColumns;
+
+  private Range range;
+  private Collection<ByteSequence> seekColumnFamilies;
+  private boolean seekInclusive;
+  private final SkipBudget skipBudget = new SkipBudget();
 
   private ColumnQualifierFilter(SortedKeyValueIterator<Key,Value> iterator, Set<Column> columns) {
     super(iterator);
     this.columnFamilies = new HashSet<>();
     this.columnsQualifiers = new HashMap<>();
+    this.sortedColumns = new TreeMap<>();
 
     columns.forEach(col -> {
       if (col.columnQualifier != null) {
@@ -50,14 +71,21 @@ public class ColumnQualifierFilter extends ServerFilter {
         columnFamilies.add(new ArrayByteSequence(col.columnFamily));
       }
     });
+
+    columnsQualifiers.forEach((cq, cfs) -> cfs
+        .forEach(cf -> sortedColumns.computeIfAbsent(cf, k -> new TreeSet<>()).add(cq)));
+    // fetching a whole family overrides any qualifiers fetched in it
+    columnFamilies.forEach(cf -> sortedColumns.put(cf, new TreeSet<>()));
   }
 
   private ColumnQualifierFilter(SortedKeyValueIterator<Key,Value> iterator,
       HashSet<ByteSequence> columnFamilies,
-      HashMap<ByteSequence,HashSet<ByteSequence>> columnsQualifiers) {
+      HashMap<ByteSequence,HashSet<ByteSequence>> columnsQualifiers,
+      TreeMap<ByteSequence,TreeSet<ByteSequence>> sortedColumns) {
     super(iterator);
     this.columnFamilies = columnFamilies;
     this.columnsQualifiers = columnsQualifiers;
+    this.sortedColumns = sortedColumns;
   }
 
   @Override
@@ -72,9 +100,89 @@ public class ColumnQualifierFilter extends ServerFilter {
     return cfset != null && cfset.contains(key.getColumnFamilyData());
   }
 
+  @Override
+  public void next() throws IOException {
+    source.next();
+    findTop();
+  }
+
+  @Override
+  public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive)
+      throws IOException {
+    this.range = range;
+    this.seekColumnFamilies = columnFamilies;
+    this.seekInclusive = inclusive;
+    source.seek(range, columnFamilies, inclusive);
+    findTop();
+  }
+
+  private void findTop() throws IOException {
+    int count = 0;
+    while (source.hasTop()) {
+      Key top = source.getTopKey();
+      if (top.isDeleted() || accept(top, source.getTopValue())) {
+        if (count > 0) {
+          skipBudget.nextReached();
+        }
+        return;
+      }
+
+      if (count < skipBudget.nexts()) {
+        source.next();
+        count++;
+      } else {
+        reseek(nextWanted(top));
+        skipBudget.seekNeeded();
+        count = 0;
+      }
+    }
+  }
+
+  /**
+   * @return the first key after the given rejected key that could be in a fetched column
+   */
+  private Key nextWanted(Key key) {
+    ByteSequence cf = key.getColumnFamilyData();
+    TreeSet<ByteSequence> qualifiers = sortedColumns.get(cf);
+    if (qualifiers != null) {
+      ByteSequence higherCq = qualifiers.higher(key.getColumnQualifierData());
+      if (higherCq != null) {
+        return new Key(key.getRowData().toArray(), cf.toArray(), higherCq.toArray(), new byte[0],
+            Long.MAX_VALUE);
+      }
+    }
+
+    Map.Entry<ByteSequence,TreeSet<ByteSequence>> higher = sortedColumns.higherEntry(cf);
+    if (higher == null) {
+      return key.followingKey(PartialKey.ROW);
+    }
+    byte[] cq = higher.getValue().isEmpty() ? new byte[0] : higher.getValue().first().toArray();
+    return new Key(key.getRowData().toArray(), higher.getKey().toArray(), cq, new byte[0],
+        Long.MAX_VALUE);
+  }
+
+  private void reseek(Key key) throws IOException {
+    if (range.afterEndKey(key)) {
+      range = new Range(range.getEndKey(), true, range.getEndKey(), range.isEndKeyInclusive());
+    } else {
+      range = new Range(key, true, range.getEndKey(), range.isEndKeyInclusive());
+    }
+    source.seek(range, seekColumnFamilies, seekInclusive);
+  }
+
+  @Override
+  public void nextBatch(KeyValueBatch batch) throws IOException {
+    // read an entry at a time so that rejected keys are skipped rather than copied
+    while (!batch.isFull() && hasTop()) {
+      batch.addCopy(getTopKey(), getTopValue());
+      next();
+    }
+  }
+
   @Override
   public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
-    return new ColumnQualifierFilter(source.deepCopy(env), columnFamilies, columnsQualifiers);
+    return new ColumnQualifierFilter(source.deepCopy(env), columnFamilies, columnsQualifiers,
+        sortedColumns);
   }
 
   public static SortedKeyValueIterator<Key,Value> wrap(SortedKeyValueIterator<Key,Value> source,
@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.iteratorsImpl.system;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.accumulo.core.security.ColumnVisibility.Node;
+import org.apache.accumulo.core.security.VisibilityEvaluator;
+import org.apache.accumulo.core.security.VisibilityParseException;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * A column visibility expression compiled for repeated evaluation. Authorization terms are interned
+ * to small integer ids in a process wide dictionary, a set of authorizations becomes a bitset over
+ * those ids (see {@link #authorizationBits(Authorizations)}), and evaluating a compiled expression
+ * against that bitset does not allocate.
+ *
+ * <p>
+ * Compiled expressions are shared by all scans through {@link #get(ByteSequence)}, so an expression
+ * is parsed once no matter how many iterators or distinct authorizations evaluate it. Only terms
+ * that appear in some set of authorizations are interned. A term that no authorizations contain
+ * compiles to false, and the expression is recompiled if that term is later interned.
+ */
+public final class CompiledVisibility {
+
+  private static final int CACHE_SIZE = 100_000;
+
+  private static final ConcurrentHashMap<ByteSequence,Integer> terms = new ConcurrentHashMap<>();
+  private static final AtomicInteger generation = new AtomicInteger();
+  private static final Cache<ByteSequence,CompiledVisibility> cache =
+      Caffeine.newBuilder().maximumSize(CACHE_SIZE).build();
+
+  private static final Expr TRUE = auths -> true;
+  private static final Expr FALSE = auths -> false;
+
+  @FunctionalInterface
+  private interface Expr {
+    boolean evaluate(long[] auths);
+  }
+
+  private final Expr root;
+  // the dictionary generation when compiled, or -1 if every term was found in the dictionary
+  private final int compiledGeneration;
+
+  private CompiledVisibility(Expr root, int compiledGeneration) {
+    this.root = root;
+    this.compiledGeneration = compiledGeneration;
+  }
+
+  /**
+   * Evaluates this expression against authorizations returned by
+   * {@link #authorizationBits(Authorizations)}.
+   */
+  public boolean evaluate(long[] authorizationBits) {
+    return root.evaluate(authorizationBits);
+  }
+
+  /**
+   * Interns the given authorizations and returns them as a bitset over the interned term ids.
+   */
+  public static long[] authorizationBits(Authorizations authorizations) {
+    long[] bits = new long[0];
+    for (byte[] auth : authorizations) {
+      int id = intern(new ArrayByteSequence(VisibilityEvaluator.escape(auth, false)));
+      int word = id >>> 6;
+      if (word >= bits.length) {
+        long[] grown = new long[word + 1];
+        System.arraycopy(bits, 0, grown, 0, bits.length);
+        bits = grown;
+      }
+      bits[word] |= 1L << id;
+    }
+    return bits;
+  }
+
+  private static int intern(ByteSequence term) {
+    Integer id = terms.get(term);
+    if (id != null) {
+      return id;
+    }
+    synchronized (terms) {
+      id = terms.get(term);
+      if (id == null) {
+        id = terms.size();
+        terms.put(term, id);
+        // expressions compiled before this point may have treated the term as unknown
+        generation.incrementAndGet();
+      }
+      return id;
+    }
+  }
+
+  /**
+   * Returns the compiled form of a visibility expression, compiling it if it is not cached. The
+   * expression is not retained by the cache, a copy is made when it is added.
+   *
+   * @throws VisibilityParseException
+   *           if the expression is not a valid visibility expression
+   * @throws org.apache.accumulo.core.util.BadArgumentException
+   *           if the expression can not be parsed
+   */
+  public static CompiledVisibility get(ByteSequence expression) throws VisibilityParseException {
+    CompiledVisibility compiled = cache.getIfPresent(expression);
+    if (compiled == null
+        || (compiled.compiledGeneration >= 0 && compiled.compiledGeneration != generation.get())) {
+      byte[] copy = expression.toArray();
+      compiled = compile(copy);
+      cache.put(new ArrayByteSequence(copy), compiled);
+    }
+    return compiled;
+  }
+
+  static CompiledVisibility compile(byte[] expression) throws VisibilityParseException {
+    if (expression.length == 0) {
+      return new CompiledVisibility(TRUE, -1);
+    }
+    // read the generation before looking up any terms, so a term interned while compiling causes
+    // a recompile on the next lookup
+    int gen = generation.get();
+    boolean[] unknownTerms = new boolean[1];
+    Expr root = compile(expression, new ColumnVisibility(expression).getParseTree(), unknownTerms);
+    return new CompiledVisibility(root, unknownTerms[0] ? gen : -1);
+  }
+
+  private static Expr compile(byte[] expression, Node node, boolean[] unknownTerms)
+      throws VisibilityParseException {
+    switch (node.getType()) {
+      case TERM: {
+        Integer id = terms.get(node.getTerm(expression));
+        if (id == null) {
+          unknownTerms[0] = true;
+          return FALSE;
+        }
+        int word = id >>> 6;
+        long mask = 1L << id;
+        return auths -> word < auths.length && (auths[word] & mask) != 0;
+      }
+      case AND: {
+        List<Node> children = node.getChildren();
+        if (children == null || children.size() < 2)
+          throw new VisibilityParseException("AND has less than 2 children", expression,
+              node.getTermStart());
+        Expr[] exprs = new Expr[children.size()];
+        int count = 0;
+        for (Node child : children) {
+          Expr expr = compile(expression, child, unknownTerms);
+          if (expr == FALSE)
+            return FALSE;
+          if (expr != TRUE)
+            exprs[count++] = expr;
+        }
+        return combine(exprs, count, true);
+      }
+      case OR: {
+        List<Node> children = node.getChildren();
+        if (children == null || children.size() < 2)
+          throw new VisibilityParseException("OR has less than 2 children", expression,
+              node.getTermStart());
+        Expr[] exprs = new Expr[children.size()];
+        int count = 0;
+        for (Node child : children) {
+          Expr expr = compile(expression, child, unknownTerms);
+          if (expr == TRUE)
+            return TRUE;
+          if (expr != FALSE)
+            exprs[count++] = expr;
+        }
+        return combine(exprs, count, false);
+      }
+      default:
+        throw new VisibilityParseException("No such node type", expression, node.getTermStart());
+    }
+  }
+
+  private static Expr combine(Expr[] exprs, int count, boolean and) {
+    if (count == 0)
+      return and ? TRUE : FALSE;
+    if (count == 1)
+      return exprs[0];
+    Expr[] children = exprs.length == count ? exprs : Arrays.copyOf(exprs, count);
+    if (and) {
+      return auths -> {
+        for (Expr child : children) {
+          if (!child.evaluate(auths))
+            return false;
+        }
+        return true;
+      };
+    } else {
+      return auths -> {
+        for (Expr child : children) {
+          if (child.evaluate(auths))
+            return true;
+        }
+        return false;
+      };
+    }
+  }
+}
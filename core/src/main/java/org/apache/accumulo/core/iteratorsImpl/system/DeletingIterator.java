@@ -34,7 +34,7 @@ import org.apache.accumulo.core.iterators.IteratorUtil;
 import org.apache.accumulo.core.iterators.ServerWrappingIterator;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 
-public class DeletingIterator extends ServerWrappingIterator {
+public class DeletingIterator extends ServerWrappingIterator implements BatchIterator {
   private boolean propogateDeletes;
   private Key workKey = new Key();
 
@@ -87,6 +87,41 @@ public class DeletingIterator extends ServerWrappingIterator {
     }
   }
 
+  @Override
+  public void nextBatch(KeyValueBatch batch) throws IOException {
+    Key deleteKey = null;
+    while (!batch.isFull() && source.hasTop()) {
+      int start = batch.size();
+      batch.fill(source);
+
+      // remove the entries hidden by a delete, and the deletes unless they are propagated
+      int kept = start;
+      for (int i = start; i < batch.size(); i++) {
+        Key key = batch.getKey(i);
+        if (deleteKey != null && key.equals(deleteKey, PartialKey.ROW_COLFAM_COLQUAL_COLVIS)) {
+          continue;
+        }
+        if (key.isDeleted()) {
+          deleteKey = key;
+          if (!propogateDeletes) {
+            continue;
+          }
+        }
+        batch.set(kept++, key, batch.getValue(i));
+      }
+      batch.truncate(kept);
+
+      // the source may still be on entries hidden by the last delete in the batch
+      if (deleteKey != null) {
+        while (source.hasTop()
+            && source.getTopKey().equals(deleteKey, PartialKey.ROW_COLFAM_COLQUAL_COLVIS)) {
+          source.next();
+        }
+      }
+      findTop();
+    }
+  }
+
   private void findTop() throws IOException {
     if (!propogateDeletes) {
       while (source.hasTop() && source.getTopKey().isDeleted()) {
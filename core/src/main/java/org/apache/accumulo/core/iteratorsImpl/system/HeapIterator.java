@@ -19,109 +19,200 @@
 package org.apache.accumulo.core.iteratorsImpl.system;
 
 import java.io.IOException;
-import java.util.PriorityQueue;
+import java.util.Arrays;
 
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 
 /**
- * Constructs a {@link PriorityQueue} of multiple SortedKeyValueIterators. Provides a simple way to
- * interact with multiple SortedKeyValueIterators in sorted order.
+ * Merges multiple SortedKeyValueIterators with a loser tree. Provides a simple way to interact with
+ * multiple SortedKeyValueIterators in sorted order.
+ *
+ * <p>
+ * Each internal node of the tree holds the source that lost the comparison at that node, and the
+ * overall winner is the current top. When the top advances, only the nodes on the path from its
+ * leaf to the root are replayed, one key comparison per level. The top key of every source is
+ * cached, so getTopKey() is called once per key a source produces. When the same source wins twice
+ * in a row, the smallest key among the other sources is remembered, and further keys from that
+ * source are returned with a single comparison until one is larger.
  */
 public abstract class HeapIterator implements SortedKeyValueIterator<Key,Value> {
-  private PriorityQueue<SortedKeyValueIterator<Key,Value>> heap;
-  private SortedKeyValueIterator<Key,Value> topIdx = null;
+  private SortedKeyValueIterator<Key,Value>[] sources;
+  // the top key of each source, null once the source has no top
+  private Key[] keys;
+  // tree[n] is the loser at internal node n, the leaf of source i is node size + i
+  private int[] tree;
+  private int[] winners;
+  private int size;
+  private boolean built = true;
+  private int top = -1;
+  // when nextKeyValid, no source other than the top has a key less than nextKey and null means no
+  // other source has a key
   private Key nextKey;
+  private boolean nextKeyValid;
 
   protected HeapIterator() {
-    heap = null;
+    sources = null;
   }
 
   protected HeapIterator(int maxSize) {
     createHeap(maxSize);
   }
 
+  @SuppressWarnings({"unchecked", "rawtypes"})
   protected void createHeap(int maxSize) {
-    if (heap != null)
+    if (sources != null)
       throw new IllegalStateException("heap already exist");
 
-    heap = new PriorityQueue<>(maxSize == 0 ? 1 : maxSize,
-        (si1, si2) -> si1.getTopKey().compareTo(si2.getTopKey()));
+    int capacity = maxSize == 0 ? 1 : maxSize;
+    sources = new SortedKeyValueIterator[capacity];
+    keys = new Key[capacity];
+    tree = new int[capacity];
+    winners = new int[2 * capacity];
   }
 
   @Override
   public final Key getTopKey() {
-    return topIdx.getTopKey();
+    if (!built)
+      build();
+    return keys[top];
   }
 
   @Override
   public final Value getTopValue() {
-    return topIdx.getTopValue();
+    if (!built)
+      build();
+    return sources[top].getTopValue();
   }
 
   @Override
   public final boolean hasTop() {
-    return topIdx != null;
+    if (!built)
+      build();
+    return top >= 0;
   }
 
   @Override
   public final void next() throws IOException {
-    if (topIdx == null) {
+    if (!built)
+      build();
+    if (top < 0) {
       throw new IllegalStateException("Called next() when there is no top");
     }
 
-    topIdx.next();
-    if (topIdx.hasTop()) {
+    SortedKeyValueIterator<Key,Value> source = sources[top];
+    source.next();
+    Key key = source.hasTop() ? source.getTopKey() : null;
+    keys[top] = key;
+
+    if (nextKeyValid) {
       if (nextKey == null) {
-        // topIdx is the only iterator
+        if (key == null) {
+          // No iterators left
+          top = -1;
+        }
+        // otherwise top is the only iterator
         return;
       }
-
-      if (nextKey.compareTo(topIdx.getTopKey()) < 0) {
-        // Grab the next top iterator and put the current top iterator back on the heap
-        // This updating of references is special-cased to save on percolation on edge cases
-        // since the current top is guaranteed to not be the minimum
-        SortedKeyValueIterator<Key,Value> nextTopIdx = heap.remove();
-        heap.add(topIdx);
-
-        topIdx = nextTopIdx;
-        nextKey = heap.peek().getTopKey();
+      if (key != null && key.compareTo(nextKey) <= 0) {
+        // the top iterator is still the minimum
+        return;
       }
+    }
+
+    int previousTop = top;
+    replay();
+    if (keys[top] == null) {
+      top = -1;
+    } else if (top == previousTop) {
+      // the same source won again, so it will likely keep winning
+      findNextKey();
     } else {
-      if (nextKey == null) {
-        // No iterators left
-        topIdx = null;
-        return;
+      nextKeyValid = false;
+    }
+  }
+
+  private boolean less(int a, int b) {
+    Key ka = keys[a];
+    Key kb = keys[b];
+    if (ka == null)
+      return false;
+    if (kb == null)
+      return true;
+    int cmp = ka.compareTo(kb);
+    return cmp < 0 || (cmp == 0 && a < b);
+  }
+
+  private void replay() {
+    int winner = top;
+    for (int node = (winner + size) >>> 1; node > 0; node >>>= 1) {
+      int loser = tree[node];
+      if (less(loser, winner)) {
+        tree[node] = winner;
+        winner = loser;
       }
+    }
+    top = winner;
+  }
 
-      pullReferencesFromHeap();
+  private void findNextKey() {
+    // the smallest key among the other sources is one of the losers on the path of the top
+    Key min = null;
+    for (int node = (top + size) >>> 1; node > 0; node >>>= 1) {
+      Key key = keys[tree[node]];
+      if (key != null && (min == null || key.compareTo(min) < 0))
+        min = key;
     }
+    nextKey = min;
+    nextKeyValid = true;
   }
 
-  private void pullReferencesFromHeap() {
-    topIdx = heap.remove();
-    if (heap.isEmpty()) {
-      nextKey = null;
-    } else {
-      nextKey = heap.peek().getTopKey();
+  private void build() {
+    for (int i = 0; i < size; i++) {
+      winners[size + i] = i;
     }
+    for (int node = size - 1; node > 0; node--) {
+      int a = winners[2 * node];
+      int b = winners[2 * node + 1];
+      if (less(a, b)) {
+        winners[node] = a;
+        tree[node] = b;
+      } else {
+        winners[node] = b;
+        tree[node] = a;
+      }
+    }
+    top = size == 0 ? -1 : winners[1];
+    if (top >= 0 && keys[top] == null)
+      top = -1;
+    nextKeyValid = false;
+    built = true;
   }
 
   protected final void clear() {
-    heap.clear();
-    topIdx = null;
+    Arrays.fill(sources, 0, size, null);
+    Arrays.fill(keys, 0, size, null);
+    size = 0;
+    top = -1;
     nextKey = null;
+    nextKeyValid = false;
+    built = true;
   }
 
   protected final void addSource(SortedKeyValueIterator<Key,Value> source) {
     if (source.hasTop()) {
-      heap.add(source);
-      if (topIdx != null) {
-        heap.add(topIdx);
+      if (size == sources.length) {
+        int capacity = size * 2;
+        sources = Arrays.copyOf(sources, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        tree = new int[capacity];
+        winners = new int[2 * capacity];
       }
-
-      pullReferencesFromHeap();
+      sources[size] = source;
+      keys[size] = source.getTopKey();
+      size++;
+      built = false;
     }
   }
 }
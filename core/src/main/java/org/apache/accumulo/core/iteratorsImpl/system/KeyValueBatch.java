@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.iteratorsImpl.system;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.BiPredicate;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+
+/**
+ * A reusable buffer of key value pairs filled by a {@link BatchIterator}. The keys and values in a
+ * batch are copies owned by the batch, so they stay valid as the iterators that produced them
+ * advance.
+ */
+public final class KeyValueBatch {
+
+  private final Key[] keys;
+  private final Value[] values;
+  private int size = 0;
+  private int maxEntries;
+  private long bytes = 0;
+  private long maxBytes = Long.MAX_VALUE;
+
+  public KeyValueBatch(int capacity) {
+    keys = new Key[capacity];
+    values = new Value[capacity];
+    maxEntries = capacity;
+  }
+
+  public int capacity() {
+    return keys.length;
+  }
+
+  /**
+   * Removes all entries from this batch and sets how much it may be filled with.
+   *
+   * @param maxEntries
+   *          the number of entries to fill this batch with, at most its capacity
+   * @param maxBytes
+   *          the number of key and value bytes after which this batch is full, entries removed by
+   *          filters while filling still count
+   */
+  public void clear(int maxEntries, long maxBytes) {
+    truncate(0);
+    this.maxEntries = Math.min(maxEntries, keys.length);
+    this.bytes = 0;
+    this.maxBytes = maxBytes;
+  }
+
+  public void clear() {
+    clear(keys.length, Long.MAX_VALUE);
+  }
+
+  public boolean isFull() {
+    return size >= maxEntries || bytes >= maxBytes;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public Key getKey(int index) {
+    return keys[index];
+  }
+
+  public Value getValue(int index) {
+    return values[index];
+  }
+
+  /**
+   * Adds a copy of the given key and value to this batch.
+   */
+  public void addCopy(Key key, Value value) {
+    keys[size] = new Key(key);
+    values[size] = new Value(value);
+    size++;
+    bytes += key.getSize() + value.getSize();
+  }
+
+  /**
+   * Replaces the entry at the given index with an entry already in this batch, used to remove
+   * entries in place.
+   */
+  void set(int index, Key key, Value value) {
+    keys[index] = key;
+    values[index] = value;
+  }
+
+  /**
+   * Removes the entries at and after the given index.
+   */
+  void truncate(int newSize) {
+    Arrays.fill(keys, newSize, size, null);
+    Arrays.fill(values, newSize, size, null);
+    size = newSize;
+  }
+
+  /**
+   * Adds entries from the given iterator to this batch until it is full or the iterator has no top.
+   * A {@link BatchIterator} fills the batch itself, any other iterator is read an entry at a time.
+   */
+  public void fill(SortedKeyValueIterator<Key,Value> iter) throws IOException {
+    if (iter instanceof BatchIterator) {
+      ((BatchIterator) iter).nextBatch(this);
+    } else {
+      while (!isFull() && iter.hasTop()) {
+        addCopy(iter.getTopKey(), iter.getTopValue());
+        iter.next();
+      }
+    }
+  }
+
+  /**
+   * Fills this batch with the entries of a filter's source that are deleted or accepted, the
+   * entries a {@link org.apache.accumulo.core.iterators.ServerFilter} returns. The source must be
+   * positioned on an entry the filter returns and is left on the next one.
+   */
+  void fillFiltered(SortedKeyValueIterator<Key,Value> source, BiPredicate<Key,Value> accept)
+      throws IOException {
+    while (!isFull() && source.hasTop()) {
+      int start = size;
+      fill(source);
+
+      int kept = start;
+      for (int i = start; i < size; i++) {
+        if (keys[i].isDeleted() || accept.test(keys[i], values[i])) {
+          set(kept++, keys[i], values[i]);
+        }
+      }
+      truncate(kept);
+
+      while (source.hasTop()) {
+        Key top = source.getTopKey();
+        if (top.isDeleted() || accept.test(top, source.getTopValue())) {
+          break;
+        }
+        source.next();
+      }
+    }
+  }
+}
@@ -35,7 +35,7 @@ import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 /**
  * An iterator capable of iterating over other iterators in sorted order.
  */
-public class MultiIterator extends HeapIterator {
+public class MultiIterator extends HeapIterator implements BatchIterator {
 
   private List<SortedKeyValueIterator<Key,Value>> iters;
   private Range fence;
@@ -108,6 +108,14 @@ public class MultiIterator extends HeapIterator {
     }
   }
 
+  @Override
+  public void nextBatch(KeyValueBatch batch) throws IOException {
+    while (!batch.isFull() && hasTop()) {
+      batch.addCopy(getTopKey(), getTopValue());
+      next();
+    }
+  }
+
   @Override
   public void init(SortedKeyValueIterator<Key,Value> source, Map<String,String> options,
       IteratorEnvironment env) throws IOException {
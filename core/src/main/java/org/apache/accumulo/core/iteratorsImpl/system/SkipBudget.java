@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.iteratorsImpl.system;
+
+/**
+ * Decides how many times an iterator calls next() on its source to get past unwanted keys before it
+ * seeks instead. A next() is much cheaper than a seek() when the wanted key is close, but an
+ * iterator never knows how close it is. This starts with a budget of a few calls to next(). It
+ * gives next() one more call each time next() reaches a wanted key within the budget. Each time the
+ * budget runs out and a seek is needed, it halves the budget, so that scans where wanted keys are
+ * far apart quickly move to seeking right away.
+ */
+class SkipBudget {
+
+  static final int INITIAL = 10;
+  static final int MAX = 64;
+
+  private int budget = INITIAL;
+
+  /**
+   * @return the number of calls to next() to make before seeking
+   */
+  int nexts() {
+    return budget;
+  }
+
+  /**
+   * Called when a wanted key was reached by calling next() within the budget.
+   */
+  void nextReached() {
+    if (budget < MAX) {
+      budget++;
+    }
+  }
+
+  /**
+   * Called when the budget ran out and a seek was needed to reach a wanted key.
+   */
+  void seekNeeded() {
+    budget = Math.max(1, budget >> 1);
+  }
+}
@@ -42,7 +42,7 @@ import org.apache.accumulo.core.iterators.YieldCallback;
  * their scan when that data is minor compacted. This iterator is designed to manage this behind the
  * scene.
  */
-public class SourceSwitchingIterator implements InterruptibleIterator {
+public class SourceSwitchingIterator implements InterruptibleIterator, BatchIterator {
 
   public interface DataSource {
     boolean isCurrent();
@@ -84,16 +84,31 @@ public class SourceSwitchingIterator implements InterruptibleIterator {
 
   private final List<SourceSwitchingIterator> copies;
 
+  // When false, no other thread calls switchNow and all deep copies are used by one thread at a
+  // time, so reading does not need to synchronize on copies.
+  private final boolean synchronize;
+
   private SourceSwitchingIterator(DataSource source, boolean onlySwitchAfterRow,
-      List<SourceSwitchingIterator> copies) {
+      boolean synchronize, List<SourceSwitchingIterator> copies) {
     this.source = source;
     this.onlySwitchAfterRow = onlySwitchAfterRow;
+    this.synchronize = synchronize;
     this.copies = copies;
     copies.add(this);
   }
 
+  /**
+   * @param synchronize
+   *          false if this iterator and its deep copies are only used by one thread at a time and
+   *          {@link #switchNow()} is never called, which avoids acquiring a lock for every key
+   */
+  public SourceSwitchingIterator(DataSource source, boolean onlySwitchAfterRow,
+      boolean synchronize) {
+    this(source, onlySwitchAfterRow, synchronize, new ArrayList<>());
+  }
+
   public SourceSwitchingIterator(DataSource source, boolean onlySwitchAfterRow) {
-    this(source, onlySwitchAfterRow, new ArrayList<>());
+    this(source, onlySwitchAfterRow, true);
   }
 
   public SourceSwitchingIterator(DataSource source) {
@@ -104,7 +119,7 @@ public class SourceSwitchingIterator implements InterruptibleIterator {
   public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
     synchronized (copies) {
       return new SourceSwitchingIterator(source.getDeepCopyDataSource(env), onlySwitchAfterRow,
-          copies);
+          synchronize, copies);
     }
   }
 
@@ -143,7 +158,11 @@ public class SourceSwitchingIterator implements InterruptibleIterator {
 
   @Override
   public void next() throws IOException {
-    synchronized (copies) {
+    if (synchronize) {
+      synchronized (copies) {
+        readNext(false);
+      }
+    } else {
       readNext(false);
     }
   }
@@ -182,6 +201,10 @@ public class SourceSwitchingIterator implements InterruptibleIterator {
       }
     }
 
+    readTop();
+  }
+
+  private void readTop() throws IOException {
     if (iter.hasTop()) {
       if (yield.isPresent() && yield.get().hasYielded()) {
         throw new IOException("Coding error: hasTop returned true but has yielded at "
@@ -203,6 +226,37 @@ public class SourceSwitchingIterator implements InterruptibleIterator {
     }
   }
 
+  @Override
+  public void nextBatch(KeyValueBatch batch) throws IOException {
+    if (synchronize) {
+      synchronized (copies) {
+        readBatch(batch);
+      }
+    } else {
+      readBatch(batch);
+    }
+  }
+
+  private void readBatch(KeyValueBatch batch) throws IOException {
+    // the first entry is read like next() reads it, which switches sources or seeks past a yield
+    // when needed
+    if (key != null && !batch.isFull()) {
+      batch.addCopy(key, val);
+      readNext(false);
+    }
+
+    if (onlySwitchAfterRow) {
+      // switching sources is checked at each row boundary, so read an entry at a time
+      while (key != null && !batch.isFull()) {
+        batch.addCopy(key, val);
+        readNext(false);
+      }
+    } else if (key != null && !batch.isFull()) {
+      batch.fill(iter);
+      readTop();
+    }
+  }
+
   private boolean switchSource() throws IOException {
     if (!source.isCurrent()) {
       source = source.getNewDataSource();
@@ -219,20 +273,29 @@ public class SourceSwitchingIterator implements InterruptibleIterator {
   @Override
   public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive)
       throws IOException {
-    synchronized (copies) {
-      this.range = range;
-      this.inclusive = inclusive;
-      this.columnFamilies = columnFamilies;
-
-      if (iter == null) {
-        iter = source.iterator();
-        if (!onlySwitchAfterRow && yield.isPresent()) {
-          iter.enableYielding(yield.get());
-        }
+    if (synchronize) {
+      synchronized (copies) {
+        _seek(range, columnFamilies, inclusive);
       }
+    } else {
+      _seek(range, columnFamilies, inclusive);
+    }
+  }
 
-      readNext(true);
+  private void _seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive)
+      throws IOException {
+    this.range = range;
+    this.inclusive = inclusive;
+    this.columnFamilies = columnFamilies;
+
+    if (iter == null) {
+      iter = source.iterator();
+      if (!onlySwitchAfterRow && yield.isPresent()) {
+        iter.enableYielding(yield.get());
+      }
     }
+
+    readNext(true);
   }
 
   private void _switchNow() throws IOException {
@@ -248,6 +311,9 @@ public class SourceSwitchingIterator implements InterruptibleIterator {
   }
 
   public void switchNow() throws IOException {
+    if (!synchronize)
+      throw new IllegalStateException("Can only switch from another thread when synchronized");
+
     synchronized (copies) {
       for (SourceSwitchingIterator ssi : copies)
         ssi._switchNow();
@@ -30,7 +30,7 @@ import org.apache.accumulo.core.iterators.IteratorEnvironment;
 import org.apache.accumulo.core.iterators.ServerWrappingIterator;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 
-public class StatsIterator extends ServerWrappingIterator {
+public class StatsIterator extends ServerWrappingIterator implements BatchIterator {
 
   private int numRead = 0;
   private AtomicLong seekCounter;
@@ -54,6 +54,18 @@ public class StatsIterator extends ServerWrappingIterator {
     }
   }
 
+  @Override
+  public void nextBatch(KeyValueBatch batch) throws IOException {
+    int start = batch.size();
+    batch.fill(source);
+    numRead += batch.size() - start;
+
+    if (numRead >= 23) {
+      readCounter.addAndGet(numRead);
+      numRead = 0;
+    }
+  }
+
   @Override
   public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
     return new StatsIterator(source.deepCopy(env), seekCounter, readCounter);
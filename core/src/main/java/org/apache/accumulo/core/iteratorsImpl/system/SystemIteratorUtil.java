@@ -99,10 +99,22 @@ public class SystemIteratorUtil {
   public static SortedKeyValueIterator<Key,Value> setupSystemScanIterators(
       SortedKeyValueIterator<Key,Value> source, Set<Column> cols, Authorizations auths,
       byte[] defaultVisibility, AccumuloConfiguration conf) throws IOException {
+    return setupSystemScanIterators(source, cols, auths, defaultVisibility, conf, true);
+  }
+
+  /**
+   * @param synchronize
+   *          false if the returned iterator stack and its deep copies are only used by one thread
+   *          at a time, in which case the system iterators do not acquire a lock for every key
+   */
+  public static SortedKeyValueIterator<Key,Value> setupSystemScanIterators(
+      SortedKeyValueIterator<Key,Value> source, Set<Column> cols, Authorizations auths,
+      byte[] defaultVisibility, AccumuloConfiguration conf, boolean synchronize)
+      throws IOException {
     SortedKeyValueIterator<Key,Value> delIter =
         DeletingIterator.wrap(source, false, DeletingIterator.getBehavior(conf));
     ColumnFamilySkippingIterator cfsi = new ColumnFamilySkippingIterator(delIter);
     SortedKeyValueIterator<Key,Value> colFilter = ColumnQualifierFilter.wrap(cfsi, cols);
-    return VisibilityFilter.wrap(colFilter, auths, defaultVisibility);
+    return VisibilityFilter.wrap(colFilter, auths, defaultVisibility, synchronize);
   }
 }
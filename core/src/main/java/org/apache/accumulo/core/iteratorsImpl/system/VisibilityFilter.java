@@ -18,19 +18,19 @@
  */
 package org.apache.accumulo.core.iteratorsImpl.system;
 
+import java.io.IOException;
+
 import org.apache.accumulo.core.data.ArrayByteSequence;
 import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.ServerFilter;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import org.apache.accumulo.core.iterators.SynchronizedServerFilter;
 import org.apache.accumulo.core.security.Authorizations;
-import org.apache.accumulo.core.security.ColumnVisibility;
-import org.apache.accumulo.core.security.VisibilityEvaluator;
 import org.apache.accumulo.core.security.VisibilityParseException;
 import org.apache.accumulo.core.util.BadArgumentException;
-import org.apache.commons.collections4.map.LRUMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,11 +41,14 @@ import org.slf4j.LoggerFactory;
  * of the iterator stack in {@link org.apache.accumulo.core.iterators.IteratorUtil}
  * .loadIterators(). For performance reasons, the synchronization was pushed down the stack to this
  * class.
+ *
+ * <p>
+ * Expressions are evaluated in their {@link CompiledVisibility} form, which is parsed once and
+ * shared by all instances of this filter.
  */
-public class VisibilityFilter extends SynchronizedServerFilter {
-  protected VisibilityEvaluator ve;
+public class VisibilityFilter extends SynchronizedServerFilter implements BatchIterator {
+  protected long[] authorizationBits;
   protected ByteSequence defaultVisibility;
-  protected LRUMap<ByteSequence,Boolean> cache;
   protected Authorizations authorizations;
 
   private static final Logger log = LoggerFactory.getLogger(VisibilityFilter.class);
@@ -53,10 +56,9 @@ public class VisibilityFilter extends SynchronizedServerFilter {
   private VisibilityFilter(SortedKeyValueIterator<Key,Value> iterator,
       Authorizations authorizations, byte[] defaultVisibility) {
     super(iterator);
-    this.ve = new VisibilityEvaluator(authorizations);
+    this.authorizationBits = CompiledVisibility.authorizationBits(authorizations);
     this.authorizations = authorizations;
     this.defaultVisibility = new ArrayByteSequence(defaultVisibility);
-    this.cache = new LRUMap<>(1000);
   }
 
   @Override
@@ -66,6 +68,15 @@ public class VisibilityFilter extends SynchronizedServerFilter {
 
   @Override
   protected boolean accept(Key k, Value v) {
+    return accept(k, authorizationBits, defaultVisibility);
+  }
+
+  @Override
+  public synchronized void nextBatch(KeyValueBatch batch) throws IOException {
+    batch.fillFiltered(source, this::accept);
+  }
+
+  private static boolean accept(Key k, long[] authorizationBits, ByteSequence defaultVisibility) {
     ByteSequence testVis = k.getColumnVisibilityData();
 
     if (testVis.length() == 0 && defaultVisibility.length() == 0)
@@ -73,14 +84,8 @@ public class VisibilityFilter extends SynchronizedServerFilter {
     else if (testVis.length() == 0)
       testVis = defaultVisibility;
 
-    Boolean b = cache.get(testVis);
-    if (b != null)
-      return b;
-
     try {
-      boolean bb = ve.evaluate(new ColumnVisibility(testVis.toArray()));
-      cache.put(testVis, bb);
-      return bb;
+      return CompiledVisibility.get(testVis).evaluate(authorizationBits);
     } catch (VisibilityParseException e) {
       log.error("VisibilityParseException with visibility of Key: {}", k, e);
       return false;
@@ -90,7 +95,8 @@ public class VisibilityFilter extends SynchronizedServerFilter {
     }
   }
 
-  private static class EmptyAuthsVisibilityFilter extends SynchronizedServerFilter {
+  private static class EmptyAuthsVisibilityFilter extends SynchronizedServerFilter
+      implements BatchIterator {
 
     public EmptyAuthsVisibilityFilter(SortedKeyValueIterator<Key,Value> source) {
       super(source);
@@ -105,14 +111,88 @@ public class VisibilityFilter extends SynchronizedServerFilter {
     protected boolean accept(Key k, Value v) {
       return k.getColumnVisibilityData().length() == 0;
     }
+
+    @Override
+    public synchronized void nextBatch(KeyValueBatch batch) throws IOException {
+      batch.fillFiltered(source, this::accept);
+    }
+  }
+
+  /**
+   * A visibility filter without synchronization, for iterator stacks used by one thread at a time.
+   */
+  private static class UnsynchronizedVisibilityFilter extends ServerFilter
+      implements BatchIterator {
+    private final long[] authorizationBits;
+    private final ByteSequence defaultVisibility;
+    private final Authorizations authorizations;
+
+    UnsynchronizedVisibilityFilter(SortedKeyValueIterator<Key,Value> source,
+        Authorizations authorizations, byte[] defaultVisibility) {
+      super(source);
+      this.authorizationBits = CompiledVisibility.authorizationBits(authorizations);
+      this.authorizations = authorizations;
+      this.defaultVisibility = new ArrayByteSequence(defaultVisibility);
+    }
+
+    @Override
+    public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
+      return new UnsynchronizedVisibilityFilter(source.deepCopy(env), authorizations,
+          defaultVisibility.toArray());
+    }
+
+    @Override
+    public boolean accept(Key k, Value v) {
+      return VisibilityFilter.accept(k, authorizationBits, defaultVisibility);
+    }
+
+    @Override
+    public void nextBatch(KeyValueBatch batch) throws IOException {
+      batch.fillFiltered(source, this::accept);
+    }
+  }
+
+  private static class UnsynchronizedEmptyAuthsVisibilityFilter extends ServerFilter
+      implements BatchIterator {
+
+    UnsynchronizedEmptyAuthsVisibilityFilter(SortedKeyValueIterator<Key,Value> source) {
+      super(source);
+    }
+
+    @Override
+    public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
+      return new UnsynchronizedEmptyAuthsVisibilityFilter(source.deepCopy(env));
+    }
+
+    @Override
+    public boolean accept(Key k, Value v) {
+      return k.getColumnVisibilityData().length() == 0;
+    }
+
+    @Override
+    public void nextBatch(KeyValueBatch batch) throws IOException {
+      batch.fillFiltered(source, this::accept);
+    }
   }
 
   public static SortedKeyValueIterator<Key,Value> wrap(SortedKeyValueIterator<Key,Value> source,
       Authorizations authorizations, byte[] defaultVisibility) {
+    return wrap(source, authorizations, defaultVisibility, true);
+  }
+
+  /**
+   * @param synchronize
+   *          false if the returned iterator and its deep copies are only used by one thread at a
+   *          time, which avoids acquiring a lock for every key
+   */
+  public static SortedKeyValueIterator<Key,Value> wrap(SortedKeyValueIterator<Key,Value> source,
+      Authorizations authorizations, byte[] defaultVisibility, boolean synchronize) {
     if (authorizations.isEmpty() && defaultVisibility.length == 0) {
-      return new EmptyAuthsVisibilityFilter(source);
+      return synchronize ? new EmptyAuthsVisibilityFilter(source)
+          : new UnsynchronizedEmptyAuthsVisibilityFilter(source);
     } else {
-      return new VisibilityFilter(source, authorizations, defaultVisibility);
+      return synchronize ? new VisibilityFilter(source, authorizations, defaultVisibility)
+          : new UnsynchronizedVisibilityFilter(source, authorizations, defaultVisibility);
     }
   }
 }
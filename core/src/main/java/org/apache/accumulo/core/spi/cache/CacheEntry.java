@@ -18,6 +18,7 @@
  */
 package org.apache.accumulo.core.spi.cache;
 
+import java.nio.ByteBuffer;
 import java.util.function.Supplier;
 
 /**
@@ -31,6 +32,29 @@ public interface CacheEntry {
 
   byte[] getBuffer();
 
+  /**
+   * Returns the cached data as a buffer that readers decode from directly. The buffer may be on or
+   * off the heap, its position and limit bound the data, and callers must not modify its content.
+   * Accumulo calls this instead of {@link #getBuffer()} when reading a block, so an implementation
+   * that does not store data in a byte array can avoid a copy as long as the returned buffer stays
+   * valid while the entry is referenced. The default implementation wraps {@link #getBuffer()}.
+   *
+   * @since 2.1.0
+   */
+  default ByteBuffer getByteBuffer() {
+    return ByteBuffer.wrap(getBuffer());
+  }
+
+  /**
+   * Tells the cache that the caller is done with this entry. Buffers returned by
+   * {@link #getByteBuffer()} must not be used after this is called, which lets a cache that hands
+   * out its own memory keep that memory from being reused while a reader decodes from it. Calling
+   * this more than once has no effect. The default implementation does nothing.
+   *
+   * @since 2.1.0
+   */
+  default void release() {}
+
   /**
    * Optionally cache what is returned by the supplier along with this cache entry. If caching what
    * is returned by the supplier is not supported, its ok to return null.
@@ -49,6 +49,11 @@ class DefaultScanDirectives extends ScanDirectivesImpl {
     return new ScanDirectivesImpl().setDataCacheUsage(usage);
   }
 
+  @Override
+  public Builder setReadAheadBlocks(int blocks) {
+    return new ScanDirectivesImpl().setReadAheadBlocks(blocks);
+  }
+
   @Override
   public ScanDirectives build() {
     return this;
@@ -18,6 +18,8 @@
  */
 package org.apache.accumulo.core.spi.scan;
 
+import java.util.OptionalInt;
+
 import org.apache.accumulo.core.spi.scan.ScanDispatcher.DispatchParameters;
 
 /**
@@ -59,6 +61,13 @@ public interface ScanDirectives {
 
   public CacheUsage getIndexCacheUsage();
 
+  /**
+   * @return the number of data blocks to read ahead of the scan, or empty when the table's
+   *         {@code table.file.readahead.blocks} setting should be used
+   * @since 2.1.0
+   */
+  public OptionalInt getReadAheadBlocks();
+
   /**
    * @since 2.1.0
    */
@@ -94,6 +103,17 @@ public interface ScanDirectives {
      */
     public Builder setDataCacheUsage(CacheUsage usage);
 
+    /**
+     * If this is not called, then the table's {@code table.file.readahead.blocks} setting should be
+     * used.
+     *
+     * @param blocks
+     *          the number of data blocks to read in the background ahead of the scan, 0 disables
+     *          read ahead
+     * @return may return self or a new object
+     */
+    public Builder setReadAheadBlocks(int blocks);
+
     /**
      * @return an immutable {@link ScanDirectives} object.
      */
@@ -19,6 +19,7 @@
 package org.apache.accumulo.core.spi.scan;
 
 import java.util.Objects;
+import java.util.OptionalInt;
 
 import org.apache.accumulo.core.spi.scan.ScanDirectives.Builder;
 
@@ -37,11 +38,13 @@ class ScanDirectivesImpl implements ScanDirectives, Builder {
   private String executorName;
   private CacheUsage indexCacheUsage;
   private CacheUsage dataCacheUsage;
+  private OptionalInt readAheadBlocks;
 
   ScanDirectivesImpl() {
     executorName = SimpleScanDispatcher.DEFAULT_SCAN_EXECUTOR_NAME;
     indexCacheUsage = CacheUsage.TABLE;
     dataCacheUsage = CacheUsage.TABLE;
+    readAheadBlocks = OptionalInt.empty();
   }
 
   @Override
@@ -78,6 +81,14 @@ class ScanDirectivesImpl implements ScanDirectives, Builder {
     return this;
   }
 
+  @Override
+  public Builder setReadAheadBlocks(int blocks) {
+    Preconditions.checkState(!built);
+    Preconditions.checkArgument(blocks >= 0, "Negative read ahead blocks %s", blocks);
+    this.readAheadBlocks = OptionalInt.of(blocks);
+    return this;
+  }
+
   @Override
   public CacheUsage getDataCacheUsage() {
     Preconditions.checkState(built);
@@ -90,9 +101,16 @@ class ScanDirectivesImpl implements ScanDirectives, Builder {
     return indexCacheUsage;
   }
 
+  @Override
+  public OptionalInt getReadAheadBlocks() {
+    Preconditions.checkState(built);
+    return readAheadBlocks;
+  }
+
   @Override
   public String toString() {
     return "{executorName=" + executorName + ", indexCacheUsage=" + indexCacheUsage
-        + ", dataCacheUsage=" + dataCacheUsage + ", built=" + built + "}";
+        + ", dataCacheUsage=" + dataCacheUsage + ", readAheadBlocks=" + readAheadBlocks + ", built="
+        + built + "}";
   }
 }
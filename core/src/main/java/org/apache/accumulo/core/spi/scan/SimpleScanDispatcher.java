@@ -49,6 +49,9 @@ import com.google.common.collect.ImmutableMap;
  * takes precedence over all other settings. See {@link ScannerBase#setExecutionHints(Map)}</LI>
  * <LI>{@code table.scan.dispatcher.opts.cacheUsage.<type>[.index|.data]=enabled|disabled|opportunistic|table}
  * : for scans that set the hint {@code scan_type=<type>} determines how the scan will use cache.
+ * <LI>{@code table.scan.dispatcher.opts.readAhead.<type>=<blocks>} : for scans that set the hint
+ * {@code scan_type=<type>} overrides {@code table.file.readahead.blocks}, the number of data blocks
+ * read in the background ahead of the scan.
  * </UL>
  *
  * The {@code multi_executor} and {@code single_executor} options override the {@code executor}
@@ -58,6 +61,7 @@ import com.google.common.collect.ImmutableMap;
 public class SimpleScanDispatcher implements ScanDispatcher {
 
   private final String EXECUTOR_PREFIX = "executor.";
+  private final String READ_AHEAD_PREFIX = "readAhead.";
 
   private final Set<String> VALID_OPTS = Set.of("executor", "multi_executor", "single_executor");
 
@@ -76,6 +80,7 @@ public class SimpleScanDispatcher implements ScanDispatcher {
     Map<String,CacheUsage> indexCacheUsage = new HashMap<>();
     Map<String,CacheUsage> dataCacheUsage = new HashMap<>();
     Map<String,String> scanExecutors = new HashMap<>();
+    Map<String,Integer> readAheadBlocks = new HashMap<>();
     Set<String> hintScanTypes = new HashSet<>();
 
     options.forEach((k, v) -> {
@@ -86,6 +91,10 @@ public class SimpleScanDispatcher implements ScanDispatcher {
         String hintScanType = k.substring(EXECUTOR_PREFIX.length());
         scanExecutors.put(hintScanType, v);
         hintScanTypes.add(hintScanType);
+      } else if (k.startsWith(READ_AHEAD_PREFIX)) {
+        String hintScanType = k.substring(READ_AHEAD_PREFIX.length());
+        readAheadBlocks.put(hintScanType, Integer.parseInt(v));
+        hintScanTypes.add(hintScanType);
       } else if (cacheMatcher.matches()) {
         String hintScanType = cacheMatcher.group(1);
         CacheUsage usage = CacheUsage.valueOf(v.toUpperCase());
@@ -123,17 +132,23 @@ public class SimpleScanDispatcher implements ScanDispatcher {
     for (String hintScanType : hintScanTypes) {
       EnumMap<ScanInfo.Type,ScanDirectives> precomupted = new EnumMap<>(ScanInfo.Type.class);
 
-      precomupted.put(ScanInfo.Type.SINGLE, ScanDirectives.builder()
+      var singleBuilder = ScanDirectives.builder()
           .setExecutorName(
               scanExecutors.getOrDefault(hintScanType, singleDirectives.getExecutorName()))
           .setIndexCacheUsage(indexCacheUsage.getOrDefault(hintScanType, CacheUsage.TABLE))
-          .setDataCacheUsage(dataCacheUsage.getOrDefault(hintScanType, CacheUsage.TABLE)).build());
-
-      precomupted.put(ScanInfo.Type.MULTI, ScanDirectives.builder()
+          .setDataCacheUsage(dataCacheUsage.getOrDefault(hintScanType, CacheUsage.TABLE));
+      var multiBuilder = ScanDirectives.builder()
           .setExecutorName(
               scanExecutors.getOrDefault(hintScanType, multiDirectives.getExecutorName()))
           .setIndexCacheUsage(indexCacheUsage.getOrDefault(hintScanType, CacheUsage.TABLE))
-          .setDataCacheUsage(dataCacheUsage.getOrDefault(hintScanType, CacheUsage.TABLE)).build());
+          .setDataCacheUsage(dataCacheUsage.getOrDefault(hintScanType, CacheUsage.TABLE));
+      if (readAheadBlocks.containsKey(hintScanType)) {
+        singleBuilder = singleBuilder.setReadAheadBlocks(readAheadBlocks.get(hintScanType));
+        multiBuilder = multiBuilder.setReadAheadBlocks(readAheadBlocks.get(hintScanType));
+      }
+
+      precomupted.put(ScanInfo.Type.SINGLE, singleBuilder.build());
+      precomupted.put(ScanInfo.Type.MULTI, multiBuilder.build());
 
       stpb.put(hintScanType, precomupted);
     }
@@ -100,7 +100,11 @@ public class SummaryReader {
           if (idxCacheEntry == null) {
             return loader.load(maxSize, dependencies);
           } else {
-            return idxCacheEntry.getBuffer();
+            try {
+              return idxCacheEntry.getBuffer();
+            } finally {
+              idxCacheEntry.release();
+            }
           }
         }
       };
@@ -196,6 +196,17 @@ service TabletClientService extends client.ClientService {
     4:TSampleNotPresentException tsnpe
   )
 
+  list<data.ScanResult> continueScanBatches(
+    1:trace.TInfo tinfo
+    2:data.ScanID scanID
+    3:i32 credits
+  ) throws (
+    1:NoSuchScanIDException nssi
+    2:NotServingTabletException nste
+    3:TooManyFilesException tmfe
+    4:TSampleNotPresentException tsnpe
+  )
+
   oneway void closeScan(
     2:trace.TInfo tinfo
     1:data.ScanID scanID
@@ -476,6 +487,28 @@ service TabletClientService extends client.ClientService {
     1:NoSuchScanIDException nssi
   )
 
+  // count the key/values stored in the part of a range that falls in a tablet
+  i64 countEntries(
+    1:trace.TInfo tinfo
+    2:security.TCredentials credentials
+    3:data.TKeyExtent extent
+    4:data.TRange range
+  ) throws (
+    1:client.ThriftSecurityException sec
+    2:NotServingTabletException nste
+  )
+
+  // check if the part of a range that falls in a tablet holds any key/value that is not deleted
+  bool hasEntries(
+    1:trace.TInfo tinfo
+    2:security.TCredentials credentials
+    3:data.TKeyExtent extent
+    4:data.TRange range
+  ) throws (
+    1:client.ThriftSecurityException sec
+    2:NotServingTabletException nste
+  )
+
 }
 
 typedef i32 TabletID
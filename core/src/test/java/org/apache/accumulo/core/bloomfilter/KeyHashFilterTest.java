@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.bloomfilter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.apache.accumulo.core.bloomfilter.KeyHashFilter.Type;
+import org.junit.Test;
+
+public class KeyHashFilterTest {
+
+  private static KeyHashFilter roundTrip(KeyHashFilter filter) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    filter.write(new DataOutputStream(baos));
+    return KeyHashFilter.read(new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+  }
+
+  private static void runTest(Type type, double maxFalsePositiveRate) throws IOException {
+    Random rand = new Random(42);
+    int numKeys = 100000;
+    long[] keys = new long[numKeys];
+    for (int i = 0; i < numKeys; i++) {
+      keys[i] = rand.nextLong();
+    }
+
+    // duplicates are allowed
+    long[] hashes = new long[numKeys + 100];
+    System.arraycopy(keys, 0, hashes, 0, numKeys);
+    System.arraycopy(keys, 0, hashes, numKeys, 100);
+
+    KeyHashFilter filter = roundTrip(KeyHashFilter.build(type, hashes, hashes.length, 0.005));
+    assertEquals(type, filter.getType());
+
+    for (long key : keys) {
+      assertTrue(filter.membershipTest(key));
+    }
+
+    int falsePositives = 0;
+    int tests = 200000;
+    for (int i = 0; i < tests; i++) {
+      if (filter.membershipTest(rand.nextLong())) {
+        falsePositives++;
+      }
+    }
+    assertTrue("false positives " + falsePositives, falsePositives < tests * maxFalsePositiveRate);
+  }
+
+  @Test
+  public void testBlocked() throws IOException {
+    runTest(Type.BLOCKED, 0.01);
+  }
+
+  @Test
+  public void testXor() throws IOException {
+    runTest(Type.XOR, 0.006);
+  }
+
+  @Test
+  public void testEmpty() throws IOException {
+    for (Type type : Type.values()) {
+      KeyHashFilter filter = roundTrip(KeyHashFilter.build(type, new long[0], 0, 0.005));
+      int falsePositives = 0;
+      Random rand = new Random(7);
+      for (int i = 0; i < 1000; i++) {
+        if (filter.membershipTest(KeyHashFilter.hash(new byte[] {(byte) rand.nextInt()}))) {
+          falsePositives++;
+        }
+      }
+      assertTrue(falsePositives < 50);
+    }
+  }
+}
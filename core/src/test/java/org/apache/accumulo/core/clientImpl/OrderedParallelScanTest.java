@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.clientImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.KeyValue;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OrderedParallelScanTest {
+
+  private ExecutorService executor;
+
+  @Before
+  public void setup() {
+    executor = Executors.newCachedThreadPool();
+  }
+
+  @After
+  public void teardown() {
+    executor.shutdownNow();
+  }
+
+  private static Iterator<Range> parts(int numParts) {
+    return IntStream.range(0, numParts).mapToObj(i -> new Range(String.format("%03d", i)))
+        .collect(Collectors.toList()).iterator();
+  }
+
+  private static int partNumber(Range range) {
+    return Integer.parseInt(range.getStartKey().getRow().toString());
+  }
+
+  private static List<KeyValue> batch(int part, int batch) {
+    List<KeyValue> kvs = new ArrayList<>();
+    kvs.add(new KeyValue(new Key(String.format("%03d", part), String.format("%03d", batch)),
+        new Value("v")));
+    return kvs;
+  }
+
+  /**
+   * Reads a number of batches from a part, counting the reads.
+   */
+  private static class TestReader implements OrderedParallelScan.BatchReader {
+    final int part;
+    final int numBatches;
+    final long maxSleep;
+    final AtomicInteger reads = new AtomicInteger();
+    final Random random = new Random();
+
+    TestReader(int part, int numBatches, long maxSleep) {
+      this.part = part;
+      this.numBatches = numBatches;
+      this.maxSleep = maxSleep;
+    }
+
+    @Override
+    public List<KeyValue> read() throws Exception {
+      int read = reads.getAndIncrement();
+      if (maxSleep > 0) {
+        Thread.sleep(random.nextInt((int) maxSleep));
+      }
+      return read < numBatches ? batch(part, read) : List.of();
+    }
+  }
+
+  private static List<KeyValue> takeAll(OrderedParallelScan scan) throws Exception {
+    List<KeyValue> all = new ArrayList<>();
+    for (List<KeyValue> batch = scan.take(); !batch.isEmpty(); batch = scan.take()) {
+      all.addAll(batch);
+    }
+    return all;
+  }
+
+  @Test
+  public void testOrder() throws Exception {
+    List<KeyValue> expected = new ArrayList<>();
+    for (int part = 0; part < 20; part++) {
+      for (int b = 0; b < part % 4; b++) {
+        expected.addAll(batch(part, b));
+      }
+    }
+
+    Function<Range,OrderedParallelScan.BatchReader> readers =
+        range -> new TestReader(partNumber(range), partNumber(range) % 4, 10);
+    for (int window : new int[] {1, 3, 20}) {
+      OrderedParallelScan scan =
+          new OrderedParallelScan(parts(20), readers, window, Long.MAX_VALUE, executor);
+      assertEquals(expected, takeAll(scan));
+      // a finished scan keeps returning an empty batch
+      assertTrue(scan.take().isEmpty());
+    }
+  }
+
+  @Test
+  public void testWindow() throws Exception {
+    List<TestReader> created = new ArrayList<>();
+    Function<Range,OrderedParallelScan.BatchReader> readers = range -> {
+      TestReader reader = new TestReader(partNumber(range), 2, 0);
+      synchronized (created) {
+        created.add(reader);
+      }
+      return reader;
+    };
+
+    OrderedParallelScan scan = new OrderedParallelScan(parts(10), readers, 3, 1, executor);
+    assertEquals(batch(0, 0), scan.take());
+    // the head part reads past the memory limit while it has nothing buffered
+    assertEquals(batch(0, 1), scan.take());
+    Thread.sleep(100);
+    synchronized (created) {
+      assertEquals(3, created.size());
+      // parts ahead of the head stop reading once the memory limit is reached
+      assertTrue(created.get(1).reads.get() <= 1);
+      assertTrue(created.get(2).reads.get() <= 1);
+    }
+
+    List<KeyValue> expected = new ArrayList<>();
+    for (int part = 1; part < 10; part++) {
+      expected.addAll(batch(part, 0));
+      expected.addAll(batch(part, 1));
+    }
+    assertEquals(expected, takeAll(scan));
+    assertEquals(10, created.size());
+  }
+
+  @Test
+  public void testSlowConsumer() throws Exception {
+    int window = 4;
+    long batchSize = OrderedParallelScan.estimateSize(batch(0, 0));
+    long maxMemory = 3 * batchSize;
+    OrderedParallelScan scan = new OrderedParallelScan(parts(6),
+        range -> new TestReader(partNumber(range), 20, 0), window, maxMemory, executor);
+
+    int taken = 0;
+    for (List<KeyValue> batch = scan.take(); !batch.isEmpty(); batch = scan.take()) {
+      taken++;
+      // give the parts time to read as far ahead as they are allowed to
+      Thread.sleep(5);
+      long buffered = scan.getBufferedBytes();
+      // each part may complete one batch past the limit, including the one being consumed
+      assertTrue("buffered " + buffered, buffered <= maxMemory + window * batchSize);
+    }
+    assertEquals(6 * 20, taken);
+  }
+
+  @Test
+  public void testException() throws Exception {
+    IOException failure = new IOException("failed");
+    Function<Range,OrderedParallelScan.BatchReader> readers = range -> {
+      int part = partNumber(range);
+      if (part == 2) {
+        return () -> {
+          throw failure;
+        };
+      }
+      return new TestReader(part, 1, 0);
+    };
+
+    OrderedParallelScan scan = new OrderedParallelScan(parts(5), readers, 4, 1000, executor);
+    assertEquals(batch(0, 0), scan.take());
+    assertEquals(batch(1, 0), scan.take());
+    for (int i = 0; i < 2; i++) {
+      ExecutionException e = assertThrows(ExecutionException.class, scan::take);
+      assertSame(failure, e.getCause());
+    }
+  }
+
+  @Test
+  public void testClose() throws Exception {
+    OrderedParallelScan scan = new OrderedParallelScan(parts(5),
+        range -> new TestReader(partNumber(range), 100, 0), 2, 1, executor);
+    assertEquals(batch(0, 0), scan.take());
+    scan.close();
+    assertThrows(IllegalStateException.class, scan::take);
+  }
+}
@@ -54,6 +54,26 @@ public class ScannerImplTest {
     }
   }
 
+  @Test
+  public void testReadaheadBatchesValues() {
+    try (var s = new ScannerImpl(context, TableId.of("foo"), Authorizations.EMPTY)) {
+      s.setReadaheadBatches(0);
+      s.setReadaheadBatches(8);
+      assertThrows(IllegalArgumentException.class, () -> s.setReadaheadBatches(-1));
+    }
+  }
+
+  @Test
+  public void testParallelValues() {
+    try (var s = new ScannerImpl(context, TableId.of("foo"), Authorizations.EMPTY)) {
+      s.setParallelTablets(0);
+      s.setParallelTablets(4);
+      assertThrows(IllegalArgumentException.class, () -> s.setParallelTablets(-1));
+      s.setParallelMaxMemory(1);
+      assertThrows(IllegalArgumentException.class, () -> s.setParallelMaxMemory(0));
+    }
+  }
+
   @Test
   public void testGetAuthorizations() {
     Authorizations expected = new Authorizations("a,b");
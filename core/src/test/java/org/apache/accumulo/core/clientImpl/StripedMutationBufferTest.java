@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.clientImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.TableId;
+import org.junit.Test;
+
+public class StripedMutationBufferTest {
+
+  private static Mutation newMutation(int thread, int i) {
+    Mutation m = new Mutation(String.format("%02d_%06d", thread, i));
+    m.put("f", "q", "v");
+    return m;
+  }
+
+  @Test
+  public void testNumStripes() {
+    assertEquals(1, new StripedMutationBuffer(1).getNumStripes());
+    assertEquals(4, new StripedMutationBuffer(3).getNumStripes());
+    assertEquals(16, new StripedMutationBuffer(16).getNumStripes());
+  }
+
+  @Test
+  public void testConcurrentAdds() throws Exception {
+    TableId t1 = TableId.of("1");
+    TableId t2 = TableId.of("2");
+    StripedMutationBuffer buffer = new StripedMutationBuffer(4);
+
+    Map<TableId,List<Mutation>> drained = new HashMap<>();
+    long drainedMemory = 0;
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Long>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        final int thread = t;
+        futures.add(executor.submit(() -> {
+          long added = 0;
+          for (int i = 0; i < 10000; i++) {
+            Mutation m = newMutation(thread, i);
+            added += m.estimatedMemoryUsed();
+            buffer.add(i % 2 == 0 ? t1 : t2, m);
+          }
+          return added;
+        }));
+      }
+
+      long addedMemory = 0;
+      boolean running = true;
+      while (running) {
+        running = false;
+        for (Future<Long> future : futures) {
+          running |= !future.isDone();
+        }
+        // drain while threads are adding, as the batch writer does
+        drainedMemory += buffer.drain((table, mutations) -> drained
+            .computeIfAbsent(table, k -> new ArrayList<>()).addAll(mutations));
+      }
+      for (Future<Long> future : futures) {
+        addedMemory += future.get();
+      }
+      drainedMemory += buffer.drain((table, mutations) -> drained
+          .computeIfAbsent(table, k -> new ArrayList<>()).addAll(mutations));
+
+      assertEquals(addedMemory, drainedMemory);
+      assertEquals(0, buffer.getMemoryUsed());
+      assertEquals(40000, drained.get(t1).size());
+      assertEquals(40000, drained.get(t2).size());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testCloseWhileAdding() throws Exception {
+    TableId t1 = TableId.of("1");
+    StripedMutationBuffer buffer = new StripedMutationBuffer(4);
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Integer>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        final int thread = t;
+        futures.add(executor.submit(() -> {
+          int accepted = 0;
+          try {
+            for (int i = 0; true; i++) {
+              buffer.add(t1, newMutation(thread, i));
+              accepted++;
+            }
+          } catch (IllegalStateException e) {
+            return accepted;
+          }
+        }));
+      }
+
+      while (buffer.getMemoryUsed() == 0) {
+        Thread.sleep(1);
+      }
+      List<Mutation> drained = new ArrayList<>();
+      buffer.close((table, mutations) -> drained.addAll(mutations));
+
+      // every mutation is either drained by the close or rejected
+      int accepted = 0;
+      for (Future<Integer> future : futures) {
+        accepted += future.get();
+      }
+      assertEquals(accepted, drained.size());
+      assertEquals(0, buffer.getMemoryUsed());
+      assertThrows(IllegalStateException.class, () -> buffer.add(t1, newMutation(0, 0)));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
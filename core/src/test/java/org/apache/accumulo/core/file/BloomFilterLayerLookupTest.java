@@ -65,6 +65,20 @@ public class BloomFilterLayerLookupTest {
 
   @Test
   public void test() throws IOException {
+    runLookupTest("dynamic");
+  }
+
+  @Test
+  public void testBlocked() throws IOException {
+    runLookupTest("blocked");
+  }
+
+  @Test
+  public void testXor() throws IOException {
+    runLookupTest("xor");
+  }
+
+  private void runLookupTest(String filterType) throws IOException {
     HashSet<Integer> valsSet = new HashSet<>();
     for (int i = 0; i < 100000; i++) {
       valsSet.add(random.nextInt(Integer.MAX_VALUE));
@@ -75,6 +89,7 @@ public class BloomFilterLayerLookupTest {
 
     ConfigurationCopy acuconf = new ConfigurationCopy(DefaultConfiguration.getInstance());
     acuconf.set(Property.TABLE_BLOOM_ENABLED, "true");
+    acuconf.set(Property.TABLE_BLOOM_TYPE, filterType);
     acuconf.set(Property.TABLE_BLOOM_KEY_FUNCTOR, ColumnFamilyFunctor.class.getName());
     acuconf.set(Property.TABLE_FILE_TYPE, RFile.EXTENSION);
     acuconf.set(Property.TABLE_BLOOM_LOAD_THRESHOLD, "1");
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.accumulo.core.data.Key;
+import org.junit.Test;
+
+public class EntryCounterTest {
+
+  private static Key newKey(String row, String cq, long ts, boolean deleted) {
+    Key key = new Key(row, "cf", cq, ts);
+    key.setDeleted(deleted);
+    return key;
+  }
+
+  private static void addVersions(EntryCounter counter, String row, String cq, int versions) {
+    for (int ts = versions; ts > 0; ts--) {
+      counter.add(newKey(row, cq, ts, false));
+    }
+  }
+
+  @Test
+  public void testVersions() {
+    EntryCounter all = new EntryCounter(Integer.MAX_VALUE);
+    EntryCounter one = new EntryCounter(1);
+    EntryCounter two = new EntryCounter(2);
+    for (EntryCounter counter : new EntryCounter[] {all, one, two}) {
+      addVersions(counter, "r1", "q1", 3);
+      addVersions(counter, "r1", "q2", 1);
+      addVersions(counter, "r2", "q1", 2);
+    }
+    assertEquals(6, all.getCount());
+    assertEquals(3, one.getCount());
+    assertEquals(5, two.getCount());
+  }
+
+  @Test
+  public void testDeletes() {
+    EntryCounter counter = new EntryCounter(Integer.MAX_VALUE);
+    // a delete hides the older versions of its key
+    counter.add(newKey("r1", "q1", 5, false));
+    counter.add(newKey("r1", "q1", 4, true));
+    counter.add(newKey("r1", "q1", 3, false));
+    counter.add(newKey("r1", "q1", 2, false));
+    // but not other keys
+    counter.add(newKey("r1", "q2", 3, true));
+    counter.add(newKey("r1", "q3", 3, false));
+    counter.add(newKey("r2", "q1", 3, false));
+    assertEquals(3, counter.getCount());
+  }
+
+  @Test
+  public void testAddUnseen() {
+    EntryCounter counter = new EntryCounter(1);
+    counter.add(newKey("r1", "q1", 3, false));
+    counter.addUnseen(10);
+    // the key after unseen entries can not be compared with the keys before them
+    counter.add(newKey("r1", "q1", 2, false));
+    counter.add(newKey("r1", "q1", 1, false));
+    assertEquals(12, counter.getCount());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNoVersions() {
+    new EntryCounter(0);
+  }
+}
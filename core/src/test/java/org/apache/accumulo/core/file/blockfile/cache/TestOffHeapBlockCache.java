@@ -0,0 +1,335 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheConfiguration;
+import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheManagerFactory;
+import org.apache.accumulo.core.file.blockfile.cache.offheap.ClockEvictionPolicy;
+import org.apache.accumulo.core.file.blockfile.cache.offheap.EvictionPolicy;
+import org.apache.accumulo.core.file.blockfile.cache.offheap.LruEvictionPolicy;
+import org.apache.accumulo.core.file.blockfile.cache.offheap.OffHeapBlockCache;
+import org.apache.accumulo.core.file.blockfile.cache.offheap.OffHeapBlockCacheConfiguration;
+import org.apache.accumulo.core.file.blockfile.cache.offheap.OffHeapBlockCacheManager;
+import org.apache.accumulo.core.spi.cache.BlockCache.Loader;
+import org.apache.accumulo.core.spi.cache.BlockCacheManager;
+import org.apache.accumulo.core.spi.cache.CacheEntry;
+import org.apache.accumulo.core.spi.cache.CacheEntry.Weighable;
+import org.apache.accumulo.core.spi.cache.CacheType;
+import org.junit.Test;
+
+public class TestOffHeapBlockCache {
+
+  private static final Random random = new Random(42);
+
+  private static byte[] randomBlock(int size) {
+    byte[] data = new byte[size];
+    random.nextBytes(data);
+    return data;
+  }
+
+  private static BlockCacheManager startManager(long maxSize, long slabSize,
+      Class<? extends EvictionPolicy> policy) throws Exception {
+    ConfigurationCopy cc = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    cc.set(Property.TSERV_CACHE_MANAGER_IMPL, OffHeapBlockCacheManager.class.getName());
+    cc.set(Property.TSERV_DEFAULT_BLOCKSIZE, Long.toString(1024));
+    cc.set(Property.TSERV_INDEXCACHE_SIZE, Long.toString(maxSize));
+    OffHeapBlockCacheConfiguration.builder(CacheType.INDEX).slabSize(slabSize).minSlotSize(512)
+        .evictionPolicy(policy).buildMap().forEach(cc::set);
+    BlockCacheManager manager = BlockCacheManagerFactory.getInstance(cc);
+    manager.start(new BlockCacheConfiguration(cc));
+    return manager;
+  }
+
+  @Test
+  public void testConfiguration() {
+    ConfigurationCopy cc = new ConfigurationCopy();
+    cc.set(Property.TSERV_CACHE_MANAGER_IMPL, OffHeapBlockCacheManager.class.getName());
+    cc.set(Property.TSERV_DEFAULT_BLOCKSIZE, Long.toString(1019));
+    cc.set(Property.TSERV_INDEXCACHE_SIZE, Long.toString(10_000_000));
+    cc.set(Property.TSERV_DATACACHE_SIZE, Long.toString(100_000));
+    cc.set(Property.TSERV_SUMMARYCACHE_SIZE, Long.toString(1000029));
+
+    OffHeapBlockCacheConfiguration.builder(CacheType.INDEX).slabSize(1 << 20).minSlotSize(2048)
+        .evictionPolicy(LruEvictionPolicy.class).buildMap().forEach(cc::set);
+
+    String defaultPrefix = BlockCacheManager.CACHE_PROPERTY_BASE
+        + OffHeapBlockCacheConfiguration.PROPERTY_PREFIX + ".default.";
+    // this should be overridden by cache type specific setting
+    cc.set(defaultPrefix + OffHeapBlockCacheConfiguration.MIN_SLOT_SIZE_PROPERTY, "4K");
+
+    BlockCacheConfiguration bcc = new BlockCacheConfiguration(cc);
+    OffHeapBlockCacheConfiguration obcc = new OffHeapBlockCacheConfiguration(bcc, CacheType.INDEX);
+    assertEquals(1 << 20, obcc.getSlabSize());
+    assertEquals(2048, obcc.getMinSlotSize());
+    assertEquals(LruEvictionPolicy.class, obcc.newEvictionPolicy().getClass());
+    assertEquals(1019, obcc.getBlockSize());
+    assertEquals(10_000_000, obcc.getMaxSize());
+
+    // slab size is limited to the cache size and defaults fall back for the data cache
+    obcc = new OffHeapBlockCacheConfiguration(bcc, CacheType.DATA);
+    assertEquals(100_000, obcc.getSlabSize());
+    assertEquals(4096, obcc.getMinSlotSize());
+    assertEquals(ClockEvictionPolicy.class, obcc.newEvictionPolicy().getClass());
+  }
+
+  @Test
+  public void testCacheSimple() throws Exception {
+    BlockCacheManager manager = startManager(1 << 20, 1 << 16, ClockEvictionPolicy.class);
+    OffHeapBlockCache cache = (OffHeapBlockCache) manager.getBlockCache(CacheType.INDEX);
+
+    byte[][] blocks = new byte[50][];
+    for (int i = 0; i < blocks.length; i++) {
+      blocks[i] = randomBlock(100 + random.nextInt(4000));
+      assertNull(cache.getBlock("b" + i));
+      cache.cacheBlock("b" + i, blocks[i]);
+    }
+
+    for (int i = 0; i < blocks.length; i++) {
+      CacheEntry ce = cache.getBlock("b" + i);
+      assertNotNull(ce);
+      assertArrayEquals(blocks[i], ce.getBuffer());
+      ce.release();
+    }
+
+    assertEquals(50, cache.size());
+    assertEquals(0, cache.getEvictedCount());
+    assertEquals(100, cache.getStats().requestCount());
+    assertEquals(50, cache.getStats().hitCount());
+    assertTrue(cache.getCurrentSize() > 0);
+
+    manager.stop();
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.getCurrentSize());
+  }
+
+  @Test
+  public void testEviction() throws Exception {
+    // a single slab of 1K slots
+    BlockCacheManager manager = startManager(16 * 1024, 16 * 1024, LruEvictionPolicy.class);
+    OffHeapBlockCache cache = (OffHeapBlockCache) manager.getBlockCache(CacheType.INDEX);
+
+    for (int i = 0; i < 16; i++) {
+      cache.cacheBlock("b" + i, randomBlock(1000));
+    }
+    assertEquals(16, cache.size());
+
+    // make b0 most recently used so b1 is evicted next
+    assertNotNull(cache.getBlock("b0"));
+    byte[] data = randomBlock(1000);
+    cache.cacheBlock("b16", data);
+
+    assertEquals(16, cache.size());
+    assertEquals(1, cache.getEvictedCount());
+    assertNotNull(cache.getBlock("b0"));
+    assertNull(cache.getBlock("b1"));
+    assertArrayEquals(data, cache.getBlock("b16").getBuffer());
+
+    // no free slots in another size class and no blocks in it to evict, so this is not cached
+    data = randomBlock(3000);
+    CacheEntry ce = cache.cacheBlock("large", data);
+    assertArrayEquals(data, ce.getBuffer());
+    assertNull(cache.getBlock("large"));
+
+    // larger than a slab
+    data = randomBlock(20000);
+    ce = cache.cacheBlock("huge", data);
+    assertArrayEquals(data, ce.getBuffer());
+    assertNull(cache.getBlock("huge"));
+
+    manager.stop();
+  }
+
+  @Test
+  public void testEvictionLimit() throws Exception {
+    // a single slab of 1K slots
+    BlockCacheManager manager = startManager(16 * 1024, 16 * 1024, LruEvictionPolicy.class);
+    OffHeapBlockCache cache = (OffHeapBlockCache) manager.getBlockCache(CacheType.INDEX);
+
+    for (int i = 0; i < 16; i++) {
+      cache.cacheBlock("b" + i, randomBlock(1000));
+    }
+
+    // every block is being read, so evicting them frees no memory
+    List<CacheEntry> reading = new ArrayList<>();
+    for (int i = 0; i < 16; i++) {
+      reading.add(cache.getBlock("b" + i));
+    }
+
+    byte[] data = randomBlock(1000);
+    CacheEntry ce = cache.cacheBlock("b16", data);
+    assertArrayEquals(data, ce.getBuffer());
+    assertNull(cache.getBlock("b16"));
+    // gives up after a few evictions instead of emptying the cache
+    assertEquals(4, cache.getEvictedCount());
+    assertEquals(12, cache.size());
+
+    // the memory of the evicted blocks is reused once their reads finish
+    reading.forEach(CacheEntry::release);
+    cache.cacheBlock("b17", data);
+    assertEquals(4, cache.getEvictedCount());
+    assertArrayEquals(data, cache.getBlock("b17").getBuffer());
+
+    manager.stop();
+  }
+
+  @Test
+  public void testChurn() throws Exception {
+    BlockCacheManager manager = startManager(1 << 18, 1 << 15, ClockEvictionPolicy.class);
+    OffHeapBlockCache cache = (OffHeapBlockCache) manager.getBlockCache(CacheType.INDEX);
+
+    for (int i = 0; i < 2000; i++) {
+      byte[] data = randomBlock(500 + random.nextInt(8000));
+      cache.cacheBlock("b" + i, data);
+      CacheEntry ce = cache.getBlock("b" + i);
+      if (ce != null) {
+        assertArrayEquals(data, ce.getBuffer());
+        ce.release();
+      }
+      assertTrue(cache.getCurrentSize() <= cache.getMaxSize());
+    }
+    assertTrue(cache.getEvictedCount() > 0);
+
+    manager.stop();
+  }
+
+  @Test
+  public void testReadFromCachedMemory() throws Exception {
+    // a single slab of 1K slots
+    BlockCacheManager manager = startManager(16 * 1024, 16 * 1024, LruEvictionPolicy.class);
+    OffHeapBlockCache cache = (OffHeapBlockCache) manager.getBlockCache(CacheType.INDEX);
+
+    byte[] data = randomBlock(1000);
+    cache.cacheBlock("b0", data);
+    for (int i = 1; i < 16; i++) {
+      cache.cacheBlock("b" + i, randomBlock(1000));
+    }
+    long cachedSize = cache.getCurrentSize();
+
+    // hits read the cached memory directly
+    CacheEntry ce = cache.getBlock("b0");
+    ByteBuffer buffer = ce.getByteBuffer();
+    assertTrue(buffer.isDirect());
+    assertTrue(buffer.isReadOnly());
+    assertEquals(0, buffer.position());
+    assertEquals(data.length, buffer.remaining());
+
+    // make b0 least recently used
+    for (int i = 1; i < 16; i++) {
+      cache.getBlock("b" + i).release();
+    }
+
+    // evicting the block while it is read does not free its memory, so b1 is evicted as well
+    cache.cacheBlock("b16", randomBlock(1000));
+    assertNull(cache.getBlock("b0"));
+    assertNull(cache.getBlock("b1"));
+    assertEquals(2, cache.getEvictedCount());
+    assertEquals(cachedSize, cache.getCurrentSize());
+    byte[] read = new byte[data.length];
+    buffer.get(read);
+    assertArrayEquals(data, read);
+
+    ce.release();
+    ce.release();
+    assertEquals(cachedSize - data.length, cache.getCurrentSize());
+    assertThrows(IllegalStateException.class, ce::getByteBuffer);
+
+    // blocks that were not cached are read from the heap
+    ce = cache.cacheBlock("huge", randomBlock(20000));
+    assertFalse(ce.getByteBuffer().isDirect());
+
+    manager.stop();
+    assertEquals(0, cache.getCurrentSize());
+  }
+
+  private static class TestIndex implements Weighable {
+    @Override
+    public int weight() {
+      return 64;
+    }
+  }
+
+  @Test
+  public void testLoadAndIndex() throws Exception {
+    BlockCacheManager manager = startManager(1 << 20, 1 << 16, ClockEvictionPolicy.class);
+    OffHeapBlockCache cache = (OffHeapBlockCache) manager.getBlockCache(CacheType.INDEX);
+
+    byte[] data = randomBlock(2000);
+    AtomicInteger loads = new AtomicInteger();
+    Loader loader = new Loader() {
+      @Override
+      public Map<String,Loader> getDependencies() {
+        return Collections.emptyMap();
+      }
+
+      @Override
+      public byte[] load(int maxSize, Map<String,byte[]> dependencies) {
+        loads.incrementAndGet();
+        return data;
+      }
+    };
+
+    CacheEntry ce1 = cache.getBlock("b", loader);
+    CacheEntry ce2 = cache.getBlock("b", loader);
+    assertEquals(1, loads.get());
+    assertArrayEquals(data, ce1.getBuffer());
+    assertArrayEquals(data, ce2.getBuffer());
+
+    // the index is kept with the cached block and shared by later reads
+    TestIndex index = ce1.getIndex(TestIndex::new);
+    assertSame(index, ce2.getIndex(TestIndex::new));
+    assertSame(index, cache.getBlock("b").getIndex(TestIndex::new));
+
+    manager.stop();
+  }
+
+  @Test
+  public void testClockPolicy() {
+    ClockEvictionPolicy policy = new ClockEvictionPolicy();
+    policy.inserted("a");
+    policy.inserted("b");
+    policy.inserted("c");
+    policy.accessed("a");
+    policy.removed("b");
+
+    // a gets a second chance, b is no longer tracked
+    assertEquals("c", policy.selectVictim());
+    assertEquals("a", policy.selectVictim());
+    assertNull(policy.selectVictim());
+  }
+}
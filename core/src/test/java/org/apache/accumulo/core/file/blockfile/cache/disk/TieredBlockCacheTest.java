@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.cache.disk;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.accumulo.core.conf.ConfigurationCopy;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.cryptoImpl.AESCryptoService;
+import org.apache.accumulo.core.cryptoImpl.NoCryptoService;
+import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheConfiguration;
+import org.apache.accumulo.core.file.blockfile.cache.lru.LruBlockCacheManager;
+import org.apache.accumulo.core.spi.cache.BlockCache;
+import org.apache.accumulo.core.spi.cache.BlockCache.Loader;
+import org.apache.accumulo.core.spi.cache.BlockCacheManager;
+import org.apache.accumulo.core.spi.cache.CacheType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+@SuppressFBWarnings(value = "PATH_TRAVERSAL_IN", justification = "paths not set by user input")
+public class TieredBlockCacheTest {
+
+  @Rule
+  public TemporaryFolder tempFolder =
+      new TemporaryFolder(new File(System.getProperty("user.dir") + "/target"));
+
+  private static final Random random = new Random(7);
+
+  private static class TestLoader implements Loader {
+    final byte[] data;
+    final AtomicInteger loads = new AtomicInteger();
+
+    TestLoader(byte[] data) {
+      this.data = data;
+    }
+
+    @Override
+    public Map<String,Loader> getDependencies() {
+      return Collections.emptyMap();
+    }
+
+    @Override
+    public byte[] load(int maxSize, Map<String,byte[]> dependencies) {
+      loads.incrementAndGet();
+      return data;
+    }
+  }
+
+  private BlockCacheConfiguration createConf(String dir, long diskSize) {
+    ConfigurationCopy cc = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    cc.set(Property.TSERV_CACHE_MANAGER_IMPL, LruBlockCacheManager.class.getName());
+    cc.set(Property.TSERV_DATACACHE_SIZE, "1M");
+    DiskBlockCacheConfiguration.builder(CacheType.DATA).directory(dir).size(diskSize).buildMap()
+        .forEach(cc::set);
+    return new BlockCacheConfiguration(cc);
+  }
+
+  private static TieredBlockCache start(BlockCacheConfiguration conf) {
+    BlockCacheManager manager = new LruBlockCacheManager();
+    manager.start(conf);
+    BlockCache cache = TieredBlockCache.wrap(conf, CacheType.DATA,
+        manager.getBlockCache(CacheType.DATA), new NoCryptoService());
+    assertTrue(cache instanceof TieredBlockCache);
+    return (TieredBlockCache) cache;
+  }
+
+  private static byte[] randomBlock(int size) {
+    byte[] data = new byte[size];
+    random.nextBytes(data);
+    return data;
+  }
+
+  @Test
+  public void testConfiguration() throws Exception {
+    BlockCacheConfiguration conf = createConf(tempFolder.getRoot().getPath(), 1 << 20);
+    DiskBlockCacheConfiguration dconf = new DiskBlockCacheConfiguration(conf, CacheType.DATA);
+    assertTrue(dconf.isEnabled());
+    assertEquals(1 << 20, dconf.getMaxSize());
+    assertEquals(DiskBlockCacheConfiguration.DEFAULT_WRITE_QUEUE_SIZE, dconf.getWriteQueueSize());
+
+    // not configured for the index cache, so it is not wrapped
+    BlockCacheManager manager = new LruBlockCacheManager();
+    manager.start(conf);
+    BlockCache indexCache = manager.getBlockCache(CacheType.INDEX);
+    assertSame(indexCache,
+        TieredBlockCache.wrap(conf, CacheType.INDEX, indexCache, new NoCryptoService()));
+    manager.stop();
+  }
+
+  @Test
+  public void testNotCreatedWhenEncrypted() throws Exception {
+    BlockCacheConfiguration conf = createConf(tempFolder.getRoot().getPath(), 1 << 20);
+    BlockCacheManager manager = new LruBlockCacheManager();
+    manager.start(conf);
+    // decrypted blocks must not be written to local disk
+    BlockCache dataCache = manager.getBlockCache(CacheType.DATA);
+    assertSame(dataCache,
+        TieredBlockCache.wrap(conf, CacheType.DATA, dataCache, new AESCryptoService()));
+    assertFalse(new File(tempFolder.getRoot(), "data").exists());
+    manager.stop();
+  }
+
+  @Test
+  public void testSurvivesRestart() throws Exception {
+    BlockCacheConfiguration conf = createConf(tempFolder.getRoot().getPath(), 1 << 20);
+
+    byte[] data = randomBlock(5000);
+    TestLoader loader = new TestLoader(data);
+
+    TieredBlockCache cache = start(conf);
+    assertArrayEquals(data, cache.getBlock("file1R0", loader).getBuffer());
+    assertEquals(1, loader.loads.get());
+    cache.store.flush();
+    assertEquals(1, cache.store.getWriteCount());
+    assertEquals(0, cache.getDiskStats().hitCount());
+    assertEquals(1, cache.getDiskStats().requestCount());
+    cache.close();
+
+    // a new process starts with an empty memory cache, but finds the block on disk
+    cache = start(conf);
+    assertArrayEquals(data, cache.getBlock("file1R0", loader).getBuffer());
+    assertEquals(1, loader.loads.get());
+    assertEquals(1, cache.getDiskStats().hitCount());
+
+    // now in the memory cache, disk is not consulted
+    assertNotNull(cache.getBlock("file1R0"));
+    assertEquals(1, cache.getDiskStats().requestCount());
+    cache.close();
+  }
+
+  @Test
+  public void testCorruptFile() throws Exception {
+    BlockCacheConfiguration conf = createConf(tempFolder.getRoot().getPath(), 1 << 20);
+
+    byte[] data = randomBlock(5000);
+    TestLoader loader = new TestLoader(data);
+
+    TieredBlockCache cache = start(conf);
+    cache.getBlock("file1R0", loader);
+    cache.store.flush();
+    cache.close();
+
+    try (var files = Files.list(cache.store.getDirectory())) {
+      Path file = files.findFirst().get();
+      byte[] contents = Files.readAllBytes(file);
+      contents[contents.length - 100]++;
+      Files.write(file, contents);
+    }
+
+    cache = start(conf);
+    assertArrayEquals(data, cache.getBlock("file1R0", loader).getBuffer());
+    assertEquals(2, loader.loads.get());
+    assertEquals(0, cache.getDiskStats().hitCount());
+    cache.close();
+  }
+
+  @Test
+  public void testEviction() throws Exception {
+    BlockCacheConfiguration conf = createConf(tempFolder.getRoot().getPath(), 100_000);
+    TieredBlockCache cache = start(conf);
+
+    for (int i = 0; i < 50; i++) {
+      cache.getBlock("file1R" + i, new TestLoader(randomBlock(10_000)));
+      cache.store.flush();
+      assertTrue(cache.getDiskSize() <= 100_000);
+    }
+    assertTrue(cache.store.getEvictedCount() > 0);
+    assertTrue(cache.store.getBlockCount() < 10);
+
+    // block written most recently is still on disk
+    cache.close();
+    cache = start(conf);
+    assertNull(cache.getBlock("file1R0"));
+    assertNotNull(cache.getBlock("file1R49"));
+    cache.close();
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.blockfile.impl;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.function.Supplier;
+
+import org.apache.accumulo.core.spi.cache.CacheEntry;
+import org.junit.Test;
+
+public class SeekableByteBufferInputStreamTest {
+
+  private static byte[] createData() throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(baos);
+    out.writeBoolean(true);
+    out.writeByte(-3);
+    out.writeShort(-1000);
+    out.writeChar('z');
+    out.writeInt(123456789);
+    out.writeLong(-987654321987654321L);
+    out.writeFloat(1.5f);
+    out.writeDouble(-2.25);
+    out.writeUTF("accumulo");
+    out.write("data".getBytes(UTF_8));
+    out.close();
+    return baos.toByteArray();
+  }
+
+  private static void verify(DataInput in) throws IOException {
+    assertTrue(in.readBoolean());
+    assertEquals(-3, in.readByte());
+    assertEquals(-1000, in.readShort());
+    assertEquals('z', in.readChar());
+    assertEquals(123456789, in.readInt());
+    assertEquals(-987654321987654321L, in.readLong());
+    assertEquals(1.5f, in.readFloat(), 0);
+    assertEquals(-2.25, in.readDouble(), 0);
+    assertEquals("accumulo", in.readUTF());
+    byte[] rest = new byte[4];
+    in.readFully(rest);
+    assertArrayEquals("data".getBytes(UTF_8), rest);
+    assertThrows(EOFException.class, in::readByte);
+  }
+
+  private static ByteBuffer direct(byte[] data) {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(data.length + 10);
+    buffer.position(5);
+    buffer.put(data);
+    buffer.flip();
+    buffer.position(5);
+    return buffer;
+  }
+
+  @Test
+  public void testHeap() throws IOException {
+    byte[] data = createData();
+    SeekableByteBufferInputStream in = new SeekableByteBufferInputStream(ByteBuffer.wrap(data));
+    verify(in);
+    assertSame(data, in.getArray());
+  }
+
+  @Test
+  public void testDirect() throws IOException {
+    byte[] data = createData();
+    SeekableByteBufferInputStream in = new SeekableByteBufferInputStream(direct(data));
+    verify(in);
+    assertEquals(null, in.getArray());
+
+    in.seek(0);
+    assertEquals(data.length, in.available());
+    assertEquals(3, in.skipBytes(3));
+    assertEquals(3, in.getPosition());
+    assertThrows(IllegalArgumentException.class, () -> in.seek(data.length));
+  }
+
+  @Test
+  public void testCachedBlockRead() throws IOException {
+    byte[] data = createData();
+    CacheEntry ce = new CacheEntry() {
+      @Override
+      public byte[] getBuffer() {
+        return data;
+      }
+
+      @Override
+      public ByteBuffer getByteBuffer() {
+        return direct(data);
+      }
+
+      @Override
+      public <T extends Weighable> T getIndex(Supplier<T> supplier) {
+        return null;
+      }
+
+      @Override
+      public void indexWeightChanged() {}
+    };
+
+    try (CachableBlockFile.CachedBlockRead cbr = new CachableBlockFile.CachedBlockRead(ce)) {
+      // the stream and the direct data input share a position
+      DataInput in = cbr.getDataInput();
+      assertTrue(cbr.readBoolean());
+      assertEquals(-3, in.readByte());
+      assertEquals(-1000, cbr.readShort());
+      assertEquals('z', in.readChar());
+      assertEquals(6, cbr.getPosition());
+      cbr.seek(0);
+      verify(in);
+      assertSame(data, cbr.getBuffer());
+    }
+  }
+}
@@ -69,6 +69,8 @@ import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheConfiguratio
 import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheManagerFactory;
 import org.apache.accumulo.core.file.blockfile.cache.lru.LruBlockCache;
 import org.apache.accumulo.core.file.blockfile.cache.lru.LruBlockCacheManager;
+import org.apache.accumulo.core.file.blockfile.cache.offheap.OffHeapBlockCache;
+import org.apache.accumulo.core.file.blockfile.cache.offheap.OffHeapBlockCacheManager;
 import org.apache.accumulo.core.file.blockfile.impl.BasicCacheProvider;
 import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile.CachableBuilder;
 import org.apache.accumulo.core.file.rfile.RFile.Reader;
@@ -82,6 +84,7 @@ import org.apache.accumulo.core.metadata.schema.MetadataSchema.TabletsSection.Se
 import org.apache.accumulo.core.metadata.schema.MetadataSchema.TabletsSection.TabletColumnFamily;
 import org.apache.accumulo.core.sample.impl.SamplerConfigurationImpl;
 import org.apache.accumulo.core.sample.impl.SamplerFactory;
+import org.apache.accumulo.core.spi.cache.BlockCache;
 import org.apache.accumulo.core.spi.cache.BlockCacheManager;
 import org.apache.accumulo.core.spi.cache.CacheType;
 import org.apache.hadoop.conf.Configuration;
@@ -245,9 +248,16 @@ public class RFileTest {
     }
 
     public void openWriter(boolean startDLG, int blockSize) throws IOException {
+      openWriter(startDLG, blockSize,
+          accumuloConfiguration.getCount(Property.TABLE_FILE_RESTART_INTERVAL));
+    }
+
+    public void openWriter(boolean startDLG, int blockSize, int restartInterval)
+        throws IOException {
       baos = new ByteArrayOutputStream();
       dos = new FSDataOutputStream(baos, new FileSystem.Statistics("a"));
-      BCFile.Writer _cbw = new BCFile.Writer(dos, null, "gz", conf,
+      BCFile.Writer _cbw = new BCFile.Writer(dos, null,
+          accumuloConfiguration.get(Property.TABLE_FILE_COMPRESSION_TYPE), conf,
           CryptoServiceFactory.newInstance(accumuloConfiguration, ClassloaderType.JAVA));
 
       SamplerConfigurationImpl samplerConfig =
@@ -258,7 +268,9 @@ public class RFileTest {
         sampler = SamplerFactory.newSampler(samplerConfig, accumuloConfiguration);
       }
 
-      writer = new RFile.Writer(_cbw, blockSize, 1000, samplerConfig, sampler);
+      ConfigurationCopy tableConf = new ConfigurationCopy(accumuloConfiguration);
+      tableConf.set(Property.TABLE_FILE_RESTART_INTERVAL, Integer.toString(restartInterval));
+      writer = new RFile.Writer(_cbw, blockSize, 1000, tableConf, samplerConfig, sampler);
 
       if (startDLG)
         writer.startDefaultLocalityGroup();
@@ -556,7 +568,7 @@ public class RFileTest {
       count++;
       iiter.next();
     }
-    assertEquals(20, count);
+    assertEquals(24, count);
 
     trf.closeReader();
   }
@@ -577,6 +589,483 @@ public class RFileTest {
     assertFalse(evi.hasNext());
   }
 
+  private static class ReadAheadCacheProvider extends BasicCacheProvider {
+    private final int blocks;
+
+    ReadAheadCacheProvider(BlockCache indexCache, BlockCache dataCache, int blocks) {
+      super(indexCache, dataCache);
+      this.blocks = blocks;
+    }
+
+    @Override
+    public int getReadAheadBlocks() {
+      return blocks;
+    }
+  }
+
+  private static int countKeys(TestRFile trf, Range range) throws IOException {
+    trf.iter.seek(range, EMPTY_COL_FAMS, false);
+    int count = 0;
+    Key prev = null;
+    while (trf.iter.hasTop()) {
+      Key k = trf.iter.getTopKey();
+      assertTrue(range.contains(k));
+      assertTrue(prev == null || prev.compareTo(k) < 0);
+      assertEquals(newValue("v" + k.getRow()), trf.iter.getTopValue());
+      prev = k;
+      count++;
+      trf.iter.next();
+    }
+    return count;
+  }
+
+  @Test
+  public void testReadAhead() throws IOException {
+    TestRFile trf = new TestRFile(conf);
+
+    trf.openWriter(100);
+    for (int i = 0; i < 1000; i++) {
+      String row = formatString("r_", i);
+      trf.writer.append(newKey(row, "cf1", "cq1", "", 1), newValue("v" + row));
+    }
+    trf.closeWriter();
+
+    trf.openReader();
+    BlockCache indexCache = trf.manager.getBlockCache(CacheType.INDEX);
+    BlockCache dataCache = trf.manager.getBlockCache(CacheType.DATA);
+    Range subRange = new Range(formatString("r_", 300), formatString("r_", 349));
+
+    // read ahead blocks are held by the scan when it does not use the data cache
+    trf.reader.setCacheProvider(new ReadAheadCacheProvider(indexCache, null, 4));
+    assertEquals(1000, countKeys(trf, new Range()));
+    assertEquals(50, countKeys(trf, subRange));
+    assertEquals(1000, countKeys(trf, new Range()));
+
+    // read ahead blocks are loaded into the data cache when the scan uses it
+    trf.reader.setCacheProvider(new ReadAheadCacheProvider(indexCache, dataCache, 4));
+    assertEquals(0, dataCache.getStats().hitCount());
+    assertEquals(50, countKeys(trf, subRange));
+    // blocks read ahead were found in cache when the scan reached them
+    assertTrue(dataCache.getStats().hitCount() > 0);
+    assertEquals(1000, countKeys(trf, new Range()));
+
+    trf.closeReader();
+  }
+
+  @Test
+  public void testRestartPoints() throws IOException {
+    for (int restartInterval : new int[] {0, 1, 3, 16}) {
+      TestRFile trf = new TestRFile(conf);
+
+      // large blocks so that seeks land in the middle of blocks with many restart points
+      trf.openWriter(true, 20000, restartInterval);
+      for (int i = 0; i < 2000; i += 2) {
+        String row = formatString("r_", i);
+        trf.writer.append(newKey(row, "cf1", "cq1", "", 1), newValue("v" + row));
+        trf.writer.append(newKey(row, "cf1", "cq2", "", 1), newValue("v" + row));
+      }
+      trf.closeWriter();
+
+      trf.openReader();
+      assertEquals(2000, countKeys(trf, new Range()));
+
+      // read every block into the cache so seeks use the restart points
+      for (int pass = 0; pass < 2; pass++) {
+        // seek to keys that exist, to keys that fall between entries, and forward within a block
+        for (int i = 0; i < 2000; i += 5) {
+          String row = formatString("r_", i);
+          assertEquals(i % 2 == 0 ? 2 : 0, countKeys(trf, new Range(row)));
+          assertEquals(i % 2 == 0 ? 1 : 0, countKeys(trf, Range.exact(row, "cf1", "cq2")));
+        }
+
+        Random rand = new Random(restartInterval);
+        for (int i = 0; i < 500; i++) {
+          int start = rand.nextInt(2000);
+          int end = start + rand.nextInt(50);
+          int expected = 0;
+          for (int j = start; j <= end && j < 2000; j++) {
+            expected += j % 2 == 0 ? 2 : 0;
+          }
+          assertEquals(expected,
+              countKeys(trf, new Range(formatString("r_", start), formatString("r_", end))));
+        }
+      }
+
+      trf.closeReader();
+    }
+  }
+
+  private static Value separationValue(int i) {
+    // every third value is large enough to be stored in the value region
+    int len = i % 3 == 0 ? 500 + i % 100 : i % 10;
+    byte[] data = new byte[len];
+    Arrays.fill(data, (byte) i);
+    return new Value(data);
+  }
+
+  @Test
+  public void testValueSeparation() throws IOException {
+    ConfigurationCopy cc =
+        new ConfigurationCopy(conf == null ? DefaultConfiguration.getInstance() : conf);
+    cc.set(Property.TABLE_FILE_VALUE_SEPARATION_THRESHOLD, "256B");
+    TestRFile trf = new TestRFile(cc);
+
+    trf.openWriter(true, 10000, 4);
+    for (int i = 0; i < 1000; i++) {
+      trf.writer.append(newKey(formatString("r_", i), "cf1", "cq1", "", 1), separationValue(i));
+    }
+    trf.closeWriter();
+
+    trf.openReader();
+    BlockCache indexCache = trf.manager.getBlockCache(CacheType.INDEX);
+    BlockCache dataCache = trf.manager.getBlockCache(CacheType.DATA);
+
+    // read with blocks streamed from the file and then from the data cache
+    for (BlockCache cache : new BlockCache[] {null, dataCache, dataCache}) {
+      trf.reader.setCacheProvider(new BasicCacheProvider(indexCache, cache));
+
+      // read only keys, then keys and values
+      trf.iter.seek(new Range(), EMPTY_COL_FAMS, false);
+      int count = 0;
+      while (trf.iter.hasTop()) {
+        assertEquals(newKey(formatString("r_", count), "cf1", "cq1", "", 1), trf.iter.getTopKey());
+        count++;
+        trf.iter.next();
+      }
+      assertEquals(1000, count);
+
+      trf.iter.seek(new Range(), EMPTY_COL_FAMS, false);
+      for (int i = 0; i < 1000; i++) {
+        assertTrue(trf.iter.hasTop());
+        assertEquals(separationValue(i), trf.iter.getTopValue());
+        // asking again returns the same value
+        assertEquals(separationValue(i), trf.iter.getTopValue());
+        trf.iter.next();
+      }
+      assertFalse(trf.iter.hasTop());
+
+      // seek into blocks, sometimes skipping the values of the keys seeked past
+      for (int i = 0; i < 1000; i += 7) {
+        trf.iter.seek(new Range(formatString("r_", i), formatString("r_", i + 2)), EMPTY_COL_FAMS,
+            false);
+        for (int j = i; j <= i + 2 && j < 1000; j++) {
+          assertTrue(trf.iter.hasTop());
+          if (j != i + 1) {
+            assertEquals(separationValue(j), trf.iter.getTopValue());
+          }
+          trf.iter.next();
+        }
+        assertFalse(trf.iter.hasTop());
+      }
+    }
+
+    trf.closeReader();
+  }
+
+  @Test
+  public void testEncValueSeparation() throws IOException {
+    conf = getAccumuloConfig(CryptoTest.CRYPTO_ON_CONF);
+    testValueSeparation();
+    conf = null;
+  }
+
+  private static Key dictionaryKey(int i) {
+    return newKey(formatString("r_", i), i % 2 == 0 ? "file" : "loc",
+        "hdfs://nn:8020/accumulo/tables/" + (i % 7) + "/t-" + formatString("", i / 10) + "/F.rf",
+        "", 1);
+  }
+
+  private static Value dictionaryValue(int i) {
+    return new Value((i * 31) + "," + (i % 100) + ",tserver" + (i % 5) + ".example.com:9997");
+  }
+
+  private int writeDictionaryFile(TestRFile trf) throws IOException {
+    trf.openWriter(false, 1000);
+    trf.writer.startNewLocalityGroup("lg1", newColFamByteSequence("loc"));
+    for (int i = 1; i < 5000; i += 2) {
+      trf.writer.append(dictionaryKey(i), dictionaryValue(i));
+    }
+    trf.writer.startDefaultLocalityGroup();
+    for (int i = 0; i < 5000; i += 2) {
+      trf.writer.append(dictionaryKey(i), dictionaryValue(i));
+    }
+    trf.closeWriter();
+    return trf.baos.size();
+  }
+
+  @Test
+  public void testCompressionDictionary() throws IOException {
+    AccumuloConfiguration aconf = conf == null ? DefaultConfiguration.getInstance() : conf;
+    int plainSize = writeDictionaryFile(new TestRFile(aconf));
+
+    ConfigurationCopy cc = new ConfigurationCopy(aconf);
+    cc.set(Property.TABLE_FILE_COMPRESS_DICTIONARY_SIZE, "4K");
+    TestRFile trf = new TestRFile(cc);
+    int dictionarySize = writeDictionaryFile(trf);
+    assertTrue(dictionarySize + " " + plainSize, dictionarySize < plainSize);
+
+    trf.openReader();
+    trf.iter.seek(new Range(), EMPTY_COL_FAMS, false);
+    for (int i = 0; i < 5000; i++) {
+      assertTrue(trf.iter.hasTop());
+      assertEquals(dictionaryKey(i), trf.iter.getTopKey());
+      assertEquals(dictionaryValue(i), trf.iter.getTopValue());
+      trf.iter.next();
+    }
+    assertFalse(trf.iter.hasTop());
+
+    for (int i = 0; i < 5000; i += 97) {
+      trf.iter.seek(new Range(dictionaryKey(i), null), EMPTY_COL_FAMS, false);
+      assertTrue(trf.iter.hasTop());
+      assertEquals(dictionaryKey(i), trf.iter.getTopKey());
+      assertEquals(dictionaryValue(i), trf.iter.getTopValue());
+    }
+
+    trf.closeReader();
+  }
+
+  @Test
+  public void testCompressionDictionaryFewEntries() throws IOException {
+    // fewer entries than the dictionary sample, so the dictionary is trained when closing
+    ConfigurationCopy cc =
+        new ConfigurationCopy(conf == null ? DefaultConfiguration.getInstance() : conf);
+    cc.set(Property.TABLE_FILE_COMPRESS_DICTIONARY_SIZE, "32K");
+    TestRFile trf = new TestRFile(cc);
+    trf.openWriter(true, 1000);
+    for (int i = 0; i < 100; i++) {
+      trf.writer.append(dictionaryKey(i), dictionaryValue(i));
+    }
+    trf.closeWriter();
+
+    trf.openReader();
+    trf.iter.seek(new Range(), EMPTY_COL_FAMS, false);
+    for (int i = 0; i < 100; i++) {
+      assertTrue(trf.iter.hasTop());
+      assertEquals(dictionaryKey(i), trf.iter.getTopKey());
+      assertEquals(dictionaryValue(i), trf.iter.getTopValue());
+      trf.iter.next();
+    }
+    assertFalse(trf.iter.hasTop());
+    trf.closeReader();
+  }
+
+  // returns true if data blocks were written before the writer was closed
+  private boolean writesBeforeClose(ConfigurationCopy cc, int entries) throws IOException {
+    TestRFile trf = new TestRFile(cc);
+    trf.openWriter(true, 1000);
+    for (int i = 0; i < entries; i++) {
+      trf.writer.append(dictionaryKey(i), dictionaryValue(i));
+    }
+    trf.dos.flush();
+    // more than the file header, which is written when opening
+    boolean written = trf.baos.size() > 1000;
+    trf.closeWriter();
+    return written;
+  }
+
+  @Test
+  public void testCompressionDictionaryHoldBack() throws IOException {
+    ConfigurationCopy cc =
+        new ConfigurationCopy(conf == null ? DefaultConfiguration.getInstance() : conf);
+    // the dictionary is cut to 32K, so the entries held back to train it are bounded the same way
+    cc.set(Property.TABLE_FILE_COMPRESS_DICTIONARY_SIZE, "1G");
+    assertTrue(writesBeforeClose(cc, 10000));
+
+    // nothing is held back when the compression algorithm can not use a dictionary, even when
+    // there are fewer entries than a dictionary would be trained from
+    cc.set(Property.TABLE_FILE_COMPRESS_DICTIONARY_SIZE, "32K");
+    cc.set(Property.TABLE_FILE_COMPRESSION_TYPE, "none");
+    assertTrue(writesBeforeClose(cc, 1000));
+  }
+
+  @Test
+  public void testEncCompressionDictionary() throws IOException {
+    conf = getAccumuloConfig(CryptoTest.CRYPTO_ON_CONF);
+    testCompressionDictionary();
+    conf = null;
+  }
+
+  @Test
+  public void testPrefetchBlocks() throws IOException {
+    TestRFile trf = new TestRFile(conf);
+
+    trf.openWriter(100);
+    for (int i = 0; i < 1000; i++) {
+      String row = formatString("r_", i);
+      trf.writer.append(newKey(row, "cf1", "cq1", "", 1), newValue("v" + row));
+    }
+    trf.closeWriter();
+
+    trf.openReader();
+    BlockCache indexCache = trf.manager.getBlockCache(CacheType.INDEX);
+    BlockCache dataCache = trf.manager.getBlockCache(CacheType.DATA);
+
+    List<Range> ranges = new ArrayList<>();
+    for (int i = 0; i < 1000; i += 7) {
+      ranges.add(new Range(formatString("r_", i)));
+    }
+    ranges.add(new Range(formatString("r_", 500), formatString("r_", 549)));
+
+    // without a data cache the blocks are held until the deep copies are closed, the second
+    // lookup is larger than the limit so only some of its blocks are read first
+    for (long maxBytes : new long[] {Long.MAX_VALUE, 1000}) {
+      trf.reader.setCacheProvider(new BasicCacheProvider(indexCache, null));
+      trf.reader.prefetchBlocks(ranges, 1000, maxBytes);
+      for (int i = 0; i < 1000; i += 7) {
+        assertEquals(1, countKeys(trf, new Range(formatString("r_", i))));
+      }
+      assertEquals(50, countKeys(trf, ranges.get(ranges.size() - 1)));
+      trf.reader.closeDeepCopies();
+    }
+
+    // with a data cache the blocks are cached
+    trf.reader.setCacheProvider(new BasicCacheProvider(indexCache, dataCache));
+    trf.reader.prefetchBlocks(ranges, 0, Long.MAX_VALUE);
+    long requests = dataCache.getStats().requestCount();
+    long hits = dataCache.getStats().hitCount();
+    for (int i = 0; i < 1000; i += 7) {
+      assertEquals(1, countKeys(trf, new Range(formatString("r_", i))));
+    }
+    assertEquals(50, countKeys(trf, ranges.get(ranges.size() - 1)));
+    // every block the lookups read was found in cache
+    assertTrue(dataCache.getStats().requestCount() > requests);
+    assertEquals(dataCache.getStats().requestCount() - requests,
+        dataCache.getStats().hitCount() - hits);
+
+    trf.closeReader();
+  }
+
+  @Test
+  public void testEncPrefetchBlocks() throws IOException {
+    conf = getAccumuloConfig(CryptoTest.CRYPTO_ON_CONF);
+    testPrefetchBlocks();
+    conf = null;
+  }
+
+  @Test
+  public void testCacheDataBlocks() throws IOException {
+    TestRFile trf = new TestRFile(conf);
+
+    trf.openWriter(100);
+    for (int i = 0; i < 100; i++) {
+      trf.writer.append(newKey(formatString("r_", i), "cf1", "cq1", "", 1), newValue("v" + i));
+    }
+    trf.closeWriter();
+
+    trf.openReader();
+    BlockCache dataCache = trf.manager.getBlockCache(CacheType.DATA);
+    assertNull(dataCache.getBlock("source-1R16"));
+    // the first data block follows the 16 byte magic number, other offsets are not blocks
+    assertEquals(1, trf.reader.cacheDataBlocks(Set.of(16L, 17L)));
+    assertNotNull(dataCache.getBlock("source-1R16"));
+    assertNull(dataCache.getBlock("source-1R17"));
+    trf.closeReader();
+  }
+
+  @Test
+  public void testOffHeapCache() throws Exception {
+    TestRFile trf = new TestRFile(conf);
+    trf.openWriter();
+    for (int i = 0; i < 2000; i++) {
+      trf.writer.append(newKey(formatString("r_", i), "cf", "cq", "", 1), newValue(i + ""));
+    }
+    trf.closeWriter();
+    byte[] data = trf.baos.toByteArray();
+
+    ConfigurationCopy cc = new ConfigurationCopy(DefaultConfiguration.getInstance());
+    cc.set(Property.TSERV_CACHE_MANAGER_IMPL, OffHeapBlockCacheManager.class.getName());
+    cc.set(Property.TSERV_DATACACHE_SIZE, "10M");
+    cc.set(Property.TSERV_INDEXCACHE_SIZE, "10M");
+    BlockCacheManager manager = BlockCacheManagerFactory.getInstance(cc);
+    manager.start(new BlockCacheConfiguration(cc));
+    OffHeapBlockCache indexCache = (OffHeapBlockCache) manager.getBlockCache(CacheType.INDEX);
+    OffHeapBlockCache dataCache = (OffHeapBlockCache) manager.getBlockCache(CacheType.DATA);
+
+    // the second pass decodes blocks directly from the cache's memory
+    for (int pass = 0; pass < 2; pass++) {
+      CachableBuilder cb = new CachableBuilder().cacheId("source-1")
+          .input(new FSDataInputStream(new SeekableByteArrayInputStream(data))).length(data.length)
+          .conf(hadoopConf).cacheProvider(new BasicCacheProvider(indexCache, dataCache))
+          .cryptoService(CryptoServiceFactory.newDefaultInstance());
+      Reader reader = new RFile.Reader(cb);
+
+      reader.seek(new Range(), EMPTY_COL_FAMS, false);
+      for (int i = 0; i < 2000; i++) {
+        assertTrue(reader.hasTop());
+        assertEquals(newKey(formatString("r_", i), "cf", "cq", "", 1), reader.getTopKey());
+        assertEquals(newValue(i + ""), reader.getTopValue());
+        reader.next();
+      }
+      assertFalse(reader.hasTop());
+
+      reader.seek(new Range(formatString("r_", 1500), null), EMPTY_COL_FAMS, false);
+      assertEquals(newKey(formatString("r_", 1500), "cf", "cq", "", 1), reader.getTopKey());
+      reader.close();
+    }
+    assertTrue(dataCache.size() > 1);
+
+    // closed readers released every block they read, so nothing is left once the cache is cleared
+    manager.stop();
+    assertEquals(0, indexCache.getCurrentSize());
+    assertEquals(0, dataCache.getCurrentSize());
+  }
+
+  @Test
+  public void testCountEntries() throws IOException {
+    TestRFile trf = new TestRFile(conf);
+
+    trf.openWriter(false, 100);
+    trf.writer.startNewLocalityGroup("lg1", newColFamByteSequence("cf1"));
+    for (int i = 0; i < 1000; i++) {
+      String row = formatString("r_", i);
+      trf.writer.append(newKey(row, "cf1", "cq1", "", 1), newValue("v" + row));
+    }
+    trf.writer.startDefaultLocalityGroup();
+    for (int i = 0; i < 1000; i += 3) {
+      String row = formatString("r_", i);
+      for (int ts = 3; ts > 0; ts--) {
+        trf.writer.append(newKey(row, "cf2", "cq1", "", ts), newValue("v" + row));
+      }
+    }
+    trf.closeWriter();
+
+    trf.openReader();
+    BlockCache dataCache = trf.manager.getBlockCache(CacheType.DATA);
+
+    long requests = dataCache.getStats().requestCount();
+    assertEquals(countKeys(trf, new Range()),
+        trf.reader.countEntries(new Range(), Integer.MAX_VALUE));
+    long scanRequests = dataCache.getStats().requestCount() - requests;
+    requests = dataCache.getStats().requestCount();
+    assertEquals(1000 + 334 * 3, trf.reader.countEntries(new Range(), Integer.MAX_VALUE));
+    // only the first block of each locality group is read when counting everything
+    assertTrue(dataCache.getStats().requestCount() - requests <= 2);
+    assertTrue(scanRequests > 20);
+
+    Random rand = new SecureRandom();
+    for (int i = 0; i < 100; i++) {
+      int r1 = rand.nextInt(1100);
+      int r2 = r1 + 1 + rand.nextInt(300);
+      Range range;
+      if (i % 2 == 0) {
+        range = new Range(formatString("r_", r1), rand.nextBoolean(), formatString("r_", r2),
+            rand.nextBoolean());
+      } else {
+        range = new Range(newKey(formatString("r_", r1), "cf2", "cq1", "", 2), rand.nextBoolean(),
+            newKey(formatString("r_", r2), "cf1", "cq1", "", 1), rand.nextBoolean());
+      }
+      assertEquals(range.toString(), countKeys(trf, range),
+          trf.reader.countEntries(range, Integer.MAX_VALUE));
+    }
+
+    // versions of a key read from a block are limited, each row has one cf1 and three cf2 entries
+    assertEquals(4, trf.reader.countEntries(new Range(formatString("r_", 999)), Integer.MAX_VALUE));
+    assertEquals(2, trf.reader.countEntries(new Range(formatString("r_", 999)), 1));
+    assertEquals(3, trf.reader.countEntries(new Range(formatString("r_", 999)), 2));
+
+    trf.closeReader();
+  }
+
   @Test
   public void test4() throws IOException {
     TestRFile trf = new TestRFile(conf);
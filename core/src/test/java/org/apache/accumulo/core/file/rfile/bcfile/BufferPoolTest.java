@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.rfile.bcfile;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+import org.apache.accumulo.core.file.rfile.bcfile.Compression.Algorithm;
+import org.apache.hadoop.fs.CommonConfigurationKeysPublic;
+import org.apache.hadoop.io.compress.Compressor;
+import org.apache.hadoop.io.compress.Decompressor;
+import org.apache.hadoop.io.compress.DefaultCodec;
+import org.junit.Test;
+
+public class BufferPoolTest {
+
+  private static byte[] randomData(int size) {
+    byte[] data = new byte[size];
+    new Random(size).nextBytes(data);
+    return data;
+  }
+
+  @Test
+  public void testPooledBufferedInputStream() throws IOException {
+    byte[] data = randomData(10000);
+    ByteArrayOutputStream read = new ByteArrayOutputStream();
+
+    try (InputStream in = new PooledBufferedInputStream(new ByteArrayInputStream(data), 97)) {
+      // mix single byte reads, reads smaller and larger than the buffer, and skips
+      Random rand = new Random(42);
+      int b;
+      while (true) {
+        int op = rand.nextInt(4);
+        if (op == 0) {
+          b = in.read();
+          if (b == -1) {
+            break;
+          }
+          read.write(b);
+        } else if (op == 3) {
+          int pos = read.size();
+          long skipped = in.skip(rand.nextInt(50));
+          read.write(data, pos, (int) skipped);
+        } else {
+          byte[] buf = new byte[op == 1 ? rand.nextInt(50) + 1 : rand.nextInt(500) + 97];
+          int n = in.read(buf, 0, buf.length);
+          if (n == -1) {
+            break;
+          }
+          read.write(buf, 0, n);
+        }
+      }
+    }
+
+    assertArrayEquals(data, read.toByteArray());
+  }
+
+  @Test
+  public void testBufferReuse() throws IOException {
+    int size = 12345;
+    int pooled = BufferPool.pooled(size);
+
+    InputStream in = new PooledBufferedInputStream(new ByteArrayInputStream(new byte[10]), size);
+    in.close();
+    assertEquals(pooled + 1, BufferPool.pooled(size));
+    // closing again does not give the buffer back twice
+    in.close();
+    assertEquals(pooled + 1, BufferPool.pooled(size));
+    assertThrows(IOException.class, in::read);
+
+    // the next stream of the same size takes the pooled buffer
+    InputStream in2 = new PooledBufferedInputStream(new ByteArrayInputStream(new byte[10]), size);
+    assertEquals(pooled, BufferPool.pooled(size));
+    in2.close();
+  }
+
+  @Test
+  public void testPooledDecompression() throws IOException {
+    Algorithm algo = Algorithm.GZ;
+    byte[] data = randomData(100000);
+
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    Compressor compressor = algo.getCompressor();
+    try {
+      OutputStream out = algo.createCompressionStream(compressed, compressor, 0);
+      out.write(data);
+      out.flush();
+    } finally {
+      algo.returnCompressor(compressor);
+    }
+
+    for (int i = 0; i < 3; i++) {
+      Decompressor decompressor = algo.getDecompressor();
+      try (DataInputStream in = new DataInputStream(algo.createDecompressionStream(
+          new ByteArrayInputStream(compressed.toByteArray()), decompressor, 32 * 1024))) {
+        byte[] read = new byte[data.length];
+        in.readFully(read);
+        assertArrayEquals(data, read);
+      } finally {
+        algo.returnDecompressor(decompressor);
+      }
+    }
+
+    // the buffers of the streams were given back when they were closed
+    int codecBufferSize = ((DefaultCodec) algo.getCodec()).getConf().getInt(
+        CommonConfigurationKeysPublic.IO_FILE_BUFFER_SIZE_KEY,
+        CommonConfigurationKeysPublic.IO_FILE_BUFFER_SIZE_DEFAULT);
+    assertTrue(BufferPool.pooled(codecBufferSize) > 0);
+    assertTrue(BufferPool.pooled(1024) > 0);
+  }
+}
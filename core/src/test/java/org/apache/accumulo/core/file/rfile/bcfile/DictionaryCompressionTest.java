@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.file.rfile.bcfile;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class DictionaryCompressionTest {
+
+  private static byte[] sample(int entries, int seed) {
+    Random rand = new Random(seed);
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < entries; i++) {
+      sb.append(String.format("row_%08d", rand.nextInt(1000000)));
+      sb.append("file:hdfs://namenode:8020/accumulo/tables/2/default_tablet/");
+      sb.append(rand.nextInt(1000)).append(",").append(rand.nextInt(100000));
+    }
+    return sb.toString().getBytes(UTF_8);
+  }
+
+  private static byte[] compress(DictionaryCompression dictionary, byte[] block)
+      throws IOException {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    OutputStream out = dictionary.createCompressionStream(compressed);
+    out.write(block);
+    out.flush();
+    return compressed.toByteArray();
+  }
+
+  @Test
+  public void testTrain() {
+    byte[] small = sample(10, 1);
+    assertArrayEquals(small, DictionaryCompression.train(small, small.length));
+
+    byte[] dict = DictionaryCompression.train(sample(5000, 1), 4096);
+    assertTrue(dict.length > 0 && dict.length <= 4096);
+    assertTrue(new String(dict, UTF_8).contains("/accumulo/tables/2/"));
+
+    assertTrue(DictionaryCompression.train(sample(50000, 1), 1 << 20).length
+        <= DictionaryCompression.MAX_DICTIONARY_SIZE);
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    DictionaryCompression dictionary =
+        new DictionaryCompression(DictionaryCompression.train(sample(5000, 1), 4096));
+    DictionaryCompression noDictionary = new DictionaryCompression(new byte[0]);
+
+    // the writer reuses its deflater for every block
+    for (int seed = 2; seed < 6; seed++) {
+      byte[] block = sample(10, seed);
+      byte[] compressed = compress(dictionary, block);
+      assertTrue(compressed.length < compress(noDictionary, block).length);
+
+      byte[] read = new byte[block.length];
+      try (DataInputStream in = new DataInputStream(
+          dictionary.createDecompressionStream(new ByteArrayInputStream(compressed), 1024))) {
+        in.readFully(read);
+        assertEquals(-1, in.read());
+      }
+      assertArrayEquals(block, read);
+    }
+
+    dictionary.end();
+    noDictionary.end();
+  }
+}
@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.iterators.system;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Column;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.SortedMapIterator;
+import org.apache.accumulo.core.iteratorsImpl.system.ColumnFamilySkippingIterator;
+import org.apache.accumulo.core.iteratorsImpl.system.DeletingIterator;
+import org.apache.accumulo.core.iteratorsImpl.system.DeletingIterator.Behavior;
+import org.apache.accumulo.core.iteratorsImpl.system.KeyValueBatch;
+import org.apache.accumulo.core.iteratorsImpl.system.MultiIterator;
+import org.apache.accumulo.core.iteratorsImpl.system.SystemIteratorUtil;
+import org.apache.accumulo.core.security.Authorizations;
+import org.junit.Test;
+
+public class BatchIteratorTest {
+
+  private static final String[] VISIBILITIES = {"", "A", "B", "A&B", "A|C", "C"};
+
+  private static List<TreeMap<Key,Value>> createData(int sources) {
+    Random random = new Random(7);
+    List<TreeMap<Key,Value>> maps = new ArrayList<>();
+    for (int i = 0; i < sources; i++) {
+      maps.add(new TreeMap<>());
+    }
+    for (int i = 0; i < 3000; i++) {
+      String row = String.format("r%04d", random.nextInt(300));
+      String cf = "cf" + random.nextInt(4);
+      String cq = "cq" + random.nextInt(3);
+      String vis = VISIBILITIES[random.nextInt(VISIBILITIES.length)];
+      Key key = new Key(row, cf, cq, vis, random.nextInt(5));
+      key.setDeleted(random.nextInt(10) == 0);
+      maps.get(random.nextInt(sources)).put(key, new Value("v" + i));
+    }
+    return maps;
+  }
+
+  private static MultiIterator multiIterator(List<TreeMap<Key,Value>> maps) {
+    List<SortedKeyValueIterator<Key,Value>> iters = new ArrayList<>();
+    for (TreeMap<Key,Value> map : maps) {
+      iters.add(new SortedMapIterator(map));
+    }
+    return new MultiIterator(iters, false);
+  }
+
+  private static List<Entry<Key,Value>> readEntries(SortedKeyValueIterator<Key,Value> iter,
+      Range range, Collection<ByteSequence> families, boolean inclusive) throws IOException {
+    List<Entry<Key,Value>> entries = new ArrayList<>();
+    iter.seek(range, families, inclusive);
+    while (iter.hasTop()) {
+      entries.add(new TreeMap.SimpleImmutableEntry<>(new Key(iter.getTopKey()),
+          new Value(iter.getTopValue())));
+      iter.next();
+    }
+    return entries;
+  }
+
+  private static List<Entry<Key,Value>> readBatches(SortedKeyValueIterator<Key,Value> iter,
+      Range range, Collection<ByteSequence> families, boolean inclusive, int batchSize)
+      throws IOException {
+    List<Entry<Key,Value>> entries = new ArrayList<>();
+    KeyValueBatch batch = new KeyValueBatch(batchSize);
+    iter.seek(range, families, inclusive);
+    while (iter.hasTop()) {
+      batch.clear();
+      batch.fill(iter);
+      assertTrue(batch.size() > 0);
+      for (int i = 0; i < batch.size(); i++) {
+        entries.add(new TreeMap.SimpleImmutableEntry<>(batch.getKey(i), batch.getValue(i)));
+      }
+    }
+    return entries;
+  }
+
+  private interface StackFactory {
+    SortedKeyValueIterator<Key,Value> create(SortedKeyValueIterator<Key,Value> source)
+        throws IOException;
+  }
+
+  private static void check(StackFactory factory, Range range, Collection<ByteSequence> families,
+      boolean inclusive) throws IOException {
+    List<TreeMap<Key,Value>> maps = createData(5);
+    List<Entry<Key,Value>> expected =
+        readEntries(factory.create(multiIterator(maps)), range, families, inclusive);
+    for (int batchSize : new int[] {1, 3, 64, 5000}) {
+      assertEquals("batch size " + batchSize, expected,
+          readBatches(factory.create(multiIterator(maps)), range, families, inclusive, batchSize));
+    }
+  }
+
+  private static void check(StackFactory factory) throws IOException {
+    check(factory, new Range(), Set.of(), false);
+    check(factory, new Range("r0050", "r0123"), Set.of(), false);
+  }
+
+  @Test
+  public void testMultiIterator() throws IOException {
+    check(source -> source);
+  }
+
+  @Test
+  public void testDeletingIterator() throws IOException {
+    check(source -> DeletingIterator.wrap(source, false, Behavior.PROCESS));
+    check(source -> DeletingIterator.wrap(source, true, Behavior.PROCESS));
+  }
+
+  @Test
+  public void testColumnFamilySkippingIterator() throws IOException {
+    StackFactory factory = ColumnFamilySkippingIterator::new;
+    check(factory);
+    Set<ByteSequence> families = Set.of(new ArrayByteSequence("cf1"), new ArrayByteSequence("cf3"));
+    check(factory, new Range(), families, true);
+    check(factory, new Range(), families, false);
+  }
+
+  @Test
+  public void testSystemScanIterators() throws IOException {
+    Authorizations auths = new Authorizations("A", "B");
+    Set<Column> columns = Set.of(new Column("cf1".getBytes(), "cq2".getBytes(), null),
+        new Column("cf3".getBytes(), null, null));
+    for (boolean synchronize : new boolean[] {true, false}) {
+      for (Set<Column> cols : List.of(Set.<Column>of(), columns)) {
+        check(source -> SystemIteratorUtil.setupSystemScanIterators(source, cols, auths,
+            new byte[0], DefaultConfiguration.getInstance(), synchronize));
+        check(source -> SystemIteratorUtil.setupSystemScanIterators(source, cols,
+            Authorizations.EMPTY, new byte[0], DefaultConfiguration.getInstance(), synchronize));
+      }
+    }
+  }
+
+  @Test
+  public void testLimits() throws IOException {
+    TreeMap<Key,Value> map = new TreeMap<>();
+    for (int i = 0; i < 10; i++) {
+      map.put(new Key(String.format("r%02d", i)), new Value("0123456789"));
+    }
+    SortedMapIterator iter = new SortedMapIterator(map);
+    iter.seek(new Range(), Set.of(), false);
+
+    KeyValueBatch batch = new KeyValueBatch(8);
+    batch.clear(3, Long.MAX_VALUE);
+    batch.fill(iter);
+    assertEquals(3, batch.size());
+    assertTrue(batch.isFull());
+    assertEquals(new Key("r03"), iter.getTopKey());
+
+    // each entry is 3 row bytes and 10 value bytes
+    batch.clear(8, 20);
+    batch.fill(iter);
+    assertEquals(2, batch.size());
+    assertEquals(new Key("r05"), iter.getTopKey());
+
+    batch.clear();
+    batch.fill(iter);
+    assertEquals(5, batch.size());
+    assertFalse(iter.hasTop());
+  }
+
+  @Test
+  public void testCopies() throws IOException {
+    TreeMap<Key,Value> map = new TreeMap<>();
+    map.put(new Key("r1"), new Value("v1"));
+    map.put(new Key("r2"), new Value("v2"));
+    SortedMapIterator iter = new SortedMapIterator(map);
+    iter.seek(new Range(), Set.of(), false);
+
+    KeyValueBatch batch = new KeyValueBatch(8);
+    batch.fill(iter);
+    assertEquals(2, batch.size());
+    assertEquals(map.firstKey(), batch.getKey(0));
+    assertNotSame(map.firstKey(), batch.getKey(0));
+    assertEquals(map.firstEntry().getValue(), batch.getValue(0));
+    assertNotSame(map.firstEntry().getValue(), batch.getValue(0));
+  }
+}
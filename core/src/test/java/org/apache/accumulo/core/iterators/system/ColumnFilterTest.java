@@ -23,16 +23,24 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
 import java.util.TreeMap;
 
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Column;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import org.apache.accumulo.core.iterators.SortedMapIterator;
+import org.apache.accumulo.core.iteratorsImpl.system.ColumnFamilySkippingIterator;
 import org.apache.accumulo.core.iteratorsImpl.system.ColumnQualifierFilter;
 import org.apache.hadoop.io.Text;
 import org.junit.Test;
@@ -113,4 +121,97 @@ public class ColumnFilterTest {
     cf.next();
     assertFalse(cf.hasTop());
   }
+
+  /**
+   * Counts the keys read from and seeks of a sorted map.
+   */
+  private static class CountingIterator extends SortedMapIterator {
+    int nexts = 0;
+    int seeks = 0;
+
+    CountingIterator(TreeMap<Key,Value> map) {
+      super(map);
+    }
+
+    @Override
+    public void next() throws IOException {
+      nexts++;
+      super.next();
+    }
+
+    @Override
+    public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive)
+        throws IOException {
+      seeks++;
+      super.seek(range, columnFamilies, inclusive);
+    }
+  }
+
+  @Test
+  public void testSkipping() throws Exception {
+    TreeMap<Key,Value> data = new TreeMap<>();
+    Random rand = new Random(42);
+    for (int r = 0; r < 200; r++) {
+      String row = String.format("r%04d", r);
+      for (String fam : new String[] {"a", "b", "c"}) {
+        for (int q = 0; q < 40; q++) {
+          if (rand.nextInt(4) != 0) {
+            data.put(newKey(row, fam, String.format("q%03d", q)), new Value(row + fam + q));
+          }
+        }
+      }
+    }
+
+    HashSet<Column> columns = new HashSet<>();
+    columns.add(newColumn("a", "q005"));
+    columns.add(newColumn("a", "q030"));
+    columns.add(newColumn("b", "q017"));
+    columns.add(newColumn("c"));
+
+    HashSet<ByteSequence> families = new HashSet<>();
+    columns.forEach(col -> families.add(new ArrayByteSequence(col.getColumnFamily())));
+
+    for (Range range : new Range[] {new Range(), new Range("r0050", "r0120"),
+        new Range(newKey("r0007", "a", "q010"), true, newKey("r0009", "b", "q017"), true)}) {
+      List<Key> expected = new ArrayList<>();
+      int inRange = 0;
+      for (Key k : data.keySet()) {
+        if (!range.contains(k)) {
+          continue;
+        }
+        inRange++;
+        String fam = k.getColumnFamily().toString();
+        if (columns.contains(newColumn(fam))
+            || columns.contains(newColumn(fam, k.getColumnQualifier().toString()))) {
+          expected.add(k);
+        }
+      }
+
+      CountingIterator counter = new CountingIterator(data);
+      SortedKeyValueIterator<Key,Value> iter =
+          ColumnQualifierFilter.wrap(new ColumnFamilySkippingIterator(counter), columns);
+      iter.seek(range, families, true);
+      List<Key> actual = new ArrayList<>();
+      while (iter.hasTop()) {
+        assertEquals(
+            new Value(
+                iter.getTopKey().getRowData().toString() + iter.getTopKey().getColumnFamilyData()
+                    + Integer.parseInt(
+                        iter.getTopKey().getColumnQualifierData().toString().substring(1))),
+            iter.getTopValue());
+        actual.add(iter.getTopKey());
+        iter.next();
+      }
+
+      assertEquals(expected, actual);
+      // most of the unwanted qualifiers in family a and b are skipped by seeking
+      assertTrue(counter.seeks > 1);
+      assertTrue(
+          counter.nexts
+              < data
+                  .subMap(range.getStartKey() == null ? data.firstKey() : range.getStartKey(), true,
+                      range.getEndKey() == null ? data.lastKey() : range.getEndKey(), true)
+                  .size() / 2);
+    }
+  }
 }
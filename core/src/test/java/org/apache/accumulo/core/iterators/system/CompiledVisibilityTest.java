@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.core.iterators.system;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.iteratorsImpl.system.CompiledVisibility;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.accumulo.core.security.VisibilityEvaluator;
+import org.apache.accumulo.core.security.VisibilityParseException;
+import org.apache.accumulo.core.util.BadArgumentException;
+import org.junit.Test;
+
+public class CompiledVisibilityTest {
+
+  private static boolean evaluate(String expression, long[] auths) throws VisibilityParseException {
+    return CompiledVisibility.get(new ArrayByteSequence(expression)).evaluate(auths);
+  }
+
+  @Test
+  public void testMatchesEvaluator() throws VisibilityParseException {
+    Authorizations[] authsList =
+        {Authorizations.EMPTY, new Authorizations("one"), new Authorizations("one", "two"),
+            new Authorizations("one", "two", "three", "a\"b"), new Authorizations("four", "a\\b")};
+    String[] expressions = {"", "one", "two", "one&two", "one|two", "one&(two|three)",
+        "(one|four)&(two|three)", "one&two&three", "five", "five|one", "five&one", "\"a\\\"b\"",
+        "\"a\\\\b\"|five", "(five&four)|(six&one)|two"};
+
+    for (Authorizations auths : authsList) {
+      VisibilityEvaluator evaluator = new VisibilityEvaluator(auths);
+      long[] bits = CompiledVisibility.authorizationBits(auths);
+      for (String expression : expressions) {
+        assertEquals(expression + " " + auths,
+            evaluator.evaluate(new ColumnVisibility(expression.getBytes(UTF_8))),
+            evaluate(expression, bits));
+      }
+    }
+  }
+
+  @Test
+  public void testShared() throws VisibilityParseException {
+    ArrayByteSequence expression = new ArrayByteSequence("shared1&shared2");
+    CompiledVisibility compiled = CompiledVisibility.get(expression);
+    assertSame(compiled, CompiledVisibility.get(new ArrayByteSequence("shared1&shared2")));
+  }
+
+  @Test
+  public void testTermInternedAfterCompile() throws VisibilityParseException {
+    // neither term is in any authorizations yet, so the expression compiles to false
+    assertFalse(evaluate("late1|late2", new long[0]));
+    long[] bits = CompiledVisibility.authorizationBits(new Authorizations("late2"));
+    assertTrue(evaluate("late1|late2", bits));
+    assertFalse(evaluate("late1&late2", bits));
+  }
+
+  @Test
+  public void testInvalid() {
+    assertThrows(BadArgumentException.class, () -> evaluate("one&", new long[0]));
+    assertThrows(BadArgumentException.class, () -> evaluate("one&two|three", new long[0]));
+  }
+}
@@ -26,6 +26,8 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
 import java.util.TreeMap;
 
 import org.apache.accumulo.core.data.ByteSequence;
@@ -420,4 +422,38 @@ public class MultiIteratorTest {
     mi.seek(r7, EMPTY_COL_FAMS, false);
     assertFalse(mi.hasTop());
   }
+
+  @Test
+  public void testManySources() throws IOException {
+    // mix sources that interleave key by key with sources that hold runs of consecutive keys
+    Random random = new Random(42);
+    List<TreeMap<Key,Value>> maps = new ArrayList<>();
+    for (int i = 0; i < 37; i++) {
+      maps.add(new TreeMap<>());
+    }
+    TreeMap<Key,Value> expected = new TreeMap<>();
+    for (int i = 0; i < 5000; i++) {
+      int source = i < 2500 ? random.nextInt(maps.size()) : (i / 100) % maps.size();
+      Key key = newKey(i / 10, i % 10);
+      maps.get(source).put(key, new Value("v" + i));
+      expected.put(key, new Value("v" + i));
+    }
+
+    List<SortedKeyValueIterator<Key,Value>> iters = new ArrayList<>();
+    for (TreeMap<Key,Value> map : maps) {
+      iters.add(new SortedMapIterator(map));
+    }
+    MultiIterator mi = new MultiIterator(iters, false);
+
+    for (int start : new int[] {0, 17, 249, 498}) {
+      mi.seek(newRange(start, 9), EMPTY_COL_FAMS, false);
+      for (Entry<Key,Value> entry : expected.tailMap(newKey(start, 9)).entrySet()) {
+        assertTrue(mi.hasTop());
+        assertEquals(entry.getKey(), mi.getTopKey());
+        assertEquals(entry.getValue(), mi.getTopValue());
+        mi.next();
+      }
+      assertFalse(mi.hasTop());
+    }
+  }
 }
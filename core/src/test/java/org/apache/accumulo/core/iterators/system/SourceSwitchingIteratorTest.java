@@ -20,6 +20,7 @@ package org.apache.accumulo.core.iterators.system;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -45,6 +46,7 @@ import org.apache.accumulo.core.iterators.WrappingIterator;
 import org.apache.accumulo.core.iterators.YieldCallback;
 import org.apache.accumulo.core.iteratorsImpl.system.InterruptibleIterator;
 import org.apache.accumulo.core.iteratorsImpl.system.InterruptibleMapIterator;
+import org.apache.accumulo.core.iteratorsImpl.system.KeyValueBatch;
 import org.apache.accumulo.core.iteratorsImpl.system.SourceSwitchingIterator;
 import org.apache.accumulo.core.iteratorsImpl.system.SourceSwitchingIterator.DataSource;
 import org.apache.hadoop.io.Text;
@@ -266,6 +268,38 @@ public class SourceSwitchingIteratorTest {
     assertFalse(dc1.hasTop());
   }
 
+  @Test
+  public void testUnsynchronized() throws Exception {
+    // switching on next and seek works the same without synchronization
+    TreeMap<Key,Value> tm1 = new TreeMap<>();
+    put(tm1, "r1", "cf1", "cq1", 5, "v1");
+    put(tm1, "r1", "cf1", "cq3", 5, "v2");
+    put(tm1, "r2", "cf1", "cq1", 5, "v3");
+
+    TestDataSource tds = new TestDataSource(new SortedMapIterator(tm1));
+    SourceSwitchingIterator ssi = new SourceSwitchingIterator(tds, false, false);
+
+    ssi.seek(new Range(), new ArrayList<>(), false);
+    testAndCallNext(ssi, "r1", "cf1", "cq1", 5, "v1", true);
+
+    TreeMap<Key,Value> tm2 = new TreeMap<>();
+    put(tm2, "r1", "cf1", "cq3", 5, "v4");
+    put(tm2, "r2", "cf1", "cq1", 5, "v5");
+    tds.next = new TestDataSource(new SortedMapIterator(tm2));
+
+    testAndCallNext(ssi, "r1", "cf1", "cq3", 5, "v2", true);
+    testAndCallNext(ssi, "r2", "cf1", "cq1", 5, "v5", true);
+    assertFalse(ssi.hasTop());
+
+    SortedKeyValueIterator<Key,Value> dc1 = ssi.deepCopy(null);
+    dc1.seek(new Range("r2"), new ArrayList<>(), false);
+    testAndCallNext(dc1, "r2", "cf1", "cq1", 5, "v5", true);
+    assertFalse(dc1.hasTop());
+
+    // switching from another thread requires synchronization
+    assertThrows(IllegalStateException.class, ssi::switchNow);
+  }
+
   @Test
   public void testSetInterrupt() throws Exception {
 
@@ -406,4 +440,41 @@ public class SourceSwitchingIteratorTest {
       this.yield = Optional.of(yield);
     }
   }
+
+  @Test
+  public void testBatch() throws Exception {
+    TreeMap<Key,Value> tm1 = new TreeMap<>();
+    put(tm1, "r1", "cf1", "cq1", 5, "v1");
+    put(tm1, "r1", "cf1", "cq3", 5, "v2");
+    put(tm1, "r2", "cf1", "cq1", 5, "v3");
+    put(tm1, "r3", "cf1", "cq1", 5, "v4");
+
+    for (boolean synchronize : new boolean[] {true, false}) {
+      TestDataSource tds = new TestDataSource(new SortedMapIterator(tm1));
+      SourceSwitchingIterator ssi = new SourceSwitchingIterator(tds, false, synchronize);
+      ssi.seek(new Range(), new ArrayList<>(), false);
+
+      KeyValueBatch batch = new KeyValueBatch(4);
+      batch.clear(2, Long.MAX_VALUE);
+      ssi.nextBatch(batch);
+      assertEquals(2, batch.size());
+      assertEquals(newKey("r1", "cf1", "cq1", 5), batch.getKey(0));
+      assertEquals(newKey("r1", "cf1", "cq3", 5), batch.getKey(1));
+      testAndCallNext(ssi, "r2", "cf1", "cq1", 5, "v3", false);
+
+      TreeMap<Key,Value> tm2 = new TreeMap<>(tm1);
+      put(tm2, "r2", "cf1", "cq2", 5, "v5");
+      put(tm2, "r3", "cf1", "cq1", 5, "v6");
+      tds.next = new TestDataSource(new SortedMapIterator(tm2));
+
+      // the current top comes from the old source, the rest of the batch from the new one
+      batch.clear();
+      ssi.nextBatch(batch);
+      assertEquals(3, batch.size());
+      assertEquals("v3", batch.getValue(0).toString());
+      assertEquals("v5", batch.getValue(1).toString());
+      assertEquals("v6", batch.getValue(2).toString());
+      assertFalse(ssi.hasTop());
+    }
+  }
 }
@@ -24,6 +24,7 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.util.HashSet;
+import java.util.List;
 import java.util.TreeMap;
 
 import org.apache.accumulo.core.data.Key;
@@ -69,4 +70,36 @@ public class VisibilityFilterTest {
     filter.next();
     assertFalse(filter.hasTop());
   }
+
+  @Test
+  public void testUnsynchronized() throws IOException {
+    TreeMap<Key,Value> tm = new TreeMap<>();
+
+    tm.put(new Key("r1", "cf1", "cq1", "A"), new Value(new byte[0]));
+    tm.put(new Key("r1", "cf1", "cq2", "B"), new Value(new byte[0]));
+    tm.put(new Key("r1", "cf1", "cq3", ""), new Value(new byte[0]));
+    tm.put(new Key("r1", "cf1", "cq4", "A|B"), new Value(new byte[0]));
+    tm.put(new Key("r1", "cf1", "cq5", "A&"), new Value(new byte[0]));
+    SortedKeyValueIterator<Key,Value> filter = VisibilityFilter.wrap(new SortedMapIterator(tm),
+        new Authorizations("A"), "B".getBytes(), false);
+
+    for (SortedKeyValueIterator<Key,Value> iter : List.of(filter, filter.deepCopy(null))) {
+      iter.seek(new Range(), new HashSet<>(), false);
+      assertTrue(iter.hasTop());
+      assertEquals(new Key("r1", "cf1", "cq1", "A"), iter.getTopKey());
+      iter.next();
+      assertTrue(iter.hasTop());
+      assertEquals(new Key("r1", "cf1", "cq4", "A|B"), iter.getTopKey());
+      iter.next();
+      assertFalse(iter.hasTop());
+    }
+
+    filter = VisibilityFilter.wrap(new SortedMapIterator(tm), Authorizations.EMPTY, "".getBytes(),
+        false);
+    filter.seek(new Range(), new HashSet<>(), false);
+    assertTrue(filter.hasTop());
+    assertEquals(new Key("r1", "cf1", "cq3", ""), filter.getTopKey());
+    filter.next();
+    assertFalse(filter.hasTop());
+  }
 }
@@ -28,6 +28,7 @@ import static org.junit.Assert.assertTrue;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.OptionalInt;
 
 import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.data.TableId;
@@ -163,4 +164,46 @@ public class SimpleScanDispatcherTest {
         "cacheUsage.slow.data", "disabled", "cacheUsage.fast", "enabled"), Map.of(), "E1", "E1",
         TABLE, TABLE);
   }
+
+  private void runReadAheadTest(Map<String,String> opts, Map<String,String> hints,
+      OptionalInt expected) {
+    runTest(opts, hints, "E1", "E1", TABLE, TABLE);
+
+    SimpleScanDispatcher ssd1 = new SimpleScanDispatcher();
+    ssd1.init(new ScanDispatcher.InitParameters() {
+
+      @Override
+      public TableId getTableId() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Map<String,String> getOptions() {
+        return opts;
+      }
+
+      @Override
+      public ServiceEnvironment getServiceEnv() {
+        throw new UnsupportedOperationException();
+      }
+    });
+
+    for (Type type : Type.values()) {
+      TestScanInfo si = new TestScanInfo("a", type, 4);
+      si.executionHints = hints;
+      assertEquals(expected,
+          ssd1.dispatch(new DispatchParametersImps(si, Map.of())).getReadAheadBlocks());
+    }
+  }
+
+  @Test
+  public void testReadAhead() {
+    runReadAheadTest(Map.of("executor", "E1"), Map.of(), OptionalInt.empty());
+    runReadAheadTest(Map.of("executor", "E1", "readAhead.export", "8"),
+        Map.of("scan_type", "export"), OptionalInt.of(8));
+    runReadAheadTest(Map.of("executor", "E1", "readAhead.export", "8", "readAhead.quick", "0"),
+        Map.of("scan_type", "quick"), OptionalInt.of(0));
+    runReadAheadTest(Map.of("executor", "E1", "readAhead.export", "8"),
+        Map.of("scan_type", "other"), OptionalInt.empty());
+  }
 }
@@ -204,6 +204,9 @@ class AssignmentHandler implements Runnable {
 
     if (successful) {
       server.enqueueManagerMessage(new TabletStatusMessage(TabletLoadState.LOADED, extent));
+      if (server.cacheWarmer != null) {
+        server.cacheWarmer.warm(extent);
+      }
     } else {
       synchronized (server.unopenedTablets) {
         synchronized (server.openingTablets) {
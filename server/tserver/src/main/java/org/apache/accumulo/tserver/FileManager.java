@@ -19,6 +19,7 @@
 package org.apache.accumulo.tserver;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -28,14 +29,19 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import org.apache.accumulo.core.client.SampleNotPresentException;
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
 import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.dataImpl.KeyExtent;
 import org.apache.accumulo.core.file.FileOperations;
@@ -111,6 +117,8 @@ public class FileManager {
 
   private final ServerContext context;
 
+  private final ExecutorService coalescePool;
+
   private class IdleFileCloser implements Runnable {
 
     @Override
@@ -170,6 +178,10 @@ public class FileManager {
 
     this.slowFilePermitMillis =
         context.getConfiguration().getTimeInMillis(Property.TSERV_SLOW_FILEPERMIT_MILLIS);
+
+    this.coalescePool = ThreadPools.createFixedThreadPool(
+        context.getConfiguration().getCount(Property.TSERV_COALESCE_THREADS),
+        "coalesced block reads", false);
   }
 
   private static int countReaders(Map<String,List<OpenReader>> files) {
@@ -549,6 +561,47 @@ public class FileManager {
       return iters;
     }
 
+    /**
+     * Reads the data blocks the ranges of a lookup need from the open files, in parallel across
+     * files, before the lookup seeks to them. Failures are ignored because the lookup reads any
+     * block that was not read here.
+     */
+    public synchronized void prefetchBlocks(List<Range> ranges) throws IOException {
+      AccumuloConfiguration tableConf = context.getTableConfiguration(tablet.tableId());
+      long maxGap = tableConf.getAsBytes(Property.TABLE_COALESCE_GAP);
+      long maxBytes = tableConf.getAsBytes(Property.TABLE_COALESCE_MAX);
+
+      List<Future<?>> futures = new ArrayList<>(tabletReservedReaders.size());
+      for (FileSKVIterator reader : tabletReservedReaders) {
+        futures.add(coalescePool.submit(() -> {
+          reader.prefetchBlocks(ranges, maxGap, maxBytes);
+          return null;
+        }));
+      }
+
+      for (Future<?> future : futures) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          log.debug("Failed to read blocks before lookup of {}", tablet, e.getCause());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("Interrupted reading blocks before lookup");
+        }
+      }
+    }
+
+    /**
+     * Counts the entries in the range stored in the open files, using the index of each file.
+     */
+    public synchronized long countEntries(Range range, int maxVersions) throws IOException {
+      long count = 0;
+      for (FileSKVIterator reader : tabletReservedReaders) {
+        count += reader.countEntries(range, maxVersions);
+      }
+      return count;
+    }
+
     public synchronized void detach() {
 
       releaseReaders(tablet, tabletReservedReaders, false);
@@ -108,12 +108,17 @@ public class InMemoryMap {
   public static final String TYPE_DEFAULT_MAP = "DefaultMap";
   public static final String TYPE_LOCALITY_GROUP_MAP = "LocalityGroupMap";
   public static final String TYPE_LOCALITY_GROUP_MAP_NATIVE = "LocalityGroupMap with native";
+  public static final String TYPE_OFF_HEAP_MAP_WRAPPER = "OffHeapMapWrapper";
+  public static final String TYPE_LOCALITY_GROUP_MAP_OFF_HEAP = "LocalityGroupMap with off-heap";
 
   private AtomicReference<Pair<SamplerConfigurationImpl,Sampler>> samplerRef =
       new AtomicReference<>(null);
 
   private AccumuloConfiguration config;
 
+  // when set, writes insert in parallel and are published in order, see mutate()
+  private final boolean concurrentWrites;
+
   // defer creating sampler until first write. This was done because an empty sample map configured
   // with no sampler will not flush after a user changes sample
   // config.
@@ -132,6 +137,8 @@ public class InMemoryMap {
   public InMemoryMap(AccumuloConfiguration config, ServerContext serverContext, TableId tableId) {
 
     boolean useNativeMap = config.getBoolean(Property.TSERV_NATIVEMAP_ENABLED);
+    boolean useOffHeapMap = config.getBoolean(Property.TSERV_OFFHEAP_MAP_ENABLED);
+    this.concurrentWrites = config.getBoolean(Property.TSERV_MEMORY_MAP_CONCURRENT_WRITES);
 
     this.memDumpDir = config.get(Property.TSERV_MEMDUMP_DIR);
     this.lggroups = LocalityGroupUtil.getLocalityGroupsIgnoringErrors(config, tableId);
@@ -143,19 +150,27 @@ public class InMemoryMap {
     SimpleMap sampleMap;
 
     if (lggroups.isEmpty()) {
-      allMap = newMap(useNativeMap);
-      sampleMap = newMap(useNativeMap);
-      mapType = useNativeMap ? TYPE_NATIVE_MAP_WRAPPER : TYPE_DEFAULT_MAP;
+      allMap = newMap(useNativeMap, useOffHeapMap);
+      sampleMap = newMap(useNativeMap, useOffHeapMap);
+      if (useNativeMap) {
+        mapType = TYPE_NATIVE_MAP_WRAPPER;
+      } else {
+        mapType = useOffHeapMap ? TYPE_OFF_HEAP_MAP_WRAPPER : TYPE_DEFAULT_MAP;
+      }
     } else {
-      allMap = new LocalityGroupMap(lggroups, useNativeMap);
-      sampleMap = new LocalityGroupMap(lggroups, useNativeMap);
-      mapType = useNativeMap ? TYPE_LOCALITY_GROUP_MAP_NATIVE : TYPE_LOCALITY_GROUP_MAP;
+      allMap = new LocalityGroupMap(lggroups, useNativeMap, useOffHeapMap, concurrentWrites);
+      sampleMap = new LocalityGroupMap(lggroups, useNativeMap, useOffHeapMap, concurrentWrites);
+      if (useNativeMap) {
+        mapType = TYPE_LOCALITY_GROUP_MAP_NATIVE;
+      } else {
+        mapType = useOffHeapMap ? TYPE_LOCALITY_GROUP_MAP_OFF_HEAP : TYPE_LOCALITY_GROUP_MAP;
+      }
     }
 
     map = new SampleMap(allMap, sampleMap);
   }
 
-  private static SimpleMap newMap(boolean useNativeMap) {
+  private static SimpleMap newMap(boolean useNativeMap, boolean useOffHeapMap) {
     if (useNativeMap && NativeMap.isLoaded()) {
       try {
         return new NativeMapWrapper();
@@ -164,16 +179,22 @@ public class InMemoryMap {
       }
     }
 
+    if (useOffHeapMap) {
+      return new OffHeapMapWrapper();
+    }
+
     return new DefaultMap();
   }
 
   /**
    * Description of the type of SimpleMap that is created.
    * <p>
-   * If no locality groups are present, the SimpleMap is either TYPE_DEFAULT_MAP or
-   * TYPE_NATIVE_MAP_WRAPPER. If there is one more locality groups, then the InMemoryMap has an
-   * array for simple maps that either contain either TYPE_LOCALITY_GROUP_MAP which contains
-   * DefaultMaps or TYPE_LOCALITY_GROUP_MAP_NATIVE which contains NativeMapWrappers.
+   * If no locality groups are present, the SimpleMap is either TYPE_DEFAULT_MAP,
+   * TYPE_NATIVE_MAP_WRAPPER or TYPE_OFF_HEAP_MAP_WRAPPER. If there is one more locality groups,
+   * then the InMemoryMap has an array for simple maps that either contain either
+   * TYPE_LOCALITY_GROUP_MAP which contains DefaultMaps, TYPE_LOCALITY_GROUP_MAP_NATIVE which
+   * contains NativeMapWrappers or TYPE_LOCALITY_GROUP_MAP_OFF_HEAP which contains
+   * OffHeapMapWrappers.
    *
    * @return String that describes the Map type
    */
@@ -284,14 +305,17 @@ public class InMemoryMap {
     private SimpleMap[] maps;
     private Partitioner partitioner;
     private PreAllocatedArray<List<Mutation>> partitioned;
+    private final boolean concurrentWrites;
 
-    LocalityGroupMap(Map<String,Set<ByteSequence>> groups, boolean useNativeMap) {
+    LocalityGroupMap(Map<String,Set<ByteSequence>> groups, boolean useNativeMap,
+        boolean useOffHeapMap, boolean concurrentWrites) {
       this.groupFams = new PreAllocatedArray<>(groups.size());
       this.maps = new SimpleMap[groups.size() + 1];
-      this.partitioned = new PreAllocatedArray<>(groups.size() + 1);
+      this.partitioned = newPartitionLists(groups.size() + 1);
+      this.concurrentWrites = concurrentWrites;
 
       for (int i = 0; i < maps.length; i++) {
-        maps[i] = newMap(useNativeMap);
+        maps[i] = newMap(useNativeMap, useOffHeapMap);
       }
 
       int count = 0;
@@ -303,10 +327,14 @@ public class InMemoryMap {
       }
 
       partitioner = new LocalityGroupUtil.Partitioner(this.groupFams);
+    }
 
-      for (int i = 0; i < partitioned.length; i++) {
-        partitioned.set(i, new ArrayList<>());
+    private static PreAllocatedArray<List<Mutation>> newPartitionLists(int size) {
+      PreAllocatedArray<List<Mutation>> lists = new PreAllocatedArray<>(size);
+      for (int i = 0; i < lists.length; i++) {
+        lists.set(i, new ArrayList<>());
       }
+      return lists;
     }
 
     @Override
@@ -348,11 +376,22 @@ public class InMemoryMap {
     }
 
     @Override
-    public synchronized void mutate(List<Mutation> mutations, int kvCount) {
-      // this method is synchronized because it reuses objects to avoid allocation,
-      // currently, the method that calls this is synchronized so there is no
-      // loss in parallelism.... synchronization was added here for future proofing
+    public void mutate(List<Mutation> mutations, int kvCount) {
+      if (concurrentWrites) {
+        // concurrent writes can not share the partition lists, the partitioner itself only reads
+        // its configuration
+        mutate(mutations, kvCount, newPartitionLists(partitioned.length));
+      } else {
+        // this is synchronized because it reuses objects to avoid allocation, the method that
+        // calls this is synchronized so there is no loss in parallelism
+        synchronized (this) {
+          mutate(mutations, kvCount, partitioned);
+        }
+      }
+    }
 
+    private void mutate(List<Mutation> mutations, int kvCount,
+        PreAllocatedArray<List<Mutation>> partitioned) {
       try {
         partitioner.partition(mutations, partitioned);
 
@@ -470,16 +509,60 @@ public class InMemoryMap {
     }
   }
 
+  private static class OffHeapMapWrapper implements SimpleMap {
+    private OffHeapMap offHeapMap;
+
+    OffHeapMapWrapper() {
+      offHeapMap = new OffHeapMap();
+    }
+
+    @Override
+    public int size() {
+      return offHeapMap.size();
+    }
+
+    @Override
+    public InterruptibleIterator skvIterator(SamplerConfigurationImpl samplerConfig) {
+      if (samplerConfig != null)
+        throw new SampleNotPresentException();
+      return (InterruptibleIterator) offHeapMap.skvIterator();
+    }
+
+    @Override
+    public void delete() {
+      offHeapMap.delete();
+    }
+
+    @Override
+    public long getMemoryUsed() {
+      return offHeapMap.getMemoryUsed();
+    }
+
+    @Override
+    public void mutate(List<Mutation> mutations, int kvCount) {
+      offHeapMap.mutate(mutations, kvCount);
+    }
+  }
+
   private AtomicInteger nextKVCount = new AtomicInteger(1);
   private AtomicInteger kvCount = new AtomicInteger(0);
 
   private Object writeSerializer = new Object();
 
+  // writes that insert concurrently wait on this to publish in order
+  private final Object publishLock = new Object();
+  private static final int PUBLISH_SPINS = 100;
+
   /**
    * Applies changes to a row in the InMemoryMap
    *
    */
   public void mutate(List<Mutation> mutations, int numKVs) {
+    if (concurrentWrites) {
+      mutateConcurrently(mutations, numKVs);
+      return;
+    }
+
     // Can not update mutationCount while writes that started before
     // are in progress, this would cause partial mutations to be seen.
     // Also, can not continue until mutation count is updated, because
@@ -497,6 +580,48 @@ public class InMemoryMap {
     }
   }
 
+  /**
+   * Inserts in parallel with other writes. A write reserves its kv counts without waiting, so
+   * entries of concurrent writes are interleaved in the map. Scans only see entries with a count up
+   * to kvCount, so a write is published by advancing kvCount past its counts only after every write
+   * that reserved lower counts has been published. This keeps the guarantees of serialized writes:
+   * kvCount only increases, and no scan sees part of a mutation.
+   */
+  private void mutateConcurrently(List<Mutation> mutations, int numKVs) {
+    int kv = nextKVCount.getAndAdd(numKVs);
+    try {
+      map.mutate(mutations, kv);
+    } finally {
+      publish(kv, numKVs);
+    }
+  }
+
+  private void publish(int kv, int numKVs) {
+    // writes of similar size usually finish close together, so spin briefly before blocking
+    for (int i = 0; i < PUBLISH_SPINS && kvCount.get() != kv - 1; i++) {
+      Thread.onSpinWait();
+    }
+
+    boolean interrupted = false;
+    synchronized (publishLock) {
+      // like the serialized write path, this does not give up when interrupted, because writes
+      // that reserved later counts would never be published
+      while (kvCount.get() != kv - 1) {
+        try {
+          publishLock.wait();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      kvCount.set(kv + numKVs - 1);
+      publishLock.notifyAll();
+    }
+
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
   /**
    * Returns a long representing the size of the InMemoryMap
    *
@@ -0,0 +1,524 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.accumulo.core.client.SampleNotPresentException;
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.ColumnUpdate;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IterationInterruptedException;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iteratorsImpl.system.InterruptibleIterator;
+
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * This class stores data in a skip list whose nodes, keys and values live in direct byte buffers
+ * outside of the Java heap. Like {@link NativeMap}, this keeps the bulk of an in-memory map out of
+ * reach of Java GC and stores entries densely, but it needs no native library.
+ *
+ * <p>
+ * Memory is taken from the JVM in chunks that grow from {@value #MIN_CHUNK_SIZE} bytes to
+ * {@value #MAX_CHUNK_SIZE} bytes, and entries are appended to the current chunk. Entries are never
+ * removed, the whole map is discarded after a minor compaction. One thread inserts at a time while
+ * any number of threads read without locking. A node is fully written before the release store that
+ * links it, and readers follow links with acquire loads, so readers always see complete nodes.
+ *
+ * <p>
+ * Direct buffers can only be released by Java GC, so calling {@link #delete()} drops this map's
+ * references to its memory and the memory is freed when the buffers are collected. The JVM limits
+ * direct memory with {@code -XX:MaxDirectMemorySize}, which must leave room for the in-memory maps
+ * of a tablet server.
+ */
+public class OffHeapMap {
+
+  private static final VarHandle LONGS =
+      MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+  @VisibleForTesting
+  static final int MIN_CHUNK_SIZE = 64 * 1024;
+  @VisibleForTesting
+  static final int MAX_CHUNK_SIZE = 1024 * 1024;
+
+  private static final int MAX_HEIGHT = 32;
+
+  private static final long NIL = -1;
+  private static final long HEAD = -2;
+
+  // node layout, every node starts on an 8 byte boundary so its links can be accessed atomically
+  private static final int HEIGHT = 0;
+  private static final int VALUE_LEN = 4;
+  private static final int TIMESTAMP = 8;
+  private static final int ROW_LEN = 16;
+  private static final int CF_LEN = 20;
+  private static final int CQ_LEN = 24;
+  private static final int CV_LEN = 28;
+  private static final int KV_COUNT = 32;
+  private static final int DELETED = 36;
+  private static final int LINKS = 40;
+
+  // links of the head of the skip list, the head has no key so it is not stored in a chunk
+  private final AtomicLongArray head = new AtomicLongArray(MAX_HEIGHT);
+  private volatile int height = 1;
+
+  // grows by copy when a chunk is added, set to null by delete
+  private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+  private final AtomicLong memoryUsed = new AtomicLong();
+  private final AtomicInteger size = new AtomicInteger();
+
+  // only accessed by the writing thread
+  private ByteBuffer writeChunk;
+  private int writeOffset;
+  private final long[] preds = new long[MAX_HEIGHT];
+
+  public OffHeapMap() {
+    for (int i = 0; i < MAX_HEIGHT; i++) {
+      head.set(i, NIL);
+    }
+  }
+
+  public int size() {
+    return size.get();
+  }
+
+  public long getMemoryUsed() {
+    return memoryUsed.get();
+  }
+
+  public synchronized void delete() {
+    if (chunks == null) {
+      throw new IllegalStateException("Double delete");
+    }
+    chunks = null;
+    writeChunk = null;
+  }
+
+  public synchronized void mutate(List<Mutation> mutations, int kvCount) {
+    if (chunks == null) {
+      throw new IllegalStateException("Map was deleted");
+    }
+
+    int added = 0;
+    for (Mutation m : mutations) {
+      byte[] row = m.getRow();
+      for (ColumnUpdate cvp : m.getUpdates()) {
+        insert(
+            new Target(row, cvp.getColumnFamily(), cvp.getColumnQualifier(),
+                cvp.getColumnVisibility(), cvp.getTimestamp(), cvp.isDeleted(), kvCount++),
+            cvp.getValue());
+        added++;
+      }
+    }
+    size.addAndGet(added);
+  }
+
+  private void insert(Target target, byte[] value) {
+    long x = HEAD;
+    for (int level = height - 1; level >= 0; level--) {
+      long next = link(x, level);
+      while (next != NIL && compare(resolve(next), offset(next), target) < 0) {
+        x = next;
+        next = link(x, level);
+      }
+      preds[level] = x;
+    }
+
+    int nodeHeight = randomHeight();
+    for (int level = height; level < nodeHeight; level++) {
+      preds[level] = HEAD;
+    }
+
+    int keyLen = target.row.length + target.cf.length + target.cq.length + target.cv.length;
+    long node = allocate(LINKS + nodeHeight * 8 + keyLen + value.length);
+    int off = offset(node);
+
+    writeChunk.putInt(off + HEIGHT, nodeHeight);
+    writeChunk.putInt(off + VALUE_LEN, value.length);
+    writeChunk.putLong(off + TIMESTAMP, target.ts);
+    writeChunk.putInt(off + ROW_LEN, target.row.length);
+    writeChunk.putInt(off + CF_LEN, target.cf.length);
+    writeChunk.putInt(off + CQ_LEN, target.cq.length);
+    writeChunk.putInt(off + CV_LEN, target.cv.length);
+    writeChunk.putInt(off + KV_COUNT, target.kvCount);
+    writeChunk.put(off + DELETED, (byte) (target.deleted ? 1 : 0));
+    for (int level = 0; level < nodeHeight; level++) {
+      writeChunk.putLong(off + LINKS + level * 8, link(preds[level], level));
+    }
+    writeChunk.position(off + LINKS + nodeHeight * 8);
+    writeChunk.put(target.row).put(target.cf).put(target.cq).put(target.cv).put(value);
+
+    // publish the node, each release store makes everything written above visible to readers
+    // that find the node through that link
+    for (int level = 0; level < nodeHeight; level++) {
+      setLink(preds[level], level, node);
+    }
+    if (nodeHeight > height) {
+      height = nodeHeight;
+    }
+  }
+
+  private static int randomHeight() {
+    int h = 1;
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    while (h < MAX_HEIGHT && random.nextInt(4) == 0) {
+      h++;
+    }
+    return h;
+  }
+
+  private long allocate(int length) {
+    int aligned = (length + 7) & ~7;
+    if (writeChunk == null || writeOffset + aligned > writeChunk.limit()) {
+      ByteBuffer[] current = chunks;
+      int capacity = MIN_CHUNK_SIZE;
+      if (writeChunk != null) {
+        capacity = Math.min(MAX_CHUNK_SIZE, writeChunk.limit() * 2);
+      }
+      capacity = Math.max(capacity, aligned);
+
+      ByteBuffer chunk = ByteBuffer.allocateDirect(capacity + 8);
+      int misalignment = chunk.alignmentOffset(0, 8);
+      if (misalignment != 0) {
+        chunk.position(8 - misalignment);
+      }
+      chunk = chunk.slice().order(ByteOrder.nativeOrder());
+      chunk.limit(capacity);
+
+      ByteBuffer[] grown = Arrays.copyOf(current, current.length + 1);
+      grown[current.length] = chunk;
+      // must be visible before any link to the new chunk is published
+      chunks = grown;
+      memoryUsed.addAndGet(capacity);
+
+      // the writer positions its own view so it never disturbs readers
+      writeChunk = chunk.duplicate().order(ByteOrder.nativeOrder());
+      writeOffset = 0;
+    }
+
+    long pointer = ((long) (chunks.length - 1) << 32) | writeOffset;
+    writeOffset += aligned;
+    return pointer;
+  }
+
+  private static int offset(long pointer) {
+    return (int) pointer;
+  }
+
+  private ByteBuffer resolve(long pointer) {
+    ByteBuffer[] current = chunks;
+    if (current == null) {
+      throw new IllegalStateException("Map was deleted");
+    }
+    return current[(int) (pointer >>> 32)];
+  }
+
+  private long link(long node, int level) {
+    if (node == HEAD) {
+      return head.getAcquire(level);
+    }
+    return (long) LONGS.getAcquire(resolve(node), offset(node) + LINKS + level * 8);
+  }
+
+  private void setLink(long node, int level, long target) {
+    if (node == HEAD) {
+      head.setRelease(level, target);
+    } else {
+      LONGS.setRelease(resolve(node), offset(node) + LINKS + level * 8, target);
+    }
+  }
+
+  /**
+   * The fields of a key being inserted or sought, in the order of {@link MemKeyComparator}.
+   */
+  private static class Target {
+    final byte[] row;
+    final byte[] cf;
+    final byte[] cq;
+    final byte[] cv;
+    final long ts;
+    final boolean deleted;
+    // a key without a count sorts before every stored key with the same fields
+    final int kvCount;
+    final boolean hasKVCount;
+
+    Target(byte[] row, byte[] cf, byte[] cq, byte[] cv, long ts, boolean deleted, int kvCount) {
+      this.row = row;
+      this.cf = cf;
+      this.cq = cq;
+      this.cv = cv;
+      this.ts = ts;
+      this.deleted = deleted;
+      this.kvCount = kvCount;
+      this.hasKVCount = true;
+    }
+
+    Target(Key key) {
+      this.row = key.getRowData().toArray();
+      this.cf = key.getColumnFamilyData().toArray();
+      this.cq = key.getColumnQualifierData().toArray();
+      this.cv = key.getColumnVisibilityData().toArray();
+      this.ts = key.getTimestamp();
+      this.deleted = key.isDeleted();
+      this.hasKVCount = key instanceof MemKey;
+      this.kvCount = hasKVCount ? ((MemKey) key).getKVCount() : 0;
+    }
+  }
+
+  private static int compare(ByteBuffer chunk, int node, Target target) {
+    int pos = node + LINKS + chunk.getInt(node + HEIGHT) * 8;
+
+    int len = chunk.getInt(node + ROW_LEN);
+    int cmp = compareBytes(chunk, pos, len, target.row);
+    if (cmp != 0) {
+      return cmp;
+    }
+    pos += len;
+
+    len = chunk.getInt(node + CF_LEN);
+    cmp = compareBytes(chunk, pos, len, target.cf);
+    if (cmp != 0) {
+      return cmp;
+    }
+    pos += len;
+
+    len = chunk.getInt(node + CQ_LEN);
+    cmp = compareBytes(chunk, pos, len, target.cq);
+    if (cmp != 0) {
+      return cmp;
+    }
+    pos += len;
+
+    len = chunk.getInt(node + CV_LEN);
+    cmp = compareBytes(chunk, pos, len, target.cv);
+    if (cmp != 0) {
+      return cmp;
+    }
+
+    cmp = Long.compare(target.ts, chunk.getLong(node + TIMESTAMP));
+    if (cmp != 0) {
+      return cmp;
+    }
+
+    boolean deleted = chunk.get(node + DELETED) != 0;
+    if (deleted != target.deleted) {
+      return deleted ? -1 : 1;
+    }
+
+    if (!target.hasKVCount) {
+      return 1;
+    }
+    return Integer.compare(target.kvCount, chunk.getInt(node + KV_COUNT));
+  }
+
+  private static int compareBytes(ByteBuffer chunk, int pos, int len, byte[] bytes) {
+    int n = Math.min(len, bytes.length);
+    for (int i = 0; i < n; i++) {
+      int cmp = (chunk.get(pos + i) & 0xff) - (bytes[i] & 0xff);
+      if (cmp != 0) {
+        return cmp;
+      }
+    }
+    return len - bytes.length;
+  }
+
+  /**
+   * Returns the first node not less than the target, or the first node when target is null.
+   */
+  private long seek(Target target) {
+    long x = HEAD;
+    for (int level = height - 1; level >= 0; level--) {
+      long next = link(x, level);
+      while (next != NIL && target != null && compare(resolve(next), offset(next), target) < 0) {
+        x = next;
+        next = link(x, level);
+      }
+    }
+    return link(x, 0);
+  }
+
+  private static class OHMSKVIter implements InterruptibleIterator {
+
+    private final OffHeapMap map;
+    private ByteBuffer[] chunks;
+    // views positioned by this iterator when copying out keys and values
+    private ByteBuffer[] views;
+
+    private long node = NIL;
+    private Key topKey;
+    private Value topValue;
+
+    private Range range;
+    private AtomicBoolean interruptFlag;
+    private int interruptCheckCount = 0;
+
+    private OHMSKVIter(OffHeapMap map, AtomicBoolean interruptFlag) {
+      this.map = map;
+      this.range = new Range();
+      this.interruptFlag = interruptFlag;
+      this.chunks = new ByteBuffer[0];
+      this.views = new ByteBuffer[0];
+      if (map.chunks == null) {
+        throw new IllegalStateException("Map was deleted");
+      }
+      load(map.seek(null));
+    }
+
+    private void load(long next) {
+      node = next;
+      if (node == NIL) {
+        topKey = null;
+        topValue = null;
+        return;
+      }
+
+      int index = (int) (node >>> 32);
+      if (index >= chunks.length) {
+        // the node was reached through an acquire load, so the chunks that hold it are visible
+        chunks = map.chunks;
+        if (chunks == null) {
+          throw new IllegalStateException("Map was deleted");
+        }
+        views = Arrays.copyOf(views, chunks.length);
+      }
+      ByteBuffer chunk = chunks[index];
+      if (views[index] == null) {
+        views[index] = chunk.duplicate();
+      }
+      ByteBuffer view = views[index];
+
+      int off = offset(node);
+      view.position(off + LINKS + chunk.getInt(off + HEIGHT) * 8);
+      byte[] row = read(view, chunk.getInt(off + ROW_LEN));
+      byte[] cf = read(view, chunk.getInt(off + CF_LEN));
+      byte[] cq = read(view, chunk.getInt(off + CQ_LEN));
+      byte[] cv = read(view, chunk.getInt(off + CV_LEN));
+      byte[] value = read(view, chunk.getInt(off + VALUE_LEN));
+
+      topKey = new MemKey(row, cf, cq, cv, chunk.getLong(off + TIMESTAMP),
+          chunk.get(off + DELETED) != 0, false, chunk.getInt(off + KV_COUNT));
+      topValue = new Value(value, false);
+    }
+
+    private static byte[] read(ByteBuffer view, int len) {
+      byte[] bytes = new byte[len];
+      view.get(bytes);
+      return bytes;
+    }
+
+    private long nextNode() {
+      return (long) LONGS.getAcquire(chunks[(int) (node >>> 32)], offset(node) + LINKS);
+    }
+
+    @Override
+    public Key getTopKey() {
+      return topKey;
+    }
+
+    @Override
+    public Value getTopValue() {
+      return topValue;
+    }
+
+    @Override
+    public boolean hasTop() {
+      return topKey != null;
+    }
+
+    @Override
+    public void next() {
+
+      if (topKey == null)
+        throw new NoSuchElementException();
+
+      // checking the interrupt flag for every call to next had bad a bad performance impact
+      // so check it every 100th time
+      if (interruptFlag != null && interruptCheckCount++ % 100 == 0 && interruptFlag.get())
+        throw new IterationInterruptedException();
+
+      load(nextNode());
+      if (hasTop() && range.afterEndKey(topKey)) {
+        load(NIL);
+      }
+    }
+
+    @Override
+    public void seek(Range range, Collection<ByteSequence> columnFamilies, boolean inclusive) {
+
+      if (interruptFlag != null && interruptFlag.get())
+        throw new IterationInterruptedException();
+
+      this.range = range;
+
+      Key key = range.getStartKey();
+      if (map.chunks == null) {
+        throw new IllegalStateException("Map was deleted");
+      }
+      load(map.seek(key == null ? null : new Target(key)));
+      if (hasTop() && range.afterEndKey(topKey)) {
+        load(NIL);
+      }
+
+      while (hasTop() && range.beforeStartKey(getTopKey())) {
+        next();
+      }
+    }
+
+    @Override
+    public void init(SortedKeyValueIterator<Key,Value> source, Map<String,String> options,
+        IteratorEnvironment env) {
+      throw new UnsupportedOperationException("init");
+    }
+
+    @Override
+    public SortedKeyValueIterator<Key,Value> deepCopy(IteratorEnvironment env) {
+      if (env != null && env.isSamplingEnabled()) {
+        throw new SampleNotPresentException();
+      }
+      return new OHMSKVIter(map, interruptFlag);
+    }
+
+    @Override
+    public void setInterruptFlag(AtomicBoolean flag) {
+      this.interruptFlag = flag;
+    }
+  }
+
+  public SortedKeyValueIterator<Key,Value> skvIterator() {
+    return new OHMSKVIter(this, null);
+  }
+}
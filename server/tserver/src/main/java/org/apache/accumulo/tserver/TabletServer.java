@@ -76,6 +76,7 @@ import org.apache.accumulo.core.metadata.schema.TabletMetadata.LocationType;
 import org.apache.accumulo.core.replication.ReplicationConstants;
 import org.apache.accumulo.core.replication.thrift.ReplicationServicer;
 import org.apache.accumulo.core.rpc.ThriftUtil;
+import org.apache.accumulo.core.spi.cache.BlockCache;
 import org.apache.accumulo.core.spi.fs.VolumeChooserEnvironment;
 import org.apache.accumulo.core.tabletserver.log.LogEntry;
 import org.apache.accumulo.core.tabletserver.thrift.TabletClientService.Iface;
@@ -128,6 +129,7 @@ import org.apache.accumulo.server.util.time.RelativeTime;
 import org.apache.accumulo.server.zookeeper.DistributedWorkQueue;
 import org.apache.accumulo.tserver.TabletServerResourceManager.TabletResourceManager;
 import org.apache.accumulo.tserver.TabletStatsKeeper.Operation;
+import org.apache.accumulo.tserver.cache.CacheWarmer;
 import org.apache.accumulo.tserver.compactions.Compactable;
 import org.apache.accumulo.tserver.compactions.CompactionManager;
 import org.apache.accumulo.tserver.log.DfsLogger;
@@ -204,6 +206,7 @@ public class TabletServer extends AbstractServer {
   final Map<KeyExtent,Long> recentlyUnloadedCache = Collections.synchronizedMap(new LRUMap<>(1000));
 
   final TabletServerResourceManager resourceManager;
+  final CacheWarmer cacheWarmer;
   private final SecurityOperation security;
 
   private final BlockingDeque<ManagerMessage> managerMessages = new LinkedBlockingDeque<>();
@@ -334,6 +337,8 @@ public class TabletServer extends AbstractServer {
     logger = new TabletServerLogger(this, walogMaxSize, syncCounter, flushCounter,
         walCreationRetryFactory, walWritingRetryFactory, walogMaxAge);
     this.resourceManager = new TabletServerResourceManager(context);
+    this.cacheWarmer =
+        resourceManager.getCacheTracker() == null ? null : new CacheWarmer(this, resourceManager);
     this.security = AuditedSecurityOperation.getInstance(context);
 
     updateMetrics = new TabletServerUpdateMetrics();
@@ -710,6 +715,10 @@ public class TabletServer extends AbstractServer {
       log.error("Error registering metrics", e);
     }
 
+    if (cacheWarmer != null) {
+      cacheWarmer.start();
+    }
+
     if (authKeyWatcher != null) {
       log.info("Seeding ZooKeeper watcher for authentication keys");
       try {
@@ -1203,6 +1212,11 @@ public class TabletServer extends AbstractServer {
     return resourceManager.holdTime();
   }
 
+  public List<BlockCache> getBlockCaches() {
+    return List.of(resourceManager.getIndexCache(), resourceManager.getDataCache(),
+        resourceManager.getSummaryCache());
+  }
+
   public SecurityOperation getSecurityOperation() {
     return security;
   }
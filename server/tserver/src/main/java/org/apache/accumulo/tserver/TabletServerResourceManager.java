@@ -49,6 +49,7 @@ import org.apache.accumulo.core.conf.AccumuloConfiguration.ScanExecutorConfig;
 import org.apache.accumulo.core.conf.ConfigurationTypeHelper;
 import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.core.file.blockfile.cache.disk.TieredBlockCache;
 import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheConfiguration;
 import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheManagerFactory;
 import org.apache.accumulo.core.file.blockfile.impl.ScanCacheProvider;
@@ -56,6 +57,7 @@ import org.apache.accumulo.core.spi.cache.BlockCache;
 import org.apache.accumulo.core.spi.cache.BlockCacheManager;
 import org.apache.accumulo.core.spi.cache.CacheType;
 import org.apache.accumulo.core.spi.common.ServiceEnvironment;
+import org.apache.accumulo.core.spi.crypto.CryptoService;
 import org.apache.accumulo.core.spi.scan.ScanDirectives;
 import org.apache.accumulo.core.spi.scan.ScanDispatcher;
 import org.apache.accumulo.core.spi.scan.ScanDispatcher.DispatchParameters;
@@ -68,8 +70,10 @@ import org.apache.accumulo.core.util.threads.Threads;
 import org.apache.accumulo.server.ServerContext;
 import org.apache.accumulo.server.ServiceEnvironmentImpl;
 import org.apache.accumulo.tserver.FileManager.ScanFileManager;
+import org.apache.accumulo.tserver.cache.AccessTrackingBlockCache;
 import org.apache.accumulo.tserver.memory.LargestFirstMemoryManager;
 import org.apache.accumulo.tserver.memory.TabletMemoryReport;
+import org.apache.accumulo.tserver.scan.ScanResultCache;
 import org.apache.accumulo.tserver.session.ScanSession;
 import org.apache.accumulo.tserver.tablet.Tablet;
 import org.apache.htrace.wrappers.TraceRunnable;
@@ -116,10 +120,13 @@ public class TabletServerResourceManager {
   private final BlockCache _dCache;
   private final BlockCache _iCache;
   private final BlockCache _sCache;
+  private final AccessTrackingBlockCache _cacheTracker;
   private final ServerContext context;
 
   private Cache<String,Long> fileLenCache;
 
+  private final ScanResultCache scanResultCache;
+
   /**
    * This method creates a task that changes the number of core and maximum threads on the thread
    * pool executor
@@ -292,6 +299,8 @@ public class TabletServerResourceManager {
     long maxMemory = acuConf.getAsBytes(Property.TSERV_MAXMEM);
     boolean usingNativeMap =
         acuConf.getBoolean(Property.TSERV_NATIVEMAP_ENABLED) && NativeMap.isLoaded();
+    // off-heap maps also keep in-memory map data outside of the Java heap
+    boolean mapsOffHeap = usingNativeMap || acuConf.getBoolean(Property.TSERV_OFFHEAP_MAP_ENABLED);
 
     long totalQueueSize = acuConf.getAsBytes(Property.TSERV_TOTAL_MUTATION_QUEUE_MAX);
 
@@ -301,19 +310,32 @@ public class TabletServerResourceManager {
       throw new RuntimeException("Error creating BlockCacheManager", e);
     }
 
-    cacheManager.start(new BlockCacheConfiguration(acuConf));
+    BlockCacheConfiguration cacheConf = new BlockCacheConfiguration(acuConf);
+    cacheManager.start(cacheConf);
 
-    _iCache = cacheManager.getBlockCache(CacheType.INDEX);
-    _dCache = cacheManager.getBlockCache(CacheType.DATA);
-    _sCache = cacheManager.getBlockCache(CacheType.SUMMARY);
+    // the disk tier is not created when RFiles are encrypted
+    CryptoService crypto = context.getCryptoService();
+    _iCache = TieredBlockCache.wrap(cacheConf, CacheType.INDEX,
+        cacheManager.getBlockCache(CacheType.INDEX), crypto);
+    BlockCache dataCache = cacheManager.getBlockCache(CacheType.DATA);
+    if (acuConf.get(Property.TSERV_CACHE_WARM_DIR).isEmpty()) {
+      _cacheTracker = null;
+    } else {
+      _cacheTracker = new AccessTrackingBlockCache(dataCache,
+          acuConf.getCount(Property.TSERV_CACHE_WARM_TRACKED_MAX));
+      dataCache = _cacheTracker;
+    }
+    _dCache = TieredBlockCache.wrap(cacheConf, CacheType.DATA, dataCache, crypto);
+    _sCache = TieredBlockCache.wrap(cacheConf, CacheType.SUMMARY,
+        cacheManager.getBlockCache(CacheType.SUMMARY), crypto);
 
     long dCacheSize = _dCache.getMaxHeapSize();
     long iCacheSize = _iCache.getMaxHeapSize();
     long sCacheSize = _sCache.getMaxHeapSize();
 
     Runtime runtime = Runtime.getRuntime();
-    if (usingNativeMap) {
-      // Still check block cache sizes when using native maps.
+    if (mapsOffHeap) {
+      // Still check block cache sizes when using native or off-heap maps.
       if (dCacheSize + iCacheSize + sCacheSize + totalQueueSize > runtime.maxMemory()) {
         throw new IllegalArgumentException(String.format(
             "Block cache sizes %,d" + " and mutation queue size %,d is too large for this JVM"
@@ -332,7 +354,7 @@ public class TabletServerResourceManager {
 
     // totalMemory - freeMemory = memory in use
     // maxMemory - memory in use = max available memory
-    if (!usingNativeMap
+    if (!mapsOffHeap
         && maxMemory > runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory())) {
       log.warn("In-memory map may not fit into local memory space.");
     }
@@ -403,6 +425,9 @@ public class TabletServerResourceManager {
 
     fileManager = new FileManager(context, maxOpenFiles, fileLenCache);
 
+    scanResultCache =
+        new ScanResultCache(acuConf.getAsBytes(Property.TSERV_SCAN_RESULT_CACHE_SIZE));
+
     memoryManager = new LargestFirstMemoryManager();
     memoryManager.init(context);
     memMgmt = new MemoryManagementFramework();
@@ -759,6 +784,7 @@ public class TabletServerResourceManager {
           }
 
           memMgmt.tabletClosed(extent);
+          scanResultCache.invalidate(extent);
 
           closed = true;
         }
@@ -870,10 +896,21 @@ public class TabletServerResourceManager {
     return _sCache;
   }
 
+  /**
+   * @return tracker of data block reads for cache warming, or null when cache warming is disabled
+   */
+  public AccessTrackingBlockCache getCacheTracker() {
+    return _cacheTracker;
+  }
+
   public Cache<String,Long> getFileLenCache() {
     return fileLenCache;
   }
 
+  public ScanResultCache getScanResultCache() {
+    return scanResultCache;
+  }
+
   public ExecutorService getSummaryRetrievalExecutor() {
     return summaryRetrievalPool;
   }
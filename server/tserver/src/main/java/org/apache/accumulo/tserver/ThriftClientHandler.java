@@ -40,6 +40,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import org.apache.accumulo.core.Constants;
@@ -126,11 +127,15 @@ import org.apache.accumulo.server.zookeeper.TransactionWatcher;
 import org.apache.accumulo.tserver.ConditionCheckerContext.ConditionChecker;
 import org.apache.accumulo.tserver.RowLocks.RowLock;
 import org.apache.accumulo.tserver.data.ServerConditionalMutation;
+import org.apache.accumulo.tserver.scan.AdaptiveBatchSize;
 import org.apache.accumulo.tserver.scan.LookupTask;
 import org.apache.accumulo.tserver.scan.NextBatchTask;
+import org.apache.accumulo.tserver.scan.ScanResultCache;
 import org.apache.accumulo.tserver.scan.ScanParameters;
+import org.apache.accumulo.tserver.scan.ScanReadAhead;
 import org.apache.accumulo.tserver.session.ConditionalSession;
 import org.apache.accumulo.tserver.session.MultiScanSession;
+import org.apache.accumulo.tserver.session.SessionManager;
 import org.apache.accumulo.tserver.session.SingleScanSession;
 import org.apache.accumulo.tserver.session.SummarySession;
 import org.apache.accumulo.tserver.session.UpdateSession;
@@ -326,10 +331,34 @@ class ThriftClientHandler extends ClientServiceHandler implements TabletClientSe
         columnSet, ssiList, ssio, isolated, SamplerConfigurationImpl.fromThrift(tSamplerConfig),
         batchTimeOut, contextArg);
 
+    ScanResultCache.ScanKey resultCacheKey = null;
+    ScanResultCache.Generation resultCacheGeneration = null;
+    if (tablet.getTableConfiguration().getBoolean(Property.TABLE_SCAN_RESULT_CACHE_ENABLED)) {
+      resultCacheKey = new ScanResultCache.ScanKey(extent, new Range(range), scanParams);
+      resultCacheGeneration = ScanResultCache.Generation.of(tablet);
+      List<KVEntry> cached =
+          server.resourceManager.getScanResultCache().get(resultCacheKey, resultCacheGeneration);
+      if (cached != null && cached.size() <= batchSize) {
+        server.scanMetrics.incrementResultCacheHits();
+        // the scan is complete, so there is no session to continue
+        return new InitialScan(SessionManager.NO_SESSION_ID,
+            new ScanResult(Key.compress(cached), false));
+      }
+      server.scanMetrics.incrementResultCacheMisses();
+    }
+
     final SingleScanSession scanSession =
         new SingleScanSession(credentials, extent, scanParams, readaheadThreshold, executionHints);
+    scanSession.resultCacheKey = resultCacheKey;
+    scanSession.resultCacheGeneration = resultCacheGeneration;
     scanSession.scanner =
         tablet.createScanner(new Range(range), scanParams, scanSession.interruptFlag);
+    long minBatchBytes = tablet.getTableConfiguration().getAsBytes(Property.TABLE_SCAN_MINMEM);
+    if (minBatchBytes > 0) {
+      long maxBatchBytes = tablet.getTableConfiguration().getAsBytes(Property.TABLE_SCAN_MAXMEM);
+      scanSession.batchSize =
+          new AdaptiveBatchSize(Math.min(minBatchBytes, maxBatchBytes), maxBatchBytes);
+    }
 
     long sid = server.sessionManager.createSession(scanSession, true);
 
@@ -363,15 +392,57 @@ class ThriftClientHandler extends ClientServiceHandler implements TabletClientSe
     }
   }
 
+  @Override
+  public List<ScanResult> continueScanBatches(TInfo tinfo, long scanID, int credits)
+      throws NoSuchScanIDException, NotServingTabletException,
+      org.apache.accumulo.core.tabletserver.thrift.TooManyFilesException,
+      TSampleNotPresentException {
+    SingleScanSession scanSession =
+        (SingleScanSession) server.sessionManager.reserveSession(scanID);
+    if (scanSession == null) {
+      throw new NoSuchScanIDException();
+    }
+
+    try {
+      if (scanSession.readAhead == null) {
+        scanSession.readAhead =
+            new ScanReadAhead(() -> new NextBatchTask(server, scanID, scanSession.interruptFlag),
+                task -> server.resourceManager.executeReadAhead(scanSession.extent,
+                    getScanDispatcher(scanSession.extent), scanSession, task));
+      }
+      scanSession.readAhead.grant(Math.max(credits, 1));
+
+      // return every batch that is already read, waiting only for the first one
+      List<ScanResult> results = new ArrayList<>();
+      ScanResult result;
+      do {
+        result = continueScan(tinfo, scanID, scanSession);
+        results.add(result);
+      } while (result.more && !result.results.isEmpty() && results.size() < credits
+          && scanSession.readAhead.isNextDone());
+      return results;
+    } finally {
+      server.sessionManager.unreserveSession(scanSession);
+    }
+  }
+
   private ScanResult continueScan(TInfo tinfo, long scanID, SingleScanSession scanSession)
       throws NoSuchScanIDException, NotServingTabletException,
       org.apache.accumulo.core.tabletserver.thrift.TooManyFilesException,
       TSampleNotPresentException {
 
+    if (scanSession.batchSize != null) {
+      scanSession.batchSize.batchRequested(System.nanoTime());
+    }
+
     if (scanSession.nextBatchTask == null) {
-      scanSession.nextBatchTask = new NextBatchTask(server, scanID, scanSession.interruptFlag);
-      server.resourceManager.executeReadAhead(scanSession.extent,
-          getScanDispatcher(scanSession.extent), scanSession, scanSession.nextBatchTask);
+      if (scanSession.readAhead != null) {
+        scanSession.nextBatchTask = scanSession.readAhead.take();
+      } else {
+        scanSession.nextBatchTask = new NextBatchTask(server, scanID, scanSession.interruptFlag);
+        server.resourceManager.executeReadAhead(scanSession.extent,
+            getScanDispatcher(scanSession.extent), scanSession, scanSession.nextBatchTask);
+      }
     }
 
     ScanBatch bresult;
@@ -415,13 +486,21 @@ class ThriftClientHandler extends ClientServiceHandler implements TabletClientSe
       throw new RuntimeException(t);
     }
 
+    if (scanSession.resultCacheKey != null && scanSession.batchCount == 0 && !bresult.isMore()) {
+      // the first batch holds every result of the scan
+      server.resourceManager.getScanResultCache().put(scanSession.resultCacheKey,
+          scanSession.resultCacheGeneration, bresult.getResults());
+    }
+
     ScanResult scanResult = new ScanResult(Key.compress(bresult.getResults()), bresult.isMore());
 
     scanSession.entriesReturned += scanResult.results.size();
 
     scanSession.batchCount++;
 
-    if (scanResult.more && scanSession.batchCount > scanSession.readaheadThreshold) {
+    boolean fastConsumer = scanSession.batchSize != null && scanSession.batchSize.isFastConsumer();
+    if (scanResult.more && scanSession.readAhead == null
+        && (scanSession.batchCount > scanSession.readaheadThreshold || fastConsumer)) {
       // start reading next batch while current batch is transmitted
       // to client
       scanSession.nextBatchTask = new NextBatchTask(server, scanID, scanSession.interruptFlag);
@@ -431,6 +510,8 @@ class ThriftClientHandler extends ClientServiceHandler implements TabletClientSe
 
     if (!scanResult.more) {
       closeScan(tinfo, scanID);
+    } else if (scanSession.batchSize != null) {
+      scanSession.batchSize.batchReturned(System.nanoTime());
     }
 
     return scanResult;
@@ -1792,4 +1873,55 @@ class ThriftClientHandler extends ClientServiceHandler implements TabletClientSe
       return handleTimeout(sessionId);
     }
   }
+
+  @Override
+  public long countEntries(TInfo tinfo, TCredentials credentials, TKeyExtent textent, TRange range)
+      throws ThriftSecurityException, NotServingTabletException {
+    Tablet tablet = getTabletForStatistics(credentials, textent);
+    Range countRange = new Range(range);
+    try {
+      return tablet.countEntries(countRange, new AtomicBoolean(false));
+    } catch (TabletClosedException | IterationInterruptedException e) {
+      // the tablet was closed while counting
+      throw new NotServingTabletException(textent);
+    } catch (IOException e) {
+      log.warn("Failed to count entries in {} {}", tablet.getExtent(), countRange, e);
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override
+  public boolean hasEntries(TInfo tinfo, TCredentials credentials, TKeyExtent textent, TRange range)
+      throws ThriftSecurityException, NotServingTabletException {
+    Tablet tablet = getTabletForStatistics(credentials, textent);
+    Range checkRange = new Range(range);
+    try {
+      return tablet.hasEntries(checkRange, new AtomicBoolean(false));
+    } catch (TabletClosedException | IterationInterruptedException e) {
+      // the tablet was closed while checking
+      throw new NotServingTabletException(textent);
+    } catch (IOException e) {
+      log.warn("Failed to check for entries in {} {}", tablet.getExtent(), checkRange, e);
+      throw new RuntimeException(e);
+    }
+  }
+
+  private Tablet getTabletForStatistics(TCredentials credentials, TKeyExtent textent)
+      throws ThriftSecurityException, NotServingTabletException {
+    TableId tableId = TableId.of(new String(textent.getTable(), UTF_8));
+    NamespaceId namespaceId = getNamespaceId(credentials, tableId);
+
+    // statistics are computed from the stored entries without regard to their visibility, so like
+    // summaries they require permission to see statistics about the whole table
+    if (!security.canGetSummaries(credentials, tableId, namespaceId)) {
+      throw new ThriftSecurityException(credentials.getPrincipal(),
+          SecurityErrorCode.PERMISSION_DENIED);
+    }
+
+    Tablet tablet = server.getOnlineTablet(KeyExtent.fromThrift(textent));
+    if (tablet == null) {
+      throw new NotServingTabletException(textent);
+    }
+    return tablet;
+  }
 }
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.cache;
+
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.accumulo.core.spi.cache.BlockCache;
+import org.apache.accumulo.core.spi.cache.CacheEntry;
+
+/**
+ * Counts reads of each block in another block cache, so that the blocks a tablet server reads most
+ * often can be recorded. Counts are halved each time they are collected, so blocks that stop being
+ * read age out. The number of distinct blocks counted is bounded, once the bound is reached blocks
+ * not already counted are ignored until counts are collected again.
+ */
+public class AccessTrackingBlockCache implements BlockCache {
+
+  /** Estimated heap used to count one block, the map entry, block name, and counter */
+  private static final long TRACKED_BLOCK_OVERHEAD = 200;
+
+  private final BlockCache cache;
+  private final int maxTracked;
+  private final ConcurrentHashMap<String,AtomicLong> counts = new ConcurrentHashMap<>();
+
+  public AccessTrackingBlockCache(BlockCache cache, int maxTracked) {
+    this.cache = cache;
+    this.maxTracked = maxTracked;
+  }
+
+  private void record(String blockName) {
+    AtomicLong count = counts.get(blockName);
+    if (count == null) {
+      if (counts.size() >= maxTracked) {
+        return;
+      }
+      count = counts.computeIfAbsent(blockName, k -> new AtomicLong());
+    }
+    count.incrementAndGet();
+  }
+
+  /**
+   * Returns the current read counts sorted by block name, then halves every count and stops
+   * counting blocks whose count reaches zero.
+   */
+  public TreeMap<String,Long> collectCounts() {
+    TreeMap<String,Long> snapshot = new TreeMap<>();
+    counts.forEach((blockName, count) -> snapshot.put(blockName, count.get()));
+    counts.entrySet().removeIf(e -> e.getValue().updateAndGet(c -> c / 2) == 0);
+    return snapshot;
+  }
+
+  @Override
+  public CacheEntry cacheBlock(String blockName, byte[] buf) {
+    return cache.cacheBlock(blockName, buf);
+  }
+
+  @Override
+  public CacheEntry getBlock(String blockName) {
+    record(blockName);
+    return cache.getBlock(blockName);
+  }
+
+  @Override
+  public CacheEntry getBlock(String blockName, Loader loader) {
+    record(blockName);
+    return cache.getBlock(blockName, loader);
+  }
+
+  @Override
+  public long getMaxHeapSize() {
+    return cache.getMaxHeapSize() + maxTracked * TRACKED_BLOCK_OVERHEAD;
+  }
+
+  @Override
+  public long getMaxSize() {
+    return cache.getMaxSize();
+  }
+
+  @Override
+  public Stats getStats() {
+    return cache.getStats();
+  }
+}
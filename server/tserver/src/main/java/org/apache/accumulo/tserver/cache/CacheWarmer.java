@@ -0,0 +1,394 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.accumulo.core.clientImpl.Tables;
+import org.apache.accumulo.core.conf.AccumuloConfiguration;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.TableId;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.core.file.blockfile.impl.BasicCacheProvider;
+import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile;
+import org.apache.accumulo.core.file.blockfile.impl.CachableBlockFile.CachableBuilder;
+import org.apache.accumulo.core.file.rfile.RFile;
+import org.apache.accumulo.core.metadata.StoredTabletFile;
+import org.apache.accumulo.core.spi.cache.BlockCache;
+import org.apache.accumulo.core.util.ratelimit.RateLimiter;
+import org.apache.accumulo.core.util.ratelimit.SharedRateLimiterFactory;
+import org.apache.accumulo.core.util.threads.ThreadPools;
+import org.apache.accumulo.server.ServerContext;
+import org.apache.accumulo.tserver.TabletServer;
+import org.apache.accumulo.tserver.TabletServerResourceManager;
+import org.apache.accumulo.tserver.tablet.Tablet;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Warms the block cache for tablets after they are loaded. Each tablet server periodically writes,
+ * for each table it hosts, a manifest listing the data blocks of each tablet's files that it read
+ * most often. When a tablet is loaded, the tablet server hosting it reads the manifests of the
+ * tablet's table and loads the tablet's blocks, and the index blocks needed to locate them, into
+ * its caches in the background. Manifests are stored in {@link Property#TSERV_CACHE_WARM_DIR},
+ * which should be visible to all tablet servers so that a tablet's blocks can be found after it
+ * moves. Manifests that are no longer rewritten, and those of deleted tables, are removed.
+ */
+public class CacheWarmer {
+
+  private static final Logger log = LoggerFactory.getLogger(CacheWarmer.class);
+
+  private static final int MANIFEST_VERSION = 2;
+
+  // a manifest not rewritten for this many intervals is from a tablet server no longer hosting
+  // the table
+  private static final int MANIFEST_RETENTION_INTERVALS = 3;
+
+  /** The hot blocks of the tablets in one manifest, and when it was written */
+  private static class Manifest {
+    final long modificationTime;
+    final Map<KeyExtent,Map<String,Set<Long>>> tablets;
+
+    Manifest(long modificationTime, Map<KeyExtent,Map<String,Set<Long>>> tablets) {
+      this.modificationTime = modificationTime;
+      this.tablets = tablets;
+    }
+  }
+
+  /** A data block cached for a tablet's file and how often it was read */
+  static class HotBlock {
+    final String file;
+    final long offset;
+    final long count;
+
+    HotBlock(String file, long offset, long count) {
+      this.file = file;
+      this.offset = offset;
+      this.count = count;
+    }
+  }
+
+  private final TabletServer server;
+  private final ServerContext context;
+  private final TabletServerResourceManager resources;
+  private final AccessTrackingBlockCache tracker;
+  private final Path manifestDir;
+  private final ThreadPoolExecutor warmingPool;
+  private final RateLimiter readLimiter;
+  // tablets are often loaded in bursts, so the manifests of their tables are kept for a short time
+  private final Cache<Path,Manifest> manifestCache =
+      CacheBuilder.newBuilder().expireAfterAccess(1, TimeUnit.MINUTES).build();
+
+  public CacheWarmer(TabletServer server, TabletServerResourceManager resources) {
+    this.server = server;
+    this.context = server.getContext();
+    this.resources = resources;
+    this.tracker = resources.getCacheTracker();
+    AccumuloConfiguration conf = context.getConfiguration();
+    this.manifestDir = new Path(conf.get(Property.TSERV_CACHE_WARM_DIR));
+    this.warmingPool = ThreadPools.createFixedThreadPool(1, "cache warming", false);
+    this.readLimiter = SharedRateLimiterFactory.getInstance(conf).create("cache_warming",
+        () -> context.getConfiguration().getAsBytes(Property.TSERV_CACHE_WARM_RATE));
+  }
+
+  /**
+   * Starts periodically recording hot blocks.
+   */
+  public void start() {
+    AccumuloConfiguration conf = context.getConfiguration();
+    long interval = conf.getTimeInMillis(Property.TSERV_CACHE_WARM_INTERVAL);
+    ThreadPools.createGeneralScheduledExecutorService(conf).scheduleWithFixedDelay(() -> {
+      try {
+        recordHotBlocks();
+      } catch (Exception e) {
+        log.warn("Failed to record hot blocks", e);
+      }
+    }, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  private Path getTableManifestDir(TableId tableId) {
+    return new Path(manifestDir, tableId.canonical());
+  }
+
+  private Path getManifestPath(TableId tableId) {
+    // a colon is not allowed in a file name
+    return new Path(getTableManifestDir(tableId),
+        server.getClientAddressString().replace(':', '_'));
+  }
+
+  /**
+   * Selects the most read data blocks among the given files.
+   *
+   * @param counts
+   *          block read counts sorted by block name
+   */
+  static List<HotBlock> selectHotBlocks(SortedMap<String,Long> counts, Set<String> cacheIds,
+      int maxBlocks) {
+    List<HotBlock> hot = new ArrayList<>();
+    for (String cacheId : cacheIds) {
+      // data blocks of current RFiles are cached by file and offset
+      String prefix = cacheId + "R";
+      for (Entry<String,Long> entry : counts.subMap(prefix, prefix + Character.MAX_VALUE)
+          .entrySet()) {
+        try {
+          long offset = Long.parseLong(entry.getKey().substring(prefix.length()));
+          hot.add(new HotBlock(cacheId, offset, entry.getValue()));
+        } catch (NumberFormatException e) {
+          // not a block of this file
+        }
+      }
+    }
+    hot.sort(Comparator.comparingLong((HotBlock hb) -> hb.count).reversed());
+    return hot.size() > maxBlocks ? hot.subList(0, maxBlocks) : hot;
+  }
+
+  private static Set<String> getCacheIds(Tablet tablet) {
+    Set<String> cacheIds = new HashSet<>();
+    for (StoredTabletFile file : tablet.getDatafiles().keySet()) {
+      cacheIds.add(CachableBlockFile.pathToCacheId(file.getPath()));
+    }
+    return cacheIds;
+  }
+
+  void recordHotBlocks() throws IOException {
+    Map<TableId,Map<KeyExtent,Map<String,List<Long>>>> byTable = new HashMap<>();
+    Set<TableId> hosted = new HashSet<>();
+    TreeMap<String,Long> counts = tracker.collectCounts();
+    int maxBlocks = context.getConfiguration().getCount(Property.TSERV_CACHE_WARM_BLOCKS_MAX);
+    int recorded = 0;
+    for (Tablet tablet : server.getOnlineTablets().values()) {
+      KeyExtent extent = tablet.getExtent();
+      hosted.add(extent.tableId());
+      List<HotBlock> hot = selectHotBlocks(counts, getCacheIds(tablet), maxBlocks);
+      if (!hot.isEmpty()) {
+        Map<String,List<Long>> byFile = new HashMap<>();
+        for (HotBlock hb : hot) {
+          byFile.computeIfAbsent(hb.file, f -> new ArrayList<>()).add(hb.offset);
+        }
+        byTable.computeIfAbsent(extent.tableId(), t -> new HashMap<>()).put(extent, byFile);
+        recorded++;
+      }
+    }
+
+    for (Entry<TableId,Map<KeyExtent,Map<String,List<Long>>>> entry : byTable.entrySet()) {
+      writeManifest(getManifestPath(entry.getKey()), entry.getValue());
+    }
+    log.debug("Recorded hot blocks for {} tablets of {} tables", recorded, byTable.size());
+
+    sweepManifests(hosted);
+  }
+
+  private void writeManifest(Path path, Map<KeyExtent,Map<String,List<Long>>> byTablet)
+      throws IOException {
+    FileSystem fs = context.getVolumeManager().getFileSystemByPath(path);
+    Path tmp = path.suffix(".tmp");
+    try (FSDataOutputStream out = fs.create(tmp, true)) {
+      writeManifest(out, byTablet);
+    }
+    fs.delete(path, false);
+    if (!fs.rename(tmp, path)) {
+      throw new IOException("Failed to rename " + tmp + " to " + path);
+    }
+  }
+
+  /**
+   * Removes the manifests of deleted tables, and the manifests of the tables this tablet server
+   * hosts that no tablet server has rewritten recently. A table that no tablet server hosts keeps
+   * its manifests until it is hosted or deleted.
+   */
+  private void sweepManifests(Set<TableId> hosted) throws IOException {
+    FileSystem fs = context.getVolumeManager().getFileSystemByPath(manifestDir);
+    if (!fs.exists(manifestDir)) {
+      return;
+    }
+    long oldest = System.currentTimeMillis() - MANIFEST_RETENTION_INTERVALS
+        * context.getConfiguration().getTimeInMillis(Property.TSERV_CACHE_WARM_INTERVAL);
+    int removed = 0;
+    for (FileStatus tableDir : fs.listStatus(manifestDir)) {
+      TableId tableId = TableId.of(tableDir.getPath().getName());
+      if (!Tables.exists(context, tableId)) {
+        fs.delete(tableDir.getPath(), true);
+        removed++;
+      } else if (hosted.contains(tableId)) {
+        for (FileStatus manifest : fs.listStatus(tableDir.getPath())) {
+          if (manifest.getModificationTime() < oldest) {
+            fs.delete(manifest.getPath(), false);
+            removed++;
+          }
+        }
+      }
+    }
+    log.debug("Removed {} stale cache manifests", removed);
+  }
+
+  static void writeManifest(DataOutputStream out, Map<KeyExtent,Map<String,List<Long>>> byTablet)
+      throws IOException {
+    out.writeInt(MANIFEST_VERSION);
+    out.writeInt(byTablet.size());
+    for (Entry<KeyExtent,Map<String,List<Long>>> tablet : byTablet.entrySet()) {
+      tablet.getKey().writeTo(out);
+      out.writeInt(tablet.getValue().size());
+      for (Entry<String,List<Long>> entry : tablet.getValue().entrySet()) {
+        out.writeUTF(entry.getKey());
+        out.writeInt(entry.getValue().size());
+        for (long offset : entry.getValue()) {
+          out.writeLong(offset);
+        }
+      }
+    }
+  }
+
+  static Map<KeyExtent,Map<String,Set<Long>>> readManifest(DataInputStream in) throws IOException {
+    int version = in.readInt();
+    if (version != MANIFEST_VERSION) {
+      throw new IOException("Unknown cache manifest version " + version);
+    }
+    Map<KeyExtent,Map<String,Set<Long>>> byTablet = new HashMap<>();
+    int numTablets = in.readInt();
+    for (int t = 0; t < numTablets; t++) {
+      KeyExtent extent = KeyExtent.readFrom(in);
+      Map<String,Set<Long>> byFile = new HashMap<>();
+      int numFiles = in.readInt();
+      for (int i = 0; i < numFiles; i++) {
+        String file = in.readUTF();
+        int numOffsets = in.readInt();
+        Set<Long> offsets = new HashSet<>();
+        for (int j = 0; j < numOffsets; j++) {
+          offsets.add(in.readLong());
+        }
+        byFile.put(file, offsets);
+      }
+      byTablet.put(extent, byFile);
+    }
+    return byTablet;
+  }
+
+  /**
+   * Finds the hot blocks of a tablet in the manifests of its table. If several tablet servers
+   * recorded the tablet, the most recent manifest is used.
+   *
+   * @return the offsets of the hot blocks by file, or null if the tablet was not recorded
+   */
+  private Map<String,Set<Long>> findHotBlocks(KeyExtent extent) throws IOException {
+    Path tableDir = getTableManifestDir(extent.tableId());
+    FileSystem fs = context.getVolumeManager().getFileSystemByPath(tableDir);
+    if (!fs.exists(tableDir)) {
+      return null;
+    }
+
+    Map<String,Set<Long>> hot = null;
+    long hotTime = Long.MIN_VALUE;
+    for (FileStatus status : fs.listStatus(tableDir)) {
+      Path path = status.getPath();
+      if (path.getName().endsWith(".tmp")) {
+        continue;
+      }
+      Manifest manifest = manifestCache.getIfPresent(path);
+      if (manifest == null || manifest.modificationTime != status.getModificationTime()) {
+        try (DataInputStream in = fs.open(path)) {
+          manifest = new Manifest(status.getModificationTime(), readManifest(in));
+        } catch (FileNotFoundException e) {
+          // rewritten or removed since the directory was listed
+          continue;
+        } catch (IOException e) {
+          log.debug("Failed to read cache manifest {}", path, e);
+          continue;
+        }
+        manifestCache.put(path, manifest);
+      }
+      Map<String,Set<Long>> tabletHot = manifest.tablets.get(extent);
+      if (tabletHot != null && manifest.modificationTime > hotTime) {
+        hot = tabletHot;
+        hotTime = manifest.modificationTime;
+      }
+    }
+    return hot;
+  }
+
+  /**
+   * Queues loading the hot blocks recorded for a tablet that was just loaded.
+   */
+  public void warm(KeyExtent extent) {
+    warmingPool.execute(() -> {
+      try {
+        warmNow(extent);
+      } catch (Exception e) {
+        log.debug("Failed to warm cache for {}", extent, e);
+      }
+    });
+  }
+
+  private void warmNow(KeyExtent extent) throws IOException {
+    Tablet tablet = server.getOnlineTablet(extent);
+    if (tablet == null) {
+      return;
+    }
+    AccumuloConfiguration tableConf = tablet.getTableConfiguration();
+    if (!tableConf.getBoolean(Property.TABLE_BLOCKCACHE_ENABLED)) {
+      return;
+    }
+
+    Map<String,Set<Long>> hot = findHotBlocks(extent);
+    if (hot == null) {
+      return;
+    }
+
+    BlockCache indexCache =
+        tableConf.getBoolean(Property.TABLE_INDEXCACHE_ENABLED) ? resources.getIndexCache() : null;
+    BasicCacheProvider cacheProvider = new BasicCacheProvider(indexCache, resources.getDataCache());
+
+    int loaded = 0;
+    for (StoredTabletFile file : tablet.getDatafiles().keySet()) {
+      Set<Long> offsets = hot.get(CachableBlockFile.pathToCacheId(file.getPath()));
+      if (offsets == null || !file.getFileName().endsWith("." + RFile.EXTENSION)) {
+        continue;
+      }
+      FileSystem fs = context.getVolumeManager().getFileSystemByPath(file.getPath());
+      CachableBuilder cb = new CachableBuilder().fsPath(fs, file.getPath()).conf(fs.getConf())
+          .fileLen(resources.getFileLenCache()).cacheProvider(cacheProvider)
+          .readLimiter(readLimiter).cryptoService(context.getCryptoService());
+      try (RFile.Reader reader = new RFile.Reader(cb)) {
+        loaded += reader.cacheDataBlocks(offsets);
+      }
+    }
+    log.debug("Loaded {} blocks into cache for {}", loaded, extent);
+  }
+}
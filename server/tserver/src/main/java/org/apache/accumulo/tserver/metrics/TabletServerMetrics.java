@@ -39,6 +39,9 @@ public class TabletServerMetrics extends TServerMetrics {
   private final MutableGaugeLong unopenedTablets;
   private final MutableGaugeLong queries;
   private final MutableGaugeLong totalMincs;
+  private final MutableGaugeLong diskCacheHits;
+  private final MutableGaugeLong diskCacheRequests;
+  private final MutableGaugeLong diskCacheSize;
 
   public TabletServerMetrics(TabletServer tserver) {
     super("general");
@@ -56,6 +59,11 @@ public class TabletServerMetrics extends TServerMetrics {
     unopenedTablets = registry.newGauge("unopenedTablets", "Number of unopened tablets", 0L);
     queries = registry.newGauge("queries", "Number of queries", 0L);
     totalMincs = registry.newGauge("totalMinCs", "Total number of minor compactions performed", 0L);
+    diskCacheHits =
+        registry.newGauge("diskCacheHits", "Block cache misses found in the disk cache", 0L);
+    diskCacheRequests =
+        registry.newGauge("diskCacheRequests", "Block cache misses checked in the disk cache", 0L);
+    diskCacheSize = registry.newGauge("diskCacheSize", "Bytes used by the disk cache", 0L);
   }
 
   @Override
@@ -71,6 +79,9 @@ public class TabletServerMetrics extends TServerMetrics {
     unopenedTablets.set(util.getUnopenedCount());
     queries.set(util.getQueries());
     totalMincs.set(util.getTotalMinorCompactions());
+    diskCacheHits.set(util.getDiskCacheHits());
+    diskCacheRequests.set(util.getDiskCacheRequests());
+    diskCacheSize.set(util.getDiskCacheSize());
   }
 
   @Override
@@ -18,6 +18,10 @@
  */
 package org.apache.accumulo.tserver.metrics;
 
+import java.util.function.ToLongFunction;
+
+import org.apache.accumulo.core.file.blockfile.cache.disk.TieredBlockCache;
+import org.apache.accumulo.core.spi.cache.BlockCache;
 import org.apache.accumulo.tserver.TabletServer;
 import org.apache.accumulo.tserver.tablet.Tablet;
 
@@ -50,6 +54,28 @@ public class TabletServerMetricsUtil {
     return result;
   }
 
+  private long sumDiskCaches(ToLongFunction<TieredBlockCache> stat) {
+    long result = 0;
+    for (BlockCache cache : tserver.getBlockCaches()) {
+      if (cache instanceof TieredBlockCache) {
+        result += stat.applyAsLong((TieredBlockCache) cache);
+      }
+    }
+    return result;
+  }
+
+  public long getDiskCacheHits() {
+    return sumDiskCaches(c -> c.getDiskStats().hitCount());
+  }
+
+  public long getDiskCacheRequests() {
+    return sumDiskCaches(c -> c.getDiskStats().requestCount());
+  }
+
+  public long getDiskCacheSize() {
+    return sumDiskCaches(TieredBlockCache::getDiskSize);
+  }
+
   public double getIngest() {
     double result = 0;
     for (Tablet tablet : tserver.getOnlineTablets().values()) {
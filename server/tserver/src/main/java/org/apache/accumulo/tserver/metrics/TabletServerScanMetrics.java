@@ -19,6 +19,7 @@
 package org.apache.accumulo.tserver.metrics;
 
 import org.apache.hadoop.metrics2.lib.MetricsRegistry;
+import org.apache.hadoop.metrics2.lib.MutableCounterLong;
 import org.apache.hadoop.metrics2.lib.MutableStat;
 
 public class TabletServerScanMetrics extends TServerMetrics {
@@ -26,6 +27,8 @@ public class TabletServerScanMetrics extends TServerMetrics {
   private final MutableStat scans;
   private final MutableStat resultsPerScan;
   private final MutableStat yields;
+  private final MutableCounterLong resultCacheHits;
+  private final MutableCounterLong resultCacheMisses;
 
   public TabletServerScanMetrics() {
     super("Scans");
@@ -34,6 +37,8 @@ public class TabletServerScanMetrics extends TServerMetrics {
     scans = registry.newStat("scan", "Scans", "Ops", "Count", true);
     resultsPerScan = registry.newStat("result", "Results per scan", "Ops", "Count", true);
     yields = registry.newStat("yield", "Yields", "Ops", "Count", true);
+    resultCacheHits = registry.newCounter("resultCacheHits", "Scan result cache hits", 0L);
+    resultCacheMisses = registry.newCounter("resultCacheMisses", "Scan result cache misses", 0L);
   }
 
   public void addScan(long value) {
@@ -48,4 +53,12 @@ public class TabletServerScanMetrics extends TServerMetrics {
     yields.add(value);
   }
 
+  public void incrementResultCacheHits() {
+    resultCacheHits.incr();
+  }
+
+  public void incrementResultCacheMisses() {
+    resultCacheMisses.incr();
+  }
+
 }
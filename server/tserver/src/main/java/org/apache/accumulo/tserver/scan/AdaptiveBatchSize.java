@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.scan;
+
+/**
+ * Tracks how quickly a client consumes the batches of a single scan and sizes the next batch
+ * accordingly. A client that asks for the next batch in less time than it took to read the previous
+ * one is keeping up with the tablet server, so its batches are doubled up to the maximum and it is
+ * worth reading ahead for it. A client that takes much longer than the read to come back is
+ * interactive or slow, so its batches are halved back toward the minimum so that less memory is
+ * held on its behalf.
+ */
+public class AdaptiveBatchSize {
+
+  // a client that takes this many times longer than the read to ask again is considered slow
+  private static final int SLOW_FACTOR = 4;
+
+  private final long minBytes;
+  private final long maxBytes;
+
+  private long currentBytes;
+  private long lastReadNanos = -1;
+  private long lastReturnedNanos = -1;
+  private boolean lastHadMore = false;
+  private boolean fastConsumer = false;
+
+  public AdaptiveBatchSize(long minBytes, long maxBytes) {
+    if (minBytes <= 0 || maxBytes < minBytes) {
+      throw new IllegalArgumentException("Bad batch size bounds " + minBytes + " " + maxBytes);
+    }
+    this.minBytes = minBytes;
+    this.maxBytes = maxBytes;
+    this.currentBytes = minBytes;
+  }
+
+  /**
+   * @return the maximum number of bytes the next batch read should buffer
+   */
+  public synchronized long getMaxBytes() {
+    return currentBytes;
+  }
+
+  /**
+   * Records how long it took to read a batch from the tablet.
+   *
+   * @param readNanos
+   *          time spent reading the batch
+   * @param more
+   *          true if the scan has more data after the batch
+   */
+  public synchronized void batchRead(long readNanos, boolean more) {
+    lastReadNanos = readNanos;
+    lastHadMore = more;
+  }
+
+  /**
+   * Called when a client asks for a batch. Compares the time since the previous batch was returned
+   * against the time it took to read it and adjusts the size of following batches.
+   *
+   * @param nowNanos
+   *          the current value of {@link System#nanoTime()}
+   */
+  public synchronized void batchRequested(long nowNanos) {
+    if (lastReturnedNanos < 0 || lastReadNanos < 0 || !lastHadMore) {
+      return;
+    }
+
+    long thinkNanos = nowNanos - lastReturnedNanos;
+    if (thinkNanos <= lastReadNanos) {
+      fastConsumer = true;
+      currentBytes = Math.min(maxBytes, currentBytes * 2);
+    } else if (thinkNanos > lastReadNanos * SLOW_FACTOR) {
+      fastConsumer = false;
+      currentBytes = Math.max(minBytes, currentBytes / 2);
+    }
+  }
+
+  /**
+   * Called when a batch is handed back to the client.
+   *
+   * @param nowNanos
+   *          the current value of {@link System#nanoTime()}
+   */
+  public synchronized void batchReturned(long nowNanos) {
+    lastReturnedNanos = nowNanos;
+  }
+
+  /**
+   * @return true if the client has been asking for batches faster than they are read, in which case
+   *         reading the next batch while the current one is sent is worthwhile
+   */
+  public synchronized boolean isFastConsumer() {
+    return fastConsumer;
+  }
+}
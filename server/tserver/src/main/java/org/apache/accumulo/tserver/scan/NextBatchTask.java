@@ -37,6 +37,8 @@ public class NextBatchTask extends ScanTask<ScanBatch> {
   private static final Logger log = LoggerFactory.getLogger(NextBatchTask.class);
 
   private final long scanID;
+  // set when this task read a batch and the scan has more data after it
+  private volatile boolean more = false;
 
   public NextBatchTask(TabletServer server, long scanID, AtomicBoolean interruptFlag) {
     super(server);
@@ -71,13 +73,22 @@ public class NextBatchTask extends ScanTask<ScanBatch> {
         return;
       }
 
-      ScanBatch batch = scanSession.scanner.read();
+      ScanBatch batch;
+      AdaptiveBatchSize batchSize = scanSession.batchSize;
+      if (batchSize == null) {
+        batch = scanSession.scanner.read();
+      } else {
+        long t1 = System.nanoTime();
+        batch = scanSession.scanner.read(batchSize.getMaxBytes());
+        batchSize.batchRead(System.nanoTime() - t1, batch.isMore());
+      }
 
       // there should only be one thing on the queue at a time, so
       // it should be ok to call add()
       // instead of put()... if add() fails because queue is at
       // capacity it means there is code
       // problem somewhere
+      more = batch.isMore();
       addResult(batch);
     } catch (TabletClosedException e) {
       addResult(new org.apache.accumulo.core.tabletserver.thrift.NotServingTabletException(
@@ -99,4 +110,11 @@ public class NextBatchTask extends ScanTask<ScanBatch> {
     }
 
   }
+
+  /**
+   * @return true if this task finished reading a batch and the scan has more data after it
+   */
+  public boolean hasMore() {
+    return more;
+  }
 }
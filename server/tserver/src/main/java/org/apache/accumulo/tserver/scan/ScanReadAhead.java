@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.scan;
+
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Reads the batches of a single scan session ahead of the client, up to the number of batches the
+ * client granted credits for. A tablet scanner can only read one batch at a time, so each read is
+ * started when the previous one finishes. Reading stops when the credits are used up or the scan
+ * has no more data, and resumes when the client takes a batch.
+ */
+public class ScanReadAhead {
+
+  private final Supplier<NextBatchTask> taskFactory;
+  private final Consumer<Runnable> executor;
+
+  // started reads in scan order, the last one may still be running
+  private final ArrayDeque<NextBatchTask> tasks = new ArrayDeque<>();
+  private NextBatchTask lastStarted;
+  private boolean reading = false;
+  private boolean closed = false;
+  private int credits = 0;
+
+  public ScanReadAhead(Supplier<NextBatchTask> taskFactory, Consumer<Runnable> executor) {
+    this.taskFactory = taskFactory;
+    this.executor = executor;
+  }
+
+  /**
+   * Sets the number of batches that may be read ahead of the client and starts reading if the
+   * client has room for more.
+   */
+  public void grant(int credits) {
+    NextBatchTask task;
+    synchronized (this) {
+      this.credits = credits;
+      task = readMore();
+    }
+    execute(task);
+  }
+
+  /**
+   * Returns the read of the next batch of the scan, starting it if it was not read ahead.
+   */
+  public NextBatchTask take() {
+    NextBatchTask task = null;
+    NextBatchTask next;
+    synchronized (this) {
+      if (tasks.isEmpty()) {
+        task = start();
+      }
+      next = tasks.remove();
+      if (task == null) {
+        task = readMore();
+      }
+    }
+    execute(task);
+    return next;
+  }
+
+  /**
+   * @return true if the next batch of the scan was read ahead and is ready to be taken
+   */
+  public synchronized boolean isNextDone() {
+    NextBatchTask next = tasks.peek();
+    return next != null && next.isDone();
+  }
+
+  /**
+   * Cancels all reads not yet taken and stops reading ahead.
+   */
+  public synchronized void close() {
+    closed = true;
+    tasks.forEach(task -> task.cancel(true));
+    tasks.clear();
+  }
+
+  private NextBatchTask readMore() {
+    if (closed || reading || tasks.size() >= credits || lastStarted == null
+        || !lastStarted.hasMore()) {
+      return null;
+    }
+    return start();
+  }
+
+  private NextBatchTask start() {
+    NextBatchTask task = taskFactory.get();
+    tasks.add(task);
+    lastStarted = task;
+    reading = true;
+    return task;
+  }
+
+  private void execute(NextBatchTask task) {
+    if (task == null) {
+      return;
+    }
+    executor.accept(() -> {
+      try {
+        task.run();
+      } finally {
+        NextBatchTask next;
+        synchronized (this) {
+          // the client may have taken this batch and started the next read already
+          if (task == lastStarted) {
+            reading = false;
+          }
+          next = readMore();
+        }
+        execute(next);
+      }
+    });
+  }
+}
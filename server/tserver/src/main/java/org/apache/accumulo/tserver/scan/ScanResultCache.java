@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.scan;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.Column;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.core.dataImpl.thrift.IterInfo;
+import org.apache.accumulo.core.sample.impl.SamplerConfigurationImpl;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.accumulo.tserver.tablet.KVEntry;
+import org.apache.accumulo.tserver.tablet.Tablet;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Caches the complete results of small scans so that identical scans of a tablet do not rebuild the
+ * iterator stack and read the same data again. Only scans whose results fit in a single batch are
+ * cached, and only for tables with {@link Property#TABLE_SCAN_RESULT_CACHE_ENABLED} set. Each entry
+ * records the tablet's data file, in memory map and configuration generations when the scan
+ * started, and is only used while all three are unchanged. The entries of a tablet are dropped when
+ * it is closed. Hits and misses are reported by the tablet server scan metrics.
+ */
+public class ScanResultCache {
+
+  // rough per entry overhead of the cache key, entry and result list
+  private static final int ENTRY_OVERHEAD = 256;
+
+  /**
+   * Everything about a scan that determines its results.
+   */
+  public static class ScanKey {
+    private final KeyExtent extent;
+    private final Range range;
+    private final Set<Column> columns;
+    private final Authorizations authorizations;
+    private final List<IterInfo> ssiList;
+    private final Map<String,Map<String,String>> ssio;
+    private final SamplerConfigurationImpl samplerConfig;
+    private final String classLoaderContext;
+    private final int hashCode;
+
+    public ScanKey(KeyExtent extent, Range range, ScanParameters scanParams) {
+      this.extent = extent;
+      this.range = range;
+      this.columns = scanParams.getColumnSet();
+      this.authorizations = scanParams.getAuthorizations();
+      this.ssiList = scanParams.getSsiList();
+      this.ssio = scanParams.getSsio();
+      this.samplerConfig = scanParams.getSamplerConfigurationImpl();
+      this.classLoaderContext = scanParams.getClassLoaderContext();
+      this.hashCode = Objects.hash(extent, range, columns, authorizations, ssiList, ssio,
+          samplerConfig, classLoaderContext);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ScanKey)) {
+        return false;
+      }
+      ScanKey other = (ScanKey) o;
+      return hashCode == other.hashCode && extent.equals(other.extent) && range.equals(other.range)
+          && columns.equals(other.columns) && authorizations.equals(other.authorizations)
+          && ssiList.equals(other.ssiList) && ssio.equals(other.ssio)
+          && Objects.equals(samplerConfig, other.samplerConfig)
+          && Objects.equals(classLoaderContext, other.classLoaderContext);
+    }
+  }
+
+  /**
+   * The state of a tablet that cached results depend on.
+   */
+  public static class Generation {
+    private final long fileGeneration;
+    private final long memoryGeneration;
+    private final long configUpdateCount;
+
+    Generation(long fileGeneration, long memoryGeneration, long configUpdateCount) {
+      this.fileGeneration = fileGeneration;
+      this.memoryGeneration = memoryGeneration;
+      this.configUpdateCount = configUpdateCount;
+    }
+
+    public static Generation of(Tablet tablet) {
+      return new Generation(tablet.getFileGeneration(), tablet.getMemoryGeneration(),
+          tablet.getTableConfiguration().getUpdateCount());
+    }
+
+    boolean matches(Generation other) {
+      return fileGeneration == other.fileGeneration && memoryGeneration == other.memoryGeneration
+          && configUpdateCount == other.configUpdateCount;
+    }
+  }
+
+  private static class Entry {
+    final Generation generation;
+    final List<KVEntry> results;
+    final int weight;
+
+    Entry(Generation generation, List<KVEntry> results, int weight) {
+      this.generation = generation;
+      this.results = results;
+      this.weight = weight;
+    }
+  }
+
+  private final Cache<ScanKey,Entry> cache;
+  private final long maxEntryWeight;
+
+  public ScanResultCache(long maxSize) {
+    this.cache = CacheBuilder.newBuilder().maximumWeight(maxSize)
+        .weigher((ScanKey k, Entry e) -> e.weight).build();
+    // do not let a single scan push out many smaller ones
+    this.maxEntryWeight = Math.max(1, Math.min(Integer.MAX_VALUE, maxSize / 16));
+  }
+
+  /**
+   * @return the cached results of the scan if they are still valid for the given tablet state,
+   *         otherwise null
+   */
+  public List<KVEntry> get(ScanKey key, Generation current) {
+    Entry entry = cache.getIfPresent(key);
+    if (entry == null) {
+      return null;
+    }
+    if (!entry.generation.matches(current)) {
+      cache.invalidate(key);
+      return null;
+    }
+    return entry.results;
+  }
+
+  /**
+   * Drops the cached results of all scans of a tablet, for example when the tablet is closed.
+   */
+  public void invalidate(KeyExtent extent) {
+    cache.asMap().keySet().removeIf(key -> key.extent.equals(extent));
+  }
+
+  /**
+   * Caches the complete results of a scan.
+   *
+   * @param key
+   *          the scan
+   * @param started
+   *          the state of the tablet before the scan started reading
+   * @param results
+   *          all results of the scan, which must not be modified afterwards
+   */
+  public void put(ScanKey key, Generation started, List<KVEntry> results) {
+    long weight = ENTRY_OVERHEAD;
+    for (KVEntry kve : results) {
+      weight += kve.estimateMemoryUsed();
+      if (weight > maxEntryWeight) {
+        return;
+      }
+    }
+    cache.put(key, new Entry(started, results, (int) weight));
+  }
+}
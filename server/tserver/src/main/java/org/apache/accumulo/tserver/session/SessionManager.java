@@ -57,6 +57,12 @@ import com.google.common.collect.Maps;
 public class SessionManager {
   private static final Logger log = LoggerFactory.getLogger(SessionManager.class);
 
+  /**
+   * A session id that is never assigned, returned to clients when a request completes without
+   * creating a session.
+   */
+  public static final long NO_SESSION_ID = -1;
+
   private final SecureRandom random;
   private final ConcurrentMap<Long,Session> sessions = new ConcurrentHashMap<>();
   private final long maxIdle;
@@ -100,7 +106,7 @@ public class SessionManager {
       session.startTime = session.lastAccessTime = System.currentTimeMillis();
     }
 
-    while (sessions.putIfAbsent(sid, session) != null) {
+    while (sid == NO_SESSION_ID || sessions.putIfAbsent(sid, session) != null) {
       sid = random.nextLong();
     }
 
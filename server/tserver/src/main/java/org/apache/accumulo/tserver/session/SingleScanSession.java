@@ -24,7 +24,10 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.accumulo.core.data.TableId;
 import org.apache.accumulo.core.dataImpl.KeyExtent;
 import org.apache.accumulo.core.securityImpl.thrift.TCredentials;
+import org.apache.accumulo.tserver.scan.AdaptiveBatchSize;
 import org.apache.accumulo.tserver.scan.ScanParameters;
+import org.apache.accumulo.tserver.scan.ScanReadAhead;
+import org.apache.accumulo.tserver.scan.ScanResultCache;
 import org.apache.accumulo.tserver.scan.ScanTask;
 import org.apache.accumulo.tserver.tablet.ScanBatch;
 import org.apache.accumulo.tserver.tablet.Scanner;
@@ -35,8 +38,15 @@ public class SingleScanSession extends ScanSession {
   public long entriesReturned = 0;
   public long batchCount = 0;
   public volatile ScanTask<ScanBatch> nextBatchTask;
+  // reads batches ahead for clients that grant credits, null until a client does
+  public volatile ScanReadAhead readAhead;
   public Scanner scanner;
   public final long readaheadThreshold;
+  // sizes batches by how fast the client consumes them, null when batches have a fixed size
+  public AdaptiveBatchSize batchSize;
+  // set when the results of this scan may be cached, along with the tablet state they depend on
+  public ScanResultCache.ScanKey resultCacheKey;
+  public ScanResultCache.Generation resultCacheGeneration;
 
   public SingleScanSession(TCredentials credentials, KeyExtent extent, ScanParameters scanParams,
       long readaheadThreshold, Map<String,String> executionHints) {
@@ -59,6 +69,8 @@ public class SingleScanSession extends ScanSession {
   public boolean cleanup() {
     final boolean ret;
     try {
+      if (readAhead != null)
+        readAhead.close();
       if (nextBatchTask != null)
         nextBatchTask.cancel(true);
     } finally {
@@ -64,6 +64,10 @@ class DatafileManager {
       Collections.synchronizedMap(new TreeMap<>());
   private final Tablet tablet;
 
+  // changed on every change to the set of data files, including bulk imports, so cached scan
+  // results can tell when the files they were read from changed
+  private volatile long fileGeneration = Tablet.nextGeneration();
+
   // ensure we only have one reader/writer of our bulk file notes at at time
   private final Object bulkFileImportLock = new Object();
 
@@ -114,6 +118,10 @@ class DatafileManager {
     }
   }
 
+  long getFileGeneration() {
+    return fileGeneration;
+  }
+
   void returnFilesForScan(Long reservationId) {
 
     final Set<StoredTabletFile> filesToDelete = new HashSet<>();
@@ -252,6 +260,7 @@ class DatafileManager {
         }
         datafileSizes.put(tpath.getKey(), tpath.getValue());
       }
+      fileGeneration = Tablet.nextGeneration();
 
       tablet.getTabletResources().importedMapFiles();
 
@@ -374,6 +383,7 @@ class DatafileManager {
         }
         datafileSizes.put(newFile, dfv);
       }
+      fileGeneration = Tablet.nextGeneration();
 
       tablet.flushComplete(flushId);
 
@@ -438,6 +448,7 @@ class DatafileManager {
         datafileSizes.put(newFile, dfv);
         // could be used by a follow on compaction in a multipass compaction
       }
+      fileGeneration = Tablet.nextGeneration();
 
       tablet.computeNumEntries();
 
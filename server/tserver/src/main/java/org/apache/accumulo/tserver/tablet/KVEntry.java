@@ -31,11 +31,18 @@ public class KVEntry extends KeyValue {
     super(new Key(k), Arrays.copyOf(v.get(), v.get().length));
   }
 
+  /**
+   * Creates an entry that uses the given key and value bytes without copying them.
+   */
+  KVEntry(Key k, byte[] v) {
+    super(k, v);
+  }
+
   int numBytes() {
     return getKey().getSize() + getValue().get().length;
   }
 
-  int estimateMemoryUsed() {
+  public int estimateMemoryUsed() {
     return getKey().getSize() + getValue().get().length + (9 * 32); // overhead is 32 per object
   }
 }
@@ -21,6 +21,7 @@ package org.apache.accumulo.tserver.tablet;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,12 +30,16 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.accumulo.core.conf.IterConfigUtil;
 import org.apache.accumulo.core.conf.IterLoad;
 import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.dataImpl.thrift.IterInfo;
+import org.apache.accumulo.core.file.EntryCounter;
 import org.apache.accumulo.core.iterators.IterationInterruptedException;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
 import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iteratorsImpl.system.DeletingIterator;
+import org.apache.accumulo.core.iteratorsImpl.system.DeletingIterator.Behavior;
 import org.apache.accumulo.core.iteratorsImpl.system.InterruptibleIterator;
 import org.apache.accumulo.core.iteratorsImpl.system.MultiIterator;
 import org.apache.accumulo.core.iteratorsImpl.system.SourceSwitchingIterator.DataSource;
@@ -71,10 +76,21 @@ class ScanDataSource implements DataSource {
   private final ScanParameters scanParams;
   private final boolean loadIters;
   private final byte[] defaultLabels;
+  private final List<Range> lookupRanges;
 
   ScanDataSource(Tablet tablet, ScanParameters scanParams, boolean loadIters,
       AtomicBoolean interruptFlag) {
+    this(tablet, scanParams, loadIters, interruptFlag, null);
+  }
+
+  /**
+   * @param lookupRanges
+   *          ranges whose data blocks are read from files before iterating, or null
+   */
+  ScanDataSource(Tablet tablet, ScanParameters scanParams, boolean loadIters,
+      AtomicBoolean interruptFlag, List<Range> lookupRanges) {
     this.tablet = tablet;
+    this.lookupRanges = lookupRanges;
     this.expectedDeletionCount = tablet.getDataSourceDeletions();
     this.scanParams = scanParams;
     this.interruptFlag = interruptFlag;
@@ -121,12 +137,10 @@ class ScanDataSource implements DataSource {
     return iter;
   }
 
-  private SortedKeyValueIterator<Key,Value> createIterator() throws IOException {
-
-    Map<TabletFile,DataFileValue> files;
-
-    SamplerConfigurationImpl samplerConfig = scanParams.getSamplerConfigurationImpl();
-
+  /**
+   * Reserves the tablet's current in memory maps and files for this data source.
+   */
+  private Map<TabletFile,DataFileValue> reserveFiles(SamplerConfigurationImpl samplerConfig) {
     synchronized (tablet) {
 
       if (memIters != null)
@@ -157,12 +171,73 @@ class ScanDataSource implements DataSource {
       Pair<Long,Map<TabletFile,DataFileValue>> reservation =
           tablet.getDatafileManager().reserveFilesForScan();
       fileReservationId = reservation.getFirst();
-      files = reservation.getSecond();
+      return reservation.getSecond();
+    }
+  }
+
+  /**
+   * Counts the entries in the range stored in the tablet's files and in memory maps. Each file and
+   * the in memory maps are counted on their own with deletes and versions handled as by
+   * {@link EntryCounter}, so a delete only hides entries stored next to it. Files are counted from
+   * their indexes where possible.
+   */
+  long countEntries(Range range, int maxVersions) throws IOException {
+    Map<TabletFile,DataFileValue> files = reserveFiles(null);
+
+    for (InterruptibleIterator file : fileManager.openFiles(files, false, null))
+      file.setInterruptFlag(interruptFlag);
+
+    long count = fileManager.countEntries(range, maxVersions);
+
+    for (MemoryIterator memIter : memIters)
+      memIter.setInterruptFlag(interruptFlag);
+    MultiIterator memory = new MultiIterator(new ArrayList<>(memIters), tablet.getExtent());
+    memory.seek(range, Collections.emptySet(), false);
+    EntryCounter counter = new EntryCounter(maxVersions);
+    while (memory.hasTop()) {
+      counter.add(memory.getTopKey());
+      memory.next();
+    }
+    return count + counter.getCount();
+  }
+
+  /**
+   * Checks if a scan of the range would return any entry before visibilities and table iterators
+   * are applied, merging the tablet's files and in memory maps so that deletes hide the entries
+   * they delete. Only the blocks of each file up to the first entry that is not deleted are read.
+   */
+  boolean hasEntries(Range range) throws IOException {
+    Map<TabletFile,DataFileValue> files = reserveFiles(null);
+
+    List<SortedKeyValueIterator<Key,Value>> iters = new ArrayList<>();
+    for (InterruptibleIterator file : fileManager.openFiles(files, false, null)) {
+      file.setInterruptFlag(interruptFlag);
+      iters.add(file);
+    }
+    for (MemoryIterator memIter : memIters) {
+      memIter.setInterruptFlag(interruptFlag);
+      iters.add(memIter);
     }
 
+    SortedKeyValueIterator<Key,Value> merged = DeletingIterator
+        .wrap(new MultiIterator(iters, tablet.getExtent()), false, Behavior.PROCESS);
+    merged.seek(range, Collections.emptySet(), false);
+    return merged.hasTop();
+  }
+
+  private SortedKeyValueIterator<Key,Value> createIterator() throws IOException {
+
+    SamplerConfigurationImpl samplerConfig = scanParams.getSamplerConfigurationImpl();
+
+    Map<TabletFile,DataFileValue> files = reserveFiles(samplerConfig);
+
     Collection<InterruptibleIterator> mapfiles =
         fileManager.openFiles(files, scanParams.isIsolated(), samplerConfig);
 
+    if (lookupRanges != null && samplerConfig == null) {
+      fileManager.prefetchBlocks(lookupRanges);
+    }
+
     for (SortedKeyValueIterator<Key,Value> skvi : Iterables.concat(mapfiles, memIters))
       ((InterruptibleIterator) skvi).setInterruptFlag(interruptFlag);
 
@@ -182,9 +257,13 @@ class ScanDataSource implements DataSource {
     statsIterator =
         new StatsIterator(multiIter, TabletServer.seekCount, tablet.getScannedCounter());
 
-    SortedKeyValueIterator<Key,Value> visFilter =
-        SystemIteratorUtil.setupSystemScanIterators(statsIterator, scanParams.getColumnSet(),
-            scanParams.getAuthorizations(), defaultLabels, tablet.getTableConfiguration());
+    // A scan data source is only read by the thread running its scan session, one thread at a
+    // time, so the system iterators do not need to synchronize. Only the iterators over the in
+    // memory map are switched by another thread, and those synchronize themselves.
+    SortedKeyValueIterator<Key,
+        Value> visFilter = SystemIteratorUtil.setupSystemScanIterators(statsIterator,
+            scanParams.getColumnSet(), scanParams.getAuthorizations(), defaultLabels,
+            tablet.getTableConfiguration(), false);
 
     if (loadIters) {
       List<IterInfo> iterInfos;
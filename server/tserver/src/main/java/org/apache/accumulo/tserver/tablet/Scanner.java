@@ -24,6 +24,7 @@ import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
@@ -64,6 +65,13 @@ public class Scanner {
   }
 
   public ScanBatch read() throws IOException, TabletClosedException {
+    return read(tablet.getTableConfiguration().getAsBytes(Property.TABLE_SCAN_MAXMEM));
+  }
+
+  /**
+   * Reads the next batch, buffering at most the given number of bytes of results.
+   */
+  public ScanBatch read(long maxResultsSize) throws IOException, TabletClosedException {
 
     ScanDataSource dataSource = null;
 
@@ -95,17 +103,19 @@ public class Scanner {
 
       SortedKeyValueIterator<Key,Value> iter;
 
+      // The semaphore confines reading to one thread at a time, so the iterators do not need to
+      // synchronize.
       if (scanParams.isIsolated()) {
         if (isolatedIter == null)
-          isolatedIter = new SourceSwitchingIterator(dataSource, true);
+          isolatedIter = new SourceSwitchingIterator(dataSource, true, false);
         else
           isolatedDataSource.reattachFileManager();
         iter = isolatedIter;
       } else {
-        iter = new SourceSwitchingIterator(dataSource, false);
+        iter = new SourceSwitchingIterator(dataSource, false, false);
       }
 
-      results = tablet.nextBatch(iter, range, scanParams);
+      results = tablet.nextBatch(iter, range, scanParams, maxResultsSize);
 
       if (results.getResults() == null) {
         range = null;
@@ -52,6 +52,7 @@ import org.apache.accumulo.core.clientImpl.DurabilityImpl;
 import org.apache.accumulo.core.clientImpl.Tables;
 import org.apache.accumulo.core.clientImpl.UserCompactionUtils;
 import org.apache.accumulo.core.conf.AccumuloConfiguration.Deriver;
+import org.apache.accumulo.core.conf.IterConfigUtil;
 import org.apache.accumulo.core.conf.Property;
 import org.apache.accumulo.core.constraints.Violations;
 import org.apache.accumulo.core.data.ByteSequence;
@@ -61,11 +62,15 @@ import org.apache.accumulo.core.data.Mutation;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.core.dataImpl.thrift.IterInfo;
 import org.apache.accumulo.core.dataImpl.thrift.MapFileInfo;
 import org.apache.accumulo.core.file.FileOperations;
 import org.apache.accumulo.core.iterators.IterationInterruptedException;
+import org.apache.accumulo.core.iterators.IteratorUtil.IteratorScope;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import org.apache.accumulo.core.iterators.YieldCallback;
+import org.apache.accumulo.core.iterators.user.VersioningIterator;
+import org.apache.accumulo.core.iteratorsImpl.system.KeyValueBatch;
 import org.apache.accumulo.core.iteratorsImpl.system.SourceSwitchingIterator;
 import org.apache.accumulo.core.logging.TabletLogger;
 import org.apache.accumulo.core.manager.state.tables.TableState;
@@ -145,6 +150,9 @@ public class Tablet {
 
   private static final byte[] EMPTY_BYTES = new byte[0];
 
+  // the number of entries nextBatch reads from the iterator stack at a time
+  private static final int NEXT_BATCH_ENTRIES = 64;
+
   private final TabletServer tabletServer;
   private final ServerContext context;
   private final KeyExtent extent;
@@ -168,6 +176,29 @@ public class Tablet {
     return dataSourceDeletions.get();
   }
 
+  // generations are drawn from one counter for all tablets of the tablet server, so a tablet that
+  // is unloaded and loaded again never repeats a generation an earlier scan result was cached with
+  private static final AtomicLong generations = new AtomicLong(0);
+
+  static long nextGeneration() {
+    return generations.incrementAndGet();
+  }
+
+  // changed after each write to the in memory map, so cached scan results can tell when the data
+  // they were read from changed
+  private volatile long memoryGeneration = nextGeneration();
+
+  public long getMemoryGeneration() {
+    return memoryGeneration;
+  }
+
+  /**
+   * @return a counter that changes whenever the tablet's set of data files changes
+   */
+  public long getFileGeneration() {
+    return getDatafileManager().getFileGeneration();
+  }
+
   private final Set<ScanDataSource> activeScans = new HashSet<>();
 
   private enum CloseState {
@@ -620,6 +651,78 @@ public class Tablet {
     }
   }
 
+  /**
+   * Counts the key/values stored in the part of the range that falls in this tablet, from the
+   * indexes of its files where possible. Deletes and the versions kept by the table's scan time
+   * {@link VersioningIterator} are applied to the data that is read, but not to file blocks counted
+   * from an index or across files. Neither visibilities nor other iterators are applied.
+   */
+  public long countEntries(Range range, AtomicBoolean iFlag) throws IOException {
+    Range clipped = extent.toDataRange().clip(range, true);
+    if (clipped == null) {
+      return 0;
+    }
+
+    int maxVersions = getScanMaxVersions();
+    ScanDataSource dataSource = newStatsDataSource(iFlag);
+    boolean sawErrors = false;
+    try {
+      return dataSource.countEntries(clipped, maxVersions);
+    } catch (IOException | RuntimeException e) {
+      sawErrors = true;
+      throw e;
+    } finally {
+      dataSource.close(sawErrors);
+    }
+  }
+
+  /**
+   * Checks if the part of the range that falls in this tablet holds any key/value that is not
+   * deleted. Neither visibilities nor iterators are applied.
+   */
+  public boolean hasEntries(Range range, AtomicBoolean iFlag) throws IOException {
+    Range clipped = extent.toDataRange().clip(range, true);
+    if (clipped == null) {
+      return false;
+    }
+
+    ScanDataSource dataSource = newStatsDataSource(iFlag);
+    boolean sawErrors = false;
+    try {
+      return dataSource.hasEntries(clipped);
+    } catch (IOException | RuntimeException e) {
+      sawErrors = true;
+      throw e;
+    } finally {
+      dataSource.close(sawErrors);
+    }
+  }
+
+  private ScanDataSource newStatsDataSource(AtomicBoolean iFlag) {
+    ScanParameters scanParams = new ScanParameters(-1, Authorizations.EMPTY, Collections.emptySet(),
+        null, null, false, null, -1, null);
+    scanParams.setScanDirectives(ScanDirectives.builder().build());
+    return new ScanDataSource(this, scanParams, false, iFlag);
+  }
+
+  /**
+   * @return the versions of a key a scan of this tablet returns when its table has a scan time
+   *         {@link VersioningIterator}, otherwise {@link Integer#MAX_VALUE}
+   */
+  private int getScanMaxVersions() {
+    Map<String,Map<String,String>> options = new HashMap<>();
+    List<IterInfo> iters = IterConfigUtil.parseIterConf(IteratorScope.scan, Collections.emptyList(),
+        options, getTableConfiguration());
+    for (IterInfo iter : iters) {
+      if (iter.getClassName().equals(VersioningIterator.class.getName())) {
+        String maxVersions =
+            options.getOrDefault(iter.getIterName(), Collections.emptyMap()).get("maxVersions");
+        return maxVersions == null ? 1 : Integer.parseInt(maxVersions);
+      }
+    }
+    return Integer.MAX_VALUE;
+  }
+
   public LookupResult lookup(List<Range> ranges, List<KVEntry> results, ScanParameters scanParams,
       long maxResultSize, AtomicBoolean interruptFlag) throws IOException {
 
@@ -639,12 +742,16 @@ public class Tablet {
       tabletRange.clip(range);
     }
 
-    ScanDataSource dataSource = new ScanDataSource(this, scanParams, true, interruptFlag);
+    int coalesceRanges = getTableConfiguration().getCount(Property.TABLE_COALESCE_RANGES);
+    ScanDataSource dataSource = new ScanDataSource(this, scanParams, true, interruptFlag,
+        coalesceRanges > 0 && ranges.size() >= coalesceRanges ? ranges : null);
 
     LookupResult result = null;
 
     try {
-      SortedKeyValueIterator<Key,Value> iter = new SourceSwitchingIterator(dataSource);
+      // the lookup runs in this thread only, so the iterators do not need to synchronize
+      SortedKeyValueIterator<Key,Value> iter =
+          new SourceSwitchingIterator(dataSource, false, false);
       result = lookup(iter, ranges, results, scanParams, maxResultSize);
       return result;
     } catch (IOException ioe) {
@@ -664,8 +771,8 @@ public class Tablet {
     }
   }
 
-  Batch nextBatch(SortedKeyValueIterator<Key,Value> iter, Range range, ScanParameters scanParams)
-      throws IOException {
+  Batch nextBatch(SortedKeyValueIterator<Key,Value> iter, Range range, ScanParameters scanParams,
+      long maxResultsSize) throws IOException {
 
     // log.info("In nextBatch..");
 
@@ -684,8 +791,6 @@ public class Tablet {
     long resultSize = 0L;
     long resultBytes = 0L;
 
-    long maxResultsSize = tableConfiguration.getAsBytes(Property.TABLE_SCAN_MAXMEM);
-
     Key continueKey = null;
     boolean skipContinueKey = false;
 
@@ -702,31 +807,48 @@ public class Tablet {
       iter.seek(range, LocalityGroupUtil.families(scanParams.getColumnSet()), true);
     }
 
-    while (iter.hasTop()) {
+    KeyValueBatch batch = new KeyValueBatch(NEXT_BATCH_ENTRIES);
+    boolean stopped = false;
+
+    while (!stopped && iter.hasTop()) {
       if (yield.hasYielded()) {
         throw new IOException(
             "Coding error: hasTop returned true but has yielded at " + yield.getPositionAndReset());
       }
-      value = iter.getTopValue();
-      key = iter.getTopKey();
 
-      KVEntry kvEntry = new KVEntry(key, value); // copies key and value
-      results.add(kvEntry);
-      resultSize += kvEntry.estimateMemoryUsed();
-      resultBytes += kvEntry.numBytes();
+      batch.clear(Math.max(1, scanParams.getMaxEntries() - results.size()),
+          Math.max(1, maxResultsSize - resultSize));
+      batch.fill(iter);
 
-      boolean timesUp = batchTimeOut > 0 && (System.nanoTime() - startNanos) >= timeToRun;
+      for (int i = 0; i < batch.size(); i++) {
+        key = batch.getKey(i);
+        value = batch.getValue(i);
 
-      if (resultSize >= maxResultsSize || results.size() >= scanParams.getMaxEntries() || timesUp) {
-        continueKey = new Key(key);
-        skipContinueKey = true;
-        break;
-      }
+        // the batch holds copies, so the entry can use them directly
+        KVEntry kvEntry = new KVEntry(key, value.get());
+        results.add(kvEntry);
+        resultSize += kvEntry.estimateMemoryUsed();
+        resultBytes += kvEntry.numBytes();
+
+        boolean timesUp = batchTimeOut > 0 && (System.nanoTime() - startNanos) >= timeToRun;
 
-      iter.next();
+        if (resultSize >= maxResultsSize || results.size() >= scanParams.getMaxEntries()
+            || timesUp) {
+          continueKey = new Key(key);
+          skipContinueKey = true;
+          stopped = true;
+          break;
+        }
+      }
     }
 
-    if (yield.hasYielded()) {
+    if (stopped) {
+      // entries the iterator read past the continue key, and any yield while reading them, are
+      // read again by the next batch
+      if (yield.hasYielded()) {
+        yield.getPositionAndReset();
+      }
+    } else if (yield.hasYielded()) {
       continueKey = new Key(yield.getPositionAndReset());
       skipContinueKey = true;
       if (!range.contains(continueKey)) {
@@ -1155,6 +1277,7 @@ public class Tablet {
     }
 
     getTabletMemory().mutate(commitSession, mutations, totalCount);
+    memoryGeneration = nextGeneration();
 
     synchronized (this) {
       if (isCloseComplete()) {
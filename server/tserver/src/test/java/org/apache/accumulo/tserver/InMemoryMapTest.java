@@ -30,10 +30,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.accumulo.core.client.SampleNotPresentException;
@@ -896,4 +900,112 @@ public class InMemoryMapTest {
     testAndCallNext(iter1, "r5", "cf4:z", 6, "B");
     assertFalse(iter1.hasTop());
   }
+
+  @Test
+  public void testConcurrentWrites() throws Exception {
+    ConfigurationCopy config = newConfig(tempFolder.newFolder().getAbsolutePath());
+    config.set(Property.TSERV_MEMORY_MAP_CONCURRENT_WRITES, "true");
+    runConcurrentWrites(config);
+
+    config.set(Property.TABLE_LOCALITY_GROUP_PREFIX + "lg1",
+        LocalityGroupUtil.encodeColumnFamilies(toTextSet("cf1", "cf2")));
+    config.set(Property.TABLE_LOCALITY_GROUPS.getKey(), "lg1");
+    runConcurrentWrites(config);
+  }
+
+  @Test
+  public void testOffHeapMap() throws Exception {
+    ConfigurationCopy config = newConfig(tempFolder.newFolder().getAbsolutePath());
+    config.set(Property.TSERV_OFFHEAP_MAP_ENABLED, "true");
+
+    InMemoryMap imm = new InMemoryMap(config, getServerContext(), TableId.of("--TEST--"));
+    assertEquals(InMemoryMap.TYPE_OFF_HEAP_MAP_WRAPPER, imm.getMapType());
+
+    mutate(imm, "r1", "foo:cq1", 3, "bar1");
+    mutate(imm, "r1", "foo:cq1", 3, "bar2");
+    MemoryIterator ski1 = imm.skvIterator(null);
+    mutate(imm, "r1", "foo:cq1", 3, "bar3");
+    mutate(imm, "r2", "foo:cq1", 3, "bar4");
+    MemoryIterator ski2 = imm.skvIterator(null);
+
+    ski1.seek(new Range(), LocalityGroupUtil.EMPTY_CF_SET, false);
+    testAndCallNext(ski1, "r1", "foo:cq1", 3, "bar2");
+    testAndCallNext(ski1, "r1", "foo:cq1", 3, "bar1");
+    assertFalse(ski1.hasTop());
+
+    ski2.seek(new Range(new Text("r2")), LocalityGroupUtil.EMPTY_CF_SET, false);
+    testAndCallNext(ski2, "r2", "foo:cq1", 3, "bar4");
+    assertFalse(ski2.hasTop());
+
+    ski1.close();
+    ski2.close();
+    imm.delete(0);
+
+    config.set(Property.TSERV_MEMORY_MAP_CONCURRENT_WRITES, "true");
+    runConcurrentWrites(config);
+
+    config.set(Property.TABLE_LOCALITY_GROUP_PREFIX + "lg1",
+        LocalityGroupUtil.encodeColumnFamilies(toTextSet("cf1", "cf2")));
+    config.set(Property.TABLE_LOCALITY_GROUPS.getKey(), "lg1");
+    imm = new InMemoryMap(config, getServerContext(), TableId.of("--TEST--"));
+    assertEquals(InMemoryMap.TYPE_LOCALITY_GROUP_MAP_OFF_HEAP, imm.getMapType());
+    imm.delete(0);
+    runConcurrentWrites(config);
+  }
+
+  private void runConcurrentWrites(ConfigurationCopy config) throws Exception {
+    final int numThreads = 4;
+    final int rowsPerThread = 500;
+    final int colsPerRow = 5;
+
+    InMemoryMap imm = new InMemoryMap(config, getServerContext(), TableId.of("--TEST--"));
+
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    List<Future<?>> writers = new ArrayList<>();
+    for (int t = 0; t < numThreads; t++) {
+      final int thread = t;
+      writers.add(executor.submit(() -> {
+        for (int r = 0; r < rowsPerThread; r++) {
+          Mutation m = new Mutation(String.format("r%d_%04d", thread, r));
+          for (int c = 0; c < colsPerRow; c++) {
+            m.put("cf" + c, "cq", "v");
+          }
+          imm.mutate(Collections.singletonList(m), colsPerRow);
+        }
+      }));
+    }
+
+    // scans running alongside the writers must only see whole mutations, and never fewer of them
+    int lastSeen = 0;
+    boolean writing = true;
+    while (writing) {
+      writing = writers.stream().anyMatch(f -> !f.isDone());
+
+      MemoryIterator iter = imm.skvIterator(null);
+      iter.seek(new Range(), Collections.emptySet(), false);
+      Map<String,Integer> colCounts = new TreeMap<>();
+      while (iter.hasTop()) {
+        colCounts.merge(iter.getTopKey().getRowData().toString(), 1, Integer::sum);
+        iter.next();
+      }
+      iter.close();
+
+      for (Entry<String,Integer> entry : colCounts.entrySet()) {
+        assertEquals("partial mutation seen for " + entry.getKey(), colsPerRow,
+            (int) entry.getValue());
+      }
+      assertTrue(colCounts.size() >= lastSeen);
+      lastSeen = colCounts.size();
+    }
+
+    for (Future<?> writer : writers) {
+      writer.get();
+    }
+    executor.shutdown();
+
+    assertEquals(numThreads * rowsPerThread, lastSeen);
+    assertEquals(numThreads * rowsPerThread * colsPerRow, imm.getNumEntries());
+
+    imm.delete(0);
+  }
 }
@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.accumulo.core.data.ColumnUpdate;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iteratorsImpl.system.InterruptibleMapIterator;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+public class OffHeapMapTest {
+
+  private static final Random random = new Random(42);
+
+  private static String randomRow() {
+    return String.format("r%04d", random.nextInt(1000));
+  }
+
+  /**
+   * Inserts random mutations into the off-heap map and a sorted map that serves as the expected
+   * result.
+   */
+  private static int insertRandom(OffHeapMap map, TreeMap<Key,Value> expected, int numMutations,
+      int kvCount) {
+    for (int i = 0; i < numMutations; i++) {
+      Mutation m = new Mutation(randomRow());
+      int numUpdates = 1 + random.nextInt(4);
+      for (int j = 0; j < numUpdates; j++) {
+        String cf = "cf" + random.nextInt(3);
+        String cq = "cq" + random.nextInt(5);
+        long ts = random.nextInt(10);
+        if (random.nextInt(10) == 0) {
+          m.putDelete(cf, cq, ts);
+        } else {
+          byte[] val = new byte[random.nextInt(200)];
+          random.nextBytes(val);
+          m.put(new Text(cf), new Text(cq), ts, new Value(val));
+        }
+      }
+      map.mutate(Collections.singletonList(m), kvCount);
+      for (ColumnUpdate cvp : m.getUpdates()) {
+        expected.put(
+            new MemKey(m.getRow(), cvp.getColumnFamily(), cvp.getColumnQualifier(),
+                cvp.getColumnVisibility(), cvp.getTimestamp(), cvp.isDeleted(), false, kvCount++),
+            new Value(cvp.getValue()));
+      }
+    }
+    return kvCount;
+  }
+
+  private static void assertSame(SortedKeyValueIterator<Key,Value> expected,
+      SortedKeyValueIterator<Key,Value> actual) throws IOException {
+    while (expected.hasTop()) {
+      assertTrue(actual.hasTop());
+      assertEquals(expected.getTopKey(), actual.getTopKey());
+      assertEquals(((MemKey) expected.getTopKey()).getKVCount(),
+          ((MemKey) actual.getTopKey()).getKVCount());
+      assertEquals(expected.getTopValue(), actual.getTopValue());
+      expected.next();
+      actual.next();
+    }
+    assertFalse(actual.hasTop());
+  }
+
+  @Test
+  public void testEmpty() throws IOException {
+    OffHeapMap map = new OffHeapMap();
+    assertEquals(0, map.size());
+    assertEquals(0, map.getMemoryUsed());
+
+    SortedKeyValueIterator<Key,Value> iter = map.skvIterator();
+    assertFalse(iter.hasTop());
+    iter.seek(new Range(), Collections.emptySet(), false);
+    assertFalse(iter.hasTop());
+  }
+
+  @Test
+  public void testAgainstSortedMap() throws IOException {
+    OffHeapMap map = new OffHeapMap();
+    TreeMap<Key,Value> expected = new TreeMap<>(new MemKeyComparator());
+
+    int kvCount = insertRandom(map, expected, 20_000, 0);
+    insertRandom(map, expected, 1000, kvCount);
+
+    assertEquals(expected.size(), map.size());
+    // enough data was written to use several chunks
+    assertTrue(map.getMemoryUsed() > OffHeapMap.MAX_CHUNK_SIZE * 2L);
+
+    SortedKeyValueIterator<Key,Value> iter = map.skvIterator();
+    InterruptibleMapIterator expectedIter = new InterruptibleMapIterator(expected, null);
+    iter.seek(new Range(), Collections.emptySet(), false);
+    expectedIter.seek(new Range(), Collections.emptySet(), false);
+    assertSame(expectedIter, iter);
+
+    for (int i = 0; i < 200; i++) {
+      String r1 = randomRow();
+      String r2 = randomRow();
+      Range range = r1.compareTo(r2) <= 0 ? new Range(r1, random.nextBoolean(), r2, true)
+          : new Range(new Key(r2, "cf1", "cq2"), true, new Key(r1, "cf0"), false);
+      iter.seek(range, Collections.emptySet(), false);
+      expectedIter.seek(range, Collections.emptySet(), false);
+      assertSame(expectedIter, iter);
+    }
+
+    // a deep copy seeks independently of the original
+    iter.seek(new Range("r0500", null), Collections.emptySet(), false);
+    SortedKeyValueIterator<Key,Value> copy = iter.deepCopy(null);
+    copy.seek(new Range(), Collections.emptySet(), false);
+    assertEquals(expected.firstKey(), copy.getTopKey());
+    assertTrue(iter.getTopKey().getRow().toString().compareTo("r0500") >= 0);
+  }
+
+  @Test
+  public void testLargeValue() throws IOException {
+    OffHeapMap map = new OffHeapMap();
+
+    byte[] large = new byte[OffHeapMap.MAX_CHUNK_SIZE * 2];
+    random.nextBytes(large);
+
+    List<Mutation> mutations = new ArrayList<>();
+    for (String row : new String[] {"a", "b", "c"}) {
+      Mutation m = new Mutation(row);
+      m.put("cf", "cq", row.equals("b") ? new Value(large) : new Value(row));
+      mutations.add(m);
+    }
+    map.mutate(mutations, 1);
+
+    SortedKeyValueIterator<Key,Value> iter = map.skvIterator();
+    iter.seek(new Range(), Collections.emptySet(), false);
+    assertEquals(new Value("a"), iter.getTopValue());
+    iter.next();
+    assertEquals(new Value(large), iter.getTopValue());
+    iter.next();
+    assertEquals(new Value("c"), iter.getTopValue());
+    iter.next();
+    assertFalse(iter.hasTop());
+  }
+
+  @Test
+  public void testConcurrentReaders() throws Exception {
+    OffHeapMap map = new OffHeapMap();
+    TreeMap<Key,Value> expected = new TreeMap<>(new MemKeyComparator());
+    MemKeyComparator comparator = new MemKeyComparator();
+
+    AtomicBoolean writing = new AtomicBoolean(true);
+    List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+    List<Thread> readers = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      Thread reader = new Thread(() -> {
+        try {
+          while (writing.get()) {
+            // readers must always see complete entries in sorted order
+            SortedKeyValueIterator<Key,Value> iter = map.skvIterator();
+            iter.seek(new Range(), Collections.emptySet(), false);
+            Key last = null;
+            while (iter.hasTop()) {
+              assertTrue(last == null || comparator.compare(last, iter.getTopKey()) < 0);
+              last = iter.getTopKey();
+              iter.next();
+            }
+          }
+        } catch (Throwable t) {
+          failures.add(t);
+        }
+      });
+      reader.start();
+      readers.add(reader);
+    }
+
+    insertRandom(map, expected, 20_000, 0);
+    writing.set(false);
+    for (Thread reader : readers) {
+      reader.join();
+    }
+    assertEquals(List.of(), failures);
+
+    SortedKeyValueIterator<Key,Value> iter = map.skvIterator();
+    iter.seek(new Range(), Collections.emptySet(), false);
+    InterruptibleMapIterator expectedIter = new InterruptibleMapIterator(expected, null);
+    expectedIter.seek(new Range(), Collections.emptySet(), false);
+    assertSame(expectedIter, iter);
+  }
+
+  @Test
+  public void testDelete() {
+    OffHeapMap map = new OffHeapMap();
+    map.mutate(Collections.singletonList(new Mutation("r")), 1);
+    map.delete();
+
+    assertThrows(IllegalStateException.class, map::skvIterator);
+    assertThrows(IllegalStateException.class,
+        () -> map.mutate(Collections.singletonList(new Mutation("r")), 2));
+    assertThrows(IllegalStateException.class, map::delete);
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.data.TableId;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.core.file.blockfile.cache.impl.BlockCacheConfiguration;
+import org.apache.accumulo.core.file.blockfile.cache.lru.LruBlockCache;
+import org.apache.accumulo.core.file.blockfile.cache.lru.LruBlockCacheConfiguration;
+import org.apache.accumulo.core.spi.cache.BlockCache;
+import org.apache.accumulo.core.spi.cache.CacheType;
+import org.apache.accumulo.tserver.cache.CacheWarmer.HotBlock;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+public class CacheWarmerTest {
+
+  @Test
+  public void testTracking() {
+    BlockCache cache = new LruBlockCache(new LruBlockCacheConfiguration(
+        new BlockCacheConfiguration(DefaultConfiguration.getInstance()), CacheType.DATA));
+    AccessTrackingBlockCache tracker = new AccessTrackingBlockCache(cache, 2);
+
+    tracker.cacheBlock("a", new byte[10]);
+    for (int i = 0; i < 4; i++) {
+      tracker.getBlock("a");
+    }
+    tracker.getBlock("b");
+    // bounded, so a third block is not counted
+    tracker.getBlock("c");
+
+    TreeMap<String,Long> counts = tracker.collectCounts();
+    assertEquals(Map.of("a", 4L, "b", 1L), counts);
+
+    // counts are halved when collected and blocks reaching zero are dropped
+    counts = tracker.collectCounts();
+    assertEquals(Map.of("a", 2L), counts);
+    tracker.getBlock("c");
+    assertEquals(Map.of("a", 1L, "c", 1L), tracker.collectCounts());
+  }
+
+  @Test
+  public void testSelectHotBlocks() {
+    TreeMap<String,Long> counts = new TreeMap<>();
+    counts.put("/t1/f1.rfR0", 5L);
+    counts.put("/t1/f1.rfR100", 9L);
+    counts.put("/t1/f1.rfMRFile.index", 50L);
+    counts.put("/t1/f1.rf2R0", 7L);
+    counts.put("/t1/f2.rfR300", 1L);
+    counts.put("/t1/f3.rfR0", 100L);
+
+    List<HotBlock> hot = CacheWarmer.selectHotBlocks(counts, Set.of("/t1/f1.rf", "/t1/f2.rf"), 2);
+    assertEquals(2, hot.size());
+    assertEquals("/t1/f1.rf", hot.get(0).file);
+    assertEquals(100L, hot.get(0).offset);
+    assertEquals("/t1/f1.rf", hot.get(1).file);
+    assertEquals(0L, hot.get(1).offset);
+
+    hot = CacheWarmer.selectHotBlocks(counts, Set.of("/t1/f2.rf"), 2);
+    assertEquals(1, hot.size());
+    assertEquals(300L, hot.get(0).offset);
+
+    assertFalse(CacheWarmer.selectHotBlocks(counts, Set.of("/t1/f1.rf"), 5).stream()
+        .anyMatch(hb -> hb.count == 7L || hb.count == 50L));
+  }
+
+  @Test
+  public void testManifest() throws Exception {
+    KeyExtent extent1 = new KeyExtent(TableId.of("t1"), new Text("m"), null);
+    KeyExtent extent2 = new KeyExtent(TableId.of("t1"), null, new Text("m"));
+    Map<KeyExtent,Map<String,List<Long>>> byTablet =
+        Map.of(extent1, Map.of("/t1/f1.rf", List.of(0L, 100L), "/t1/f2.rf", List.of(300L)), extent2,
+            Map.of("/t1/f3.rf", List.of(5L)));
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(baos)) {
+      CacheWarmer.writeManifest(out, byTablet);
+    }
+    Map<KeyExtent,Map<String,Set<Long>>> read;
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
+      read = CacheWarmer.readManifest(in);
+    }
+    assertEquals(Map.of(extent1, Map.of("/t1/f1.rf", Set.of(0L, 100L), "/t1/f2.rf", Set.of(300L)),
+        extent2, Map.of("/t1/f3.rf", Set.of(5L))), read);
+    assertNull(read.get(new KeyExtent(TableId.of("t2"), null, null)));
+  }
+}
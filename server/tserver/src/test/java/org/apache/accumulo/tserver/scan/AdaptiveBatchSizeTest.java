@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.scan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class AdaptiveBatchSizeTest {
+
+  private static final long READ = 1000;
+
+  // simulates a client that asks for the next batch thinkNanos after the last one was returned
+  private static long cycle(AdaptiveBatchSize abs, long now, long thinkNanos) {
+    abs.batchRead(READ, true);
+    abs.batchReturned(now);
+    now += thinkNanos;
+    abs.batchRequested(now);
+    return now;
+  }
+
+  @Test
+  public void testFastConsumerGrows() {
+    AdaptiveBatchSize abs = new AdaptiveBatchSize(100, 1000);
+    assertEquals(100, abs.getMaxBytes());
+    assertFalse(abs.isFastConsumer());
+
+    abs.batchRequested(0);
+    assertEquals(100, abs.getMaxBytes());
+
+    long now = cycle(abs, 0, READ / 2);
+    assertEquals(200, abs.getMaxBytes());
+    assertTrue(abs.isFastConsumer());
+    now = cycle(abs, now, READ / 2);
+    assertEquals(400, abs.getMaxBytes());
+    now = cycle(abs, now, READ / 2);
+    now = cycle(abs, now, READ / 2);
+    assertEquals(1000, abs.getMaxBytes());
+    cycle(abs, now, READ / 2);
+    assertEquals(1000, abs.getMaxBytes());
+  }
+
+  @Test
+  public void testSlowConsumerShrinks() {
+    AdaptiveBatchSize abs = new AdaptiveBatchSize(100, 1000);
+    long now = 0;
+    for (int i = 0; i < 5; i++) {
+      now = cycle(abs, now, 0);
+    }
+    assertEquals(1000, abs.getMaxBytes());
+
+    // a client in between fast and slow keeps its batch size
+    now = cycle(abs, now, READ * 2);
+    assertEquals(1000, abs.getMaxBytes());
+    assertTrue(abs.isFastConsumer());
+
+    now = cycle(abs, now, READ * 10);
+    assertEquals(500, abs.getMaxBytes());
+    assertFalse(abs.isFastConsumer());
+    for (int i = 0; i < 5; i++) {
+      now = cycle(abs, now, READ * 10);
+    }
+    assertEquals(100, abs.getMaxBytes());
+  }
+
+  @Test
+  public void testNoChangeAfterLastBatch() {
+    AdaptiveBatchSize abs = new AdaptiveBatchSize(100, 1000);
+    abs.batchRead(READ, false);
+    abs.batchReturned(0);
+    abs.batchRequested(1);
+    assertEquals(100, abs.getMaxBytes());
+    assertFalse(abs.isFastConsumer());
+  }
+
+  @Test
+  public void testBadBounds() {
+    assertThrows(IllegalArgumentException.class, () -> new AdaptiveBatchSize(0, 1000));
+    assertThrows(IllegalArgumentException.class, () -> new AdaptiveBatchSize(100, 10));
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.scan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.accumulo.tserver.tablet.ScanBatch;
+import org.junit.Test;
+
+public class ScanReadAheadTest {
+
+  // reads a batch numbered in the order reads were run, the scan ends after the given batch
+  private static class CountingTask extends NextBatchTask {
+    private final List<Integer> runOrder;
+    private final int lastBatch;
+    private int batch = -1;
+
+    CountingTask(List<Integer> runOrder, int lastBatch) {
+      super(null, 1, new AtomicBoolean());
+      this.runOrder = runOrder;
+      this.lastBatch = lastBatch;
+    }
+
+    @Override
+    public void run() {
+      if (isCancelled()) {
+        return;
+      }
+      batch = runOrder.size();
+      runOrder.add(batch);
+      addResult(new ScanBatch(new ArrayList<>(), hasMore()));
+      runState.set(ScanRunState.FINISHED);
+    }
+
+    @Override
+    public boolean hasMore() {
+      return batch >= 0 && batch < lastBatch;
+    }
+  }
+
+  private final List<Integer> runOrder = new ArrayList<>();
+  private final List<NextBatchTask> created = new ArrayList<>();
+  private final ArrayDeque<Runnable> queued = new ArrayDeque<>();
+
+  private ScanReadAhead newReadAhead(int lastBatch) {
+    return new ScanReadAhead(() -> {
+      NextBatchTask task = new CountingTask(runOrder, lastBatch);
+      created.add(task);
+      return task;
+    }, queued::add);
+  }
+
+  private void runQueued() {
+    while (!queued.isEmpty()) {
+      queued.remove().run();
+    }
+  }
+
+  private int batchOf(NextBatchTask task) throws Exception {
+    // fails with a timeout if the batch was not read
+    task.get(0, TimeUnit.MILLISECONDS);
+    return ((CountingTask) task).batch;
+  }
+
+  @Test
+  public void testReadsAheadUpToCredits() throws Exception {
+    ScanReadAhead readAhead = newReadAhead(100);
+    readAhead.grant(3);
+    // nothing is read ahead before the client asks for its first batch
+    assertTrue(queued.isEmpty());
+
+    NextBatchTask first = readAhead.take();
+    runQueued();
+    assertEquals(0, batchOf(first));
+    // the three batches after the first one were read one after another
+    assertEquals(List.of(0, 1, 2, 3), runOrder);
+    assertTrue(readAhead.isNextDone());
+
+    // taking a batch frees a credit for one more read
+    assertEquals(1, batchOf(readAhead.take()));
+    assertEquals(1, queued.size());
+    runQueued();
+    assertEquals(List.of(0, 1, 2, 3, 4), runOrder);
+
+    for (int expected = 2; expected < 10; expected++) {
+      assertEquals(expected, batchOf(readAhead.take()));
+      runQueued();
+    }
+  }
+
+  @Test
+  public void testStopsAtEndOfScan() throws Exception {
+    ScanReadAhead readAhead = newReadAhead(2);
+    readAhead.grant(5);
+    readAhead.take();
+    runQueued();
+    assertEquals(List.of(0, 1, 2), runOrder);
+
+    assertEquals(1, batchOf(readAhead.take()));
+    assertEquals(2, batchOf(readAhead.take()));
+    runQueued();
+    assertEquals(List.of(0, 1, 2), runOrder);
+    assertFalse(readAhead.isNextDone());
+  }
+
+  @Test
+  public void testOnlyOneReadAtATime() throws Exception {
+    ScanReadAhead readAhead = newReadAhead(100);
+    readAhead.grant(4);
+    readAhead.take();
+    // the next read is not started until the running one finishes
+    assertEquals(1, queued.size());
+    queued.remove().run();
+    assertEquals(1, queued.size());
+    readAhead.grant(8);
+    assertEquals(1, queued.size());
+  }
+
+  @Test
+  public void testCloseCancelsReads() throws Exception {
+    ScanReadAhead readAhead = newReadAhead(100);
+    readAhead.grant(2);
+    readAhead.take();
+    queued.remove().run();
+    assertEquals(2, created.size());
+
+    readAhead.close();
+    assertTrue(created.get(1).isCancelled());
+    runQueued();
+    // the cancelled read neither reads a batch nor starts another read
+    assertEquals(List.of(0), runOrder);
+    assertEquals(2, created.size());
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.tserver.scan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.accumulo.core.data.Column;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.TableId;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.dataImpl.KeyExtent;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.accumulo.tserver.tablet.KVEntry;
+import org.junit.Test;
+
+public class ScanResultCacheTest {
+
+  private static final KeyExtent EXTENT = new KeyExtent(TableId.of("1"), null, null);
+
+  private static ScanParameters params(Authorizations auths, String... families) {
+    Set<Column> columns = new HashSet<>();
+    for (String fam : families) {
+      columns.add(new Column(fam.getBytes(), null, null));
+    }
+    return new ScanParameters(1000, auths, columns, Collections.emptyList(), Collections.emptyMap(),
+        false, null, 0, null);
+  }
+
+  private static List<KVEntry> results(int count, int valueSize) {
+    List<KVEntry> results = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      results.add(new KVEntry(new Key("r" + i), new Value(new byte[valueSize])));
+    }
+    return results;
+  }
+
+  @Test
+  public void testKey() {
+    Authorizations auths = new Authorizations("A", "B");
+    ScanResultCache.ScanKey k1 = new ScanResultCache.ScanKey(EXTENT, new Range("a"), params(auths));
+    ScanResultCache.ScanKey k2 =
+        new ScanResultCache.ScanKey(EXTENT, new Range("a"), params(new Authorizations("B", "A")));
+    assertEquals(k1, k2);
+    assertEquals(k1.hashCode(), k2.hashCode());
+
+    assertNotEqual(k1, new ScanResultCache.ScanKey(EXTENT, new Range("b"), params(auths)));
+    assertNotEqual(k1, new ScanResultCache.ScanKey(EXTENT, new Range("a"), params(auths, "f")));
+    assertNotEqual(k1,
+        new ScanResultCache.ScanKey(EXTENT, new Range("a"), params(new Authorizations("A"))));
+    assertNotEqual(k1, new ScanResultCache.ScanKey(new KeyExtent(TableId.of("2"), null, null),
+        new Range("a"), params(auths)));
+  }
+
+  private static void assertNotEqual(Object o1, Object o2) {
+    assertEquals(false, o1.equals(o2));
+  }
+
+  @Test
+  public void testGenerations() {
+    ScanResultCache cache = new ScanResultCache(1 << 20);
+    ScanResultCache.ScanKey key =
+        new ScanResultCache.ScanKey(EXTENT, new Range("a"), params(Authorizations.EMPTY));
+    List<KVEntry> results = results(3, 10);
+
+    assertNull(cache.get(key, new ScanResultCache.Generation(1, 1, 1)));
+    cache.put(key, new ScanResultCache.Generation(1, 1, 1), results);
+    assertSame(results, cache.get(key, new ScanResultCache.Generation(1, 1, 1)));
+
+    // a write to the in memory map makes the entry stale
+    assertNull(cache.get(key, new ScanResultCache.Generation(1, 2, 1)));
+    // and it was removed
+    assertNull(cache.get(key, new ScanResultCache.Generation(1, 1, 1)));
+
+    // so does any change to the data files, such as a bulk import
+    cache.put(key, new ScanResultCache.Generation(1, 1, 1), results);
+    assertNull(cache.get(key, new ScanResultCache.Generation(2, 1, 1)));
+    cache.put(key, new ScanResultCache.Generation(1, 1, 1), results);
+    assertNull(cache.get(key, new ScanResultCache.Generation(1, 1, 2)));
+  }
+
+  @Test
+  public void testInvalidateExtent() {
+    ScanResultCache cache = new ScanResultCache(1 << 20);
+    KeyExtent other = new KeyExtent(TableId.of("2"), null, null);
+    ScanResultCache.ScanKey key1 =
+        new ScanResultCache.ScanKey(EXTENT, new Range("a"), params(Authorizations.EMPTY));
+    ScanResultCache.ScanKey key2 =
+        new ScanResultCache.ScanKey(EXTENT, new Range("b"), params(Authorizations.EMPTY));
+    ScanResultCache.ScanKey key3 =
+        new ScanResultCache.ScanKey(other, new Range("a"), params(Authorizations.EMPTY));
+    ScanResultCache.Generation gen = new ScanResultCache.Generation(0, 0, 0);
+    List<KVEntry> results = results(3, 10);
+    cache.put(key1, gen, results);
+    cache.put(key2, gen, results);
+    cache.put(key3, gen, results);
+
+    // closing a tablet drops its entries, so a reloaded tablet can not match them
+    cache.invalidate(EXTENT);
+    assertNull(cache.get(key1, gen));
+    assertNull(cache.get(key2, gen));
+    assertSame(results, cache.get(key3, gen));
+  }
+
+  @Test
+  public void testLargeResultsNotCached() {
+    ScanResultCache cache = new ScanResultCache(16 * 1024);
+    ScanResultCache.ScanKey key =
+        new ScanResultCache.ScanKey(EXTENT, new Range("a"), params(Authorizations.EMPTY));
+    ScanResultCache.Generation gen = new ScanResultCache.Generation(0, 0, 0);
+
+    cache.put(key, gen, results(10, 200));
+    assertNull(cache.get(key, gen));
+
+    List<KVEntry> small = results(1, 10);
+    cache.put(key, gen, small);
+    assertSame(small, cache.get(key, gen));
+  }
+}
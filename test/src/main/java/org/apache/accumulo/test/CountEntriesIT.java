@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.apache.accumulo.core.client.Accumulo;
+import org.apache.accumulo.core.client.AccumuloClient;
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.harness.AccumuloClusterHarness;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+public class CountEntriesIT extends AccumuloClusterHarness {
+
+  @Override
+  public int defaultTimeoutSeconds() {
+    return 2 * 60;
+  }
+
+  private static String row(int i) {
+    return String.format("r%04d", i);
+  }
+
+  private static void write(AccumuloClient client, String table, int start, int end)
+      throws Exception {
+    try (BatchWriter bw = client.createBatchWriter(table)) {
+      for (int i = start; i < end; i++) {
+        Mutation m = new Mutation(row(i));
+        m.put("f", "q", "v" + i);
+        bw.addMutation(m);
+      }
+    }
+  }
+
+  private static void delete(AccumuloClient client, String table, int start, int end)
+      throws Exception {
+    try (BatchWriter bw = client.createBatchWriter(table)) {
+      for (int i = start; i < end; i++) {
+        Mutation m = new Mutation(row(i));
+        m.putDelete("f", "q");
+        bw.addMutation(m);
+      }
+    }
+  }
+
+  @Test
+  public void testCount() throws Exception {
+    try (AccumuloClient client = Accumulo.newClient().from(getClientProps()).build()) {
+      String table = getUniqueNames(1)[0];
+      client.tableOperations().create(table);
+      SortedSet<Text> splits = new TreeSet<>();
+      for (int i = 100; i < 1000; i += 100) {
+        splits.add(new Text(row(i)));
+      }
+      client.tableOperations().addSplits(table, splits);
+
+      // some entries in files and some only in memory
+      write(client, table, 0, 600);
+      client.tableOperations().flush(table, null, null, true);
+      write(client, table, 600, 1000);
+
+      // every tablet's part of the range is counted exactly once
+      assertEquals(1000, client.tableOperations().countEntries(table, new Range()));
+      assertEquals(300,
+          client.tableOperations().countEntries(table, new Range(row(450), true, row(750), false)));
+      assertEquals(1, client.tableOperations().countEntries(table, new Range(row(500))));
+      assertEquals(0, client.tableOperations().countEntries(table, new Range("s")));
+
+      // overwritten entries are counted until they are compacted away
+      write(client, table, 0, 100);
+      assertEquals(200,
+          client.tableOperations().countEntries(table, new Range(null, true, row(100), false)));
+      client.tableOperations().compact(table, null, null, true, true);
+      assertEquals(100,
+          client.tableOperations().countEntries(table, new Range(null, true, row(100), false)));
+    }
+  }
+
+  @Test
+  public void testDeletesAndVersions() throws Exception {
+    try (AccumuloClient client = Accumulo.newClient().from(getClientProps()).build()) {
+      String table = getUniqueNames(1)[0];
+      client.tableOperations().create(table);
+
+      write(client, table, 0, 100);
+      client.tableOperations().flush(table, null, null, true);
+      write(client, table, 100, 200);
+
+      // versions and deletes in the same data are applied the way a scan would
+      write(client, table, 100, 150);
+      delete(client, table, 150, 160);
+      assertEquals(140,
+          client.tableOperations().countEntries(table, new Range(row(100), true, row(200), false)));
+      assertFalse(client.tableOperations().hasEntries(table, new Range(row(155))));
+      assertTrue(client.tableOperations().hasEntries(table, new Range(row(145))));
+
+      // a delete in memory hides an entry in a file from the existence check, the count only
+      // drops once they are compacted together
+      delete(client, table, 0, 10);
+      assertFalse(
+          client.tableOperations().hasEntries(table, new Range(null, true, row(10), false)));
+      assertTrue(client.tableOperations().hasEntries(table, new Range(null, true, row(11), false)));
+      assertEquals(10,
+          client.tableOperations().countEntries(table, new Range(null, true, row(10), false)));
+      client.tableOperations().compact(table, null, null, true, true);
+      assertEquals(0,
+          client.tableOperations().countEntries(table, new Range(null, true, row(10), false)));
+      assertEquals(180, client.tableOperations().countEntries(table, new Range()));
+      assertFalse(client.tableOperations().hasEntries(table, new Range("s")));
+    }
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.accumulo.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.accumulo.core.client.Accumulo;
+import org.apache.accumulo.core.client.AccumuloClient;
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.admin.NewTableConfiguration;
+import org.apache.accumulo.core.client.rfile.RFile;
+import org.apache.accumulo.core.client.rfile.RFileWriter;
+import org.apache.accumulo.core.conf.Property;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.accumulo.harness.AccumuloClusterHarness;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.Test;
+
+/**
+ * Checks that results cached by {@link Property#TABLE_SCAN_RESULT_CACHE_ENABLED} are not returned
+ * after the data they were read from changed.
+ */
+public class ScanResultCacheIT extends AccumuloClusterHarness {
+
+  @Override
+  public int defaultTimeoutSeconds() {
+    return 2 * 60;
+  }
+
+  private static SortedMap<Key,Value> scan(AccumuloClient client, String table) throws Exception {
+    SortedMap<Key,Value> results = new TreeMap<>();
+    try (Scanner scanner = client.createScanner(table, Authorizations.EMPTY)) {
+      for (Map.Entry<Key,Value> entry : scanner) {
+        results.put(entry.getKey(), entry.getValue());
+      }
+    }
+    return results;
+  }
+
+  @Test
+  public void testBulkImport() throws Exception {
+    try (AccumuloClient client = Accumulo.newClient().from(getClientProps()).build()) {
+      String table = getUniqueNames(1)[0];
+      client.tableOperations().create(table, new NewTableConfiguration()
+          .setProperties(Map.of(Property.TABLE_SCAN_RESULT_CACHE_ENABLED.getKey(), "true")));
+
+      try (BatchWriter bw = client.createBatchWriter(table)) {
+        for (int i = 0; i < 10; i++) {
+          Mutation m = new Mutation(String.format("r%03d", i));
+          m.put("f", "q", "v" + i);
+          bw.addMutation(m);
+        }
+      }
+
+      // the second scan is answered from the cache
+      assertEquals(10, scan(client, table).size());
+      assertEquals(10, scan(client, table).size());
+
+      FileSystem fs = getCluster().getFileSystem();
+      Path dir = new Path(getCluster().getTemporaryPath(), getClass().getSimpleName() + table);
+      fs.delete(dir, true);
+      fs.mkdirs(dir);
+      SortedMap<Key,Value> imported = new TreeMap<>();
+      for (int i = 10; i < 15; i++) {
+        imported.put(new Key(String.format("r%03d", i), "f", "q"), new Value("v" + i));
+      }
+      try (RFileWriter writer = RFile.newWriter().to(new Path(dir, "f1.rf").toString())
+          .withFileSystem(fs).build()) {
+        writer.append(imported.entrySet());
+      }
+      client.tableOperations().importDirectory(fs.makeQualified(dir).toString()).to(table).load();
+
+      // a bulk import does not write to the in memory map, so only the change to the tablet's
+      // files tells the cache that the earlier results are stale
+      SortedMap<Key,Value> results = scan(client, table);
+      assertEquals(15, results.size());
+      assertEquals(imported, results.tailMap(new Key("r010")));
+      assertEquals(15, scan(client, table).size());
+    }
+  }
+
+  private static void write(AccumuloClient client, String table, int start, int end)
+      throws Exception {
+    try (BatchWriter bw = client.createBatchWriter(table)) {
+      for (int i = start; i < end; i++) {
+        Mutation m = new Mutation(String.format("r%03d", i));
+        m.put("f", "q", "v" + i);
+        bw.addMutation(m);
+      }
+    }
+  }
+
+  @Test
+  public void testReload() throws Exception {
+    try (AccumuloClient client = Accumulo.newClient().from(getClientProps()).build()) {
+      String table = getUniqueNames(1)[0];
+      client.tableOperations().create(table, new NewTableConfiguration()
+          .setProperties(Map.of(Property.TABLE_SCAN_RESULT_CACHE_ENABLED.getKey(), "true")));
+
+      // one write and one flush, then cache the results
+      write(client, table, 0, 10);
+      client.tableOperations().flush(table, null, null, true);
+      assertEquals(10, scan(client, table).size());
+      assertEquals(10, scan(client, table).size());
+
+      // unload and reload the tablet
+      client.tableOperations().offline(table, true);
+      client.tableOperations().online(table, true);
+
+      // the same number of writes and flushes on the reloaded tablet must not make the results
+      // cached before it was unloaded valid again
+      write(client, table, 10, 15);
+      client.tableOperations().flush(table, null, null, true);
+      assertEquals(15, scan(client, table).size());
+      assertEquals(15, scan(client, table).size());
+    }
+  }
+}
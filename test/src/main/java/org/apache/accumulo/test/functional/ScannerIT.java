@@ -18,16 +18,23 @@
  */
 package org.apache.accumulo.test.functional;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 import org.apache.accumulo.core.client.Accumulo;
 import org.apache.accumulo.core.client.AccumuloClient;
 import org.apache.accumulo.core.client.BatchWriter;
 import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.client.admin.NewTableConfiguration;
+import org.apache.accumulo.core.conf.ClientProperty;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Mutation;
 import org.apache.accumulo.core.data.Range;
@@ -35,6 +42,7 @@ import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.security.Authorizations;
 import org.apache.accumulo.fate.util.UtilWaitThread;
 import org.apache.accumulo.harness.AccumuloClusterHarness;
+import org.apache.hadoop.io.Text;
 import org.junit.Test;
 
 public class ScannerIT extends AccumuloClusterHarness {
@@ -113,4 +121,81 @@ public class ScannerIT extends AccumuloClusterHarness {
       }
     }
   }
+
+  @Test
+  public void testMultiBatchReadahead() throws Exception {
+    final String table = getUniqueNames(1)[0];
+    Properties props = new Properties();
+    props.putAll(getClientProps());
+    props.setProperty(ClientProperty.SCANNER_READAHEAD_BATCHES.getKey(), "4");
+    try (AccumuloClient c = Accumulo.newClient().from(props).build()) {
+      c.tableOperations().create(table);
+
+      try (BatchWriter bw = c.createBatchWriter(table)) {
+        for (int i = 0; i < 1000; i++) {
+          Mutation m = new Mutation(String.format("%04d", i));
+          m.put("f", "q", Integer.toString(i));
+          bw.addMutation(m);
+        }
+      }
+
+      for (long threshold : new long[] {0L, 3L}) {
+        try (Scanner s = c.createScanner(table, new Authorizations())) {
+          s.setBatchSize(7);
+          s.setReadaheadThreshold(threshold);
+
+          int count = 0;
+          for (Entry<Key,Value> entry : s) {
+            assertEquals(String.format("%04d", count), entry.getKey().getRowData().toString());
+            assertEquals(Integer.toString(count), entry.getValue().toString());
+            count++;
+            if (count % 100 == 0) {
+              // let the read ahead on both sides fill up while the client is busy
+              UtilWaitThread.sleep(50L);
+            }
+          }
+          assertEquals(1000, count);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testParallelScan() throws Exception {
+    final String table = getUniqueNames(1)[0];
+    Properties props = new Properties();
+    props.putAll(getClientProps());
+    props.setProperty(ClientProperty.SCANNER_PARALLEL_TABLETS.getKey(), "4");
+    props.setProperty(ClientProperty.SCANNER_PARALLEL_MEMORY_MAX.getKey(), "1K");
+    try (AccumuloClient c = Accumulo.newClient().from(props).build()) {
+      SortedSet<Text> splits = new TreeSet<>();
+      for (int i = 50; i < 1000; i += 50) {
+        splits.add(new Text(String.format("%04d", i)));
+      }
+      c.tableOperations().create(table, new NewTableConfiguration().withSplits(splits));
+
+      try (BatchWriter bw = c.createBatchWriter(table)) {
+        for (int i = 0; i < 1000; i++) {
+          Mutation m = new Mutation(String.format("%04d", i));
+          m.put("f", "q", Integer.toString(i));
+          bw.addMutation(m);
+        }
+      }
+
+      for (Range range : List.of(new Range(), new Range("0123", "0876"))) {
+        try (Scanner s = c.createScanner(table, new Authorizations())) {
+          s.setRange(range);
+          s.setBatchSize(7);
+
+          int expected = range.getStartKey() == null ? 0 : 123;
+          for (Entry<Key,Value> entry : s) {
+            assertEquals(String.format("%04d", expected), entry.getKey().getRowData().toString());
+            assertEquals(Integer.toString(expected), entry.getValue().toString());
+            expected++;
+          }
+          assertEquals(range.getStartKey() == null ? 1000 : 877, expected);
+        }
+      }
+    }
+  }
 }
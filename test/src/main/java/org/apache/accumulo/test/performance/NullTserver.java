@@ -139,6 +139,11 @@ public class NullTserver {
       return null;
     }
 
+    @Override
+    public List<ScanResult> continueScanBatches(TInfo tinfo, long scanID, int credits) {
+      return null;
+    }
+
     @Override
     public void splitTablet(TInfo tinfo, TCredentials credentials, TKeyExtent extent,
         ByteBuffer splitPoint) {
@@ -276,6 +281,18 @@ public class NullTserver {
     public TSummaries contiuneGetSummaries(TInfo tinfo, long sessionId) {
       return null;
     }
+
+    @Override
+    public long countEntries(TInfo tinfo, TCredentials credentials, TKeyExtent extent,
+        TRange range) {
+      return 0;
+    }
+
+    @Override
+    public boolean hasEntries(TInfo tinfo, TCredentials credentials, TKeyExtent extent,
+        TRange range) {
+      return false;
+    }
   }
 
   static class Opts extends Help {